@@ -1,12 +1,27 @@
 package sigma.software.leovegas.drugstore.accountancy.client
 
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
+import feign.AsyncClient
+import feign.AsyncFeign
+import feign.Client
 import feign.Feign
 import feign.Logger
+import feign.Request
 import feign.jackson.JacksonDecoder
 import feign.jackson.JacksonEncoder
-import feign.slf4j.Slf4jLogger
+import feign.okhttp.OkHttpClient
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tags
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import okhttp3.ConnectionPool
+import okhttp3.Protocol
+import org.springframework.beans.factory.DisposableBean
 import org.springframework.beans.factory.ObjectFactory
+import org.springframework.beans.factory.ObjectProvider
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass
 import org.springframework.boot.autoconfigure.http.HttpMessageConverters
@@ -17,37 +32,109 @@ import org.springframework.cloud.openfeign.support.SpringEncoder
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
 import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory
 import sigma.software.leovegas.drugstore.accountancy.client.proto.AccountancyClientProto
+import sigma.software.leovegas.drugstore.accountancy.client.proto.AccountancyClientProtoAsync
+import sigma.software.leovegas.drugstore.api.http.ConnectionLimitingClient
+import sigma.software.leovegas.drugstore.api.tracing.SampledFeignLogger
+import sigma.software.leovegas.drugstore.api.tracing.TracingSettings
 
 @Configuration
 @ConditionalOnMissingClass
 @EnableConfigurationProperties(AccountancyProperties::class)
-class AccountancyClientAutoConfiguration(private val messageConverters: ObjectFactory<HttpMessageConverters>) {
+class AccountancyClientAutoConfiguration(
+    private val messageConverters: ObjectFactory<HttpMessageConverters>,
+) : DisposableBean {
+
+    private val asyncExecutors = CopyOnWriteArrayList<ExecutorService>()
 
     @Bean
     @ConditionalOnMissingBean
-    fun accountancyClient(props: AccountancyProperties): AccountancyClient =
+    fun accountancyClient(
+        props: AccountancyProperties,
+        accountancyHttpClient: Client,
+        tracingSettings: TracingSettings,
+    ): AccountancyClient =
         Feign
             .builder()
-            .logger(Slf4jLogger())
-            .logLevel(Logger.Level.FULL)
+            .client(accountancyHttpClient)
+            .options(props.requestOptions())
+            .logger(SampledFeignLogger(tracingSettings))
+            .logLevel(Logger.Level.BASIC)
             .encoder(JacksonEncoder(listOf(JavaTimeModule())))
             .decoder(JacksonDecoder(listOf(JavaTimeModule())))
             .target(AccountancyClient::class.java, "http://${props.host}:${props.port}")
 
     @Bean
     @ConditionalOnMissingBean
-    fun accountancyClientProto(props: AccountancyProperties): AccountancyClientProto =
+    fun accountancyClientProto(
+        props: AccountancyProperties,
+        accountancyHttpClient: Client,
+        tracingSettings: TracingSettings,
+    ): AccountancyClientProto =
         Feign
             .builder()
+            .client(accountancyHttpClient)
+            .options(props.requestOptions())
             .encoder(SpringEncoder(messageConverters))
             .decoder(ResponseEntityDecoder(SpringDecoder(this.messageConverters)))
-            .logger(Slf4jLogger())
-            .logLevel(Logger.Level.FULL)
+            .logger(SampledFeignLogger(tracingSettings))
+            .logLevel(Logger.Level.BASIC)
             .target(AccountancyClientProto::class.java, "http://${props.host}:${props.port}")
 
+    @Bean
+    @ConditionalOnMissingBean
+    fun accountancyClientProtoAsync(
+        props: AccountancyProperties,
+        accountancyHttpClient: Client,
+        tracingSettings: TracingSettings,
+    ): AccountancyClientProtoAsync =
+        AsyncFeign
+            .asyncBuilder<Any>()
+            .client(AsyncClient.Default(accountancyHttpClient, asyncExecutor(props.maxConnections)))
+            .options(props.requestOptions())
+            .encoder(SpringEncoder(messageConverters))
+            .decoder(ResponseEntityDecoder(SpringDecoder(this.messageConverters)))
+            .logger(SampledFeignLogger(tracingSettings))
+            .logLevel(Logger.Level.BASIC)
+            .target(AccountancyClientProtoAsync::class.java, "http://${props.host}:${props.port}")
+
     @Bean
     @ConditionalOnMissingBean
     fun accountancyProtobufHttpMessageConverters(): ProtobufHttpMessageConverter =
         ProtobufHttpMessageConverter()
+
+    @Bean
+    @ConditionalOnMissingBean(name = ["accountancyHttpClient"])
+    fun accountancyHttpClient(props: AccountancyProperties, meterRegistry: ObjectProvider<MeterRegistry>): Client {
+        val connectionPool =
+            ConnectionPool(props.maxIdleConnections, props.keepAlive.toMillis(), TimeUnit.MILLISECONDS)
+        meterRegistry.ifAvailable {
+            OkHttpConnectionPoolMetrics(connectionPool, Tags.of("client", "accountancy")).bindTo(it)
+        }
+        val okHttpClient = OkHttpClient(
+            okhttp3.OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .connectTimeout(props.connectTimeout)
+                .readTimeout(props.readTimeout)
+                .callTimeout(props.callTimeout)
+                .protocols(if (props.http2) listOf(Protocol.H2_PRIOR_KNOWLEDGE) else listOf(Protocol.HTTP_1_1))
+                .build()
+        )
+        return ConnectionLimitingClient(okHttpClient, props.maxConnections, props.readTimeout)
+    }
+
+    override fun destroy() = asyncExecutors.forEach { it.shutdown() }
+
+    // async calls wait for a connection permit anyway, so threads beyond max-connections would only sit blocked
+    private fun asyncExecutor(maxConnections: Int): ExecutorService =
+        Executors.newFixedThreadPool(maxConnections, CustomizableThreadFactory("accountancy-client-async-"))
+            .also { asyncExecutors.add(it) }
+
+    private fun AccountancyProperties.requestOptions() =
+        Request.Options(
+            connectTimeout.toMillis(), TimeUnit.MILLISECONDS,
+            readTimeout.toMillis(), TimeUnit.MILLISECONDS,
+            true
+        )
 }
@@ -13,4 +13,7 @@ interface AccountancyClientProto {
 
     @RequestLine("GET /api/v1/accountancy/sale-price?productNumbers={productNumbers}")
     fun getSalePrice(@Param productNumbers: List<String>): Proto.ProductsPrice
+
+    @RequestLine("GET /api/v1/accountancy/markup")
+    fun getMarkup(): Proto.DecimalValue
 }
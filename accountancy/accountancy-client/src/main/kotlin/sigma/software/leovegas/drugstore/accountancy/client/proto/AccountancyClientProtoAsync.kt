@@ -0,0 +1,14 @@
+package sigma.software.leovegas.drugstore.accountancy.client.proto
+
+import feign.Headers
+import feign.Param
+import feign.RequestLine
+import java.util.concurrent.CompletableFuture
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+
+@Headers("Content-Type: application/x-protobuf")
+interface AccountancyClientProtoAsync {
+
+    @RequestLine("GET /api/v1/accountancy/sale-price?productNumbers={productNumbers}")
+    fun getSalePrice(@Param productNumbers: List<String>): CompletableFuture<Proto.ProductsPrice>
+}
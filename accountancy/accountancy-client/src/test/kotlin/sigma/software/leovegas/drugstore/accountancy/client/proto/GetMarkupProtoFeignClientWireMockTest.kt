@@ -0,0 +1,49 @@
+package sigma.software.leovegas.drugstore.accountancy.client.proto
+
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.get
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import java.math.BigDecimal
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.http.HttpStatus
+import org.springframework.test.context.ContextConfiguration
+import sigma.software.leovegas.drugstore.api.toBigDecimal
+import sigma.software.leovegas.drugstore.api.toDecimalProto
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+
+@SpringBootApplication
+internal class GetMarkupProtoFeignClientWireMockTestApp
+
+@DisplayName("Get markup Feign Client WireMock test protobuf")
+@ContextConfiguration(classes = [GetMarkupProtoFeignClientWireMockTestApp::class])
+class GetMarkupProtoFeignClientWireMockTest @Autowired constructor(
+    val accountancyClientProto: AccountancyClientProto,
+) : WireMockTest() {
+
+    @Test
+    fun `should get markup protobuf`() {
+
+        // given
+        val markup = BigDecimal("2.50")
+
+        // and
+        stubFor(
+            get("/api/v1/accountancy/markup")
+                .willReturn(
+                    aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withProtobufResponse { markup.toDecimalProto() }
+                )
+        )
+
+        // when
+        val responseActual = accountancyClientProto.getMarkup()
+
+        // then
+        assertThat(responseActual.toBigDecimal()).isEqualTo(markup)
+    }
+}
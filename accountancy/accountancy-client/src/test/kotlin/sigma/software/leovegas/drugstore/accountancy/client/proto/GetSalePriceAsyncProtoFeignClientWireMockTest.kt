@@ -0,0 +1,52 @@
+package sigma.software.leovegas.drugstore.accountancy.client.proto
+
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.get
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import java.math.BigDecimal
+import java.util.concurrent.TimeUnit
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.http.HttpStatus
+import org.springframework.test.context.ContextConfiguration
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.api.toDecimalProto
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+
+@SpringBootApplication
+internal class GetSalePriceAsyncProtoFeignClientWireMockTestApp
+
+@DisplayName("Get products prices async Feign Client WireMock test protobuf")
+@ContextConfiguration(classes = [GetSalePriceAsyncProtoFeignClientWireMockTestApp::class])
+class GetSalePriceAsyncProtoFeignClientWireMockTest @Autowired constructor(
+    val accountancyClientProtoAsync: AccountancyClientProtoAsync,
+) : WireMockTest() {
+
+    @Test
+    fun `should get products prices asynchronously`() {
+
+        // given
+        val responseExpected = Proto.ProductsPrice.newBuilder()
+            .putItems("123", BigDecimal("20.00").toDecimalProto())
+            .build()
+
+        // and
+        stubFor(
+            get("/api/v1/accountancy/sale-price?productNumbers=123")
+                .willReturn(
+                    aResponse()
+                        .withStatus(HttpStatus.OK.value())
+                        .withProtobufResponse { responseExpected }
+                )
+        )
+
+        // when
+        val responseActual = accountancyClientProtoAsync.getSalePrice(listOf("123")).get(5, TimeUnit.SECONDS)
+
+        // then
+        assertThat(responseActual.itemsMap["123"]).isEqualTo(BigDecimal("20.00").toDecimalProto())
+    }
+}
@@ -1,11 +1,14 @@
 package sigma.software.leovegas.drugstore
 
 import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.boot.runApplication
 import org.springframework.scheduling.annotation.EnableScheduling
+import sigma.software.leovegas.drugstore.accountancy.PricingProperties
 
 @EnableScheduling
 @SpringBootApplication
+@EnableConfigurationProperties(PricingProperties::class)
 class AccountancyApplication
 
 fun main(args: Array<String>) {
@@ -1,20 +1,32 @@
 package sigma.software.leovegas.drugstore.accountancy
 
 import java.util.function.Consumer
+import org.springframework.boot.context.event.ApplicationReadyEvent
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
+import org.springframework.context.event.EventListener
+import org.springframework.messaging.Message
 import sigma.software.leovegas.drugstore.accountancy.api.CreateOutcomeInvoiceEvent
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.ProtobufBatchConsumers
 
 
 @Configuration
 class AccountancyEventHandler(
-    val accountancyService: AccountancyService
+    val accountancyService: AccountancyService,
+    val batchConsumers: ProtobufBatchConsumers,
 ) {
 
     @Bean
-    fun createOutcomeInvoiceEventHandler() = Consumer<Proto.CreateOutcomeInvoiceEvent> {
-        accountancyService.createOutcomeInvoice(it)
-    }
+    fun createOutcomeInvoiceEventHandler(): Consumer<Message<List<Proto.CreateOutcomeInvoiceEvent>>> =
+        batchConsumers.batchConsumer(
+            "createOutcomeInvoiceEventHandler-in-0",
+            key = { it.orderNumber },
+            batch = { accountancyService.createOutcomeInvoices(it) },
+            single = { accountancyService.createOutcomeInvoice(it) },
+        )
+
+    @EventListener(ApplicationReadyEvent::class)
+    fun publishMarkup() = accountancyService.publishMarkup()
 
 }
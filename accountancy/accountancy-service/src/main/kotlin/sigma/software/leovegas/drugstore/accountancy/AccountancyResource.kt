@@ -74,6 +74,10 @@ class AccountancyResource(private val service: AccountancyService) {
     fun getSalePrice(@RequestParam("productNumbers") productNumbers: List<String>): Proto.ProductsPrice =
         service.getSalePrice(productNumbers)
 
+    @ResponseStatus(OK)
+    @GetMapping("/markup")
+    fun getMarkup(): Proto.DecimalValue = service.getMarkup()
+
     // protobuf request ----------------------------->
 
     @ResponseStatus(OK)
@@ -1,7 +1,6 @@
 package sigma.software.leovegas.drugstore.accountancy
 
 import java.math.BigDecimal
-import java.math.RoundingMode
 import java.util.UUID
 import javax.transaction.Transactional
 import org.slf4j.Logger
@@ -17,9 +16,13 @@ import sigma.software.leovegas.drugstore.api.messageSpliterator
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
 import sigma.software.leovegas.drugstore.api.toBigDecimal
 import sigma.software.leovegas.drugstore.api.toDecimalProto
+import sigma.software.leovegas.drugstore.api.toMoney
+import sigma.software.leovegas.drugstore.api.toSalePrice
 import sigma.software.leovegas.drugstore.product.api.CreateProductRequest
 import sigma.software.leovegas.drugstore.product.api.CreateProductsEvent
 import sigma.software.leovegas.drugstore.product.client.proto.ProductClientProto
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.OutboxEvent
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.OutboxEventRepository
 import sigma.software.leovegas.drugstore.store.client.proto.StoreClientProto
 
 @Service
@@ -28,60 +31,72 @@ class AccountancyService @Autowired constructor(
     val invoiceRepository: InvoiceRepository,
     val storeClientProto: StoreClientProto,
     val productClientProto: ProductClientProto,
+    val pricingProperties: PricingProperties,
     val eventStream: StreamBridge,
+    val outboxEventRepository: OutboxEventRepository,
 ) {
 
     val logger: Logger = LoggerFactory.getLogger(AccountancyService::class.java)
 
     fun createOutcomeInvoice(event: Proto.CreateOutcomeInvoiceEvent): ConfirmOrderResponse =
-        event.validate(invoiceRepository::getInvoiceByOrderNumberAndStatusLike).run {
+        createOutcomeInvoices(listOf(event)).single()
 
-            val productNumbers = productItemsList.map { it.productNumber }.distinct()
-            val productQuantities = productItemsList.associate { it.productNumber to it.quantity }
+    fun createOutcomeInvoices(events: List<Proto.CreateOutcomeInvoiceEvent>): List<ConfirmOrderResponse> =
+        events.onEach { it.validate(invoiceRepository::getInvoiceByOrderNumberAndStatusLike) }.run {
+
+            val productNumbers = flatMap { it.productItemsList }.map { it.productNumber }.distinct()
             val productPrice = getSalePrice(productNumbers)
 
-            val list =
+            val details =
                 runCatching { productClientProto.getProductsDetailsByProductNumbers(productNumbers).productsList }
                     .onFailure { error -> throw ProductServiceResponseException(error.localizedMessage.messageSpliterator()) }
                     .getOrNull()
                     .orEmpty()
-            if (list.isEmpty()) throw OrderContainsInvalidProductsException(productNumbers)
-            logger.info("Received products details $list")
-
-            val invoiceItems = list.map {
-                if (it.quantity < productQuantities.getValue(it.productNumber))              // todo
-                    logger.error(
-                        " Not enough quantity of product ${it.productNumber}, you should buy: " +
-                                "${productQuantities.getValue(it.productNumber) - it.quantity}" +
-                                " item(s) from dealer for realization of order $orderNumber"
-                    )
+                    .associateBy { it.productNumber }
+            logger.debug("Received products details {}", details.values)
+
+            val invoices = map { event ->
+                val productQuantities = event.productItemsList.associate { it.productNumber to it.quantity }
+                val list = productQuantities.keys.mapNotNull { details[it] }
+                if (list.isEmpty()) throw OrderContainsInvalidProductsException(productQuantities.keys.toList())
+
+                val invoiceItems = list.map {
+                    if (it.quantity < productQuantities.getValue(it.productNumber))              // todo
+                        logger.error(
+                            " Not enough quantity of product ${it.productNumber}, you should buy: " +
+                                    "${productQuantities.getValue(it.productNumber) - it.quantity}" +
+                                    " item(s) from dealer for realization of order ${event.orderNumber}"
+                        )
 
-                ProductItem(
-                    productNumber = it.productNumber,
-                    name = it.name,
-                    price = productPrice.itemsMap.getValue(it.productNumber).toBigDecimal(),
-                    quantity = productQuantities.getValue(it.productNumber),
-                )
-            }
+                    ProductItem(
+                        productNumber = it.productNumber,
+                        name = it.name,
+                        price = productPrice.itemsMap.getValue(it.productNumber).toBigDecimal(),
+                        quantity = productQuantities.getValue(it.productNumber),
+                    )
+                }
 
-            val invoice = invoiceRepository.save(
                 Invoice(
                     invoiceNumber = UUID.randomUUID().toString(),
                     type = InvoiceType.OUTCOME,
-                    orderNumber = orderNumber,
+                    orderNumber = event.orderNumber,
                     status = InvoiceStatus.CREATED,
                     productItems = invoiceItems.toSet(),
                     total = invoiceItems.map { it.price.multiply(BigDecimal(it.quantity)) }.reduce(BigDecimal::plus)
                 )
-            )
-            logger.info("Saved invoice $invoice")
+            }
 
-            val confirmOrderResponse = ConfirmOrderResponse(
-                orderNumber = invoice.orderNumber,
-                amount = invoice.total
-            )
-            logger.info("Order confirmed $confirmOrderResponse")
-            confirmOrderResponse
+            val saved = invoiceRepository.saveAll(invoices)
+            logger.debug("Saved {} invoices", saved.size)
+
+            val confirmOrderResponses = saved.map {
+                ConfirmOrderResponse(
+                    orderNumber = it.orderNumber,
+                    amount = it.total
+                )
+            }
+            logger.debug("Orders confirmed {}", confirmOrderResponses)
+            confirmOrderResponses
         }
 
     fun createIncomeInvoice(invoiceRequest: CreateIncomeInvoiceRequest): ConfirmOrderResponse =
@@ -92,14 +107,12 @@ class AccountancyService @Autowired constructor(
                     .setProductNumber(UUID.randomUUID().toString())
                     .setName(it.name)
                     .setQuantity(it.quantity)
-                    .setPrice(it.price.setScale(2, RoundingMode.HALF_EVEN).toDecimalProto())
+                    .setPrice(it.price.toMoney().toDecimalProto())
                     .build()
             }
 
             val createProtoEvent = Proto.CreateProductsEvent.newBuilder().addAllProducts(productsToCreate).build()
-                runCatching { eventStream.send("createProductEventPublisher-out-0", createProtoEvent) }
-                    .onFailure { error -> throw ProductServiceResponseException(error.localizedMessage.messageSpliterator()) }
-                    .getOrThrow()
+            outboxEventRepository.save(OutboxEvent("createProductEventPublisher-out-0", createProtoEvent))
 
             val invoice = invoiceRepository.save(
                 Invoice(
@@ -109,7 +122,7 @@ class AccountancyService @Autowired constructor(
                     orderNumber = UUID.randomUUID().toString(),
                     total = productsToCreate.map { it.price.toBigDecimal().multiply(BigDecimal(it.quantity)) }
                         .reduce(BigDecimal::plus)
-                        .setScale(2, RoundingMode.HALF_EVEN),
+                        .toMoney(),
                     productItems = productsToCreate.map {
                         ProductItem(
                             productNumber = it.productNumber,
@@ -121,18 +134,18 @@ class AccountancyService @Autowired constructor(
                 )
             )
 
-            logger.info("Saved invoice $invoice")
+            logger.debug("Saved invoice {}", invoice)
             val confirmOrderResponse = ConfirmOrderResponse(
                 orderNumber = invoice.orderNumber,
                 amount = invoice.total,
             )
-            logger.info("Order confirmed $confirmOrderResponse")
+            logger.debug("Order confirmed {}", confirmOrderResponse)
             return@run confirmOrderResponse
         }
 
     fun getInvoiceByInvoiceNumber(invoiceNumber: String): InvoiceResponse =
         invoiceNumber.validate(invoiceRepository::getInvoiceByInvoiceNumber).run {
-            logger.info("Invoice found $this")
+            logger.debug("Invoice found {}", this)
             this.toInvoiceResponseWithStatus()
         }
 
@@ -144,7 +157,7 @@ class AccountancyService @Autowired constructor(
             )
         }
             .run {
-                logger.info("Invoice found $this")
+                logger.debug("Invoice found {}", this)
                 if (status != InvoiceStatus.PAID) throw NotPaidInvoiceException(orderNumber)
                 val invoiceItems = productItems.map {
                     Proto.Item.newBuilder()
@@ -152,20 +165,20 @@ class AccountancyService @Autowired constructor(
                         .setQuantity(it.quantity)
                         .build()
                 }
-                logger.info("Invoice details $productItems")
+                logger.debug("Invoice details {}", productItems)
                 return@run Proto.InvoiceDetails.newBuilder().addAllItems(invoiceItems).build()
             }
 
     fun payInvoice(orderNumber: String, money: BigDecimal): ConfirmOrderResponse =
         orderNumber.validate(invoiceRepository::getInvoiceByOrderNumber).run {
-            logger.info("Invoice found $this")
+            logger.debug("Invoice found {}", this)
 
             if (this.status != InvoiceStatus.CREATED) throw InvalidStatusOfInvoice()
             if (money < this.total) throw NotEnoughMoneyException()
 
             val invoiceToSave = this.copy(status = InvoiceStatus.PAID)
             val invoice = invoiceRepository.saveAndFlush(invoiceToSave)
-            logger.info("invoice paid $invoice")
+            logger.debug("invoice paid {}", invoice)
             return@run invoice.toConfirmOrderResponse()
         }
 
@@ -183,7 +196,7 @@ class AccountancyService @Autowired constructor(
 
             val invoiceToSave = this.copy(status = InvoiceStatus.REFUND)
             val invoice = invoiceRepository.saveAndFlush(invoiceToSave)
-            logger.info("invoice refund $invoice")
+            logger.debug("invoice refund {}", invoice)
             return@run invoice.toConfirmOrderResponse()
         }
 
@@ -194,20 +207,26 @@ class AccountancyService @Autowired constructor(
 
             val invoiceToSave = this.copy(status = InvoiceStatus.CANCELLED)
             val invoice = invoiceRepository.saveAndFlush(invoiceToSave)
-            logger.info("invoice cancelled $invoice")
+            logger.debug("invoice cancelled {}", invoice)
             return@run invoice.toConfirmOrderResponse()
         }
 
     fun getSalePrice(productNumbers: List<String>): Proto.ProductsPrice =
         productNumbers.validate().run {
-            val profitTimes = BigDecimal(2.00)
             val prices = runCatching {
                 productClientProto.getProductPrice(this).itemsMap
-                    .mapValues { it.value.toBigDecimal().multiply(profitTimes).toDecimalProto() }
+                    .mapValues { it.value.toBigDecimal().toSalePrice(pricingProperties.markup).toDecimalProto() }
             }
                 .onFailure { error -> throw ProductServiceResponseException(error.localizedMessage.messageSpliterator()) }
                 .getOrThrow()
-            logger.info("Received prices $prices")
+            logger.debug("Received prices {}", prices)
             return@run Proto.ProductsPrice.newBuilder().putAllItems(prices).build()
         }
+
+    fun getMarkup(): Proto.DecimalValue = pricingProperties.markup.toDecimalProto()
+
+    fun publishMarkup() {
+        eventStream.send("updateMarkupEventPublisher-out-0", getMarkup())
+        logger.info("Published markup ${pricingProperties.markup}")
+    }
 }
@@ -7,16 +7,17 @@ import javax.persistence.Column
 import javax.persistence.Entity
 import javax.persistence.EnumType
 import javax.persistence.Enumerated
-import javax.persistence.FetchType
 import javax.persistence.GeneratedValue
 import javax.persistence.GenerationType
 import javax.persistence.Id
 import javax.persistence.JoinColumn
 import javax.persistence.OneToMany
 import javax.persistence.Table
+import javax.persistence.TableGenerator
 import javax.validation.constraints.DecimalMin
 import javax.validation.constraints.NotEmpty
 import javax.validation.constraints.NotNull
+import org.hibernate.annotations.BatchSize
 import org.hibernate.annotations.CreationTimestamp
 
 enum class InvoiceStatus {
@@ -38,7 +39,15 @@ enum class InvoiceType {
 data class Invoice(
     @Id
     @NotNull
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "invoice_id")
+    @TableGenerator(
+        name = "invoice_id",
+        table = "id_generator",
+        pkColumnName = "sequence_name",
+        valueColumnName = "next_val",
+        pkColumnValue = "invoice",
+        allocationSize = 50,
+    )
     @Column(name = "id", nullable = false, updatable = false)
     val id: Long? = null,
 
@@ -66,8 +75,9 @@ data class Invoice(
     val status: InvoiceStatus = InvoiceStatus.NONE,
 
     @NotEmpty
-    @JoinColumn(name = "invoice_id")
-    @OneToMany(cascade = [CascadeType.ALL], fetch = FetchType.EAGER, orphanRemoval = true)
+    @JoinColumn(name = "invoice_id", nullable = false, updatable = false)
+    @BatchSize(size = 100)
+    @OneToMany(cascade = [CascadeType.ALL], orphanRemoval = true)
     val productItems: Set<ProductItem> = setOf(),
 
     @NotNull
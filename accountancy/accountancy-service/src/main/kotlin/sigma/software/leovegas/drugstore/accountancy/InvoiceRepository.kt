@@ -2,19 +2,27 @@ package sigma.software.leovegas.drugstore.accountancy
 
 import java.time.LocalDateTime
 import java.util.Optional
+import org.springframework.data.jpa.repository.EntityGraph
 import org.springframework.data.jpa.repository.JpaRepository
 
+/**
+ * Single invoice lookups fetch their product items in the same select; lists and existence checks
+ * load items lazily, in batches of the `productItems` [org.hibernate.annotations.BatchSize].
+ */
 interface InvoiceRepository : JpaRepository<Invoice, Long> {
 
+    @EntityGraph(attributePaths = ["productItems"])
     fun getInvoiceByOrderNumber(orderNumber: String): Optional<Invoice>
 
     fun getInvoiceByOrderNumberAndStatusLike(orderNumber: String, invoiceStatus: InvoiceStatus): Optional<Invoice>
 
+    @EntityGraph(attributePaths = ["productItems"])
     fun getInvoiceByOrderNumberAndStatusNotLike(orderNumber: String, invoiceStatus: InvoiceStatus): Optional<Invoice>
 
     fun findAllByStatusAndCreatedAtLessThan(status: InvoiceStatus, expireDate: LocalDateTime): List<Invoice>
 
     fun findAllByStatus(status: InvoiceStatus): List<Invoice>
 
+    @EntityGraph(attributePaths = ["productItems"])
     fun getInvoiceByInvoiceNumber(invoiceNumber: String): Optional<Invoice>
 }
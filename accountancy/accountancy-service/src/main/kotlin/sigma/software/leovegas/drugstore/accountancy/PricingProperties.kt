@@ -0,0 +1,11 @@
+package sigma.software.leovegas.drugstore.accountancy
+
+import java.math.BigDecimal
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.ConstructorBinding
+
+@ConstructorBinding
+@ConfigurationProperties("accountancy.pricing")
+data class PricingProperties(
+    val markup: BigDecimal = BigDecimal("2"),
+)
@@ -7,6 +7,7 @@ import javax.persistence.GeneratedValue
 import javax.persistence.GenerationType
 import javax.persistence.Id
 import javax.persistence.Table
+import javax.persistence.TableGenerator
 import javax.validation.constraints.DecimalMax
 import javax.validation.constraints.DecimalMin
 import javax.validation.constraints.Min
@@ -17,7 +18,15 @@ import javax.validation.constraints.NotNull
 data class ProductItem(
     @Id
     @NotNull
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_item_id")
+    @TableGenerator(
+        name = "product_item_id",
+        table = "id_generator",
+        pkColumnName = "sequence_name",
+        valueColumnName = "next_val",
+        pkColumnValue = "product_item",
+        allocationSize = 50,
+    )
     @Column(name = "id", nullable = false, updatable = false)
     val id: Long? = null,
 
@@ -0,0 +1,125 @@
+package sigma.software.leovegas.drugstore.accountancy
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import java.math.BigDecimal
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentCaptor
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.verifyNoInteractions
+import org.springframework.amqp.rabbit.core.RabbitTemplate
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.Qualifier
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.boot.test.mock.mockito.MockBean
+import org.springframework.http.HttpStatus
+import org.springframework.messaging.MessageChannel
+import org.springframework.messaging.support.MessageBuilder
+import org.springframework.transaction.support.TransactionTemplate
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.api.toDecimalProto
+import sigma.software.leovegas.drugstore.extensions.withProtobufResponse
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+import org.springframework.amqp.core.Message as AmqpMessage
+
+@DisplayName("Accountancy event handler test")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = ["spring.cloud.stream.rabbit.protobuf.listeners.createOutcomeInvoiceEventHandler-in-0.lanes=1"]
+)
+class AccountancyEventHandlerTest @Autowired constructor(
+    val transactionTemplate: TransactionTemplate,
+    val invoiceRepository: InvoiceRepository,
+    @Qualifier("createOutcomeInvoiceEventHandler-in-0") val channel: MessageChannel,
+) : WireMockTest() {
+
+    @MockBean
+    lateinit var rabbitTemplate: RabbitTemplate
+
+    @BeforeEach
+    fun setup() {
+        transactionTemplate.execute { invoiceRepository.deleteAll() }
+        stubFor(
+            WireMock.get("/api/v1/products/details?productNumbers=1")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductDetailsResponse.newBuilder()
+                                .addProducts(
+                                    Proto.ProductDetailsItem.newBuilder()
+                                        .setName("test1").setProductNumber("1").setQuantity(10)
+                                        .setPrice(BigDecimal("20.00").toDecimalProto())
+                                )
+                                .build()
+                        }
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+        stubFor(
+            WireMock.get("/api/v1/products/1/price")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductsPrice.newBuilder().putItems("1", BigDecimal("20.00").toDecimalProto()).build()
+                        }
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+        WireMock.resetAllRequests()
+    }
+
+    private fun outcomeInvoiceEvent(orderNumber: String, quantity: Int?) =
+        Proto.CreateOutcomeInvoiceEvent.newBuilder()
+            .setOrderNumber(orderNumber)
+            .apply { quantity?.let { addProductItems(Proto.Item.newBuilder().setProductNumber("1").setQuantity(it)) } }
+            .build()
+
+    @Test
+    fun `should create outcome invoices of a batch with one product service round trip`() {
+
+        // given
+        val events = listOf(outcomeInvoiceEvent("batch-1", 1), outcomeInvoiceEvent("batch-2", 2))
+
+        // when
+        val actual = channel.send(MessageBuilder.withPayload(events).build())
+
+        // then
+        assertThat(actual).isTrue
+        assertThat(invoiceRepository.getInvoiceByOrderNumber("batch-1")).isPresent
+        assertThat(invoiceRepository.getInvoiceByOrderNumber("batch-2")).isPresent
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/api/v1/products/details?productNumbers=1")))
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/api/v1/products/1/price")))
+        verifyNoInteractions(rabbitTemplate)
+    }
+
+    @Test
+    fun `should dead letter only the bad event of a batch and create the rest`() {
+
+        // given
+        val events = listOf(
+            outcomeInvoiceEvent("batch-3", 1),
+            outcomeInvoiceEvent("batch-4", null),
+            outcomeInvoiceEvent("batch-5", 1),
+        )
+
+        // and
+        val deadLettered = ArgumentCaptor.forClass(AmqpMessage::class.java)
+
+        // when
+        val actual = channel.send(MessageBuilder.withPayload(events).build())
+
+        // then
+        assertThat(actual).isTrue
+        assertThat(invoiceRepository.getInvoiceByOrderNumber("batch-3")).isPresent
+        assertThat(invoiceRepository.getInvoiceByOrderNumber("batch-4")).isEmpty
+        assertThat(invoiceRepository.getInvoiceByOrderNumber("batch-5")).isPresent
+        verify(rabbitTemplate, times(1)).send(anyString(), anyString(), deadLettered.capture())
+        assertThat(Proto.CreateOutcomeInvoiceEvent.parseFrom(deadLettered.value.body)).isEqualTo(events[1])
+    }
+}
@@ -28,12 +28,18 @@ import sigma.software.leovegas.drugstore.extensions.withProtobufResponse
 import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
 import sigma.software.leovegas.drugstore.product.api.CreateProductRequest
 import sigma.software.leovegas.drugstore.product.api.ProductDetailsResponse
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.OutboxEventRepository
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.OutboxRelay
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.ProcessedMessageStore
 
 @DisplayName("Accountancy Service test")
 class AccountancyServiceTest @Autowired constructor(
     val transactionTemplate: TransactionTemplate,
     val invoiceRepository: InvoiceRepository,
     val service: AccountancyService,
+    val outboxEventRepository: OutboxEventRepository,
+    val outboxRelay: OutboxRelay,
+    val processedMessageStore: ProcessedMessageStore,
     val objectMapper: ObjectMapper,
 ) : WireMockTest() {
 
@@ -198,6 +204,67 @@ class AccountancyServiceTest @Autowired constructor(
         assertThat(actual.amount).isEqualTo(BigDecimal("60.00")) // sum of all quantity * price
     }
 
+    @Test
+    fun `should write create products event to outbox`() {
+
+        // setup
+        outboxRelay.relay()
+
+        // given
+        val invoiceRequest = CreateIncomeInvoiceRequest(
+            productItems = listOf(
+                ProductItemDtoRequest(
+                    name = "test1",
+                    quantity = 3,
+                    price = BigDecimal("10.00")
+                )
+            )
+        )
+
+        // when
+        service.createIncomeInvoice(invoiceRequest)
+
+        // then
+        val pending = outboxEventRepository.findFirst(10).single()
+        val event = Proto.CreateProductsEvent.parseFrom(pending.payload)
+        assertThat(pending.binding).isEqualTo("createProductEventPublisher-out-0")
+        assertThat(event.productsList.single().name).isEqualTo("test1")
+    }
+
+    @Test
+    fun `should remember only committed message ids`() {
+
+        // given
+        val committed = "committed-${System.nanoTime()}"
+        val rolledBack = "rolled-back-${System.nanoTime()}"
+
+        // when
+        transactionTemplate.execute { processedMessageStore.claim(listOf(committed)) }
+        transactionTemplate.execute {
+            processedMessageStore.claim(listOf(rolledBack))
+            it.setRollbackOnly()
+        }
+
+        // then
+        assertThat(processedMessageStore.processed(listOf(committed, rolledBack))).containsExactly(committed)
+    }
+
+    @Test
+    fun `should claim an already processed message id as processed instead of failing`() {
+
+        // given
+        val first = "first-${System.nanoTime()}"
+        val second = "second-${System.nanoTime()}"
+        transactionTemplate.execute { processedMessageStore.claim(listOf(first)) }
+
+        // when
+        val claimed = transactionTemplate.execute { processedMessageStore.claim(listOf(first, second)) }
+
+        // then
+        assertThat(claimed).containsExactly(second)
+        assertThat(processedMessageStore.processed(listOf(first, second))).containsExactlyInAnyOrder(first, second)
+    }
+
 //    @Test           // todo
 //    fun `should not create invoice with order id already in the another invoice`() {
 //
@@ -739,4 +806,14 @@ class AccountancyServiceTest @Autowired constructor(
         assertThat(priceMap.itemsMap["1"]).isEqualTo(BigDecimal("1.23").multiply(BigDecimal("2")).toDecimalProto())
         assertThat(priceMap.itemsMap["2"]).isEqualTo(BigDecimal("1.23").multiply(BigDecimal("2")).toDecimalProto())
     }
+
+    @Test
+    fun `should get markup`() {
+
+        // when
+        val markup = service.getMarkup()
+
+        // then
+        assertThat(markup).isEqualTo(BigDecimal("2").toDecimalProto())
+    }
 }
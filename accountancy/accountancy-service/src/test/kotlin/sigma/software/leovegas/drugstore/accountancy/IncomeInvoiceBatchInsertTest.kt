@@ -0,0 +1,79 @@
+package sigma.software.leovegas.drugstore.accountancy
+
+import java.math.BigDecimal
+import java.util.concurrent.CopyOnWriteArrayList
+import org.assertj.core.api.Assertions.assertThat
+import org.hibernate.resource.jdbc.spi.StatementInspector
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.transaction.support.TransactionTemplate
+import sigma.software.leovegas.drugstore.accountancy.api.CreateIncomeInvoiceRequest
+import sigma.software.leovegas.drugstore.accountancy.api.ProductItemDtoRequest
+
+@TestInstance(PER_CLASS)
+@DisplayName("Income invoice batch insert test")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = [
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=sigma.software.leovegas.drugstore." +
+                "accountancy.IncomeInvoiceBatchInsertTest\$RecordingStatementInspector",
+        "spring.jpa.show-sql=false",
+    ]
+)
+class IncomeInvoiceBatchInsertTest @Autowired constructor(
+    val transactionTemplate: TransactionTemplate,
+    val invoiceRepository: InvoiceRepository,
+    val service: AccountancyService,
+) {
+
+    // records every statement Hibernate prepares; a jdbc batch is prepared once
+    class RecordingStatementInspector : StatementInspector {
+
+        override fun inspect(sql: String): String = sql.also { statements.add(it.lowercase()) }
+
+        companion object {
+            val statements = CopyOnWriteArrayList<String>()
+        }
+    }
+
+    @Test
+    fun `should insert income invoice items in jdbc batches`() {
+
+        // setup
+        transactionTemplate.execute {
+            invoiceRepository.deleteAll()
+        }
+
+        // given
+        val itemsCount = 5_000
+        val invoiceRequest = CreateIncomeInvoiceRequest(
+            productItems = (1..itemsCount).map {
+                ProductItemDtoRequest(
+                    name = "test$it",
+                    quantity = 1,
+                    price = BigDecimal("10.00")
+                )
+            }
+        )
+
+        // and
+        val statements = RecordingStatementInspector.statements
+        statements.clear()
+
+        // when
+        val actual = transactionTemplate.execute { service.createIncomeInvoice(invoiceRequest) }
+
+        // then
+        assertThat(actual?.amount).isEqualTo(BigDecimal("50000.00"))
+
+        // and
+        // one insert per batch of 50 items (hibernate.jdbc.batch_size), the invoice_id is written by the insert
+        assertThat(statements.count { it.startsWith("insert into product_item") }).isEqualTo(itemsCount / 50)
+        assertThat(statements.count { it.startsWith("insert into invoice") }).isEqualTo(1)
+        assertThat(statements.filter { it.startsWith("update product_item") }).isEmpty()
+    }
+}
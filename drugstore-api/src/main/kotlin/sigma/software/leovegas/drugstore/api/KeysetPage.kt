@@ -0,0 +1,25 @@
+package sigma.software.leovegas.drugstore.api
+
+import java.util.Base64
+
+/**
+ * One page of a keyset (seek) pagination. [next] is an opaque token to pass back for the following page,
+ * it is null on the last page.
+ */
+data class KeysetPage<T>(
+    val items: List<T> = listOf(),
+    val next: String? = null,
+)
+
+fun keysetToken(sortKey: Any, id: Long): String =
+    Base64.getUrlEncoder().withoutPadding().encodeToString("$sortKey|$id".toByteArray(Charsets.UTF_8))
+
+/**
+ * Decodes a token built by [keysetToken] into its sort key and id.
+ * Throws [IllegalArgumentException] if the token was not built by [keysetToken].
+ */
+fun String.toKeyset(): Pair<String, Long> =
+    String(Base64.getUrlDecoder().decode(this), Charsets.UTF_8).run {
+        require(contains("|")) { "Continuation token is not valid." }
+        substringBeforeLast("|") to substringAfterLast("|").toLong()
+    }
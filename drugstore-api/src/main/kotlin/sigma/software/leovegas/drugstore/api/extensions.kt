@@ -4,6 +4,7 @@ import com.google.protobuf.ByteString
 import java.math.BigDecimal
 import java.math.BigInteger
 import java.math.MathContext
+import java.math.RoundingMode
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
 
 fun String.messageSpliterator() = run {
@@ -14,6 +15,11 @@ fun String.messageSpliterator() = run {
         step1.get(6).split(".").get(0).substring(1)
 }
 
+// prices and totals are kept in cents and rounded the same way by every service
+fun BigDecimal.toMoney(): BigDecimal = setScale(2, RoundingMode.HALF_EVEN)
+
+fun BigDecimal.toSalePrice(markup: BigDecimal): BigDecimal = multiply(markup).toMoney()
+
 fun BigDecimal.toDecimalProto() = Proto.DecimalValue.newBuilder()
     .setPrecision(this.precision())
     .setScale(this.scale())
@@ -0,0 +1,92 @@
+package sigma.software.leovegas.drugstore.api.http
+
+import feign.Client
+import feign.Request
+import feign.Response
+import java.io.FilterInputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.InputStreamReader
+import java.io.Reader
+import java.nio.charset.Charset
+import java.time.Duration
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Caps the requests a synchronous [delegate] runs at once. A blocking OkHttp call holds one connection until its
+ * response body is closed, so this cap is also the number of connections opened to the one host a client targets.
+ * A request that gets no permit within [acquireTimeout] fails as an [IOException], which Feign reports as retryable.
+ */
+class ConnectionLimitingClient(
+    private val delegate: Client,
+    maxConnections: Int,
+    private val acquireTimeout: Duration,
+) : Client {
+
+    init {
+        require(maxConnections > 0) { "maxConnections must be positive, got $maxConnections" }
+    }
+
+    private val permits = Semaphore(maxConnections, true)
+
+    override fun execute(request: Request, options: Request.Options): Response {
+        val acquired = try {
+            permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)
+        } catch (e: InterruptedException) {
+            Thread.currentThread().interrupt()
+            throw IOException("Interrupted while waiting for a connection to ${request.url()}", e)
+        }
+        if (!acquired) throw IOException("No connection to ${request.url()} freed up within $acquireTimeout")
+        val permit = Permit()
+        val response = try {
+            delegate.execute(request, options)
+        } catch (e: Throwable) {
+            permit.release()
+            throw e
+        }
+        val body = response.body() ?: return response.also { permit.release() }
+        return response.toBuilder().body(PermitBody(body, permit)).build()
+    }
+
+    private inner class Permit {
+
+        private val released = AtomicBoolean()
+
+        fun release() {
+            if (released.compareAndSet(false, true)) permits.release()
+        }
+    }
+
+    // the connection goes back to the pool when the body or its stream is closed, whichever comes first
+    private class PermitBody(private val body: Response.Body, private val permit: Permit) : Response.Body {
+
+        override fun length(): Int? = body.length()
+
+        override fun isRepeatable(): Boolean = body.isRepeatable
+
+        override fun asInputStream(): InputStream =
+            object : FilterInputStream(body.asInputStream()) {
+                override fun close() {
+                    try {
+                        super.close()
+                    } finally {
+                        permit.release()
+                    }
+                }
+            }
+
+        override fun asReader(): Reader = InputStreamReader(asInputStream(), Charsets.UTF_8)
+
+        override fun asReader(charset: Charset): Reader = InputStreamReader(asInputStream(), charset)
+
+        override fun close() {
+            try {
+                body.close()
+            } finally {
+                permit.release()
+            }
+        }
+    }
+}
@@ -11001,6 +11001,2732 @@ public final class Proto {
 
   }
 
+  public interface InvoiceDetailsOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:sigma.software.leovegas.drugstore.api.ProductQuantityList)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+     */
+    java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> 
+        getItemsList();
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+     */
+    sigma.software.leovegas.drugstore.api.protobuf.Proto.Item getItems(int index);
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+     */
+    int getItemsCount();
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+     */
+    java.util.List<? extends sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> 
+        getItemsOrBuilderList();
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+     */
+    sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder getItemsOrBuilder(
+        int index);
+  }
+  /**
+   * Protobuf type {@code sigma.software.leovegas.drugstore.api.ProductQuantityList}
+   */
+  public  static final class ProductQuantityList extends
+      com.google.protobuf.GeneratedMessageV3 implements
+      // @@protoc_insertion_point(message_implements:sigma.software.leovegas.drugstore.api.ProductQuantityList)
+      InvoiceDetailsOrBuilder {
+  private static final long serialVersionUID = 0L;
+    // Use ProductQuantityList.newBuilder() to construct.
+    private ProductQuantityList(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+      super(builder);
+    }
+    private ProductQuantityList() {
+      items_ = java.util.Collections.emptyList();
+    }
+
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+    getUnknownFields() {
+      return this.unknownFields;
+    }
+    private ProductQuantityList(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      this();
+      if (extensionRegistry == null) {
+        throw new java.lang.NullPointerException();
+      }
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            case 10: {
+              if (!((mutable_bitField0_ & 0x00000001) != 0)) {
+                items_ = new java.util.ArrayList<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item>();
+                mutable_bitField0_ |= 0x00000001;
+              }
+              items_.add(
+                  input.readMessage(sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.PARSER, extensionRegistry));
+              break;
+            }
+            default: {
+              if (!parseUnknownField(
+                  input, unknownFields, extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000001) != 0)) {
+          items_ = java.util.Collections.unmodifiableList(items_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_ProductQuantityList_descriptor;
+    }
+
+    @java.lang.Override
+    protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_ProductQuantityList_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList.class, sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList.Builder.class);
+    }
+
+    public static final int ITEMS_FIELD_NUMBER = 1;
+    private java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> items_;
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+     */
+    public java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> getItemsList() {
+      return items_;
+    }
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+     */
+    public java.util.List<? extends sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> 
+        getItemsOrBuilderList() {
+      return items_;
+    }
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+     */
+    public int getItemsCount() {
+      return items_.size();
+    }
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+     */
+    public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item getItems(int index) {
+      return items_.get(index);
+    }
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+     */
+    public sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder getItemsOrBuilder(
+        int index) {
+      return items_.get(index);
+    }
+
+    private byte memoizedIsInitialized = -1;
+    @java.lang.Override
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      for (int i = 0; i < getItemsCount(); i++) {
+        if (!getItems(i).isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    @java.lang.Override
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      for (int i = 0; i < items_.size(); i++) {
+        output.writeMessage(1, items_.get(i));
+      }
+      unknownFields.writeTo(output);
+    }
+
+    @java.lang.Override
+    public int getSerializedSize() {
+      int size = memoizedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      for (int i = 0; i < items_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, items_.get(i));
+      }
+      size += unknownFields.getSerializedSize();
+      memoizedSize = size;
+      return size;
+    }
+
+    @java.lang.Override
+    public boolean equals(final java.lang.Object obj) {
+      if (obj == this) {
+       return true;
+      }
+      if (!(obj instanceof sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList)) {
+        return super.equals(obj);
+      }
+      sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList other = (sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList) obj;
+
+      if (!getItemsList()
+          .equals(other.getItemsList())) return false;
+      if (!unknownFields.equals(other.unknownFields)) return false;
+      return true;
+    }
+
+    @java.lang.Override
+    public int hashCode() {
+      if (memoizedHashCode != 0) {
+        return memoizedHashCode;
+      }
+      int hash = 41;
+      hash = (19 * hash) + getDescriptor().hashCode();
+      if (getItemsCount() > 0) {
+        hash = (37 * hash) + ITEMS_FIELD_NUMBER;
+        hash = (53 * hash) + getItemsList().hashCode();
+      }
+      hash = (29 * hash) + unknownFields.hashCode();
+      memoizedHashCode = hash;
+      return hash;
+    }
+
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parseFrom(
+        java.nio.ByteBuffer data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parseFrom(
+        java.nio.ByteBuffer data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+
+    @java.lang.Override
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder() {
+      return DEFAULT_INSTANCE.toBuilder();
+    }
+    public static Builder newBuilder(sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList prototype) {
+      return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+    }
+    @java.lang.Override
+    public Builder toBuilder() {
+      return this == DEFAULT_INSTANCE
+          ? new Builder() : new Builder().mergeFrom(this);
+    }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code sigma.software.leovegas.drugstore.api.ProductQuantityList}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:sigma.software.leovegas.drugstore.api.ProductQuantityList)
+        sigma.software.leovegas.drugstore.api.protobuf.Proto.InvoiceDetailsOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_ProductQuantityList_descriptor;
+      }
+
+      @java.lang.Override
+      protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_ProductQuantityList_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList.class, sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList.Builder.class);
+      }
+
+      // Construct using sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessageV3
+                .alwaysUseFieldBuilders) {
+          getItemsFieldBuilder();
+        }
+      }
+      @java.lang.Override
+      public Builder clear() {
+        super.clear();
+        if (itemsBuilder_ == null) {
+          items_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+        } else {
+          itemsBuilder_.clear();
+        }
+        return this;
+      }
+
+      @java.lang.Override
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_ProductQuantityList_descriptor;
+      }
+
+      @java.lang.Override
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList getDefaultInstanceForType() {
+        return sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList.getDefaultInstance();
+      }
+
+      @java.lang.Override
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList build() {
+        sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      @java.lang.Override
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList buildPartial() {
+        sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList result = new sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList(this);
+        int from_bitField0_ = bitField0_;
+        if (itemsBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) != 0)) {
+            items_ = java.util.Collections.unmodifiableList(items_);
+            bitField0_ = (bitField0_ & ~0x00000001);
+          }
+          result.items_ = items_;
+        } else {
+          result.items_ = itemsBuilder_.build();
+        }
+        onBuilt();
+        return result;
+      }
+
+      @java.lang.Override
+      public Builder clone() {
+        return super.clone();
+      }
+      @java.lang.Override
+      public Builder setField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.setField(field, value);
+      }
+      @java.lang.Override
+      public Builder clearField(
+          com.google.protobuf.Descriptors.FieldDescriptor field) {
+        return super.clearField(field);
+      }
+      @java.lang.Override
+      public Builder clearOneof(
+          com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+        return super.clearOneof(oneof);
+      }
+      @java.lang.Override
+      public Builder setRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          int index, java.lang.Object value) {
+        return super.setRepeatedField(field, index, value);
+      }
+      @java.lang.Override
+      public Builder addRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.addRepeatedField(field, value);
+      }
+      @java.lang.Override
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList) {
+          return mergeFrom((sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList other) {
+        if (other == sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList.getDefaultInstance()) return this;
+        if (itemsBuilder_ == null) {
+          if (!other.items_.isEmpty()) {
+            if (items_.isEmpty()) {
+              items_ = other.items_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+            } else {
+              ensureItemsIsMutable();
+              items_.addAll(other.items_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.items_.isEmpty()) {
+            if (itemsBuilder_.isEmpty()) {
+              itemsBuilder_.dispose();
+              itemsBuilder_ = null;
+              items_ = other.items_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+              itemsBuilder_ = 
+                com.google.protobuf.GeneratedMessageV3.alwaysUseFieldBuilders ?
+                   getItemsFieldBuilder() : null;
+            } else {
+              itemsBuilder_.addAllMessages(other.items_);
+            }
+          }
+        }
+        this.mergeUnknownFields(other.unknownFields);
+        onChanged();
+        return this;
+      }
+
+      @java.lang.Override
+      public final boolean isInitialized() {
+        for (int i = 0; i < getItemsCount(); i++) {
+          if (!getItems(i).isInitialized()) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      @java.lang.Override
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList) e.getUnfinishedMessage();
+          throw e.unwrapIOException();
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> items_ =
+        java.util.Collections.emptyList();
+      private void ensureItemsIsMutable() {
+        if (!((bitField0_ & 0x00000001) != 0)) {
+          items_ = new java.util.ArrayList<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item>(items_);
+          bitField0_ |= 0x00000001;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilderV3<
+          sigma.software.leovegas.drugstore.api.protobuf.Proto.Item, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder, sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> itemsBuilder_;
+
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> getItemsList() {
+        if (itemsBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(items_);
+        } else {
+          return itemsBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public int getItemsCount() {
+        if (itemsBuilder_ == null) {
+          return items_.size();
+        } else {
+          return itemsBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item getItems(int index) {
+        if (itemsBuilder_ == null) {
+          return items_.get(index);
+        } else {
+          return itemsBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public Builder setItems(
+          int index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item value) {
+        if (itemsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureItemsIsMutable();
+          items_.set(index, value);
+          onChanged();
+        } else {
+          itemsBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public Builder setItems(
+          int index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder builderForValue) {
+        if (itemsBuilder_ == null) {
+          ensureItemsIsMutable();
+          items_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          itemsBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public Builder addItems(sigma.software.leovegas.drugstore.api.protobuf.Proto.Item value) {
+        if (itemsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureItemsIsMutable();
+          items_.add(value);
+          onChanged();
+        } else {
+          itemsBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public Builder addItems(
+          int index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item value) {
+        if (itemsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureItemsIsMutable();
+          items_.add(index, value);
+          onChanged();
+        } else {
+          itemsBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public Builder addItems(
+          sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder builderForValue) {
+        if (itemsBuilder_ == null) {
+          ensureItemsIsMutable();
+          items_.add(builderForValue.build());
+          onChanged();
+        } else {
+          itemsBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public Builder addItems(
+          int index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder builderForValue) {
+        if (itemsBuilder_ == null) {
+          ensureItemsIsMutable();
+          items_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          itemsBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public Builder addAllItems(
+          java.lang.Iterable<? extends sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> values) {
+        if (itemsBuilder_ == null) {
+          ensureItemsIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, items_);
+          onChanged();
+        } else {
+          itemsBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public Builder clearItems() {
+        if (itemsBuilder_ == null) {
+          items_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+          onChanged();
+        } else {
+          itemsBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public Builder removeItems(int index) {
+        if (itemsBuilder_ == null) {
+          ensureItemsIsMutable();
+          items_.remove(index);
+          onChanged();
+        } else {
+          itemsBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder getItemsBuilder(
+          int index) {
+        return getItemsFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder getItemsOrBuilder(
+          int index) {
+        if (itemsBuilder_ == null) {
+          return items_.get(index);  } else {
+          return itemsBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public java.util.List<? extends sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> 
+           getItemsOrBuilderList() {
+        if (itemsBuilder_ != null) {
+          return itemsBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(items_);
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder addItemsBuilder() {
+        return getItemsFieldBuilder().addBuilder(
+            sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder addItemsBuilder(
+          int index) {
+        return getItemsFieldBuilder().addBuilder(
+            index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item items = 1;</code>
+       */
+      public java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder> 
+           getItemsBuilderList() {
+        return getItemsFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilderV3<
+          sigma.software.leovegas.drugstore.api.protobuf.Proto.Item, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder, sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> 
+          getItemsFieldBuilder() {
+        if (itemsBuilder_ == null) {
+          itemsBuilder_ = new com.google.protobuf.RepeatedFieldBuilderV3<
+              sigma.software.leovegas.drugstore.api.protobuf.Proto.Item, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder, sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder>(
+                  items_,
+                  ((bitField0_ & 0x00000001) != 0),
+                  getParentForChildren(),
+                  isClean());
+          items_ = null;
+        }
+        return itemsBuilder_;
+      }
+      @java.lang.Override
+      public final Builder setUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.setUnknownFields(unknownFields);
+      }
+
+      @java.lang.Override
+      public final Builder mergeUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.mergeUnknownFields(unknownFields);
+      }
+
+
+      // @@protoc_insertion_point(builder_scope:sigma.software.leovegas.drugstore.api.ProductQuantityList)
+    }
+
+    // @@protoc_insertion_point(class_scope:sigma.software.leovegas.drugstore.api.ProductQuantityList)
+    private static final sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList DEFAULT_INSTANCE;
+    static {
+      DEFAULT_INSTANCE = new sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList();
+    }
+
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList getDefaultInstance() {
+      return DEFAULT_INSTANCE;
+    }
+
+    @java.lang.Deprecated public static final com.google.protobuf.Parser<ProductQuantityList>
+        PARSER = new com.google.protobuf.AbstractParser<ProductQuantityList>() {
+      @java.lang.Override
+      public ProductQuantityList parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new ProductQuantityList(input, extensionRegistry);
+      }
+    };
+
+    public static com.google.protobuf.Parser<ProductQuantityList> parser() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<ProductQuantityList> getParserForType() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public sigma.software.leovegas.drugstore.api.protobuf.Proto.ProductQuantityList getDefaultInstanceForType() {
+      return DEFAULT_INSTANCE;
+    }
+
+  }
+
+  public interface CreateOutcomeInvoiceEventOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:sigma.software.leovegas.drugstore.api.CreateOrderEvent)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required string orderNumber = 1;</code>
+     */
+    boolean hasOrderNumber();
+    /**
+     * <code>required string orderNumber = 1;</code>
+     */
+    java.lang.String getOrderNumber();
+    /**
+     * <code>required string orderNumber = 1;</code>
+     */
+    com.google.protobuf.ByteString
+        getOrderNumberBytes();
+
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> 
+        getOrderItemsList();
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    sigma.software.leovegas.drugstore.api.protobuf.Proto.Item getOrderItems(int index);
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    int getOrderItemsCount();
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    java.util.List<? extends sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> 
+        getOrderItemsOrBuilderList();
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder getOrderItemsOrBuilder(
+        int index);
+  }
+  /**
+   * Protobuf type {@code sigma.software.leovegas.drugstore.api.CreateOrderEvent}
+   */
+  public  static final class CreateOrderEvent extends
+      com.google.protobuf.GeneratedMessageV3 implements
+      // @@protoc_insertion_point(message_implements:sigma.software.leovegas.drugstore.api.CreateOrderEvent)
+      CreateOutcomeInvoiceEventOrBuilder {
+  private static final long serialVersionUID = 0L;
+    // Use CreateOrderEvent.newBuilder() to construct.
+    private CreateOrderEvent(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+      super(builder);
+    }
+    private CreateOrderEvent() {
+      orderNumber_ = "";
+      orderItems_ = java.util.Collections.emptyList();
+    }
+
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+    getUnknownFields() {
+      return this.unknownFields;
+    }
+    private CreateOrderEvent(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      this();
+      if (extensionRegistry == null) {
+        throw new java.lang.NullPointerException();
+      }
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            case 10: {
+              com.google.protobuf.ByteString bs = input.readBytes();
+              bitField0_ |= 0x00000001;
+              orderNumber_ = bs;
+              break;
+            }
+            case 18: {
+              if (!((mutable_bitField0_ & 0x00000002) != 0)) {
+                orderItems_ = new java.util.ArrayList<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item>();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              orderItems_.add(
+                  input.readMessage(sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.PARSER, extensionRegistry));
+              break;
+            }
+            default: {
+              if (!parseUnknownField(
+                  input, unknownFields, extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000002) != 0)) {
+          orderItems_ = java.util.Collections.unmodifiableList(orderItems_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_CreateOrderEvent_descriptor;
+    }
+
+    @java.lang.Override
+    protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_CreateOrderEvent_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent.class, sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent.Builder.class);
+    }
+
+    private int bitField0_;
+    public static final int ORDERNUMBER_FIELD_NUMBER = 1;
+    private volatile java.lang.Object orderNumber_;
+    /**
+     * <code>required string orderNumber = 1;</code>
+     */
+    public boolean hasOrderNumber() {
+      return ((bitField0_ & 0x00000001) != 0);
+    }
+    /**
+     * <code>required string orderNumber = 1;</code>
+     */
+    public java.lang.String getOrderNumber() {
+      java.lang.Object ref = orderNumber_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        if (bs.isValidUtf8()) {
+          orderNumber_ = s;
+        }
+        return s;
+      }
+    }
+    /**
+     * <code>required string orderNumber = 1;</code>
+     */
+    public com.google.protobuf.ByteString
+        getOrderNumberBytes() {
+      java.lang.Object ref = orderNumber_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        orderNumber_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int ORDERITEMS_FIELD_NUMBER = 2;
+    private java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> orderItems_;
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    public java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> getOrderItemsList() {
+      return orderItems_;
+    }
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    public java.util.List<? extends sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> 
+        getOrderItemsOrBuilderList() {
+      return orderItems_;
+    }
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    public int getOrderItemsCount() {
+      return orderItems_.size();
+    }
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item getOrderItems(int index) {
+      return orderItems_.get(index);
+    }
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    public sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder getOrderItemsOrBuilder(
+        int index) {
+      return orderItems_.get(index);
+    }
+
+    private byte memoizedIsInitialized = -1;
+    @java.lang.Override
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasOrderNumber()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      for (int i = 0; i < getOrderItemsCount(); i++) {
+        if (!getOrderItems(i).isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    @java.lang.Override
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      if (((bitField0_ & 0x00000001) != 0)) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 1, orderNumber_);
+      }
+      for (int i = 0; i < orderItems_.size(); i++) {
+        output.writeMessage(2, orderItems_.get(i));
+      }
+      unknownFields.writeTo(output);
+    }
+
+    @java.lang.Override
+    public int getSerializedSize() {
+      int size = memoizedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) != 0)) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(1, orderNumber_);
+      }
+      for (int i = 0; i < orderItems_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(2, orderItems_.get(i));
+      }
+      size += unknownFields.getSerializedSize();
+      memoizedSize = size;
+      return size;
+    }
+
+    @java.lang.Override
+    public boolean equals(final java.lang.Object obj) {
+      if (obj == this) {
+       return true;
+      }
+      if (!(obj instanceof sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent)) {
+        return super.equals(obj);
+      }
+      sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent other = (sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent) obj;
+
+      if (hasOrderNumber() != other.hasOrderNumber()) return false;
+      if (hasOrderNumber()) {
+        if (!getOrderNumber()
+            .equals(other.getOrderNumber())) return false;
+      }
+      if (!getOrderItemsList()
+          .equals(other.getOrderItemsList())) return false;
+      if (!unknownFields.equals(other.unknownFields)) return false;
+      return true;
+    }
+
+    @java.lang.Override
+    public int hashCode() {
+      if (memoizedHashCode != 0) {
+        return memoizedHashCode;
+      }
+      int hash = 41;
+      hash = (19 * hash) + getDescriptor().hashCode();
+      if (hasOrderNumber()) {
+        hash = (37 * hash) + ORDERNUMBER_FIELD_NUMBER;
+        hash = (53 * hash) + getOrderNumber().hashCode();
+      }
+      if (getOrderItemsCount() > 0) {
+        hash = (37 * hash) + ORDERITEMS_FIELD_NUMBER;
+        hash = (53 * hash) + getOrderItemsList().hashCode();
+      }
+      hash = (29 * hash) + unknownFields.hashCode();
+      memoizedHashCode = hash;
+      return hash;
+    }
+
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parseFrom(
+        java.nio.ByteBuffer data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parseFrom(
+        java.nio.ByteBuffer data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+
+    @java.lang.Override
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder() {
+      return DEFAULT_INSTANCE.toBuilder();
+    }
+    public static Builder newBuilder(sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent prototype) {
+      return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+    }
+    @java.lang.Override
+    public Builder toBuilder() {
+      return this == DEFAULT_INSTANCE
+          ? new Builder() : new Builder().mergeFrom(this);
+    }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code sigma.software.leovegas.drugstore.api.CreateOrderEvent}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:sigma.software.leovegas.drugstore.api.CreateOrderEvent)
+        sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOutcomeInvoiceEventOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_CreateOrderEvent_descriptor;
+      }
+
+      @java.lang.Override
+      protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_CreateOrderEvent_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent.class, sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent.Builder.class);
+      }
+
+      // Construct using sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessageV3
+                .alwaysUseFieldBuilders) {
+          getOrderItemsFieldBuilder();
+        }
+      }
+      @java.lang.Override
+      public Builder clear() {
+        super.clear();
+        orderNumber_ = "";
+        bitField0_ = (bitField0_ & ~0x00000001);
+        if (orderItemsBuilder_ == null) {
+          orderItems_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+        } else {
+          orderItemsBuilder_.clear();
+        }
+        return this;
+      }
+
+      @java.lang.Override
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_CreateOrderEvent_descriptor;
+      }
+
+      @java.lang.Override
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent getDefaultInstanceForType() {
+        return sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent.getDefaultInstance();
+      }
+
+      @java.lang.Override
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent build() {
+        sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      @java.lang.Override
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent buildPartial() {
+        sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent result = new sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) != 0)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.orderNumber_ = orderNumber_;
+        if (orderItemsBuilder_ == null) {
+          if (((bitField0_ & 0x00000002) != 0)) {
+            orderItems_ = java.util.Collections.unmodifiableList(orderItems_);
+            bitField0_ = (bitField0_ & ~0x00000002);
+          }
+          result.orderItems_ = orderItems_;
+        } else {
+          result.orderItems_ = orderItemsBuilder_.build();
+        }
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      @java.lang.Override
+      public Builder clone() {
+        return super.clone();
+      }
+      @java.lang.Override
+      public Builder setField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.setField(field, value);
+      }
+      @java.lang.Override
+      public Builder clearField(
+          com.google.protobuf.Descriptors.FieldDescriptor field) {
+        return super.clearField(field);
+      }
+      @java.lang.Override
+      public Builder clearOneof(
+          com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+        return super.clearOneof(oneof);
+      }
+      @java.lang.Override
+      public Builder setRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          int index, java.lang.Object value) {
+        return super.setRepeatedField(field, index, value);
+      }
+      @java.lang.Override
+      public Builder addRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.addRepeatedField(field, value);
+      }
+      @java.lang.Override
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent) {
+          return mergeFrom((sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent other) {
+        if (other == sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent.getDefaultInstance()) return this;
+        if (other.hasOrderNumber()) {
+          bitField0_ |= 0x00000001;
+          orderNumber_ = other.orderNumber_;
+          onChanged();
+        }
+        if (orderItemsBuilder_ == null) {
+          if (!other.orderItems_.isEmpty()) {
+            if (orderItems_.isEmpty()) {
+              orderItems_ = other.orderItems_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+            } else {
+              ensureOrderItemsIsMutable();
+              orderItems_.addAll(other.orderItems_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.orderItems_.isEmpty()) {
+            if (orderItemsBuilder_.isEmpty()) {
+              orderItemsBuilder_.dispose();
+              orderItemsBuilder_ = null;
+              orderItems_ = other.orderItems_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+              orderItemsBuilder_ = 
+                com.google.protobuf.GeneratedMessageV3.alwaysUseFieldBuilders ?
+                   getOrderItemsFieldBuilder() : null;
+            } else {
+              orderItemsBuilder_.addAllMessages(other.orderItems_);
+            }
+          }
+        }
+        this.mergeUnknownFields(other.unknownFields);
+        onChanged();
+        return this;
+      }
+
+      @java.lang.Override
+      public final boolean isInitialized() {
+        if (!hasOrderNumber()) {
+          return false;
+        }
+        for (int i = 0; i < getOrderItemsCount(); i++) {
+          if (!getOrderItems(i).isInitialized()) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      @java.lang.Override
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent) e.getUnfinishedMessage();
+          throw e.unwrapIOException();
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private java.lang.Object orderNumber_ = "";
+      /**
+       * <code>required string orderNumber = 1;</code>
+       */
+      public boolean hasOrderNumber() {
+        return ((bitField0_ & 0x00000001) != 0);
+      }
+      /**
+       * <code>required string orderNumber = 1;</code>
+       */
+      public java.lang.String getOrderNumber() {
+        java.lang.Object ref = orderNumber_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          if (bs.isValidUtf8()) {
+            orderNumber_ = s;
+          }
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <code>required string orderNumber = 1;</code>
+       */
+      public com.google.protobuf.ByteString
+          getOrderNumberBytes() {
+        java.lang.Object ref = orderNumber_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          orderNumber_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <code>required string orderNumber = 1;</code>
+       */
+      public Builder setOrderNumber(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        orderNumber_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required string orderNumber = 1;</code>
+       */
+      public Builder clearOrderNumber() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        orderNumber_ = getDefaultInstance().getOrderNumber();
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required string orderNumber = 1;</code>
+       */
+      public Builder setOrderNumberBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        orderNumber_ = value;
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> orderItems_ =
+        java.util.Collections.emptyList();
+      private void ensureOrderItemsIsMutable() {
+        if (!((bitField0_ & 0x00000002) != 0)) {
+          orderItems_ = new java.util.ArrayList<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item>(orderItems_);
+          bitField0_ |= 0x00000002;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilderV3<
+          sigma.software.leovegas.drugstore.api.protobuf.Proto.Item, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder, sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> orderItemsBuilder_;
+
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> getOrderItemsList() {
+        if (orderItemsBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(orderItems_);
+        } else {
+          return orderItemsBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public int getOrderItemsCount() {
+        if (orderItemsBuilder_ == null) {
+          return orderItems_.size();
+        } else {
+          return orderItemsBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item getOrderItems(int index) {
+        if (orderItemsBuilder_ == null) {
+          return orderItems_.get(index);
+        } else {
+          return orderItemsBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder setOrderItems(
+          int index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item value) {
+        if (orderItemsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureOrderItemsIsMutable();
+          orderItems_.set(index, value);
+          onChanged();
+        } else {
+          orderItemsBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder setOrderItems(
+          int index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder builderForValue) {
+        if (orderItemsBuilder_ == null) {
+          ensureOrderItemsIsMutable();
+          orderItems_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          orderItemsBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder addOrderItems(sigma.software.leovegas.drugstore.api.protobuf.Proto.Item value) {
+        if (orderItemsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureOrderItemsIsMutable();
+          orderItems_.add(value);
+          onChanged();
+        } else {
+          orderItemsBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder addOrderItems(
+          int index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item value) {
+        if (orderItemsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureOrderItemsIsMutable();
+          orderItems_.add(index, value);
+          onChanged();
+        } else {
+          orderItemsBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder addOrderItems(
+          sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder builderForValue) {
+        if (orderItemsBuilder_ == null) {
+          ensureOrderItemsIsMutable();
+          orderItems_.add(builderForValue.build());
+          onChanged();
+        } else {
+          orderItemsBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder addOrderItems(
+          int index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder builderForValue) {
+        if (orderItemsBuilder_ == null) {
+          ensureOrderItemsIsMutable();
+          orderItems_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          orderItemsBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder addAllOrderItems(
+          java.lang.Iterable<? extends sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> values) {
+        if (orderItemsBuilder_ == null) {
+          ensureOrderItemsIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, orderItems_);
+          onChanged();
+        } else {
+          orderItemsBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder clearOrderItems() {
+        if (orderItemsBuilder_ == null) {
+          orderItems_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+          onChanged();
+        } else {
+          orderItemsBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder removeOrderItems(int index) {
+        if (orderItemsBuilder_ == null) {
+          ensureOrderItemsIsMutable();
+          orderItems_.remove(index);
+          onChanged();
+        } else {
+          orderItemsBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder getOrderItemsBuilder(
+          int index) {
+        return getOrderItemsFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder getOrderItemsOrBuilder(
+          int index) {
+        if (orderItemsBuilder_ == null) {
+          return orderItems_.get(index);  } else {
+          return orderItemsBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public java.util.List<? extends sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> 
+           getOrderItemsOrBuilderList() {
+        if (orderItemsBuilder_ != null) {
+          return orderItemsBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(orderItems_);
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder addOrderItemsBuilder() {
+        return getOrderItemsFieldBuilder().addBuilder(
+            sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder addOrderItemsBuilder(
+          int index) {
+        return getOrderItemsFieldBuilder().addBuilder(
+            index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder> 
+           getOrderItemsBuilderList() {
+        return getOrderItemsFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilderV3<
+          sigma.software.leovegas.drugstore.api.protobuf.Proto.Item, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder, sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> 
+          getOrderItemsFieldBuilder() {
+        if (orderItemsBuilder_ == null) {
+          orderItemsBuilder_ = new com.google.protobuf.RepeatedFieldBuilderV3<
+              sigma.software.leovegas.drugstore.api.protobuf.Proto.Item, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder, sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder>(
+                  orderItems_,
+                  ((bitField0_ & 0x00000002) != 0),
+                  getParentForChildren(),
+                  isClean());
+          orderItems_ = null;
+        }
+        return orderItemsBuilder_;
+      }
+      @java.lang.Override
+      public final Builder setUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.setUnknownFields(unknownFields);
+      }
+
+      @java.lang.Override
+      public final Builder mergeUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.mergeUnknownFields(unknownFields);
+      }
+
+
+      // @@protoc_insertion_point(builder_scope:sigma.software.leovegas.drugstore.api.CreateOrderEvent)
+    }
+
+    // @@protoc_insertion_point(class_scope:sigma.software.leovegas.drugstore.api.CreateOrderEvent)
+    private static final sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent DEFAULT_INSTANCE;
+    static {
+      DEFAULT_INSTANCE = new sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent();
+    }
+
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent getDefaultInstance() {
+      return DEFAULT_INSTANCE;
+    }
+
+    @java.lang.Deprecated public static final com.google.protobuf.Parser<CreateOrderEvent>
+        PARSER = new com.google.protobuf.AbstractParser<CreateOrderEvent>() {
+      @java.lang.Override
+      public CreateOrderEvent parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new CreateOrderEvent(input, extensionRegistry);
+      }
+    };
+
+    public static com.google.protobuf.Parser<CreateOrderEvent> parser() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<CreateOrderEvent> getParserForType() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOrderEvent getDefaultInstanceForType() {
+      return DEFAULT_INSTANCE;
+    }
+
+  }
+
+  public interface CreateOutcomeInvoiceEventOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:sigma.software.leovegas.drugstore.api.UpdateOrderEvent)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required string orderNumber = 1;</code>
+     */
+    boolean hasOrderNumber();
+    /**
+     * <code>required string orderNumber = 1;</code>
+     */
+    java.lang.String getOrderNumber();
+    /**
+     * <code>required string orderNumber = 1;</code>
+     */
+    com.google.protobuf.ByteString
+        getOrderNumberBytes();
+
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> 
+        getOrderItemsList();
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    sigma.software.leovegas.drugstore.api.protobuf.Proto.Item getOrderItems(int index);
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    int getOrderItemsCount();
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    java.util.List<? extends sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> 
+        getOrderItemsOrBuilderList();
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder getOrderItemsOrBuilder(
+        int index);
+  }
+  /**
+   * Protobuf type {@code sigma.software.leovegas.drugstore.api.UpdateOrderEvent}
+   */
+  public  static final class UpdateOrderEvent extends
+      com.google.protobuf.GeneratedMessageV3 implements
+      // @@protoc_insertion_point(message_implements:sigma.software.leovegas.drugstore.api.UpdateOrderEvent)
+      CreateOutcomeInvoiceEventOrBuilder {
+  private static final long serialVersionUID = 0L;
+    // Use UpdateOrderEvent.newBuilder() to construct.
+    private UpdateOrderEvent(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+      super(builder);
+    }
+    private UpdateOrderEvent() {
+      orderNumber_ = "";
+      orderItems_ = java.util.Collections.emptyList();
+    }
+
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+    getUnknownFields() {
+      return this.unknownFields;
+    }
+    private UpdateOrderEvent(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      this();
+      if (extensionRegistry == null) {
+        throw new java.lang.NullPointerException();
+      }
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            case 10: {
+              com.google.protobuf.ByteString bs = input.readBytes();
+              bitField0_ |= 0x00000001;
+              orderNumber_ = bs;
+              break;
+            }
+            case 18: {
+              if (!((mutable_bitField0_ & 0x00000002) != 0)) {
+                orderItems_ = new java.util.ArrayList<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item>();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              orderItems_.add(
+                  input.readMessage(sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.PARSER, extensionRegistry));
+              break;
+            }
+            default: {
+              if (!parseUnknownField(
+                  input, unknownFields, extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000002) != 0)) {
+          orderItems_ = java.util.Collections.unmodifiableList(orderItems_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_UpdateOrderEvent_descriptor;
+    }
+
+    @java.lang.Override
+    protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_UpdateOrderEvent_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent.class, sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent.Builder.class);
+    }
+
+    private int bitField0_;
+    public static final int ORDERNUMBER_FIELD_NUMBER = 1;
+    private volatile java.lang.Object orderNumber_;
+    /**
+     * <code>required string orderNumber = 1;</code>
+     */
+    public boolean hasOrderNumber() {
+      return ((bitField0_ & 0x00000001) != 0);
+    }
+    /**
+     * <code>required string orderNumber = 1;</code>
+     */
+    public java.lang.String getOrderNumber() {
+      java.lang.Object ref = orderNumber_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        if (bs.isValidUtf8()) {
+          orderNumber_ = s;
+        }
+        return s;
+      }
+    }
+    /**
+     * <code>required string orderNumber = 1;</code>
+     */
+    public com.google.protobuf.ByteString
+        getOrderNumberBytes() {
+      java.lang.Object ref = orderNumber_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        orderNumber_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int ORDERITEMS_FIELD_NUMBER = 2;
+    private java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> orderItems_;
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    public java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> getOrderItemsList() {
+      return orderItems_;
+    }
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    public java.util.List<? extends sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> 
+        getOrderItemsOrBuilderList() {
+      return orderItems_;
+    }
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    public int getOrderItemsCount() {
+      return orderItems_.size();
+    }
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item getOrderItems(int index) {
+      return orderItems_.get(index);
+    }
+    /**
+     * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+     */
+    public sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder getOrderItemsOrBuilder(
+        int index) {
+      return orderItems_.get(index);
+    }
+
+    private byte memoizedIsInitialized = -1;
+    @java.lang.Override
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasOrderNumber()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      for (int i = 0; i < getOrderItemsCount(); i++) {
+        if (!getOrderItems(i).isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    @java.lang.Override
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      if (((bitField0_ & 0x00000001) != 0)) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 1, orderNumber_);
+      }
+      for (int i = 0; i < orderItems_.size(); i++) {
+        output.writeMessage(2, orderItems_.get(i));
+      }
+      unknownFields.writeTo(output);
+    }
+
+    @java.lang.Override
+    public int getSerializedSize() {
+      int size = memoizedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) != 0)) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(1, orderNumber_);
+      }
+      for (int i = 0; i < orderItems_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(2, orderItems_.get(i));
+      }
+      size += unknownFields.getSerializedSize();
+      memoizedSize = size;
+      return size;
+    }
+
+    @java.lang.Override
+    public boolean equals(final java.lang.Object obj) {
+      if (obj == this) {
+       return true;
+      }
+      if (!(obj instanceof sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent)) {
+        return super.equals(obj);
+      }
+      sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent other = (sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent) obj;
+
+      if (hasOrderNumber() != other.hasOrderNumber()) return false;
+      if (hasOrderNumber()) {
+        if (!getOrderNumber()
+            .equals(other.getOrderNumber())) return false;
+      }
+      if (!getOrderItemsList()
+          .equals(other.getOrderItemsList())) return false;
+      if (!unknownFields.equals(other.unknownFields)) return false;
+      return true;
+    }
+
+    @java.lang.Override
+    public int hashCode() {
+      if (memoizedHashCode != 0) {
+        return memoizedHashCode;
+      }
+      int hash = 41;
+      hash = (19 * hash) + getDescriptor().hashCode();
+      if (hasOrderNumber()) {
+        hash = (37 * hash) + ORDERNUMBER_FIELD_NUMBER;
+        hash = (53 * hash) + getOrderNumber().hashCode();
+      }
+      if (getOrderItemsCount() > 0) {
+        hash = (37 * hash) + ORDERITEMS_FIELD_NUMBER;
+        hash = (53 * hash) + getOrderItemsList().hashCode();
+      }
+      hash = (29 * hash) + unknownFields.hashCode();
+      memoizedHashCode = hash;
+      return hash;
+    }
+
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parseFrom(
+        java.nio.ByteBuffer data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parseFrom(
+        java.nio.ByteBuffer data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return com.google.protobuf.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+
+    @java.lang.Override
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder() {
+      return DEFAULT_INSTANCE.toBuilder();
+    }
+    public static Builder newBuilder(sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent prototype) {
+      return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+    }
+    @java.lang.Override
+    public Builder toBuilder() {
+      return this == DEFAULT_INSTANCE
+          ? new Builder() : new Builder().mergeFrom(this);
+    }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code sigma.software.leovegas.drugstore.api.UpdateOrderEvent}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:sigma.software.leovegas.drugstore.api.UpdateOrderEvent)
+        sigma.software.leovegas.drugstore.api.protobuf.Proto.CreateOutcomeInvoiceEventOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_UpdateOrderEvent_descriptor;
+      }
+
+      @java.lang.Override
+      protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_UpdateOrderEvent_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent.class, sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent.Builder.class);
+      }
+
+      // Construct using sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessageV3
+                .alwaysUseFieldBuilders) {
+          getOrderItemsFieldBuilder();
+        }
+      }
+      @java.lang.Override
+      public Builder clear() {
+        super.clear();
+        orderNumber_ = "";
+        bitField0_ = (bitField0_ & ~0x00000001);
+        if (orderItemsBuilder_ == null) {
+          orderItems_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+        } else {
+          orderItemsBuilder_.clear();
+        }
+        return this;
+      }
+
+      @java.lang.Override
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return sigma.software.leovegas.drugstore.api.protobuf.Proto.internal_static_sigma_software_leovegas_drugstore_api_UpdateOrderEvent_descriptor;
+      }
+
+      @java.lang.Override
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent getDefaultInstanceForType() {
+        return sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent.getDefaultInstance();
+      }
+
+      @java.lang.Override
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent build() {
+        sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      @java.lang.Override
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent buildPartial() {
+        sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent result = new sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) != 0)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.orderNumber_ = orderNumber_;
+        if (orderItemsBuilder_ == null) {
+          if (((bitField0_ & 0x00000002) != 0)) {
+            orderItems_ = java.util.Collections.unmodifiableList(orderItems_);
+            bitField0_ = (bitField0_ & ~0x00000002);
+          }
+          result.orderItems_ = orderItems_;
+        } else {
+          result.orderItems_ = orderItemsBuilder_.build();
+        }
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      @java.lang.Override
+      public Builder clone() {
+        return super.clone();
+      }
+      @java.lang.Override
+      public Builder setField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.setField(field, value);
+      }
+      @java.lang.Override
+      public Builder clearField(
+          com.google.protobuf.Descriptors.FieldDescriptor field) {
+        return super.clearField(field);
+      }
+      @java.lang.Override
+      public Builder clearOneof(
+          com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+        return super.clearOneof(oneof);
+      }
+      @java.lang.Override
+      public Builder setRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          int index, java.lang.Object value) {
+        return super.setRepeatedField(field, index, value);
+      }
+      @java.lang.Override
+      public Builder addRepeatedField(
+          com.google.protobuf.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.addRepeatedField(field, value);
+      }
+      @java.lang.Override
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent) {
+          return mergeFrom((sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent other) {
+        if (other == sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent.getDefaultInstance()) return this;
+        if (other.hasOrderNumber()) {
+          bitField0_ |= 0x00000001;
+          orderNumber_ = other.orderNumber_;
+          onChanged();
+        }
+        if (orderItemsBuilder_ == null) {
+          if (!other.orderItems_.isEmpty()) {
+            if (orderItems_.isEmpty()) {
+              orderItems_ = other.orderItems_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+            } else {
+              ensureOrderItemsIsMutable();
+              orderItems_.addAll(other.orderItems_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.orderItems_.isEmpty()) {
+            if (orderItemsBuilder_.isEmpty()) {
+              orderItemsBuilder_.dispose();
+              orderItemsBuilder_ = null;
+              orderItems_ = other.orderItems_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+              orderItemsBuilder_ = 
+                com.google.protobuf.GeneratedMessageV3.alwaysUseFieldBuilders ?
+                   getOrderItemsFieldBuilder() : null;
+            } else {
+              orderItemsBuilder_.addAllMessages(other.orderItems_);
+            }
+          }
+        }
+        this.mergeUnknownFields(other.unknownFields);
+        onChanged();
+        return this;
+      }
+
+      @java.lang.Override
+      public final boolean isInitialized() {
+        if (!hasOrderNumber()) {
+          return false;
+        }
+        for (int i = 0; i < getOrderItemsCount(); i++) {
+          if (!getOrderItems(i).isInitialized()) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      @java.lang.Override
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent) e.getUnfinishedMessage();
+          throw e.unwrapIOException();
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private java.lang.Object orderNumber_ = "";
+      /**
+       * <code>required string orderNumber = 1;</code>
+       */
+      public boolean hasOrderNumber() {
+        return ((bitField0_ & 0x00000001) != 0);
+      }
+      /**
+       * <code>required string orderNumber = 1;</code>
+       */
+      public java.lang.String getOrderNumber() {
+        java.lang.Object ref = orderNumber_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          if (bs.isValidUtf8()) {
+            orderNumber_ = s;
+          }
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <code>required string orderNumber = 1;</code>
+       */
+      public com.google.protobuf.ByteString
+          getOrderNumberBytes() {
+        java.lang.Object ref = orderNumber_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          orderNumber_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <code>required string orderNumber = 1;</code>
+       */
+      public Builder setOrderNumber(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        orderNumber_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required string orderNumber = 1;</code>
+       */
+      public Builder clearOrderNumber() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        orderNumber_ = getDefaultInstance().getOrderNumber();
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required string orderNumber = 1;</code>
+       */
+      public Builder setOrderNumberBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        orderNumber_ = value;
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> orderItems_ =
+        java.util.Collections.emptyList();
+      private void ensureOrderItemsIsMutable() {
+        if (!((bitField0_ & 0x00000002) != 0)) {
+          orderItems_ = new java.util.ArrayList<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item>(orderItems_);
+          bitField0_ |= 0x00000002;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilderV3<
+          sigma.software.leovegas.drugstore.api.protobuf.Proto.Item, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder, sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> orderItemsBuilder_;
+
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> getOrderItemsList() {
+        if (orderItemsBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(orderItems_);
+        } else {
+          return orderItemsBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public int getOrderItemsCount() {
+        if (orderItemsBuilder_ == null) {
+          return orderItems_.size();
+        } else {
+          return orderItemsBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item getOrderItems(int index) {
+        if (orderItemsBuilder_ == null) {
+          return orderItems_.get(index);
+        } else {
+          return orderItemsBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder setOrderItems(
+          int index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item value) {
+        if (orderItemsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureOrderItemsIsMutable();
+          orderItems_.set(index, value);
+          onChanged();
+        } else {
+          orderItemsBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder setOrderItems(
+          int index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder builderForValue) {
+        if (orderItemsBuilder_ == null) {
+          ensureOrderItemsIsMutable();
+          orderItems_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          orderItemsBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder addOrderItems(sigma.software.leovegas.drugstore.api.protobuf.Proto.Item value) {
+        if (orderItemsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureOrderItemsIsMutable();
+          orderItems_.add(value);
+          onChanged();
+        } else {
+          orderItemsBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder addOrderItems(
+          int index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item value) {
+        if (orderItemsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureOrderItemsIsMutable();
+          orderItems_.add(index, value);
+          onChanged();
+        } else {
+          orderItemsBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder addOrderItems(
+          sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder builderForValue) {
+        if (orderItemsBuilder_ == null) {
+          ensureOrderItemsIsMutable();
+          orderItems_.add(builderForValue.build());
+          onChanged();
+        } else {
+          orderItemsBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder addOrderItems(
+          int index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder builderForValue) {
+        if (orderItemsBuilder_ == null) {
+          ensureOrderItemsIsMutable();
+          orderItems_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          orderItemsBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder addAllOrderItems(
+          java.lang.Iterable<? extends sigma.software.leovegas.drugstore.api.protobuf.Proto.Item> values) {
+        if (orderItemsBuilder_ == null) {
+          ensureOrderItemsIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, orderItems_);
+          onChanged();
+        } else {
+          orderItemsBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder clearOrderItems() {
+        if (orderItemsBuilder_ == null) {
+          orderItems_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+          onChanged();
+        } else {
+          orderItemsBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public Builder removeOrderItems(int index) {
+        if (orderItemsBuilder_ == null) {
+          ensureOrderItemsIsMutable();
+          orderItems_.remove(index);
+          onChanged();
+        } else {
+          orderItemsBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder getOrderItemsBuilder(
+          int index) {
+        return getOrderItemsFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder getOrderItemsOrBuilder(
+          int index) {
+        if (orderItemsBuilder_ == null) {
+          return orderItems_.get(index);  } else {
+          return orderItemsBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public java.util.List<? extends sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> 
+           getOrderItemsOrBuilderList() {
+        if (orderItemsBuilder_ != null) {
+          return orderItemsBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(orderItems_);
+        }
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder addOrderItemsBuilder() {
+        return getOrderItemsFieldBuilder().addBuilder(
+            sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder addOrderItemsBuilder(
+          int index) {
+        return getOrderItemsFieldBuilder().addBuilder(
+            index, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .sigma.software.leovegas.drugstore.api.Item orderItems = 2;</code>
+       */
+      public java.util.List<sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder> 
+           getOrderItemsBuilderList() {
+        return getOrderItemsFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilderV3<
+          sigma.software.leovegas.drugstore.api.protobuf.Proto.Item, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder, sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder> 
+          getOrderItemsFieldBuilder() {
+        if (orderItemsBuilder_ == null) {
+          orderItemsBuilder_ = new com.google.protobuf.RepeatedFieldBuilderV3<
+              sigma.software.leovegas.drugstore.api.protobuf.Proto.Item, sigma.software.leovegas.drugstore.api.protobuf.Proto.Item.Builder, sigma.software.leovegas.drugstore.api.protobuf.Proto.ItemOrBuilder>(
+                  orderItems_,
+                  ((bitField0_ & 0x00000002) != 0),
+                  getParentForChildren(),
+                  isClean());
+          orderItems_ = null;
+        }
+        return orderItemsBuilder_;
+      }
+      @java.lang.Override
+      public final Builder setUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.setUnknownFields(unknownFields);
+      }
+
+      @java.lang.Override
+      public final Builder mergeUnknownFields(
+          final com.google.protobuf.UnknownFieldSet unknownFields) {
+        return super.mergeUnknownFields(unknownFields);
+      }
+
+
+      // @@protoc_insertion_point(builder_scope:sigma.software.leovegas.drugstore.api.UpdateOrderEvent)
+    }
+
+    // @@protoc_insertion_point(class_scope:sigma.software.leovegas.drugstore.api.UpdateOrderEvent)
+    private static final sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent DEFAULT_INSTANCE;
+    static {
+      DEFAULT_INSTANCE = new sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent();
+    }
+
+    public static sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent getDefaultInstance() {
+      return DEFAULT_INSTANCE;
+    }
+
+    @java.lang.Deprecated public static final com.google.protobuf.Parser<UpdateOrderEvent>
+        PARSER = new com.google.protobuf.AbstractParser<UpdateOrderEvent>() {
+      @java.lang.Override
+      public UpdateOrderEvent parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new UpdateOrderEvent(input, extensionRegistry);
+      }
+    };
+
+    public static com.google.protobuf.Parser<UpdateOrderEvent> parser() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<UpdateOrderEvent> getParserForType() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public sigma.software.leovegas.drugstore.api.protobuf.Proto.UpdateOrderEvent getDefaultInstanceForType() {
+      return DEFAULT_INSTANCE;
+    }
+
+  }
+
   private static final com.google.protobuf.Descriptors.Descriptor
     internal_static_sigma_software_leovegas_drugstore_api_InvoiceDetails_descriptor;
   private static final 
@@ -11081,6 +13807,21 @@ public final class Proto {
   private static final 
     com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
       internal_static_sigma_software_leovegas_drugstore_api_CreateProductsEvent_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_sigma_software_leovegas_drugstore_api_ProductQuantityList_descriptor;
+  private static final 
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internal_static_sigma_software_leovegas_drugstore_api_ProductQuantityList_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_sigma_software_leovegas_drugstore_api_CreateOrderEvent_descriptor;
+  private static final 
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internal_static_sigma_software_leovegas_drugstore_api_CreateOrderEvent_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_sigma_software_leovegas_drugstore_api_UpdateOrderEvent_descriptor;
+  private static final 
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internal_static_sigma_software_leovegas_drugstore_api_UpdateOrderEvent_fieldAccessorTable;
 
   public static com.google.protobuf.Descriptors.FileDescriptor
       getDescriptor() {
@@ -11127,10 +13868,18 @@ public final class Proto {
       "23.sigma.software.leovegas.drugstore.api" +
       ".DecimalValue:\0028\001\"b\n\023CreateProductsEvent" +
       "\022K\n\010products\030\001 \003(\01329.sigma.software.leov" +
-      "egas.drugstore.api.ProductDetailsItem*7\n" +
-      "\020ProductStatusDTO\022\013\n\007CREATED\020\000\022\014\n\010RECEIV" +
-      "ED\020\001\022\010\n\004NONE\020\002B7\n.sigma.software.leovega" +
-      "s.drugstore.api.protobufB\005Proto"
+      "egas.drugstore.api.ProductDetailsItem\"Q\n" +
+      "\023ProductQuantityList\022:\n\005items\030\001 \003(\0132+.si" +
+      "gma.software.leovegas.drugstore.api.Item" +
+      "\"h\n\020CreateOrderEvent\022\023\n\013orderNumber\030\001 \002(" +
+      "\t\022?\n\norderItems\030\002 \003(\0132+.sigma.software.l" +
+      "eovegas.drugstore.api.Item\"h\n\020UpdateOrde" +
+      "rEvent\022\023\n\013orderNumber\030\001 \002(\t\022?\n\norderItem" +
+      "s\030\002 \003(\0132+.sigma.software.leovegas.drugst" +
+      "ore.api.Item*7\n\020ProductStatusDTO\022\013\n\007CREA" +
+      "TED\020\000\022\014\n\010RECEIVED\020\001\022\010\n\004NONE\020\002B7\n.sigma.s" +
+      "oftware.leovegas.drugstore.api.protobufB" +
+      "\005Proto"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
         new com.google.protobuf.Descriptors.FileDescriptor.    InternalDescriptorAssigner() {
@@ -11240,6 +13989,24 @@ public final class Proto {
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_sigma_software_leovegas_drugstore_api_CreateProductsEvent_descriptor,
         new java.lang.String[] { "Products", });
+    internal_static_sigma_software_leovegas_drugstore_api_ProductQuantityList_descriptor =
+      getDescriptor().getMessageTypes().get(14);
+    internal_static_sigma_software_leovegas_drugstore_api_ProductQuantityList_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_sigma_software_leovegas_drugstore_api_ProductQuantityList_descriptor,
+        new java.lang.String[] { "Items", });
+    internal_static_sigma_software_leovegas_drugstore_api_CreateOrderEvent_descriptor =
+      getDescriptor().getMessageTypes().get(15);
+    internal_static_sigma_software_leovegas_drugstore_api_CreateOrderEvent_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_sigma_software_leovegas_drugstore_api_CreateOrderEvent_descriptor,
+        new java.lang.String[] { "OrderNumber", "OrderItems", });
+    internal_static_sigma_software_leovegas_drugstore_api_UpdateOrderEvent_descriptor =
+      getDescriptor().getMessageTypes().get(16);
+    internal_static_sigma_software_leovegas_drugstore_api_UpdateOrderEvent_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_sigma_software_leovegas_drugstore_api_UpdateOrderEvent_descriptor,
+        new java.lang.String[] { "OrderNumber", "OrderItems", });
   }
 
   // @@protoc_insertion_point(outer_class_scope)
@@ -0,0 +1,65 @@
+package sigma.software.leovegas.drugstore.api.tracing
+
+import feign.Logger
+import feign.Request
+import feign.Response
+import feign.Util
+import java.io.IOException
+import java.util.Base64
+import org.slf4j.LoggerFactory
+
+class SampledFeignLogger(
+    private val settings: TracingSettings,
+    private val logger: org.slf4j.Logger = LoggerFactory.getLogger(SampledFeignLogger::class.java),
+) : Logger() {
+
+    override fun log(configKey: String, format: String, vararg args: Any?) {
+        if (logger.isDebugEnabled) logger.debug("${methodTag(configKey)}${String.format(format, *args)}")
+    }
+
+    override fun logRequest(configKey: String, logLevel: Level, request: Request) = Unit
+
+    override fun logAndRebufferResponse(
+        configKey: String,
+        logLevel: Level,
+        response: Response,
+        elapsedTime: Long,
+    ): Response {
+        if (!logger.isInfoEnabled || !settings.isSampled(configKey)) return response
+        val request = response.request()
+        val maxBodyBytes = settings.maxBodyBytes
+        val body = response.body()
+        if (maxBodyBytes <= 0 || body == null) {
+            logger.info(
+                "feign endpoint={} method={} url={} status={} elapsedMs={}",
+                configKey, request.httpMethod(), request.url(), response.status(), elapsedTime
+            )
+            return response
+        }
+        val bytes = Util.toByteArray(body.asInputStream())
+        val textual = response.headers()[Util.CONTENT_TYPE].orEmpty().any { "json" in it || "text" in it }
+        logger.info(
+            "feign endpoint={} method={} url={} status={} elapsedMs={} bytes={} body={}",
+            configKey, request.httpMethod(), request.url(), response.status(), elapsedTime, bytes.size,
+            BodyPreview(bytes, maxBodyBytes, textual)
+        )
+        return response.toBuilder().body(bytes).build()
+    }
+
+    override fun logIOException(configKey: String, logLevel: Level, ioe: IOException, elapsedTime: Long): IOException {
+        logger.warn(
+            "feign endpoint={} error={} message={} elapsedMs={}",
+            configKey, ioe.javaClass.simpleName, ioe.message, elapsedTime
+        )
+        return ioe
+    }
+
+    private class BodyPreview(val bytes: ByteArray, val limit: Int, val textual: Boolean) {
+
+        override fun toString(): String {
+            val preview = bytes.copyOf(minOf(bytes.size, limit))
+            val text = if (textual) String(preview, Charsets.UTF_8) else Base64.getEncoder().encodeToString(preview)
+            return if (bytes.size > limit) "$text..." else text
+        }
+    }
+}
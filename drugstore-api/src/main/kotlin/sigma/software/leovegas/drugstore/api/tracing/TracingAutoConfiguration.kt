@@ -0,0 +1,26 @@
+package sigma.software.leovegas.drugstore.api.tracing
+
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+
+@Configuration
+class TracingAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    fun tracingSettings(): TracingSettings = TracingSettings()
+
+    @Configuration
+    @ConditionalOnClass(Endpoint::class)
+    class TracingEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        fun tracingEndpoint(tracingSettings: TracingSettings): TracingEndpoint = TracingEndpoint(tracingSettings)
+    }
+}
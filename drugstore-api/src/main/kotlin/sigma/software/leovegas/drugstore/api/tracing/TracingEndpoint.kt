@@ -0,0 +1,35 @@
+package sigma.software.leovegas.drugstore.api.tracing
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation
+import org.springframework.lang.Nullable
+
+@Endpoint(id = "tracing")
+class TracingEndpoint(private val settings: TracingSettings) {
+
+    @ReadOperation
+    fun settings(): Map<String, Any> = mapOf(
+        "enabled" to settings.enabled,
+        "sampleRate" to settings.sampleRate,
+        "maxBodyBytes" to settings.maxBodyBytes,
+        "endpointSampleRates" to settings.endpointSampleRates.toSortedMap(),
+    )
+
+    @WriteOperation
+    fun configure(
+        @Nullable enabled: Boolean?,
+        @Nullable sampleRate: Double?,
+        @Nullable maxBodyBytes: Int?,
+        @Nullable endpoint: String?,
+    ): Map<String, Any> {
+        enabled?.let { settings.enabled = it }
+        maxBodyBytes?.let { settings.maxBodyBytes = it.coerceAtLeast(0) }
+        when {
+            endpoint == null -> sampleRate?.let { settings.sampleRate = it.coerceIn(0.0, 1.0) }
+            sampleRate == null -> settings.endpointSampleRates.remove(endpoint)
+            else -> settings.endpointSampleRates[endpoint] = sampleRate.coerceIn(0.0, 1.0)
+        }
+        return settings()
+    }
+}
@@ -0,0 +1,31 @@
+package sigma.software.leovegas.drugstore.api.tracing
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ThreadLocalRandom
+
+/**
+ * Feign call sampling switches shared by every [SampledFeignLogger] of an application context,
+ * changed at runtime through [TracingEndpoint].
+ */
+class TracingSettings {
+
+    @Volatile
+    var enabled: Boolean = true
+
+    @Volatile
+    var sampleRate: Double = 0.01
+
+    @Volatile
+    var maxBodyBytes: Int = 0
+
+    // keyed by Feign config key ("ProductClientProto#getProductPrice(List)") or client name ("ProductClientProto")
+    val endpointSampleRates: MutableMap<String, Double> = ConcurrentHashMap()
+
+    fun isSampled(endpoint: String): Boolean {
+        if (!enabled) return false
+        val rate = endpointSampleRates[endpoint]
+            ?: endpointSampleRates[endpoint.substringBefore('#')]
+            ?: sampleRate
+        return rate >= 1.0 || rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate
+    }
+}
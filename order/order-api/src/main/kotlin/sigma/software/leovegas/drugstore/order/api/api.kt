@@ -26,6 +26,13 @@ data class OrderResponse(
     val updatedAt: LocalDateTime? = null,
 )
 
+data class OrderHeaderResponse(
+    val orderNumber: String = "undefined",
+    val orderStatus: OrderStatusDTO = NONE,
+    val createdAt: LocalDateTime? = null,
+    val updatedAt: LocalDateTime? = null,
+)
+
 // DTOs
 
 enum class OrderStatusDTO {
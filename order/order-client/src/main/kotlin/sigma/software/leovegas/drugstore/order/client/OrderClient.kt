@@ -3,8 +3,12 @@ package sigma.software.leovegas.drugstore.order.client
 import feign.Headers
 import feign.Param
 import feign.RequestLine
+import feign.Response
+import java.time.LocalDateTime
+import sigma.software.leovegas.drugstore.api.KeysetPage
 import sigma.software.leovegas.drugstore.order.api.CreateOrderEvent
 import sigma.software.leovegas.drugstore.order.api.OrderDetailsDTO
+import sigma.software.leovegas.drugstore.order.api.OrderHeaderResponse
 import sigma.software.leovegas.drugstore.order.api.OrderResponse
 import sigma.software.leovegas.drugstore.order.api.OrderStatusDTO
 import sigma.software.leovegas.drugstore.order.api.UpdateOrderEvent
@@ -24,6 +28,20 @@ interface OrderClient {
     @RequestLine("GET /api/v1/orders/status/{status}")
     fun getOrdersByStatus(@Param("status") orderStatus: OrderStatusDTO): List<OrderResponse>
 
+    @RequestLine("GET /api/v1/orders/status/{status}/keyset?size={size}&next={next}")
+    fun getOrdersByStatusKeyset(
+        @Param("status") orderStatus: OrderStatusDTO,
+        @Param("size") size: Int = 100,
+        @Param("next") next: String? = null
+    ): KeysetPage<OrderResponse>
+
+    /**
+     * Raw NDJSON response, one order per line; read it with [forEachOrderByStatus] and close it when done.
+     */
+    @RequestLine("GET /api/v1/orders/status/{status}/stream")
+    @Headers("Accept: application/x-ndjson")
+    fun streamOrdersByStatus(@Param("status") orderStatus: OrderStatusDTO): Response
+
     @RequestLine("GET /api/v1/orders/{orderNumber}/details")
     fun getOrderDetails(@Param("orderNumber") orderNumber: String): OrderDetailsDTO
 
@@ -33,6 +51,21 @@ interface OrderClient {
         @Param("size") size: Int = 5
     ): List<OrderResponse>
 
+    @RequestLine("GET /api/v1/orders/keyset?size={size}&next={next}")
+    fun getOrdersKeyset(
+        @Param("size") size: Int = 5,
+        @Param("next") next: String? = null
+    ): KeysetPage<OrderResponse>
+
+    @RequestLine("GET /api/v1/orders/history?from={from}&to={to}&status={status}&size={size}&next={next}")
+    fun getOrderHistory(
+        @Param("from") from: LocalDateTime,
+        @Param("to") to: LocalDateTime? = null,
+        @Param("status") statuses: List<OrderStatusDTO>? = null,
+        @Param("size") size: Int = 100,
+        @Param("next") next: String? = null
+    ): KeysetPage<OrderHeaderResponse>
+
     @RequestLine("POST /api/v1/orders/confirm/{orderNumber}")
     fun confirmOrder(@Param("orderNumber") orderNumber: String): String
 }
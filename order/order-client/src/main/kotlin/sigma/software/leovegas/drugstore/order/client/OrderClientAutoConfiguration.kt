@@ -1,12 +1,21 @@
 package sigma.software.leovegas.drugstore.order.client
 
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
+import feign.Client
 import feign.Feign
 import feign.Logger
+import feign.Request
 import feign.jackson.JacksonDecoder
 import feign.jackson.JacksonEncoder
-import feign.slf4j.Slf4jLogger
+import feign.okhttp.OkHttpClient
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tags
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics
+import java.util.concurrent.TimeUnit
+import okhttp3.ConnectionPool
+import okhttp3.Protocol
 import org.springframework.beans.factory.ObjectFactory
+import org.springframework.beans.factory.ObjectProvider
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass
 import org.springframework.boot.autoconfigure.http.HttpMessageConverters
@@ -19,6 +28,9 @@ import org.springframework.cloud.openfeign.support.SpringEncoder
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
 import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter
+import sigma.software.leovegas.drugstore.api.http.ConnectionLimitingClient
+import sigma.software.leovegas.drugstore.api.tracing.SampledFeignLogger
+import sigma.software.leovegas.drugstore.api.tracing.TracingSettings
 import sigma.software.leovegas.drugstore.order.client.proto.OrderClientProto
 
 @Configuration
@@ -28,11 +40,17 @@ class OrderClientAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    fun orderClient(props: OrderProperties): OrderClient {
+    fun orderClient(
+        props: OrderProperties,
+        orderHttpClient: Client,
+        tracingSettings: TracingSettings,
+    ): OrderClient {
         return Feign
             .builder()
-            .logger(Slf4jLogger())
-            .logLevel(Logger.Level.FULL)
+            .client(orderHttpClient)
+            .options(props.requestOptions())
+            .logger(SampledFeignLogger(tracingSettings))
+            .logLevel(Logger.Level.BASIC)
             .encoder(JacksonEncoder(listOf(JavaTimeModule(), PageJacksonModule(), SortJacksonModule())))
             .decoder(JacksonDecoder(listOf(JavaTimeModule(), PageJacksonModule(), SortJacksonModule())))
             .target(
@@ -45,12 +63,16 @@ class OrderClientAutoConfiguration {
     @ConditionalOnMissingBean
     fun orderClientProto(
         props: OrderProperties,
+        orderHttpClient: Client,
         messageConverters: ObjectFactory<HttpMessageConverters>,
+        tracingSettings: TracingSettings,
     ): OrderClientProto {
         return Feign
             .builder()
-            .logger(Slf4jLogger())
-            .logLevel(Logger.Level.FULL)
+            .client(orderHttpClient)
+            .options(props.requestOptions())
+            .logger(SampledFeignLogger(tracingSettings))
+            .logLevel(Logger.Level.BASIC)
             .encoder(SpringEncoder(messageConverters))
             .decoder(ResponseEntityDecoder(SpringDecoder(messageConverters)))
             .target(
@@ -63,4 +85,28 @@ class OrderClientAutoConfiguration {
     @ConditionalOnMissingBean
     fun orderProtobufHttpMessageConverterOrder(): ProtobufHttpMessageConverter =
         ProtobufHttpMessageConverter()
+
+    @Bean
+    @ConditionalOnMissingBean(name = ["orderHttpClient"])
+    fun orderHttpClient(props: OrderProperties, meterRegistry: ObjectProvider<MeterRegistry>): Client {
+        val connectionPool =
+            ConnectionPool(props.maxIdleConnections, props.keepAlive.toMillis(), TimeUnit.MILLISECONDS)
+        meterRegistry.ifAvailable { OkHttpConnectionPoolMetrics(connectionPool, Tags.of("client", "order")).bindTo(it) }
+        val okHttpClient = OkHttpClient(
+            okhttp3.OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .connectTimeout(props.connectTimeout)
+                .readTimeout(props.readTimeout)
+                .protocols(if (props.http2) listOf(Protocol.H2_PRIOR_KNOWLEDGE) else listOf(Protocol.HTTP_1_1))
+                .build()
+        )
+        return ConnectionLimitingClient(okHttpClient, props.maxConnections, props.readTimeout)
+    }
+
+    private fun OrderProperties.requestOptions() =
+        Request.Options(
+            connectTimeout.toMillis(), TimeUnit.MILLISECONDS,
+            readTimeout.toMillis(), TimeUnit.MILLISECONDS,
+            true
+        )
 }
@@ -1,5 +1,6 @@
 package sigma.software.leovegas.drugstore.order.client
 
+import java.time.Duration
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.boot.context.properties.ConstructorBinding
 
@@ -8,4 +9,10 @@ import org.springframework.boot.context.properties.ConstructorBinding
 data class OrderProperties(
     val host: String = "undefined",
     val port: Int = 80,
+    val connectTimeout: Duration = Duration.ofSeconds(2),
+    val readTimeout: Duration = Duration.ofSeconds(10),
+    val maxConnections: Int = 20,
+    val maxIdleConnections: Int = 20,
+    val keepAlive: Duration = Duration.ofMinutes(5),
+    val http2: Boolean = false,
 )
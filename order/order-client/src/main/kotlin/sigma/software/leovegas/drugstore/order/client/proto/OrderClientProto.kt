@@ -1,12 +1,22 @@
 package sigma.software.leovegas.drugstore.order.client.proto
 
 import feign.Headers
+import feign.Param
 import feign.RequestLine
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
 
 @Headers("Content-Type: application/x-protobuf")
 interface OrderClientProto {
 
-    @RequestLine("GET /api/v1/orders/total-buys")
-    fun getProductsIdToQuantity(): Proto.ProductQuantityMap
+    @RequestLine("GET /api/v1/orders/total-buys?page={page}&size={size}")
+    fun getProductsIdToQuantity(
+        @Param("page") page: Int = 0,
+        @Param("size") size: Int = 100,
+    ): Proto.ProductQuantityMap
+
+    @RequestLine("GET /api/v1/orders/total-buys/ranked?page={page}&size={size}")
+    fun getRankedProductsQuantity(
+        @Param("page") page: Int = 0,
+        @Param("size") size: Int = 5,
+    ): Proto.ProductQuantityList
 }
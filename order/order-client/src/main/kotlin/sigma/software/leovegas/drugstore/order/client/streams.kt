@@ -0,0 +1,34 @@
+package sigma.software.leovegas.drugstore.order.client
+
+import com.fasterxml.jackson.databind.DeserializationFeature
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
+import feign.FeignException
+import sigma.software.leovegas.drugstore.order.api.OrderResponse
+import sigma.software.leovegas.drugstore.order.api.OrderStatusDTO
+
+private val orderReader = ObjectMapper()
+    .registerModule(JavaTimeModule())
+    .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+    .readerFor(OrderResponse::class.java)
+
+/**
+ * Reads the orders with [orderStatus] from the NDJSON stream as they arrive, so no more than one order
+ * is held in memory. Returns the number of orders read.
+ */
+fun OrderClient.forEachOrderByStatus(orderStatus: OrderStatusDTO, action: (OrderResponse) -> Unit): Int =
+    streamOrdersByStatus(orderStatus).use { response ->
+        if (response.status() != 200) throw FeignException.errorStatus("OrderClient#streamOrdersByStatus", response)
+        response.body()?.asReader(Charsets.UTF_8)?.buffered()?.useLines { lines ->
+            lines.filter { it.isNotBlank() }.map { orderReader.readValue<OrderResponse>(it) }.onEach(action).count()
+        } ?: 0
+    }
+
+/**
+ * Walks the keyset pages of the orders with [orderStatus], requesting the next page only when
+ * the previous one has been consumed.
+ */
+fun OrderClient.ordersByStatus(orderStatus: OrderStatusDTO, pageSize: Int = 100): Sequence<OrderResponse> =
+    generateSequence({ getOrdersByStatusKeyset(orderStatus, pageSize) }) { page ->
+        page.next?.let { getOrdersByStatusKeyset(orderStatus, pageSize, it) }
+    }.flatMap { it.items }
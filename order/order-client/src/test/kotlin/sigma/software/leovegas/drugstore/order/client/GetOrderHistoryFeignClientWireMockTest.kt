@@ -0,0 +1,76 @@
+package sigma.software.leovegas.drugstore.order.client
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.equalTo
+import com.github.tomakehurst.wiremock.client.WireMock.get
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo
+import java.time.LocalDateTime
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.http.HttpStatus
+import org.springframework.http.MediaType
+import org.springframework.test.context.ContextConfiguration
+import sigma.software.leovegas.drugstore.api.KeysetPage
+import sigma.software.leovegas.drugstore.api.keysetToken
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+import sigma.software.leovegas.drugstore.order.api.OrderHeaderResponse
+import sigma.software.leovegas.drugstore.order.api.OrderStatusDTO.CONFIRMED
+
+@SpringBootApplication
+internal class GetOrderHistoryFeignClientWireMockTestApp
+
+@DisplayName("Get Order History Feign Client WireMock test")
+@ContextConfiguration(classes = [GetOrderHistoryFeignClientWireMockTestApp::class])
+class GetOrderHistoryFeignClientWireMockTest @Autowired constructor(
+    val orderClient: OrderClient,
+    val objectMapper: ObjectMapper,
+) : WireMockTest() {
+
+    @Test
+    fun `should get order headers in time range`() {
+
+        // given
+        val from = LocalDateTime.of(2021, 9, 1, 0, 0, 0)
+        val to = LocalDateTime.of(2021, 9, 2, 0, 0, 0)
+
+        // and
+        val responseExpected = KeysetPage(
+            items = listOf(
+                OrderHeaderResponse(
+                    orderNumber = "1",
+                    orderStatus = CONFIRMED,
+                    createdAt = LocalDateTime.of(2021, 9, 1, 12, 0, 0),
+                    updatedAt = LocalDateTime.of(2021, 9, 1, 12, 5, 0),
+                )
+            ),
+            next = keysetToken(LocalDateTime.of(2021, 9, 1, 12, 0, 0), 1)
+        )
+
+        // and
+        stubFor(
+            get(urlPathEqualTo("/api/v1/orders/history"))
+                .withQueryParam("from", equalTo(from.toString()))
+                .withQueryParam("to", equalTo(to.toString()))
+                .withQueryParam("status", equalTo(CONFIRMED.name))
+                .withQueryParam("size", equalTo("1"))
+                .willReturn(
+                    aResponse()
+                        .withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                        .withBody(objectMapper.writeValueAsString(responseExpected))
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+
+        // when
+        val responseActual = orderClient.getOrderHistory(from, to, listOf(CONFIRMED), size = 1)
+
+        // then
+        assertThat(responseActual.items).containsExactlyElementsOf(responseExpected.items)
+        assertThat(responseActual.next).isEqualTo(responseExpected.next)
+    }
+}
@@ -0,0 +1,79 @@
+package sigma.software.leovegas.drugstore.order.client
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.get
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import com.github.tomakehurst.wiremock.matching.ContainsPattern
+import java.time.LocalDateTime
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.http.HttpStatus
+import org.springframework.http.MediaType
+import org.springframework.test.context.ContextConfiguration
+import sigma.software.leovegas.drugstore.api.KeysetPage
+import sigma.software.leovegas.drugstore.api.keysetToken
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+import sigma.software.leovegas.drugstore.order.api.OrderItemDTO
+import sigma.software.leovegas.drugstore.order.api.OrderResponse
+import sigma.software.leovegas.drugstore.order.api.OrderStatusDTO.CREATED
+
+@SpringBootApplication
+internal class GetOrdersKeysetFeignClientWireMockTestApp
+
+@DisplayName("Get Orders Keyset Feign Client WireMock test")
+@ContextConfiguration(classes = [GetOrdersKeysetFeignClientWireMockTestApp::class])
+class GetOrdersKeysetFeignClientWireMockTest @Autowired constructor(
+    val orderClient: OrderClient,
+    val objectMapper: ObjectMapper,
+) : WireMockTest() {
+
+    @Test
+    fun `should get orders after continuation token`() {
+
+        // given
+        val token = keysetToken(LocalDateTime.now(), 5)
+
+        // and
+        val responseExpected = KeysetPage(
+            items = listOf(
+                OrderResponse(
+                    orderNumber = "1",
+                    orderStatus = CREATED,
+                    orderItems = listOf(
+                        OrderItemDTO("1", 2)
+                    ),
+                    createdAt = LocalDateTime.now(),
+                    updatedAt = LocalDateTime.now(),
+                )
+            ),
+            next = keysetToken(LocalDateTime.now(), 4)
+        )
+
+        // and
+        stubFor(
+            get("/api/v1/orders/keyset?size=1&next=$token")
+                .withHeader("Content-Type", ContainsPattern(MediaType.APPLICATION_JSON_VALUE))
+                .willReturn(
+                    aResponse()
+                        .withBody(
+                            objectMapper
+                                .writerWithDefaultPrettyPrinter()
+                                .writeValueAsString(responseExpected)
+                        )
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+
+        // when
+        val responseActual = orderClient.getOrdersKeyset(size = 1, next = token)
+
+        //  then
+        assertThat(responseActual.items).hasSize(1)
+        assertThat(responseActual.items[0].orderNumber).isEqualTo("1")
+        assertThat(responseActual.next).isEqualTo(responseExpected.next)
+    }
+}
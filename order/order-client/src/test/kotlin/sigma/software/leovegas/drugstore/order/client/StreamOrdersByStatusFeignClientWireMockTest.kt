@@ -0,0 +1,102 @@
+package sigma.software.leovegas.drugstore.order.client
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.get
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import com.github.tomakehurst.wiremock.matching.ContainsPattern
+import java.time.LocalDateTime
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.http.HttpStatus
+import org.springframework.http.MediaType
+import org.springframework.test.context.ContextConfiguration
+import sigma.software.leovegas.drugstore.api.KeysetPage
+import sigma.software.leovegas.drugstore.api.keysetToken
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+import sigma.software.leovegas.drugstore.order.api.OrderItemDTO
+import sigma.software.leovegas.drugstore.order.api.OrderResponse
+import sigma.software.leovegas.drugstore.order.api.OrderStatusDTO.CONFIRMED
+
+@SpringBootApplication
+internal class StreamOrdersByStatusFeignClientWireMockTestApp
+
+@DisplayName("Stream Orders By Status Feign Client WireMock test")
+@ContextConfiguration(classes = [StreamOrdersByStatusFeignClientWireMockTestApp::class])
+class StreamOrdersByStatusFeignClientWireMockTest @Autowired constructor(
+    val orderClient: OrderClient,
+    val objectMapper: ObjectMapper,
+) : WireMockTest() {
+
+    private fun order(orderNumber: String) = OrderResponse(
+        orderNumber = orderNumber,
+        orderStatus = CONFIRMED,
+        orderItems = listOf(OrderItemDTO("1", 2)),
+        createdAt = LocalDateTime.now(),
+        updatedAt = LocalDateTime.now(),
+    )
+
+    @Test
+    fun `should read streamed orders one by one`() {
+
+        // given
+        val ndjson = (1..3).joinToString("\n", postfix = "\n") { objectMapper.writeValueAsString(order("$it")) }
+
+        // and
+        stubFor(
+            get("/api/v1/orders/status/CONFIRMED/stream")
+                .withHeader("Accept", ContainsPattern(MediaType.APPLICATION_NDJSON_VALUE))
+                .willReturn(
+                    aResponse()
+                        .withHeader("Content-Type", MediaType.APPLICATION_NDJSON_VALUE)
+                        .withBody(ndjson)
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+
+        // when
+        val received = mutableListOf<OrderResponse>()
+        val count = orderClient.forEachOrderByStatus(CONFIRMED) { received.add(it) }
+
+        // then
+        assertThat(count).isEqualTo(3)
+        assertThat(received.map { it.orderNumber }).containsExactly("1", "2", "3")
+        assertThat(received[0].orderItems).containsExactly(OrderItemDTO("1", 2))
+    }
+
+    @Test
+    fun `should walk orders by status pages`() {
+
+        // given
+        val token = keysetToken(LocalDateTime.now(), 5)
+
+        // and
+        stubFor(
+            get("/api/v1/orders/status/CONFIRMED/keyset?size=1")
+                .willReturn(
+                    aResponse()
+                        .withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                        .withBody(objectMapper.writeValueAsString(KeysetPage(listOf(order("1")), token)))
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+        stubFor(
+            get("/api/v1/orders/status/CONFIRMED/keyset?size=1&next=$token")
+                .willReturn(
+                    aResponse()
+                        .withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                        .withBody(objectMapper.writeValueAsString(KeysetPage(listOf(order("2")), null)))
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+
+        // when
+        val orders = orderClient.ordersByStatus(CONFIRMED, pageSize = 1).toList()
+
+        // then
+        assertThat(orders.map { it.orderNumber }).containsExactly("1", "2")
+    }
+}
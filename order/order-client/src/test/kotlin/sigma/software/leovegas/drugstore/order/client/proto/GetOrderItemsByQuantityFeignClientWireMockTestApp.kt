@@ -37,7 +37,7 @@ class GetOrderItemsByQuantityFeignClientWireMockTest @Autowired constructor(
 
         // and
         stubFor(
-            get("/api/v1/orders/total-buys")
+            get("/api/v1/orders/total-buys?page=0&size=100")
                 .willReturn(
                     aResponse()
                         .withProtobufResponse { responseExpected }
@@ -0,0 +1,54 @@
+package sigma.software.leovegas.drugstore.order.client.proto
+
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.get
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.http.HttpStatus
+import org.springframework.test.context.ContextConfiguration
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+
+@SpringBootApplication
+internal class GetRankedProductsQuantityFeignClientWireMockTestApp
+
+@DisplayName("Get ranked total buys Feign Client WireMock test")
+@ContextConfiguration(classes = [GetRankedProductsQuantityFeignClientWireMockTestApp::class])
+class GetRankedProductsQuantityFeignClientWireMockTest @Autowired constructor(
+    val orderClientProto: OrderClientProto,
+) : WireMockTest() {
+
+    @Test
+    fun `should get page of total buys of products ranked by quantity DESC`() {
+
+        // given
+        val responseExpected = Proto.ProductQuantityList.newBuilder()
+            .addItems(Proto.Item.newBuilder().setProductNumber("1").setQuantity(7).build())
+            .addItems(Proto.Item.newBuilder().setProductNumber("2").setQuantity(5).build())
+            .build()
+
+        // and
+        stubFor(
+            get("/api/v1/orders/total-buys/ranked?page=0&size=2")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse { responseExpected }
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+
+        // when
+        val responseActual = orderClientProto.getRankedProductsQuantity(0, 2)
+
+        //  then
+        assertThat(responseActual.itemsList).hasSize(2)
+        assertThat(responseActual.itemsList[0].productNumber).isEqualTo("1")
+        assertThat(responseActual.itemsList[0].quantity).isEqualTo(7)
+        assertThat(responseActual.itemsList[1].productNumber).isEqualTo("2")
+        assertThat(responseActual.itemsList[1].quantity).isEqualTo(5)
+    }
+}
@@ -6,7 +6,6 @@ import javax.persistence.Column
 import javax.persistence.Entity
 import javax.persistence.EnumType
 import javax.persistence.Enumerated
-import javax.persistence.FetchType
 import javax.persistence.GeneratedValue
 import javax.persistence.GenerationType
 import javax.persistence.Id
@@ -15,6 +14,7 @@ import javax.persistence.OneToMany
 import javax.persistence.Table
 import javax.validation.constraints.NotEmpty
 import javax.validation.constraints.NotNull
+import org.hibernate.annotations.BatchSize
 import org.hibernate.annotations.CreationTimestamp
 import org.hibernate.annotations.UpdateTimestamp
 
@@ -47,7 +47,8 @@ data class Order(
 
     @NotEmpty // TODO: FIXME: Make sure its not possible to save an order without order items (write test)
     @JoinColumn(name = "order_id")
-    @OneToMany(cascade = [CascadeType.ALL], fetch = FetchType.EAGER, orphanRemoval = true)
+    @BatchSize(size = 100)
+    @OneToMany(cascade = [CascadeType.ALL], orphanRemoval = true)
     val orderItems: Set<OrderItem> = setOf(),
 
     @NotNull
@@ -3,21 +3,40 @@ package sigma.software.leovegas.drugstore.order
 import java.util.function.Consumer
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
-import sigma.software.leovegas.drugstore.order.api.CreateOrderEvent
-import sigma.software.leovegas.drugstore.order.api.UpdateOrderEvent
+import org.springframework.core.env.Environment
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.api.toBigDecimal
 
 @Configuration
-class OrderEventHandler(val orderService: OrderService) {
+class OrderEventHandler(val orderService: OrderService, environment: Environment) {
+
+    init {
+        // the functionRouter-in-0 binding reads the same variables, a misconfigured instance must not start
+        validateOrderEventPartition(
+            environment.getProperty("ORDER_EVENT_PARTITIONS", Int::class.javaObjectType, 1),
+            environment.getProperty("ORDER_EVENT_PARTITION", Int::class.javaObjectType),
+        )
+    }
+
+    @Bean
+    fun createOrderEventHandler() = Consumer<Proto.CreateOrderEvent> {
+        orderService.createOrder(it.toCreateOrderEvent())
+    }
+
 
     @Bean
-    fun createOrderEventHandler() = Consumer<CreateOrderEvent> {
-        orderService.createOrder(it)
+    fun updateOrderEventHandler() = Consumer<Proto.UpdateOrderEvent> {
+        orderService.updateOrder(it.toUpdateOrderEvent())
     }
 
+    @Bean
+    fun updateMarkupEventHandler() = Consumer<Proto.DecimalValue> {
+        orderService.applyMarkup(it.toBigDecimal())
+    }
 
     @Bean
-    fun updateOrderEventHandler() = Consumer<UpdateOrderEvent> {
-        orderService.updateOrder(it)
+    fun refreshOrderItemsEventHandler() = Consumer<Proto.ProductNumberList> {
+        orderService.refreshOpenOrderItems(it.productNumberList)
     }
 
 }
@@ -0,0 +1,14 @@
+package sigma.software.leovegas.drugstore.order
+
+import java.time.LocalDateTime
+
+/**
+ * Order columns without its items, selected by [OrderRepository.findHistory].
+ */
+data class OrderHeader(
+    val id: Long,
+    val orderNumber: String,
+    val orderStatus: OrderStatus,
+    val createdAt: LocalDateTime?,
+    val updatedAt: LocalDateTime?,
+)
@@ -1,5 +1,6 @@
 package sigma.software.leovegas.drugstore.order
 
+import java.math.BigDecimal
 import javax.persistence.Column
 import javax.persistence.Entity
 import javax.persistence.GeneratedValue
@@ -27,4 +28,10 @@ data class OrderItem(
     @Min(1)
     @Column(name = "quantity", nullable = false)
     val quantity: Int = -1,
+
+    @Column(name = "name")
+    val name: String? = null,
+
+    @Column(name = "price")
+    val price: BigDecimal? = null,
 )
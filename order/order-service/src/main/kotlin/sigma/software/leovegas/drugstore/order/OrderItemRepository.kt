@@ -1,10 +1,34 @@
 package sigma.software.leovegas.drugstore.order
 
-import java.util.Optional
+import java.math.BigDecimal
 import org.springframework.data.jpa.repository.JpaRepository
+import org.springframework.data.jpa.repository.Modifying
 import org.springframework.data.jpa.repository.Query
 import org.springframework.data.repository.query.Param
 import org.springframework.stereotype.Repository
 
 @Repository
-interface OrderItemRepository : JpaRepository<OrderItem, Long>
+interface OrderItemRepository : JpaRepository<OrderItem, Long> {
+
+    @Query("select i from Order o join o.orderItems i where o.orderStatus in :statuses")
+    fun findAllByOrderStatusIn(@Param("statuses") statuses: Collection<OrderStatus>): List<OrderItem>
+
+    @Query(
+        """
+        select i from Order o join o.orderItems i
+        where o.orderStatus in :statuses and i.productNumber in :productNumbers
+        """
+    )
+    fun findAllByOrderStatusInAndProductNumberIn(
+        @Param("statuses") statuses: Collection<OrderStatus>,
+        @Param("productNumbers") productNumbers: Collection<String>
+    ): List<OrderItem>
+
+    @Modifying
+    @Query("update OrderItem i set i.name = :name, i.price = :price where i.id in :ids")
+    fun updateSnapshot(
+        @Param("ids") ids: Collection<Long>,
+        @Param("name") name: String,
+        @Param("price") price: BigDecimal
+    ): Int
+}
@@ -1,5 +1,6 @@
 package sigma.software.leovegas.drugstore.order
 
+import java.time.Duration
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.boot.context.properties.ConstructorBinding
 
@@ -8,4 +9,5 @@ import org.springframework.boot.context.properties.ConstructorBinding
 data class OrderProperties(
     val host: String = "undefined",
     val port: Int = 80,
+    val detailsTimeout: Duration = Duration.ofSeconds(5),
 )
@@ -1,28 +1,101 @@
 package sigma.software.leovegas.drugstore.order
 
+import java.time.LocalDateTime
 import java.util.Optional
+import java.util.stream.Stream
+import javax.persistence.QueryHint
+import org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE
+import org.hibernate.jpa.QueryHints.HINT_READONLY
+import org.springframework.data.domain.Pageable
+import org.springframework.data.jpa.repository.EntityGraph
 import org.springframework.data.jpa.repository.JpaRepository
 import org.springframework.data.jpa.repository.Query
+import org.springframework.data.jpa.repository.QueryHints
 import org.springframework.data.repository.query.Param
 import org.springframework.stereotype.Repository
 
-data class View(val productNumber: String = "undefined", val quantity: Int = -1)
-
+/**
+ * [findByOrderNumber] fetches the order items in the same select; list queries load them lazily,
+ * one select per [org.hibernate.annotations.BatchSize] orders.
+ * [streamAllByOrderStatus] relies on `useCursorFetch=true` on MySQL: the fetch size then reads the orders through
+ * a server side cursor, and the item batch loads can run on the same connection while the scroll is open.
+ */
 @Repository
 interface OrderRepository : JpaRepository<Order, Long> {
 
+    @EntityGraph(attributePaths = ["orderItems"])
+    fun findByOrderNumber(orderNumber: String): Optional<Order>
+
+    fun getAllByOrderStatus(orderStatus: OrderStatus): List<Order>
+
+    fun findAllByOrderStatusOrderByCreatedAtDescIdDesc(orderStatus: OrderStatus, pageable: Pageable): List<Order>
+
     @Query(
         """
-        select new sigma.software.leovegas.drugstore.order.View(productNumber, cast(sum(quantity) int))
-        From OrderItem
-        where productNumber in (:productNumbers) 
-        group by productNumber 
-        order by sum(quantity) DESC
+        select o from Order o
+        where o.orderStatus = :status and (o.createdAt < :createdAt or o.createdAt = :createdAt and o.id < :id)
+        order by o.createdAt desc, o.id desc
         """
     )
-    fun getProductNumberToQuantity(@Param("productNumbers") productNumbers: List<String>): List<View>
+    fun findAllByOrderStatusBefore(
+        @Param("status") orderStatus: OrderStatus,
+        @Param("createdAt") createdAt: LocalDateTime,
+        @Param("id") id: Long,
+        pageable: Pageable
+    ): List<Order>
 
-    fun findByOrderNumber(orderNumber: String): Optional<Order>
+    /**
+     * Headers of the orders with [orderStatuses] created in [from, createdAt), or at createdAt with an id below [id],
+     * newest first; served by the (order_status, created_at, id) index.
+     */
+    @Query(
+        """
+        select new sigma.software.leovegas.drugstore.order.OrderHeader(
+            o.id, o.orderNumber, o.orderStatus, o.createdAt, o.updatedAt
+        )
+        from Order o
+        where o.orderStatus in :statuses and o.createdAt >= :from
+            and (o.createdAt < :createdAt or o.createdAt = :createdAt and o.id < :id)
+        order by o.createdAt desc, o.id desc
+        """
+    )
+    fun findHistory(
+        @Param("statuses") orderStatuses: Collection<OrderStatus>,
+        @Param("from") from: LocalDateTime,
+        @Param("createdAt") createdAt: LocalDateTime,
+        @Param("id") id: Long,
+        pageable: Pageable
+    ): List<OrderHeader>
 
-    fun getAllByOrderStatus(orderStatus: OrderStatus): List<Order>
+    /**
+     * Headers of the orders of any status created in [from, createdAt), or at createdAt with an id below [id],
+     * newest first; served by the (created_at, id) index.
+     */
+    @Query(
+        """
+        select new sigma.software.leovegas.drugstore.order.OrderHeader(
+            o.id, o.orderNumber, o.orderStatus, o.createdAt, o.updatedAt
+        )
+        from Order o
+        where o.createdAt >= :from
+            and (o.createdAt < :createdAt or o.createdAt = :createdAt and o.id < :id)
+        order by o.createdAt desc, o.id desc
+        """
+    )
+    fun findHistory(
+        @Param("from") from: LocalDateTime,
+        @Param("createdAt") createdAt: LocalDateTime,
+        @Param("id") id: Long,
+        pageable: Pageable
+    ): List<OrderHeader>
+
+    @QueryHints(QueryHint(name = HINT_FETCH_SIZE, value = "500"), QueryHint(name = HINT_READONLY, value = "true"))
+    @Query("select o from Order o where o.orderStatus = :status order by o.createdAt desc, o.id desc")
+    fun streamAllByOrderStatus(@Param("status") orderStatus: OrderStatus): Stream<Order>
+
+    fun findAllByOrderByCreatedAtDescIdDesc(pageable: Pageable): List<Order>
+
+    fun findAllByCreatedAtLessThanOrCreatedAtAndIdLessThanOrderByCreatedAtDescIdDesc(
+        createdAt: LocalDateTime, sameCreatedAt: LocalDateTime, id: Long, pageable: Pageable
+    ): List<Order>
 }
@@ -1,14 +1,17 @@
 package sigma.software.leovegas.drugstore.order
 
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.google.protobuf.Message
+import java.time.LocalDateTime
 import java.util.UUID
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 import org.springframework.beans.factory.annotation.Autowired
-import org.springframework.cloud.stream.function.StreamBridge
+import org.springframework.format.annotation.DateTimeFormat
+import org.springframework.format.annotation.DateTimeFormat.ISO
 import org.springframework.http.HttpStatus
+import org.springframework.http.MediaType
 import org.springframework.http.ResponseEntity
-import org.springframework.messaging.MessageHeaders
-import org.springframework.messaging.support.MessageBuilder
 import org.springframework.web.bind.annotation.CrossOrigin
 import org.springframework.web.bind.annotation.ExceptionHandler
 import org.springframework.web.bind.annotation.GetMapping
@@ -20,18 +23,22 @@ import org.springframework.web.bind.annotation.RequestMapping
 import org.springframework.web.bind.annotation.RequestParam
 import org.springframework.web.bind.annotation.ResponseStatus
 import org.springframework.web.bind.annotation.RestController
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody
 import sigma.software.leovegas.drugstore.api.ApiError
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
 import sigma.software.leovegas.drugstore.order.api.CreateOrderEvent
 import sigma.software.leovegas.drugstore.order.api.OrderStatusDTO
 import sigma.software.leovegas.drugstore.order.api.UpdateOrderEvent
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.OutboxEvent
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.OutboxEventRepository
 
 @CrossOrigin
 @RestController
 @RequestMapping("/api/v1/orders")
 class OrderResource @Autowired constructor(
     val orderService: OrderService,
-    val eventStream: StreamBridge,
+    val outboxEventRepository: OutboxEventRepository,
+    val objectMapper: ObjectMapper,
 ) {
 
     val logger: Logger = LoggerFactory.getLogger(OrderResource::class.java)
@@ -40,11 +47,7 @@ class OrderResource @Autowired constructor(
     @ResponseStatus(HttpStatus.CREATED)
     fun createOrder(@RequestBody createOrderEvent: CreateOrderEvent): String {
         val generatedOrderNumber = UUID.randomUUID().toString()
-        val createOrderMessage = MessageBuilder.createMessage(
-            createOrderEvent.copy(orderNumber = generatedOrderNumber),
-            MessageHeaders(mutableMapOf(Pair<String, Any>("createOrder", true)))
-        )
-        eventStream.send("createUpdateOrderEventPublisher-out-0", createOrderMessage)
+        publish(createOrderEvent.copy(orderNumber = generatedOrderNumber).toProto(), generatedOrderNumber, true)
         return generatedOrderNumber;
     }
 
@@ -58,9 +61,39 @@ class OrderResource @Autowired constructor(
     fun getOrdersByStatus(@PathVariable("status") orderStatus: OrderStatusDTO) =
         orderService.getOrdersByStatus(orderStatus)
 
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/status/{status}/keyset")
+    fun getOrdersByStatusKeyset(
+        @PathVariable("status") orderStatus: OrderStatusDTO,
+        @RequestParam(defaultValue = "100") size: Int,
+        @RequestParam(required = false) next: String?,
+    ) = orderService.getOrdersByStatusKeyset(orderStatus, size, next)
+
+    @GetMapping("/status/{status}/stream", produces = [MediaType.APPLICATION_NDJSON_VALUE])
+    fun streamOrdersByStatus(
+        @PathVariable("status") orderStatus: OrderStatusDTO,
+    ): ResponseEntity<StreamingResponseBody> =
+        ResponseEntity.ok().body(StreamingResponseBody { output ->
+            orderService.forEachOrderByStatus(orderStatus) {
+                output.write(objectMapper.writeValueAsBytes(it))
+                output.write('\n'.code)
+            }
+            output.flush()
+        })
+
     @GetMapping("/total-buys")
     @ResponseStatus(HttpStatus.OK)
-    fun getProductsIdToQuantity(): Proto.ProductQuantityMap = orderService.getProductsNumberToQuantity()
+    fun getProductsIdToQuantity(
+        @RequestParam(defaultValue = "0") page: Int,
+        @RequestParam(defaultValue = "100") size: Int,
+    ): Proto.ProductQuantityMap = orderService.getProductsNumberToQuantity(page, size)
+
+    @GetMapping("/total-buys/ranked")
+    @ResponseStatus(HttpStatus.OK)
+    fun getRankedProductsQuantity(
+        @RequestParam(defaultValue = "0") page: Int,
+        @RequestParam(defaultValue = "5") size: Int,
+    ): Proto.ProductQuantityList = orderService.getRankedProductsQuantity(page, size)
 
     @GetMapping("/{orderNumber}/details")
     @ResponseStatus(HttpStatus.OK)
@@ -73,17 +106,30 @@ class OrderResource @Autowired constructor(
         @RequestParam(defaultValue = "5") size: Int,
     ) = orderService.getOrders(page, size)
 
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/keyset")
+    fun getOrdersKeyset(
+        @RequestParam(defaultValue = "5") size: Int,
+        @RequestParam(required = false) next: String?,
+    ) = orderService.getOrdersKeyset(size, next)
+
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/history")
+    fun getOrderHistory(
+        @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) from: LocalDateTime,
+        @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) to: LocalDateTime?,
+        @RequestParam(name = "status", required = false) statuses: List<OrderStatusDTO>?,
+        @RequestParam(defaultValue = "100") size: Int,
+        @RequestParam(required = false) next: String?,
+    ) = orderService.getOrderHistory(from, to, statuses, size, next)
+
     @PutMapping("/{orderNumber}")
     @ResponseStatus(HttpStatus.ACCEPTED)
     fun updateOrder(
         @PathVariable("orderNumber") orderNumber: String,
         @RequestBody updateOrderEvent: UpdateOrderEvent
     ): String {
-        val updateOrderMessage = MessageBuilder.createMessage(
-            updateOrderEvent.copy(orderNumber = orderNumber),
-            MessageHeaders(mutableMapOf(Pair<String, Any>("createOrder", false)))
-        )
-        eventStream.send("createUpdateOrderEventPublisher-out-0", updateOrderMessage)
+        publish(updateOrderEvent.copy(orderNumber = orderNumber).toProto(), orderNumber, false)
         return "Updated"
     }
 
@@ -92,6 +138,19 @@ class OrderResource @Autowired constructor(
     fun confirmOrder(@PathVariable("orderNumber") orderNumber: String) =
         orderService.confirmOrder(orderNumber)
 
+    // the event is committed to the outbox before answering and relayed in order of its order number,
+    // so an accepted order is never lost and the request does not wait for the broker
+    private fun publish(event: Message, orderNumber: String, createOrder: Boolean) {
+        outboxEventRepository.save(
+            OutboxEvent(
+                "createUpdateOrderEventPublisher-out-0",
+                event,
+                key = orderNumber,
+                headers = mapOf("createOrder" to createOrder, "orderNumber" to orderNumber),
+            )
+        )
+    }
+
     @ExceptionHandler(Throwable::class)
     fun handleNotFound(e: Throwable) = run {
         val status = when (e) {
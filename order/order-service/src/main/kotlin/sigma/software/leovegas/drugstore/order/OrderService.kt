@@ -1,134 +1,275 @@
 package sigma.software.leovegas.drugstore.order
 
 import java.math.BigDecimal
-import java.math.RoundingMode
+import java.time.LocalDateTime
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import javax.persistence.EntityManager
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 import org.springframework.beans.factory.annotation.Autowired
-import org.springframework.cloud.stream.function.StreamBridge
 import org.springframework.data.domain.PageRequest
 import org.springframework.data.domain.Pageable
 import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Propagation
 import org.springframework.transaction.annotation.Transactional
-import org.springframework.util.MimeType
+import org.springframework.transaction.support.TransactionTemplate
 import sigma.software.leovegas.drugstore.accountancy.api.CreateOutcomeInvoiceEvent
 import sigma.software.leovegas.drugstore.accountancy.api.ItemDTO
-import sigma.software.leovegas.drugstore.accountancy.client.proto.AccountancyClientProto
+import sigma.software.leovegas.drugstore.accountancy.client.proto.AccountancyClientProtoAsync
+import sigma.software.leovegas.drugstore.api.KeysetPage
+import sigma.software.leovegas.drugstore.api.keysetToken
 import sigma.software.leovegas.drugstore.api.messageSpliterator
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
 import sigma.software.leovegas.drugstore.api.toBigDecimal
-import sigma.software.leovegas.drugstore.order.OrderStatus.CONFIRMED
+import sigma.software.leovegas.drugstore.api.toKeyset
+import sigma.software.leovegas.drugstore.api.toMoney
 import sigma.software.leovegas.drugstore.order.OrderStatus.CREATED
 import sigma.software.leovegas.drugstore.order.OrderStatus.UPDATED
 import sigma.software.leovegas.drugstore.order.api.CreateOrderEvent
 import sigma.software.leovegas.drugstore.order.api.OrderDetailsDTO
+import sigma.software.leovegas.drugstore.order.api.OrderHeaderResponse
 import sigma.software.leovegas.drugstore.order.api.OrderItemDetailsDTO
 import sigma.software.leovegas.drugstore.order.api.OrderResponse
 import sigma.software.leovegas.drugstore.order.api.OrderStatusDTO
 import sigma.software.leovegas.drugstore.order.api.UpdateOrderEvent
-import sigma.software.leovegas.drugstore.product.client.proto.ProductClientProto
+import sigma.software.leovegas.drugstore.product.client.proto.ProductClientProtoAsync
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.OutboxEvent
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.OutboxEventRepository
 
 @Service
 @Transactional
 class OrderService @Autowired constructor(
     val orderRepository: OrderRepository,
-    val productClientProto: ProductClientProto,
-    val accountancyClientProto: AccountancyClientProto,
-    val eventStream: StreamBridge,
+    val orderItemRepository: OrderItemRepository,
+    val productPopularityRepository: ProductPopularityRepository,
+    val productClientProtoAsync: ProductClientProtoAsync,
+    val accountancyClientProtoAsync: AccountancyClientProtoAsync,
+    val orderProperties: OrderProperties,
+    val outboxEventRepository: OutboxEventRepository,
+    val pricingMarkupRepository: PricingMarkupRepository,
+    val entityManager: EntityManager,
+    val transactionTemplate: TransactionTemplate,
 ) {
 
     val logger: Logger = LoggerFactory.getLogger(OrderService::class.java)
 
+    /**
+     * Saves a new order. The item snapshots are fetched before the transaction is opened, so no connection is held
+     * while waiting for product and accountancy.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     fun createOrder(createOrderEvent: CreateOrderEvent): OrderResponse =
         createOrderEvent.validate().run {
-            val entity = toEntity().copy(
-                orderStatus = CREATED,
-            ) // NOTE: business logic must be placed in services!
-            val created = orderRepository.save(entity).toOrderResponseDTO()
-            logger.info("Order created $created")
+            val entity = toEntity().let {
+                it.copy(
+                    orderStatus = CREATED,
+                    orderItems = it.orderItems.withSnapshots(),
+                )
+            } // NOTE: business logic must be placed in services!
+            val created = transactionTemplate.execute { orderRepository.save(entity).toOrderResponseDTO() }!!
+            logger.debug("Order created {}", created)
             return@run created
         }
 
     fun getOrderByOrderNumber(orderNumber: String): OrderResponse =
         orderNumber.validate(orderRepository::findByOrderNumber).run {
-            logger.info("Order found $this")
+            logger.debug("Order found {}", this)
             return@run this.toOrderResponseDTO()
         }
 
     fun getOrdersByStatus(orderStatus: OrderStatusDTO): List<OrderResponse> =
         orderStatus.run {
             val orders = orderRepository.getAllByOrderStatus(OrderStatus.valueOf(this.name)).toOrderResponseList()
-            logger.info("Orders found by status $orders")
+            logger.debug("Orders found by status {}", orders)
             return@run orders
         }
 
     fun getOrders(page: Int, size: Int): List<OrderResponse> {
+        validatePage(page, size)
         val pageable: Pageable = PageRequest.of(page, size)
         val orders = orderRepository.findAll(pageable).content
-        logger.info("Orders found $orders")
+        logger.debug("Orders found {}", orders)
         return orders.toOrderResponseList()
     }
 
+    fun getOrdersKeyset(size: Int, next: String?): KeysetPage<OrderResponse> {
+        validatePageSize(size)
+        val pageable: Pageable = PageRequest.of(0, size + 1)
+        val orders = if (next == null) {
+            orderRepository.findAllByOrderByCreatedAtDescIdDesc(pageable)
+        } else {
+            val (createdAt, id) = next.toCreatedAtKeyset()
+            orderRepository.findAllByCreatedAtLessThanOrCreatedAtAndIdLessThanOrderByCreatedAtDescIdDesc(
+                createdAt, createdAt, id, pageable
+            )
+        }
+        logger.info("Orders found ${orders.size} after $next")
+        return orders.toKeysetPage(size)
+    }
+
+    fun getOrdersByStatusKeyset(orderStatus: OrderStatusDTO, size: Int, next: String?): KeysetPage<OrderResponse> {
+        validatePageSize(size)
+        val status = OrderStatus.valueOf(orderStatus.name)
+        val pageable: Pageable = PageRequest.of(0, size + 1)
+        val orders = if (next == null) {
+            orderRepository.findAllByOrderStatusOrderByCreatedAtDescIdDesc(status, pageable)
+        } else {
+            val (createdAt, id) = next.toCreatedAtKeyset()
+            orderRepository.findAllByOrderStatusBefore(status, createdAt, id, pageable)
+        }
+        logger.info("Orders found ${orders.size} by status $orderStatus after $next")
+        return orders.toKeysetPage(size)
+    }
+
+    /**
+     * Keyset pages of the headers of orders created in [from, to), newest first, optionally limited to [statuses].
+     * [to] defaults to now; order items are not loaded.
+     */
+    fun getOrderHistory(
+        from: LocalDateTime,
+        to: LocalDateTime?,
+        statuses: List<OrderStatusDTO>?,
+        size: Int,
+        next: String?,
+    ): KeysetPage<OrderHeaderResponse> {
+        validatePageSize(size)
+        val until = to ?: LocalDateTime.now()
+        if (!from.isBefore(until)) throw OrderRequestException("Time range start $from must be before its end $until.")
+        // the first page starts right below the range end, the following ones below the last returned order
+        val (createdAt, id) = next?.toCreatedAtKeyset() ?: (until to Long.MIN_VALUE)
+        val pageable: Pageable = PageRequest.of(0, size + 1)
+        val headers = if (statuses.isNullOrEmpty()) {
+            orderRepository.findHistory(from, createdAt, id, pageable)
+        } else {
+            orderRepository.findHistory(statuses.map { OrderStatus.valueOf(it.name) }, from, createdAt, id, pageable)
+        }
+        logger.info("Order headers found ${headers.size} from $from to $until after $next")
+        return headers.toKeysetPage(size, { it.createdAt to it.id }) { it.map(OrderHeader::toOrderHeaderResponse) }
+    }
+
+    /**
+     * Scrolls the orders with [orderStatus], newest first, and passes each one to [action] without holding
+     * more than one chunk of orders in memory. The scroll holds a read-only transaction until it returns, so a
+     * slow reader is cut off after [STREAM_TIMEOUT_SECONDS].
+     */
+    @Transactional(readOnly = true, timeout = STREAM_TIMEOUT_SECONDS)
+    fun forEachOrderByStatus(orderStatus: OrderStatusDTO, action: (OrderResponse) -> Unit): Int {
+        var streamed = 0
+        orderRepository.streamAllByOrderStatus(OrderStatus.valueOf(orderStatus.name)).use { orders ->
+            orders.iterator().asSequence().chunked(STREAM_CHUNK_SIZE).forEach { chunk ->
+                // items of the whole chunk are loaded by one batch select
+                chunk.toOrderResponseList().forEach(action)
+                chunk.forEach(entityManager::detach)
+                streamed += chunk.size
+            }
+        }
+        logger.info("Streamed $streamed orders by status $orderStatus")
+        return streamed
+    }
+
+    /**
+     * Replaces the items of an order. As on create, the item snapshots are fetched before the transaction is opened.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     fun updateOrder(updateOrderEvent: UpdateOrderEvent): OrderResponse =
         updateOrderEvent.validate().run {
-            val toUpdate = orderRepository
-                .findByOrderNumber(orderNumber)
-                .orElseThrow { OrderNotFoundException(orderNumber) }
-                .copy(
-                    orderStatus = UPDATED, // NOTE: business logic must be placed in services!
-                    orderItems = orderItems.toEntities(),
-                )
-            val updated = orderRepository.saveAndFlush(toUpdate)
-            logger.info("Order updated $updated")
-            updated.toOrderResponseDTO()
+            val items = orderItems.toEntities().withSnapshots()
+            val updated = transactionTemplate.execute {
+                val toUpdate = orderRepository
+                    .findByOrderNumber(orderNumber)
+                    .orElseThrow { OrderNotFoundException(orderNumber) }
+                    .copy(
+                        orderStatus = UPDATED, // NOTE: business logic must be placed in services!
+                        orderItems = items,
+                    )
+                orderRepository.saveAndFlush(toUpdate).toOrderResponseDTO()
+            }!!
+            logger.debug("Order updated {}", updated)
+            updated
         }
 
     fun changeOrderStatus(orderNumber: String, orderStatus: OrderStatusDTO) =
         orderNumber.validate(orderRepository::findByOrderNumber).run {
             val orderToUpdate = this.copy(orderStatus = OrderStatus.valueOf(orderStatus.name))
             val updatedOrder = orderRepository.saveAndFlush(orderToUpdate)
-            logger.info("Order with changed status $updatedOrder")
+            logger.debug("Order with changed status {}", updatedOrder)
             return@run updatedOrder.toOrderResponseDTO()
         }
 
+    /**
+     * Builds the order details from the item snapshots. Items without a snapshot are looked up live and the
+     * result is not written back, so reading details never writes to the database.
+     */
+    @Transactional(readOnly = true)
     fun getOrderDetails(orderNumber: String) =
         orderNumber.validate(orderRepository::findByOrderNumber).run {
             if (this.orderStatus == OrderStatus.NONE) throw OrderNotCreatedException(orderNumber)
-            val orderItemsQuantity = orderItems.associate { it.productNumber to it.quantity }
-            val orderItemsIds = orderItems.map { it.productNumber }
-            val products = runCatching {
-                productClientProto.getProductsDetailsByProductNumbers(orderItemsIds)
-            }
-                .onFailure { error -> throw ProductServerException(error.localizedMessage.messageSpliterator()) }
-                .getOrThrow()
-            logger.info("Received products details $products")
-
-            val price = runCatching {
-                accountancyClientProto.getSalePrice(orderItemsIds)
-            }
-                .onFailure { error -> throw AccountancyServerException(error.localizedMessage.messageSpliterator()) }
-                .getOrThrow()
-            logger.info("Received products prices $price")
+            val missing = orderItems.filter { it.name == null || it.price == null }.map { it.productNumber }.distinct()
+            val snapshots = if (missing.isEmpty()) mapOf() else fetchSnapshots(missing)
+            val items = orderItems.map { item -> snapshots[item.productNumber]?.let { item.withSnapshot(it) } ?: item }
 
-            val orderItemDetails = products.productsList.map {
+            val orderItemDetails = items.sortedBy { it.id }.map {
                 OrderItemDetailsDTO(
                     productNumber = it.productNumber,
-                    name = it.name,
-                    quantity = orderItemsQuantity[it.productNumber] ?: -1,
-                    price = price.itemsMap.getValue(it.productNumber).toBigDecimal().setScale(2, RoundingMode.HALF_EVEN)
+                    name = it.name ?: "undefined",
+                    quantity = it.quantity,
+                    price = it.price?.toMoney() ?: BigDecimal.ZERO
                 )
             }
 
             val orderDetails = OrderDetailsDTO(
                 orderNumber = orderNumber,
                 orderItemDetails = orderItemDetails,
-                total = orderItemDetails.map { it.price.multiply(BigDecimal(it.quantity)) }.reduce(BigDecimal::plus)
-
+                total = orderItemDetails
+                    .map { it.price.multiply(BigDecimal(it.quantity)) }
+                    .fold(BigDecimal.ZERO.setScale(2), BigDecimal::plus)
             )
-            logger.info("Return orderDetails $orderDetails")
+            logger.debug("Return orderDetails {}", orderDetails)
             return@run orderDetails
         }
 
+    /**
+     * Refreshes the snapshots of open order items for [productNumbers]. The snapshots are fetched outside any
+     * transaction, only their write is transactional.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    fun refreshOpenOrderItems(productNumbers: Collection<String>) {
+        val items = orderItemRepository.findAllByOrderStatusInAndProductNumberIn(OPEN_STATUSES, productNumbers)
+        if (items.isEmpty()) return
+        val snapshots = fetchSnapshots(items.productNumbers())
+        transactionTemplate.execute { updateSnapshots(items, snapshots) }
+        logger.info("Refreshed ${items.size} open order items")
+    }
+
+    /**
+     * Refreshes every open order item when [markup] differs from the last applied one, so accountancy
+     * republishing an unchanged markup on start costs one select. The snapshots are fetched before the applied
+     * markup row is locked; the lock is held only while they are written, so concurrent markup events are still
+     * applied one after another.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    fun applyMarkup(markup: BigDecimal) {
+        if (pricingMarkupRepository.findApplied().markup?.compareTo(markup) == 0) {
+            logger.info("Markup $markup is already applied")
+            return
+        }
+        val items = orderItemRepository.findAllByOrderStatusIn(OPEN_STATUSES)
+        val snapshots = if (items.isEmpty()) mapOf() else fetchSnapshots(items.productNumbers())
+        transactionTemplate.execute {
+            val applied = pricingMarkupRepository.findAppliedForUpdate()
+            if (applied.markup?.compareTo(markup) == 0) {
+                logger.info("Markup $markup was applied meanwhile")
+                return@execute
+            }
+            pricingMarkupRepository.save(applied.copy(markup = markup))
+            updateSnapshots(items, snapshots)
+            logger.info("Markup $markup applied, refreshed ${items.size} open order items")
+        }
+    }
+
     fun confirmOrder(orderNumber: String): String =
         orderNumber.validate(orderRepository::findByOrderNumber)
             .run {
@@ -139,30 +280,131 @@ class OrderService @Autowired constructor(
                 val items = orderItems.map {
                     Proto.Item.newBuilder().setProductNumber(it.productNumber).setQuantity(it.quantity).build()
                 }
-//               runCatching {
-                    eventStream.send(
+                outboxEventRepository.save(
+                    OutboxEvent(
                         "createOutcomeInvoiceEventPublisher-out-0",
-                                Proto.CreateOutcomeInvoiceEvent.newBuilder()
+                        Proto.CreateOutcomeInvoiceEvent.newBuilder()
                             .setOrderNumber(orderNumber)
                             .addAllProductItems(items)
-                            .build(),
-                        MimeType.valueOf("application/x-protobuf")
+                            .build()
                     )
-//                }
-//                    .onFailure { error -> throw RabbitServerNotAvailable(error.localizedMessage.messageSpliterator()) }
-//                    .getOrThrow()
+                )
+                increaseProductsPopularity(orderItems)
                 changeOrderStatus(orderNumber, OrderStatusDTO.CONFIRMED)
                 return "Confirmed"
             }
 
-    fun getProductsNumberToQuantity(): Proto.ProductQuantityMap {
-        val productNumbers = orderRepository
-            .getAllByOrderStatus(CONFIRMED)
-            .map { it.orderItems.map { item -> item.productNumber } }
-            .flatten()
-        logger.info("Sorted list of ids by most buys $productNumbers")
-        val items =
-            orderRepository.getProductNumberToQuantity(productNumbers).associate { it.productNumber to it.quantity }
+    fun getProductsNumberToQuantity(page: Int, size: Int): Proto.ProductQuantityMap {
+        validatePage(page, size)
+        val items = productPopularityRepository
+            .findAllByOrderByQuantityDescProductNumberAsc(PageRequest.of(page, size))
+            .associate { it.productNumber to it.quantity }
+        logger.debug("Sorted list of ids by most buys {}", items.keys)
         return Proto.ProductQuantityMap.newBuilder().putAllProductQuantityItem(items).build()
     }
+
+    fun getRankedProductsQuantity(page: Int, size: Int): Proto.ProductQuantityList {
+        validatePage(page, size)
+        val pageable: Pageable = PageRequest.of(page, size)
+        val items = productPopularityRepository
+            .findAllByOrderByQuantityDescProductNumberAsc(pageable)
+            .map { Proto.Item.newBuilder().setProductNumber(it.productNumber).setQuantity(it.quantity).build() }
+        logger.debug("Ranked products by most buys {}", items)
+        return Proto.ProductQuantityList.newBuilder().addAllItems(items).build()
+    }
+
+    private fun String.toCreatedAtKeyset(): Pair<LocalDateTime, Long> =
+        runCatching { toKeyset().let { LocalDateTime.parse(it.first) to it.second } }
+            .getOrElse { throw OrderRequestException("Continuation token $this is not valid.") }
+
+    private fun List<Order>.toKeysetPage(size: Int): KeysetPage<OrderResponse> =
+        toKeysetPage(size, { it.createdAt to it.id }) { it.toOrderResponseList() }
+
+    // a page of the first [size] rows, with the (created_at, id) token of its last row when one more row was found
+    private fun <T, R> List<T>.toKeysetPage(
+        size: Int,
+        keyset: (T) -> Pair<LocalDateTime?, Long?>,
+        map: (List<T>) -> List<R>,
+    ): KeysetPage<R> {
+        val page = take(size)
+        val nextToken = if (this.size > size) keyset(page.last()).let { keysetToken(it.first!!, it.second!!) } else null
+        return KeysetPage(map(page), nextToken)
+    }
+
+    private fun increaseProductsPopularity(orderItems: Set<OrderItem>) {
+        val quantities = orderItems.groupBy({ it.productNumber }, { it.quantity }).mapValues { it.value.sum() }
+        productPopularityRepository.increaseQuantities(quantities)
+        logger.info("Products popularity increased by $quantities")
+    }
+
+    // one request pair per chunk, so the query string stays bounded however many products are looked up
+    private fun fetchSnapshots(productNumbers: List<String>): Map<String, ProductSnapshot> =
+        productNumbers.chunked(SNAPSHOT_CHUNK_SIZE).flatMap { fetchSnapshotsChunk(it).toList() }.toMap()
+
+    private fun fetchSnapshotsChunk(productNumbers: List<String>): Map<String, ProductSnapshot> {
+        val deadline = System.nanoTime() + orderProperties.detailsTimeout.toNanos()
+        val productsFuture = productClientProtoAsync.getProductsDetailsByProductNumbers(productNumbers)
+        val priceFuture = accountancyClientProtoAsync.getSalePrice(productNumbers)
+
+        val products = runCatching { productsFuture.await(deadline) }
+            .onFailure { error ->
+                priceFuture.cancel(true)
+                throw ProductServerException(error.localizedMessage.messageSpliterator())
+            }
+            .getOrThrow()
+        logger.debug("Received products details {}", products)
+
+        val price = runCatching { priceFuture.await(deadline) }
+            .onFailure { error -> throw AccountancyServerException(error.localizedMessage.messageSpliterator()) }
+            .getOrThrow()
+        logger.debug("Received products prices {}", price)
+
+        return products.productsList
+            .filter { price.itemsMap.containsKey(it.productNumber) }
+            .associate {
+                val salePrice = price.itemsMap.getValue(it.productNumber).toBigDecimal()
+                it.productNumber to ProductSnapshot(it.name, salePrice.toMoney())
+            }
+    }
+
+    private fun List<OrderItem>.productNumbers() = map { it.productNumber }.distinct()
+
+    private fun updateSnapshots(items: List<OrderItem>, snapshots: Map<String, ProductSnapshot>) {
+        items.filter { it.id != null }.groupBy { it.productNumber }.forEach { (productNumber, sameProductItems) ->
+            snapshots[productNumber]?.let {
+                orderItemRepository.updateSnapshot(sameProductItems.map { item -> item.id!! }, it.name, it.price)
+            }
+        }
+    }
+
+    private fun Set<OrderItem>.withSnapshots(): Set<OrderItem> {
+        val snapshots = runCatching { fetchSnapshots(map { it.productNumber }.distinct()) }
+            .onFailure { error -> logger.warn("Order items are saved without snapshot: ${error.localizedMessage}") }
+            .getOrDefault(mapOf())
+        return map { item -> snapshots[item.productNumber]?.let { item.withSnapshot(it) } ?: item }.toSet()
+    }
+
+    private fun OrderItem.withSnapshot(snapshot: ProductSnapshot) = copy(name = snapshot.name, price = snapshot.price)
+
+    // cancelling the future does not stop its http call, the client call timeout ends it at the same deadline
+    private fun <T> CompletableFuture<T>.await(deadline: Long): T =
+        runCatching { get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS) }
+            .getOrElse { error ->
+                cancel(true)
+                throw when {
+                    error is TimeoutException || System.nanoTime() >= deadline ->
+                        TimeoutException("Response deadline exceeded")
+                    error is ExecutionException -> error.cause ?: error
+                    else -> error
+                }
+            }
+
+    private data class ProductSnapshot(val name: String, val price: BigDecimal)
+
+    companion object {
+        private val OPEN_STATUSES = listOf(CREATED, UPDATED)
+        private const val STREAM_CHUNK_SIZE = 100
+        private const val SNAPSHOT_CHUNK_SIZE = 100
+        const val STREAM_TIMEOUT_SECONDS = 300
+    }
 }
@@ -0,0 +1,22 @@
+package sigma.software.leovegas.drugstore.order
+
+import java.math.BigDecimal
+import javax.persistence.Column
+import javax.persistence.Entity
+import javax.persistence.Id
+import javax.persistence.Table
+
+/**
+ * The accountancy markup the open order item snapshots were last refreshed with; a single row.
+ */
+@Entity
+@Table(name = "pricing_markup")
+data class PricingMarkup(
+
+    @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    val id: Long = 1,
+
+    @Column(name = "markup")
+    val markup: BigDecimal? = null,
+)
@@ -0,0 +1,18 @@
+package sigma.software.leovegas.drugstore.order
+
+import javax.persistence.LockModeType
+import org.springframework.data.jpa.repository.JpaRepository
+import org.springframework.data.jpa.repository.Lock
+import org.springframework.data.jpa.repository.Query
+import org.springframework.stereotype.Repository
+
+@Repository
+interface PricingMarkupRepository : JpaRepository<PricingMarkup, Long> {
+
+    @Query("select m from PricingMarkup m where m.id = 1")
+    fun findApplied(): PricingMarkup
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select m from PricingMarkup m where m.id = 1")
+    fun findAppliedForUpdate(): PricingMarkup
+}
@@ -0,0 +1,29 @@
+package sigma.software.leovegas.drugstore.order
+
+import java.time.LocalDateTime
+import javax.persistence.Column
+import javax.persistence.Entity
+import javax.persistence.Id
+import javax.persistence.Table
+import javax.validation.constraints.NotEmpty
+import javax.validation.constraints.NotNull
+import org.hibernate.annotations.UpdateTimestamp
+
+@Entity
+@Table(name = "product_popularity")
+data class ProductPopularity(
+
+    @Id
+    @NotEmpty
+    @Column(name = "product_number", nullable = false, updatable = false)
+    val productNumber: String = "undefined",
+
+    @NotNull
+    @Column(name = "quantity", nullable = false)
+    val quantity: Int = 0,
+
+    @NotNull
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    val updatedAt: LocalDateTime? = null,
+)
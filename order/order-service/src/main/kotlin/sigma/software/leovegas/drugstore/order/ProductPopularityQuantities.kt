@@ -0,0 +1,49 @@
+package sigma.software.leovegas.drugstore.order
+
+import java.sql.Timestamp
+import org.springframework.jdbc.core.ConnectionCallback
+import org.springframework.jdbc.core.JdbcTemplate
+
+interface ProductPopularityQuantities {
+
+    /**
+     * Adds each quantity to its product, creating the products bought for the first time.
+     */
+    fun increaseQuantities(quantities: Map<String, Int>)
+}
+
+/**
+ * One upsert per product, `INSERT ... ON DUPLICATE KEY UPDATE` on MySQL and `MERGE` elsewhere, so two orders
+ * confirming a first-time bought product at once both count instead of one failing on the primary key.
+ */
+class ProductPopularityQuantitiesImpl(private val jdbcTemplate: JdbcTemplate) : ProductPopularityQuantities {
+
+    private val upsertSql by lazy {
+        val database = jdbcTemplate.execute(ConnectionCallback { it.metaData.databaseProductName }).orEmpty()
+        if (database.startsWith("MySQL") || database.startsWith("MariaDB")) MYSQL_UPSERT else MERGE_UPSERT
+    }
+
+    override fun increaseQuantities(quantities: Map<String, Int>) {
+        if (quantities.isEmpty()) return
+        val now = Timestamp(System.currentTimeMillis())
+        // sorted, so concurrent confirmations lock the rows in the same order
+        jdbcTemplate.batchUpdate(upsertSql, quantities.toSortedMap().map { (productNumber, quantity) ->
+            arrayOf(productNumber, quantity, now)
+        })
+    }
+
+    companion object {
+        private const val MYSQL_UPSERT =
+            "INSERT INTO product_popularity (product_number, quantity, updated_at) VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), updated_at = VALUES(updated_at)"
+        private const val MERGE_UPSERT =
+            "MERGE INTO product_popularity USING (VALUES (CAST(? AS VARCHAR(150)), CAST(? AS INT), " +
+                    "CAST(? AS TIMESTAMP))) AS bought (product_number, quantity, updated_at) " +
+                    "ON product_popularity.product_number = bought.product_number " +
+                    "WHEN MATCHED THEN UPDATE SET " +
+                    "product_popularity.quantity = product_popularity.quantity + bought.quantity, " +
+                    "product_popularity.updated_at = bought.updated_at " +
+                    "WHEN NOT MATCHED THEN INSERT (product_number, quantity, updated_at) " +
+                    "VALUES (bought.product_number, bought.quantity, bought.updated_at)"
+    }
+}
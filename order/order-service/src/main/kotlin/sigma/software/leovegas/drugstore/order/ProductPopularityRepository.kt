@@ -0,0 +1,11 @@
+package sigma.software.leovegas.drugstore.order
+
+import org.springframework.data.domain.Pageable
+import org.springframework.data.jpa.repository.JpaRepository
+import org.springframework.stereotype.Repository
+
+@Repository
+interface ProductPopularityRepository : JpaRepository<ProductPopularity, String>, ProductPopularityQuantities {
+
+    fun findAllByOrderByQuantityDescProductNumberAsc(pageable: Pageable): List<ProductPopularity>
+}
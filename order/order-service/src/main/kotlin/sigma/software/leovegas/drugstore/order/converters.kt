@@ -1,9 +1,12 @@
 package sigma.software.leovegas.drugstore.order
 
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
 import sigma.software.leovegas.drugstore.order.api.CreateOrderEvent
+import sigma.software.leovegas.drugstore.order.api.OrderHeaderResponse
 import sigma.software.leovegas.drugstore.order.api.OrderItemDTO
 import sigma.software.leovegas.drugstore.order.api.OrderResponse
 import sigma.software.leovegas.drugstore.order.api.OrderStatusDTO
+import sigma.software.leovegas.drugstore.order.api.UpdateOrderEvent
 
 // CreateOrderRequest <-> Order entity
 
@@ -13,6 +16,32 @@ fun CreateOrderEvent.toEntity(): Order =
         orderNumber = orderNumber
     )
 
+// CreateOrderEvent, UpdateOrderEvent <-> protobuf events
+
+fun CreateOrderEvent.toProto(): Proto.CreateOrderEvent =
+    Proto.CreateOrderEvent.newBuilder()
+        .setOrderNumber(orderNumber)
+        .addAllOrderItems(orderItems.toProtoItems())
+        .build()
+
+fun UpdateOrderEvent.toProto(): Proto.UpdateOrderEvent =
+    Proto.UpdateOrderEvent.newBuilder()
+        .setOrderNumber(orderNumber)
+        .addAllOrderItems(orderItems.toProtoItems())
+        .build()
+
+fun Proto.CreateOrderEvent.toCreateOrderEvent(): CreateOrderEvent =
+    CreateOrderEvent(orderNumber = orderNumber, orderItems = orderItemsList.toOrderItemDTOs())
+
+fun Proto.UpdateOrderEvent.toUpdateOrderEvent(): UpdateOrderEvent =
+    UpdateOrderEvent(orderNumber = orderNumber, orderItems = orderItemsList.toOrderItemDTOs())
+
+fun List<OrderItemDTO>.toProtoItems(): List<Proto.Item> =
+    map { Proto.Item.newBuilder().setProductNumber(it.productNumber).setQuantity(it.quantity).build() }
+
+fun List<Proto.Item>.toOrderItemDTOs(): List<OrderItemDTO> =
+    map { OrderItemDTO(productNumber = it.productNumber, quantity = it.quantity) }
+
 // OrderResponse <-> Order entity
 
 fun Order.toOrderResponseDTO(): OrderResponse =
@@ -26,6 +55,16 @@ fun Order.toOrderResponseDTO(): OrderResponse =
 
 fun List<Order>.toOrderResponseList(): List<OrderResponse> = this.map(Order::toOrderResponseDTO)
 
+// OrderHeaderResponse <-> OrderHeader projection
+
+fun OrderHeader.toOrderHeaderResponse(): OrderHeaderResponse =
+    OrderHeaderResponse(
+        orderNumber = orderNumber,
+        orderStatus = orderStatus.toDTO(),
+        createdAt = createdAt,
+        updatedAt = updatedAt,
+    )
+
 // OrderItem: set of entities <-> list of DTOs
 
 fun Set<OrderItem>.toDTOs(): List<OrderItemDTO> =
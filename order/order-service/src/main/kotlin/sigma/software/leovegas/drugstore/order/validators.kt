@@ -26,3 +26,26 @@ fun String.validate(functor: (String) -> Optional<Order>): Order =
     run {
         functor(this).orElseThrow { OrderNotFoundException(this) }
     }
+
+fun validatePage(page: Int, size: Int) {
+    if (page < 0) throw OrderRequestException("Page number should not be negative.")
+    validatePageSize(size)
+}
+
+fun validatePageSize(size: Int) {
+    if (size < 1) throw OrderRequestException("Page size should be greater than 0.")
+}
+
+/**
+ * With more than one partition every instance must be told its own partition, otherwise all of them would
+ * consume partition 0 and the other partitions would not be consumed at all.
+ */
+fun validateOrderEventPartition(partitions: Int, partition: Int?) {
+    check(partitions > 0) { "ORDER_EVENT_PARTITIONS must be greater than 0, it is $partitions" }
+    check(partitions == 1 || partition != null) {
+        "ORDER_EVENT_PARTITION must be set when ORDER_EVENT_PARTITIONS is $partitions"
+    }
+    check(partition == null || partition in 0 until partitions) {
+        "ORDER_EVENT_PARTITION must be between 0 and ${partitions - 1}, it is $partition"
+    }
+}
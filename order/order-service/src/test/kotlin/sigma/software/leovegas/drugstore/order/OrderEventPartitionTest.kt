@@ -0,0 +1,52 @@
+package sigma.software.leovegas.drugstore.order
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+@DisplayName("Order event partition test")
+class OrderEventPartitionTest {
+
+    @Test
+    fun `should accept one partition without an index and more partitions with one`() {
+
+        // when
+        val single = runCatching { validateOrderEventPartition(1, null) }
+        val partitioned = runCatching { validateOrderEventPartition(3, 2) }
+
+        // then
+        assertThat(single.isSuccess).isTrue
+        assertThat(partitioned.isSuccess).isTrue
+    }
+
+    @Test
+    fun `should require the partition index when there is more than one partition`() {
+
+        // when
+        val exception = assertThrows<IllegalStateException> { validateOrderEventPartition(3, null) }
+
+        // then
+        assertThat(exception.message).isEqualTo("ORDER_EVENT_PARTITION must be set when ORDER_EVENT_PARTITIONS is 3")
+    }
+
+    @Test
+    fun `should reject a partition index out of range`() {
+
+        // when
+        val exception = assertThrows<IllegalStateException> { validateOrderEventPartition(3, 3) }
+
+        // then
+        assertThat(exception.message).isEqualTo("ORDER_EVENT_PARTITION must be between 0 and 2, it is 3")
+    }
+
+    @Test
+    fun `should reject no partitions`() {
+
+        // when
+        val exception = assertThrows<IllegalStateException> { validateOrderEventPartition(0, null) }
+
+        // then
+        assertThat(exception.message).isEqualTo("ORDER_EVENT_PARTITIONS must be greater than 0, it is 0")
+    }
+}
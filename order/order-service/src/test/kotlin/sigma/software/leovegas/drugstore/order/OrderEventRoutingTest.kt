@@ -0,0 +1,65 @@
+package sigma.software.leovegas.drugstore.order
+
+import com.google.protobuf.Message
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.Qualifier
+import org.springframework.context.annotation.Import
+import org.springframework.messaging.MessageChannel
+import org.springframework.messaging.MessageHeaders
+import org.springframework.messaging.support.MessageBuilder
+import org.springframework.transaction.support.TransactionTemplate
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+import sigma.software.leovegas.drugstore.order.api.CreateOrderEvent
+import sigma.software.leovegas.drugstore.order.api.OrderItemDTO
+import sigma.software.leovegas.drugstore.order.api.OrderStatusDTO
+import sigma.software.leovegas.drugstore.order.api.UpdateOrderEvent
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.SpringCloudStreamRabbitProtobufAutoConfiguration.Companion.protobufContentType
+
+@DisplayName("Order event routing test")
+@Import(CustomTestConfig::class)
+class OrderEventRoutingTest @Autowired constructor(
+    val transactionTemplate: TransactionTemplate,
+    val orderItemRepository: OrderItemRepository,
+    val orderRepository: OrderRepository,
+    val orderService: OrderService,
+    @Qualifier("functionRouter-in-0") val orderEventChannel: MessageChannel,
+) : WireMockTest() {
+
+    // as received from the broker: encoded protobuf, routed by the createOrder header
+    private fun message(event: Message, createOrder: Boolean) =
+        MessageBuilder.withPayload(event.toByteArray())
+            .setHeader(MessageHeaders.CONTENT_TYPE, protobufContentType)
+            .setHeader("createOrder", createOrder)
+            .build()
+
+    @Test
+    fun `should route protobuf create and update order events to their handlers`() {
+
+        // setup
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // given
+        val create = CreateOrderEvent(orderNumber = "routed", orderItems = listOf(OrderItemDTO("1", 2))).toProto()
+        val update = UpdateOrderEvent(orderNumber = "routed", orderItems = listOf(OrderItemDTO("2", 5))).toProto()
+
+        // when
+        orderEventChannel.send(message(create, createOrder = true))
+
+        // then
+        val created = orderService.getOrderByOrderNumber("routed")
+        assertThat(created.orderStatus).isEqualTo(OrderStatusDTO.CREATED)
+        assertThat(created.orderItems).containsExactly(OrderItemDTO("1", 2))
+
+        // when
+        orderEventChannel.send(message(update, createOrder = false))
+
+        // then
+        val updated = orderService.getOrderByOrderNumber("routed")
+        assertThat(updated.orderStatus).isEqualTo(OrderStatusDTO.UPDATED)
+        assertThat(updated.orderItems).containsExactly(OrderItemDTO("2", 5))
+    }
+}
@@ -0,0 +1,63 @@
+package sigma.software.leovegas.drugstore.order
+
+import com.fasterxml.jackson.module.kotlin.jacksonObjectMapper
+import com.fasterxml.jackson.module.kotlin.readValue
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.order.api.CreateOrderEvent
+import sigma.software.leovegas.drugstore.order.api.OrderItemDTO
+
+/**
+ * Compares the JSON create order event the order router used to consume with its protobuf replacement.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class OrderEventSerializationBenchmark {
+
+    @Param("1", "20")
+    var items: Int = 0
+
+    private val objectMapper = jacksonObjectMapper()
+    private lateinit var event: CreateOrderEvent
+    private lateinit var proto: Proto.CreateOrderEvent
+    private lateinit var json: ByteArray
+    private lateinit var bytes: ByteArray
+
+    @Setup
+    fun setup() {
+        event = CreateOrderEvent(
+            orderNumber = "0b4c3f2e-8a7d-4b5e-9c1f-2d3e4f5a6b7c",
+            orderItems = (1..items).map { OrderItemDTO(productNumber = "c6d7e8f9-$it", quantity = it) }
+        )
+        proto = event.toProto()
+        json = objectMapper.writeValueAsBytes(event)
+        bytes = proto.toByteArray()
+    }
+
+    @Benchmark
+    fun jsonSerialize(): ByteArray = objectMapper.writeValueAsBytes(event)
+
+    @Benchmark
+    fun jsonDeserialize(): CreateOrderEvent = objectMapper.readValue(json)
+
+    @Benchmark
+    fun protobufSerialize(): ByteArray = event.toProto().toByteArray()
+
+    @Benchmark
+    fun protobufDeserialize(): CreateOrderEvent = Proto.CreateOrderEvent.parseFrom(bytes).toCreateOrderEvent()
+}
@@ -0,0 +1,162 @@
+package sigma.software.leovegas.drugstore.order
+
+import java.sql.Connection
+import java.sql.DriverManager
+import java.sql.PreparedStatement
+import java.sql.Timestamp
+import java.time.LocalDateTime
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.TimeUnit
+import liquibase.Contexts
+import liquibase.LabelExpression
+import liquibase.Liquibase
+import liquibase.database.DatabaseFactory
+import liquibase.database.jvm.JdbcConnection
+import liquibase.resource.ClassLoaderResourceAccessor
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.annotations.Warmup
+
+/**
+ * Times the order lookups against [rows] seeded orders, one item each, with and without the lookup indexes.
+ * Runs on in-memory HSQLDB by default; pass `-p url=jdbc:mysql://... -p user=... -p password=...` to run it
+ * against MySQL, where seeded rows and the [indexed] state are reused between runs.
+ * Lookups by order number and by order id are left out, their unique and foreign key indexes are always there.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class OrderLookupBenchmark {
+
+    @Param("1000000")
+    var rows: Int = 0
+
+    @Param("true", "false")
+    var indexed: Boolean = true
+
+    @Param("jdbc:hsqldb:mem:order-lookup-benchmark")
+    var url: String = ""
+
+    @Param("sa")
+    var user: String = ""
+
+    @Param("")
+    var password: String = ""
+
+    private lateinit var connection: Connection
+    private lateinit var byStatus: PreparedStatement
+    private lateinit var openItemsByProductNumber: PreparedStatement
+
+    @Setup
+    fun setup() {
+        connection = DriverManager.getConnection(url, user, password)
+        val database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(JdbcConnection(connection))
+        Liquibase("db/changelog/changelog-master.xml", ClassLoaderResourceAccessor(), database)
+            .update(Contexts(), LabelExpression())
+        seed()
+        indexes.forEach { (name, table, columns) ->
+            val sql = when {
+                indexed == hasIndex(table, name) -> return@forEach
+                indexed -> "CREATE INDEX $name ON $table ($columns)"
+                url.startsWith("jdbc:mysql") -> "DROP INDEX $name ON $table"
+                else -> "DROP INDEX $name"
+            }
+            connection.createStatement().use { it.execute(sql) }
+        }
+        byStatus = connection.prepareStatement(
+            "SELECT id, order_number FROM orders WHERE order_status = ? ORDER BY created_at DESC, id DESC LIMIT 50"
+        )
+        openItemsByProductNumber = connection.prepareStatement(
+            """
+            SELECT i.id FROM orders o JOIN order_item i ON i.order_id = o.id
+            WHERE o.order_status IN ('CREATED', 'UPDATED') AND i.product_number = ?
+            """
+        )
+    }
+
+    @TearDown
+    fun tearDown() = connection.close()
+
+    @Benchmark
+    fun getAllByOrderStatus(): Int = count(byStatus.apply { setString(1, OrderStatus.CREATED.name) })
+
+    @Benchmark
+    fun findOpenItemsByProductNumber(): Int =
+        count(openItemsByProductNumber.apply { setString(1, "product-${randomRow() % products}") })
+
+    private fun hasIndex(table: String, name: String): Boolean {
+        val metaData = connection.metaData
+        val tableName = if (metaData.storesUpperCaseIdentifiers()) table.toUpperCase() else table
+        return metaData.getIndexInfo(connection.catalog, null, tableName, false, false).use { result ->
+            generateSequence { result.takeIf { it.next() }?.getString("INDEX_NAME") }.any { it.equals(name, true) }
+        }
+    }
+
+    private fun randomRow() = ThreadLocalRandom.current().nextInt(1, rows + 1)
+
+    private fun count(statement: PreparedStatement): Int =
+        statement.executeQuery().use { result -> generateSequence { result.next().takeIf { it } }.count() }
+
+    private fun seed() {
+        val seeded = connection.createStatement().use { statement ->
+            statement.executeQuery("SELECT COUNT(*) FROM orders").use { it.next(); it.getInt(1) }
+        }
+        if (seeded >= rows) return
+        val autoCommit = connection.autoCommit
+        connection.autoCommit = false
+        val started = LocalDateTime.now().minusSeconds(rows.toLong())
+        val orders = connection.prepareStatement(
+            "INSERT INTO orders (id, order_number, order_status, created_at, updated_at) VALUES (?, ?, ?, ?, ?)"
+        )
+        val items = connection.prepareStatement(
+            "INSERT INTO order_item (id, order_id, product_number, quantity) VALUES (?, ?, ?, ?)"
+        )
+        for (row in (seeded + 1)..rows) {
+            val createdAt = Timestamp.valueOf(started.plusSeconds(row.toLong()))
+            val status = when (row % 20) {
+                0 -> OrderStatus.CREATED
+                1 -> OrderStatus.UPDATED
+                else -> OrderStatus.CONFIRMED
+            }
+            orders.setLong(1, row.toLong())
+            orders.setString(2, "order-$row")
+            orders.setString(3, status.name)
+            orders.setTimestamp(4, createdAt)
+            orders.setTimestamp(5, createdAt)
+            orders.addBatch()
+            items.setLong(1, row.toLong())
+            items.setLong(2, row.toLong())
+            items.setString(3, "product-${row % products}")
+            items.setInt(4, 1)
+            items.addBatch()
+            if (row % 10_000 == 0 || row == rows) {
+                orders.executeBatch()
+                items.executeBatch()
+                connection.commit()
+            }
+        }
+        connection.autoCommit = autoCommit
+    }
+
+    companion object {
+        private const val products = 10_000
+
+        // the lookup indexes added in changeset V20210913100001
+        private val indexes = listOf(
+            Triple("idx_orders_status_created_at_id", "orders", "order_status, created_at, id"),
+            Triple("idx_order_item_product_number", "order_item", "product_number"),
+        )
+    }
+}
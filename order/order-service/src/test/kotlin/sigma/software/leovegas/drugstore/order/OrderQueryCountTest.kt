@@ -0,0 +1,131 @@
+package sigma.software.leovegas.drugstore.order
+
+import java.time.LocalDateTime
+import javax.persistence.EntityManagerFactory
+import org.assertj.core.api.Assertions.assertThat
+import org.hibernate.SessionFactory
+import org.hibernate.stat.Statistics
+import org.junit.jupiter.api.BeforeAll
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import org.springframework.transaction.support.TransactionTemplate
+import sigma.software.leovegas.drugstore.order.api.OrderStatusDTO
+
+@TestInstance(PER_CLASS)
+@DisplayName("Order query count test")
+@Import(CustomTestConfig::class)
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = ["spring.jpa.properties.hibernate.generate_statistics=true", "spring.jpa.show-sql=false"]
+)
+class OrderQueryCountTest @Autowired constructor(
+    val transactionTemplate: TransactionTemplate,
+    val orderItemRepository: OrderItemRepository,
+    val orderRepository: OrderRepository,
+    val orderService: OrderService,
+    val entityManagerFactory: EntityManagerFactory,
+) {
+
+    private val ordersCount = 30
+
+    private val statistics: Statistics
+        get() = entityManagerFactory.unwrap(SessionFactory::class.java).statistics
+
+    @BeforeAll
+    fun setup() {
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+        transactionTemplate.execute {
+            orderRepository.saveAll(
+                (1..ordersCount).map {
+                    Order(
+                        orderNumber = "$it",
+                        orderStatus = OrderStatus.CREATED,
+                        orderItems = setOf(
+                            OrderItem(productNumber = "1", quantity = it, name = "test1", price = "1.00".toBigDecimal()),
+                            OrderItem(productNumber = "2", quantity = it, name = "test2", price = "2.00".toBigDecimal()),
+                        )
+                    )
+                }
+            )
+        }
+    }
+
+    @Test
+    fun `should get orders page with one select for orders and one for their items`() {
+
+        // given
+        statistics.clear()
+
+        // when
+        val actual = orderService.getOrders(0, ordersCount + 1)
+
+        // then
+        assertThat(actual).hasSize(ordersCount)
+        assertThat(actual.flatMap { it.orderItems }).hasSize(ordersCount * 2)
+        assertThat(statistics.prepareStatementCount).isEqualTo(2)
+    }
+
+    @Test
+    fun `should get orders keyset page with one select for orders and one for their items`() {
+
+        // given
+        statistics.clear()
+
+        // when
+        val actual = orderService.getOrdersKeyset(ordersCount, null)
+
+        // then
+        assertThat(actual.items).hasSize(ordersCount)
+        assertThat(statistics.prepareStatementCount).isEqualTo(2)
+    }
+
+    @Test
+    fun `should get orders by status with one select for orders and one for their items`() {
+
+        // given
+        statistics.clear()
+
+        // when
+        val actual = orderService.getOrdersByStatus(OrderStatusDTO.CREATED)
+
+        // then
+        assertThat(actual).hasSize(ordersCount)
+        assertThat(statistics.prepareStatementCount).isEqualTo(2)
+    }
+
+    @Test
+    fun `should get order history headers with a single select and no items`() {
+
+        // given
+        statistics.clear()
+
+        // when
+        val actual = orderService.getOrderHistory(LocalDateTime.now().minusDays(1), null, null, 10, null)
+
+        // then
+        assertThat(actual.items).hasSize(10)
+        assertThat(actual.next).isNotNull
+        assertThat(statistics.prepareStatementCount).isEqualTo(1)
+        assertThat(statistics.collectionLoadCount).isEqualTo(0)
+    }
+
+    @Test
+    fun `should get order details with a single join select`() {
+
+        // given
+        statistics.clear()
+
+        // when
+        val actual = orderService.getOrderDetails("1")
+
+        // then
+        assertThat(actual.orderItemDetails).hasSize(2)
+        assertThat(statistics.prepareStatementCount).isEqualTo(1)
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.TestInstance
 import org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.data.domain.PageRequest
 import org.springframework.transaction.support.TransactionTemplate
 import sigma.software.leovegas.drugstore.infrastructure.extensions.get
 
@@ -18,6 +19,7 @@ class OrderRepositoryTest @Autowired constructor(
     val transactionTemplate: TransactionTemplate,
     val orderItemRepository: OrderItemRepository,
     val orderRepository: OrderRepository,
+    val productPopularityRepository: ProductPopularityRepository,
 ) {
 
     @Test
@@ -53,64 +55,37 @@ class OrderRepositoryTest @Autowired constructor(
     }
 
     @Test
-    fun `should get views`() {
+    fun `should increase product popularity`() {
 
         // given
-        transactionTemplate.execute {
-            orderRepository.deleteAll()
-        }
+        transactionTemplate.execute { productPopularityRepository.deleteAllInBatch() }
 
         // and
-        val created = transactionTemplate.execute {
-            orderRepository.saveAll(
+        transactionTemplate.execute {
+            productPopularityRepository.saveAll(
                 listOf(
-                    Order(
-                        orderNumber = "1",
-                        orderStatus = OrderStatus.CONFIRMED,
-                        orderItems = setOf(
-                            OrderItem(
-                                productNumber = "1",
-                                quantity = 3
-                            )
-                        )
+                    ProductPopularity(
+                        productNumber = "1",
+                        quantity = 3
                     ),
-                    Order(
-                        orderNumber = "2",
-                        orderStatus = OrderStatus.CONFIRMED,
-                        orderItems = setOf(
-                            OrderItem(
-                                productNumber = "1",
-                                quantity = 1
-                            )
-                        )
-                    ),
-                    Order(
-                        orderNumber = "3",
-                        orderStatus = OrderStatus.CONFIRMED,
-                        orderItems = setOf(
-                            OrderItem(
-                                productNumber = "2",
-                                quantity = 5
-                            )
-                        )
+                    ProductPopularity(
+                        productNumber = "2",
+                        quantity = 5
                     ),
                 )
             )
         }.get()
 
-        val productNumbers = created.map { it.orderItems.map { item -> item.productNumber } }.flatten()
-
         // when
+        transactionTemplate.execute {
+            productPopularityRepository.increaseQuantities(mapOf("1" to 4, "3" to 1))
+        }
+
+        // then
         val actual = transactionTemplate.execute {
-            orderRepository.getProductNumberToQuantity(productNumbers)
+            productPopularityRepository.findAllByOrderByQuantityDescProductNumberAsc(PageRequest.of(0, 10))
         }.get()
-
-        //then
-        assertThat(actual).hasSize(2)
-        assertThat(actual[0].productNumber).isEqualTo("2")
-        assertThat(actual[0].quantity).isEqualTo(5)
-        assertThat(actual[1].productNumber).isEqualTo("1")
-        assertThat(actual[1].quantity).isEqualTo(4)
+        assertThat(actual.map { it.productNumber to it.quantity }).containsExactly("1" to 7, "2" to 5, "3" to 1)
     }
 
     @Test
@@ -21,6 +21,7 @@ import org.springframework.boot.test.web.client.TestRestTemplate
 import org.springframework.boot.web.server.LocalServerPort
 import org.springframework.context.annotation.Import
 import org.springframework.http.HttpEntity
+import org.springframework.http.HttpHeaders
 import org.springframework.http.HttpMethod.GET
 import org.springframework.http.HttpMethod.POST
 import org.springframework.http.HttpMethod.PUT
@@ -30,6 +31,7 @@ import org.springframework.transaction.support.TransactionTemplate
 import sigma.software.leovegas.drugstore.accountancy.api.ConfirmOrderResponse
 import sigma.software.leovegas.drugstore.accountancy.api.CreateOutcomeInvoiceEvent
 import sigma.software.leovegas.drugstore.accountancy.api.ItemDTO
+import sigma.software.leovegas.drugstore.api.KeysetPage
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
 import sigma.software.leovegas.drugstore.api.toDecimalProto
 import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
@@ -43,6 +45,7 @@ import sigma.software.leovegas.drugstore.order.api.OrderResponse
 import sigma.software.leovegas.drugstore.order.api.OrderStatusDTO
 import sigma.software.leovegas.drugstore.order.api.UpdateOrderEvent
 import sigma.software.leovegas.drugstore.product.api.SearchProductResponse
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.OutboxEventRepository
 
 @DisplayName("Order Resource test")
 @Import(CustomTestConfig::class)
@@ -50,9 +53,11 @@ class OrderResourceTest @Autowired constructor(
     val transactionTemplate: TransactionTemplate,
     val orderItemRepository: OrderItemRepository,
     val orderRepository: OrderRepository,
+    val productPopularityRepository: ProductPopularityRepository,
     val orderProperties: OrderProperties,
     val restTemplate: TestRestTemplate,
     val objectMapper: ObjectMapper,
+    val outboxEventRepository: OutboxEventRepository,
     @LocalServerPort val port: Int,
 ) : WireMockTest() {
 
@@ -94,6 +99,10 @@ class OrderResourceTest @Autowired constructor(
         assertThat(body).isNotEmpty
         assertThat(body).isNotEqualTo("undefined")
 
+        // and
+        val event = outboxEventRepository.findFirst(1000).single { it.key == body }
+        assertThat(event.binding).isEqualTo("createUpdateOrderEventPublisher-out-0")
+        assertThat(event.headers).containsEntry("createOrder", true).containsEntry("orderNumber", body)
     }
 
     @Test
@@ -177,6 +186,89 @@ class OrderResourceTest @Autowired constructor(
         assertThat(body[0].orderStatus).isEqualTo(OrderStatusDTO.CREATED)
     }
 
+    @Test
+    fun `should get orders by status page by page`() {
+
+        // given
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // and
+        transactionTemplate.execute {
+            orderRepository.saveAll(
+                (1..4).map {
+                    Order(
+                        orderNumber = "$it",
+                        orderItems = setOf(OrderItem(productNumber = "1", quantity = it)),
+                        orderStatus = if (it == 4) OrderStatus.CREATED else OrderStatus.CONFIRMED
+                    )
+                }
+            )
+        }
+
+        // when
+        val first = restTemplate
+            .exchange(
+                "$baseUrl/api/v1/orders/status/CONFIRMED/keyset?size=2", GET,
+                null, respTypeRef<KeysetPage<OrderResponse>>()
+            )
+            .body.get("body")
+        val second = restTemplate
+            .exchange(
+                "$baseUrl/api/v1/orders/status/CONFIRMED/keyset?size=2&next=${first.next}", GET,
+                null, respTypeRef<KeysetPage<OrderResponse>>()
+            )
+            .body.get("body")
+
+        // then
+        assertThat(first.items).hasSize(2)
+        assertThat(first.next).isNotNull
+        assertThat(second.items).hasSize(1)
+        assertThat(second.next).isNull()
+        assertThat((first.items + second.items).map { it.orderNumber }).containsExactlyInAnyOrder("1", "2", "3")
+        assertThat((first.items + second.items).map { it.orderItems.single().quantity }).doesNotContain(4)
+    }
+
+    @Test
+    fun `should stream orders by status as ndjson`() {
+
+        // given
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // and
+        transactionTemplate.execute {
+            orderRepository.saveAll(
+                (1..250).map {
+                    Order(
+                        orderNumber = "$it",
+                        orderItems = setOf(OrderItem(productNumber = "1", quantity = it)),
+                        orderStatus = OrderStatus.CONFIRMED
+                    )
+                }
+            )
+        }
+
+        // when
+        val response = restTemplate
+            .exchange(
+                "$baseUrl/api/v1/orders/status/CONFIRMED/stream", GET,
+                HttpEntity<Any>(HttpHeaders().apply { accept = listOf(MediaType.APPLICATION_NDJSON) }),
+                String::class.java
+            )
+
+        // then
+        assertThat(response.statusCode).isEqualTo(HttpStatus.OK)
+        assertThat(response.headers.contentType?.isCompatibleWith(MediaType.APPLICATION_NDJSON)).isTrue
+
+        // and
+        val orders = response.body.get("body").lines().filter { it.isNotBlank() }
+            .map { objectMapper.readValue(it, OrderResponse::class.java) }
+        assertThat(orders).hasSize(250)
+        assertThat(orders.map { it.orderItems.single().quantity }.toSet()).hasSize(250)
+        assertThat(orders.map { it.orderNumber }).containsExactlyElementsOf((250 downTo 1).map { "$it" })
+    }
+
     @Test
     fun `should get order details`() {
 
@@ -504,37 +596,24 @@ class OrderResourceTest @Autowired constructor(
     fun `should get productId to quantity sorted by quantity `() {
 
         // setup
-        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
-        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+        transactionTemplate.execute { productPopularityRepository.deleteAllInBatch() }
 
         // given
         transactionTemplate.execute {
-            orderRepository.saveAll(
+            productPopularityRepository.saveAll(
                 listOf(
-                    Order(
-                        orderNumber = "1",
-                        orderStatus = OrderStatus.CONFIRMED,
-                        orderItems = setOf(
-                            OrderItem(
-                                productNumber = "4",
-                                quantity = 3
-                            )
-                        ),
+                    ProductPopularity(
+                        productNumber = "4",
+                        quantity = 3
+                    ),
+                    ProductPopularity(
+                        productNumber = "5",
+                        quantity = 5
                     ),
-                    Order(
-                        orderNumber = "2",
-                        orderStatus = OrderStatus.CONFIRMED,
-                        orderItems = setOf(
-                            OrderItem(
-                                productNumber = "5",
-                                quantity = 5
-                            )
-                        ),
-                    )
                 )
             )
         }.get()
-        println(orderRepository.findAll())
+
         // when
         val response = restTemplate
             .exchange("$baseUrl/api/v1/orders/total-buys", GET, null, respTypeRef<Map<String, Int>>())
@@ -3,8 +3,11 @@ package sigma.software.leovegas.drugstore.order
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.github.tomakehurst.wiremock.client.WireMock
 import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor
+import com.github.tomakehurst.wiremock.client.WireMock.matching
 import com.github.tomakehurst.wiremock.client.WireMock.post
 import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo
 import com.github.tomakehurst.wiremock.matching.ContainsPattern
 import com.github.tomakehurst.wiremock.matching.EqualToPattern
 import com.google.protobuf.ByteString
@@ -32,6 +35,8 @@ import sigma.software.leovegas.drugstore.order.api.CreateOrderEvent
 import sigma.software.leovegas.drugstore.order.api.OrderItemDTO
 import sigma.software.leovegas.drugstore.order.api.OrderStatusDTO
 import sigma.software.leovegas.drugstore.order.api.UpdateOrderEvent
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.OutboxEventRepository
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.OutboxRelay
 
 @AutoConfigureTestDatabase
 @DisplayName("OrderService test")
@@ -40,7 +45,11 @@ class OrderServiceTest @Autowired constructor(
     val transactionTemplate: TransactionTemplate,
     val orderItemRepository: OrderItemRepository,
     val orderRepository: OrderRepository,
+    val productPopularityRepository: ProductPopularityRepository,
     val orderService: OrderService,
+    val outboxEventRepository: OutboxEventRepository,
+    val outboxRelay: OutboxRelay,
+    val pricingMarkupRepository: PricingMarkupRepository,
     val objectMapper: ObjectMapper,
 ) : WireMockTest() {
 
@@ -173,6 +182,48 @@ class OrderServiceTest @Autowired constructor(
         assertThat(actual[0].orderStatus).isEqualTo(OrderStatusDTO.CREATED)
     }
 
+    @Test
+    fun `should get order history by time range and status page by page`() {
+
+        // given
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // and
+        transactionTemplate.execute {
+            orderRepository.saveAll(
+                (1..3).map {
+                    Order(
+                        orderNumber = "$it",
+                        orderItems = setOf(OrderItem(productNumber = "1", quantity = it)),
+                        orderStatus = if (it == 3) OrderStatus.CANCELLED else OrderStatus.CONFIRMED
+                    )
+                }
+            )
+        }
+
+        // and
+        val from = LocalDateTime.now().minusHours(1)
+        val statuses = listOf(OrderStatusDTO.CONFIRMED)
+
+        // when
+        val first = orderService.getOrderHistory(from, null, statuses, 1, null)
+        val second = orderService.getOrderHistory(from, null, statuses, 1, first.next)
+        val future = orderService.getOrderHistory(from.plusHours(2), from.plusHours(3), null, 10, null)
+        val anyStatus = orderService.getOrderHistory(from, null, emptyList(), 10, null)
+
+        // then
+        assertThat((first.items + second.items).map { it.orderNumber }).containsExactlyInAnyOrder("1", "2")
+        assertThat(second.items.single().orderStatus).isEqualTo(OrderStatusDTO.CONFIRMED)
+        assertThat(second.next).isNull()
+        assertThat(future.items).isEmpty()
+        assertThat(anyStatus.items.map { it.orderNumber }).containsExactlyInAnyOrder("1", "2", "3")
+        assertThat(anyStatus.next).isNull()
+
+        // and
+        assertThrows<OrderRequestException> { orderService.getOrderHistory(from, from, null, 10, null) }
+    }
+
     @Test
     fun `should get all orders`() {
 
@@ -215,6 +266,53 @@ class OrderServiceTest @Autowired constructor(
         assertThat(orders).hasSize(2)
     }
 
+    @Test
+    fun `should get orders page by page with continuation token`() {
+
+        // given
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // and
+        val saved = transactionTemplate.execute {
+            orderRepository.saveAll(
+                (1..3).map {
+                    Order(
+                        orderStatus = OrderStatus.CREATED,
+                        orderNumber = "$it",
+                        orderItems = setOf(OrderItem(productNumber = "$it", quantity = it))
+                    )
+                }
+            )
+        }.get()
+
+        // when
+        val firstPage = orderService.getOrdersKeyset(size = 2, next = null)
+        val lastPage = orderService.getOrdersKeyset(size = 2, next = firstPage.next)
+
+        // then
+        assertThat(firstPage.items).hasSize(2)
+        assertThat(firstPage.next).isNotNull
+        assertThat(lastPage.items).hasSize(1)
+        assertThat(lastPage.next).isNull()
+
+        // and
+        assertThat((firstPage.items + lastPage.items).map { it.orderNumber })
+            .containsExactlyInAnyOrderElementsOf(saved.map { it.orderNumber })
+    }
+
+    @Test
+    fun `should not get orders with not valid continuation token`() {
+
+        // when
+        val exception = assertThrows<OrderRequestException> {
+            orderService.getOrdersKeyset(size = 2, next = "not-a-token")
+        }
+
+        // then
+        assertThat(exception.message).isEqualTo("Continuation token not-a-token is not valid.")
+    }
+
     @Test
     fun `should update order`() {
 
@@ -480,6 +578,476 @@ class OrderServiceTest @Autowired constructor(
         assertThat(exception.message).contains("Order", " must be created")
     }
 
+    @Test
+    fun `should request products details and prices concurrently`() {
+
+        // setup
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // given
+        val order = transactionTemplate.execute {
+            orderRepository.save(
+                Order(
+                    orderNumber = "1",
+                    orderStatus = OrderStatus.CREATED,
+                    orderItems = setOf(
+                        OrderItem(
+                            productNumber = "11",
+                            quantity = 2
+                        ),
+                    )
+                )
+            )
+        }.get()
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/products/details?productNumbers=11")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductDetailsResponse.newBuilder().addProducts(
+                                Proto.ProductDetailsItem.newBuilder()
+                                    .setName("test1").setProductNumber("11").setQuantity(3)
+                                    .setPrice(BigDecimal("20.00").toDecimalProto())
+                                    .build()
+                            ).build()
+                        }
+                        .withFixedDelay(2000)
+                )
+        )
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/accountancy/sale-price?productNumbers=11")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductsPrice.newBuilder()
+                                .putItems("11", BigDecimal("40.00").toDecimalProto())
+                                .build()
+                        }
+                        .withFixedDelay(2000)
+                )
+        )
+
+        // when (sequential calls would take 4s, a second longer than the 3s deadline)
+        val orderDetails = orderService.getOrderDetails(order.orderNumber)
+
+        // then
+        assertThat(orderDetails.orderItemDetails).hasSize(1)
+        assertThat(orderDetails.total).isEqualTo(BigDecimal("80.00"))
+    }
+
+    @Test
+    fun `should not get order details when products details exceed the deadline`() {
+
+        // setup
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // given
+        val order = transactionTemplate.execute {
+            orderRepository.save(
+                Order(
+                    orderNumber = "1",
+                    orderStatus = OrderStatus.CREATED,
+                    orderItems = setOf(
+                        OrderItem(
+                            productNumber = "12",
+                            quantity = 2
+                        ),
+                    )
+                )
+            )
+        }.get()
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/products/details?productNumbers=12")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse { Proto.ProductDetailsResponse.getDefaultInstance() }
+                        .withFixedDelay(6000)
+                )
+        )
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/accountancy/sale-price?productNumbers=12")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse { Proto.ProductsPrice.getDefaultInstance() }
+                )
+        )
+
+        // when
+        val exception = assertThrows<ProductServerException> {
+            orderService.getOrderDetails(order.orderNumber)
+        }
+
+        // then
+        assertThat(exception.message).contains("Response deadline exceeded")
+    }
+
+    @Test
+    fun `should get order details from order items snapshot`() {
+
+        // setup
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // given (no product or accountancy stubs exist for these products)
+        val order = transactionTemplate.execute {
+            orderRepository.save(
+                Order(
+                    orderNumber = "1",
+                    orderStatus = OrderStatus.CREATED,
+                    orderItems = setOf(
+                        OrderItem(
+                            productNumber = "snapshot1",
+                            quantity = 1,
+                            name = "test1",
+                            price = BigDecimal("20.00")
+                        ),
+                        OrderItem(
+                            productNumber = "snapshot2",
+                            quantity = 2,
+                            name = "test2",
+                            price = BigDecimal("30.00")
+                        )
+                    )
+                )
+            )
+        }.get()
+
+        // when
+        val orderDetails = orderService.getOrderDetails(order.orderNumber)
+
+        // then
+        assertThat(orderDetails.orderItemDetails.map { it.name }).containsExactly("test1", "test2")
+        assertThat(orderDetails.total).isEqualTo(BigDecimal("80.00"))
+    }
+
+    @Test
+    fun `should snapshot product name and sale price when order is created`() {
+
+        // setup
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // given
+        stubFor(
+            WireMock.get("/api/v1/products/details?productNumbers=21")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductDetailsResponse.newBuilder().addProducts(
+                                Proto.ProductDetailsItem.newBuilder()
+                                    .setName("test21").setProductNumber("21").setQuantity(3)
+                                    .setPrice(BigDecimal("20.00").toDecimalProto())
+                                    .build()
+                            ).build()
+                        }
+                )
+        )
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/accountancy/sale-price?productNumbers=21")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductsPrice.newBuilder()
+                                .putItems("21", BigDecimal("40.00").toDecimalProto())
+                                .build()
+                        }
+                )
+        )
+
+        // when
+        val created = orderService.createOrder(
+            CreateOrderEvent(orderNumber = "1", orderItems = listOf(OrderItemDTO(productNumber = "21", quantity = 2)))
+        )
+
+        // then
+        val item = orderRepository.findByOrderNumber(created.orderNumber).get().orderItems.single()
+        assertThat(item.name).isEqualTo("test21")
+        assertThat(item.price).isEqualTo(BigDecimal("40.00"))
+    }
+
+    @Test
+    fun `should refresh snapshot of open order items only`() {
+
+        // setup
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // given
+        transactionTemplate.execute {
+            orderRepository.saveAll(
+                listOf(
+                    Order(
+                        orderNumber = "1",
+                        orderStatus = OrderStatus.CREATED,
+                        orderItems = setOf(
+                            OrderItem(productNumber = "31", quantity = 1, name = "old", price = BigDecimal("10.00"))
+                        )
+                    ),
+                    Order(
+                        orderNumber = "2",
+                        orderStatus = OrderStatus.CONFIRMED,
+                        orderItems = setOf(
+                            OrderItem(productNumber = "31", quantity = 1, name = "old", price = BigDecimal("10.00"))
+                        )
+                    )
+                )
+            )
+        }
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/products/details?productNumbers=31")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductDetailsResponse.newBuilder().addProducts(
+                                Proto.ProductDetailsItem.newBuilder()
+                                    .setName("new").setProductNumber("31").setQuantity(3)
+                                    .setPrice(BigDecimal("15.00").toDecimalProto())
+                                    .build()
+                            ).build()
+                        }
+                )
+        )
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/accountancy/sale-price?productNumbers=31")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductsPrice.newBuilder()
+                                .putItems("31", BigDecimal("45.00").toDecimalProto())
+                                .build()
+                        }
+                )
+        )
+
+        // when
+        orderService.refreshOpenOrderItems(listOf("31"))
+
+        // then
+        val open = orderRepository.findByOrderNumber("1").get().orderItems.single()
+        assertThat(open.name).isEqualTo("new")
+        assertThat(open.price).isEqualTo(BigDecimal("45.00"))
+
+        // and
+        val confirmed = orderRepository.findByOrderNumber("2").get().orderItems.single()
+        assertThat(confirmed.name).isEqualTo("old")
+        assertThat(confirmed.price).isEqualTo(BigDecimal("10.00"))
+    }
+
+    @Test
+    fun `should look up items without snapshot live and not write them back`() {
+
+        // setup
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // given
+        val order = transactionTemplate.execute {
+            orderRepository.save(
+                Order(
+                    orderNumber = "41",
+                    orderStatus = OrderStatus.CREATED,
+                    orderItems = setOf(
+                        OrderItem(productNumber = "41", quantity = 2),
+                        OrderItem(productNumber = "42", quantity = 1),
+                    )
+                )
+            )
+        }.get()
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/products/details?productNumbers=41&productNumbers=42")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductDetailsResponse.newBuilder().addProducts(
+                                Proto.ProductDetailsItem.newBuilder()
+                                    .setName("live").setProductNumber("41").setQuantity(3)
+                                    .setPrice(BigDecimal("10.00").toDecimalProto())
+                                    .build()
+                            ).build()
+                        }
+                )
+        )
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/accountancy/sale-price?productNumbers=41&productNumbers=42")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductsPrice.newBuilder()
+                                .putItems("41", BigDecimal("20.00").toDecimalProto())
+                                .build()
+                        }
+                )
+        )
+
+        // when
+        val orderDetails = orderService.getOrderDetails(order.orderNumber)
+
+        // then
+        assertThat(orderDetails.orderItemDetails.map { it.productNumber }).containsExactlyInAnyOrder("41", "42")
+        assertThat(orderDetails.orderItemDetails.single { it.productNumber == "41" }.name).isEqualTo("live")
+        assertThat(orderDetails.orderItemDetails.single { it.productNumber == "42" }.price)
+            .isEqualTo(BigDecimal.ZERO)
+        assertThat(orderDetails.total).isEqualTo(BigDecimal("40.00"))
+
+        // and
+        val items = orderRepository.findByOrderNumber("41").get().orderItems
+        assertThat(items.map { it.name }).containsOnlyNulls()
+    }
+
+    @Test
+    fun `should refresh open order items only when markup changes`() {
+
+        // setup
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+        transactionTemplate.execute { pricingMarkupRepository.save(PricingMarkup(markup = null)) }
+
+        // given
+        transactionTemplate.execute {
+            orderRepository.save(
+                Order(
+                    orderNumber = "51",
+                    orderStatus = OrderStatus.CREATED,
+                    orderItems = setOf(
+                        OrderItem(productNumber = "51", quantity = 1, name = "old", price = BigDecimal("10.00"))
+                    )
+                )
+            )
+        }
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/products/details?productNumbers=51")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductDetailsResponse.newBuilder().addProducts(
+                                Proto.ProductDetailsItem.newBuilder()
+                                    .setName("new").setProductNumber("51").setQuantity(3)
+                                    .setPrice(BigDecimal("15.00").toDecimalProto())
+                                    .build()
+                            ).build()
+                        }
+                )
+        )
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/accountancy/sale-price?productNumbers=51")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductsPrice.newBuilder()
+                                .putItems("51", BigDecimal("30.00").toDecimalProto())
+                                .build()
+                        }
+                )
+        )
+
+        // when
+        orderService.applyMarkup(BigDecimal("2"))
+        val refreshed = orderRepository.findByOrderNumber("51").get().orderItems.single()
+
+        // and
+        transactionTemplate.execute {
+            orderItemRepository.updateSnapshot(listOf(refreshed.id!!), "old", BigDecimal("10.00"))
+        }
+        orderService.applyMarkup(BigDecimal("2.00"))
+        val republished = orderRepository.findByOrderNumber("51").get().orderItems.single()
+
+        // then
+        assertThat(refreshed.name).isEqualTo("new")
+        assertThat(refreshed.price).isEqualTo(BigDecimal("30.00"))
+        assertThat(republished.name).isEqualTo("old")
+        assertThat(pricingMarkupRepository.findAll().single().markup).isEqualByComparingTo("2")
+    }
+
+    @Test
+    fun `should look up snapshots of many open order items in chunks`() {
+
+        // setup
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // given
+        val productNumbers = (0..100).map { "c$it" }
+        transactionTemplate.execute {
+            orderRepository.save(
+                Order(
+                    orderNumber = "61",
+                    orderStatus = OrderStatus.CREATED,
+                    orderItems = productNumbers.map { OrderItem(productNumber = it, quantity = 1) }.toSet()
+                )
+            )
+        }
+
+        // and
+        stubFor(
+            WireMock.get(urlPathEqualTo("/api/v1/products/details"))
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductDetailsResponse.newBuilder().addAllProducts(
+                                productNumbers.map {
+                                    Proto.ProductDetailsItem.newBuilder()
+                                        .setName("new").setProductNumber(it).setQuantity(3)
+                                        .setPrice(BigDecimal("15.00").toDecimalProto())
+                                        .build()
+                                }
+                            ).build()
+                        }
+                )
+        )
+
+        // and
+        stubFor(
+            WireMock.get(urlPathEqualTo("/api/v1/accountancy/sale-price"))
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductsPrice.newBuilder()
+                                .putAllItems(productNumbers.associateWith { BigDecimal("20.00").toDecimalProto() })
+                                .build()
+                        }
+                )
+        )
+
+        // when
+        orderService.refreshOpenOrderItems(productNumbers)
+
+        // then
+        val items = orderRepository.findByOrderNumber("61").get().orderItems
+        assertThat(items.map { it.name }).hasSize(101).containsOnly("new")
+
+        // and
+        val requests = WireMock.findAll(
+            getRequestedFor(urlPathEqualTo("/api/v1/products/details"))
+                .withQueryParam("productNumbers", matching("c.*"))
+        )
+        assertThat(requests.map { it.queryParameter("productNumbers").values().size })
+            .containsExactlyInAnyOrder(100, 1)
+    }
+
     @Test
     fun `should confirm order`() {
 
@@ -545,6 +1113,41 @@ class OrderServiceTest @Autowired constructor(
         assertThat(response).isEqualTo("Confirmed")
     }
 
+    @Test
+    fun `should write order confirmation event to outbox`() {
+
+        // setup
+        outboxRelay.relay()
+        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
+        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+
+        // given
+        val order = transactionTemplate.execute {
+            orderRepository.save(
+                Order(
+                    orderNumber = "1",
+                    orderStatus = OrderStatus.CREATED,
+                    orderItems = setOf(
+                        OrderItem(
+                            productNumber = "1",
+                            quantity = 2
+                        ),
+                    )
+                )
+            )
+        }.get()
+
+        // when
+        orderService.confirmOrder(order.orderNumber)
+
+        // then
+        val pending = outboxEventRepository.findFirst(10).single()
+        val event = Proto.CreateOutcomeInvoiceEvent.parseFrom(pending.payload)
+        assertThat(pending.binding).isEqualTo("createOutcomeInvoiceEventPublisher-out-0")
+        assertThat(event.orderNumber).isEqualTo(order.orderNumber)
+        assertThat(event.productItemsList.single().quantity).isEqualTo(2)
+    }
+
     @Test
     fun `should not confirm empty order `() {
 
@@ -573,14 +1176,15 @@ class OrderServiceTest @Autowired constructor(
         // given
         transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
         transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+        transactionTemplate.execute { productPopularityRepository.deleteAllInBatch() }
 
         // and
-        transactionTemplate.execute {
+        val orders = transactionTemplate.execute {
             orderRepository.saveAll(
                 listOf(
                     Order(
                         orderNumber = "1",
-                        orderStatus = OrderStatus.CONFIRMED,
+                        orderStatus = OrderStatus.CREATED,
                         orderItems = setOf(
                             OrderItem(
                                 productNumber = "3",
@@ -590,7 +1194,7 @@ class OrderServiceTest @Autowired constructor(
                     ),
                     Order(
                         orderNumber = "2",
-                        orderStatus = OrderStatus.CONFIRMED,
+                        orderStatus = OrderStatus.CREATED,
                         orderItems = setOf(
                             OrderItem(
                                 productNumber = "5",
@@ -600,7 +1204,7 @@ class OrderServiceTest @Autowired constructor(
                     ),
                     Order(
                         orderNumber = "3",
-                        orderStatus = OrderStatus.CONFIRMED,
+                        orderStatus = OrderStatus.CREATED,
                         orderItems = setOf(
                             OrderItem(
                                 productNumber = "1",
@@ -626,8 +1230,11 @@ class OrderServiceTest @Autowired constructor(
             )
         }.get()
 
+        // and
+        orders.take(3).forEach { orderService.confirmOrder(it.orderNumber) }
+
         // when
-        val sortedItems = orderService.getProductsNumberToQuantity()
+        val sortedItems = orderService.getProductsNumberToQuantity(0, 100)
         // then
         assertThat(sortedItems.productQuantityItemMap).hasSize(3)
         assertThat(sortedItems.productQuantityItemMap.iterator().next().value).isEqualTo(9)
@@ -635,4 +1242,60 @@ class OrderServiceTest @Autowired constructor(
         assertThat(sortedItems.productQuantityItemMap["3"]).isEqualTo(2)
         assertThat(sortedItems.productQuantityItemMap["5"]).isEqualTo(9)
     }
+
+    @Test
+    fun `should get page of productId to quantity ranked by quantity`() {
+
+        // given
+        transactionTemplate.execute { productPopularityRepository.deleteAllInBatch() }
+
+        // and
+        transactionTemplate.execute {
+            productPopularityRepository.saveAll(
+                listOf(
+                    ProductPopularity(
+                        productNumber = "1",
+                        quantity = 4
+                    ),
+                    ProductPopularity(
+                        productNumber = "2",
+                        quantity = 9
+                    ),
+                    ProductPopularity(
+                        productNumber = "3",
+                        quantity = 4
+                    ),
+                    ProductPopularity(
+                        productNumber = "4",
+                        quantity = 1
+                    ),
+                )
+            )
+        }.get()
+
+        // when
+        val firstPage = orderService.getRankedProductsQuantity(0, 3)
+        val secondPage = orderService.getRankedProductsQuantity(1, 3)
+
+        // then
+        assertThat(firstPage.itemsList.map { it.productNumber }).containsExactly("2", "1", "3")
+        assertThat(firstPage.itemsList.map { it.quantity }).containsExactly(9, 4, 4)
+        assertThat(secondPage.itemsList.map { it.productNumber }).containsExactly("4")
+    }
+
+    @Test
+    fun `should reject pages that are empty or before the first one`() {
+
+        // when
+        val zeroSize = assertThrows<OrderRequestException> { orderService.getOrdersKeyset(0, null) }
+        val negativeSize = assertThrows<OrderRequestException> { orderService.getOrders(0, -1) }
+        val negativePage = assertThrows<OrderRequestException> { orderService.getOrders(-1, 5) }
+        val badToken = assertThrows<OrderRequestException> { orderService.getOrdersKeyset(5, "not-a-token") }
+
+        // then
+        assertThat(zeroSize.message).isEqualTo("Page size should be greater than 0.")
+        assertThat(negativeSize.message).isEqualTo("Page size should be greater than 0.")
+        assertThat(negativePage.message).isEqualTo("Page number should not be negative.")
+        assertThat(badToken.message).isEqualTo("Continuation token not-a-token is not valid.")
+    }
 }
@@ -9,18 +9,14 @@ import org.springframework.boot.web.server.LocalServerPort
 import org.springframework.transaction.support.TransactionTemplate
 import sigma.software.leovegas.drugstore.infrastructure.RestApiDocumentationTest
 import sigma.software.leovegas.drugstore.infrastructure.extensions.get
-import sigma.software.leovegas.drugstore.order.Order
-import sigma.software.leovegas.drugstore.order.OrderItem
-import sigma.software.leovegas.drugstore.order.OrderItemRepository
 import sigma.software.leovegas.drugstore.order.OrderProperties
-import sigma.software.leovegas.drugstore.order.OrderRepository
-import sigma.software.leovegas.drugstore.order.OrderStatus
+import sigma.software.leovegas.drugstore.order.ProductPopularity
+import sigma.software.leovegas.drugstore.order.ProductPopularityRepository
 
 @DisplayName("Get items sorted by quantity REST API Doc test")
 class RestApiDocGetItemsByQuantityTest @Autowired constructor(
     val transactionTemplate: TransactionTemplate,
-    val orderItemRepository: OrderItemRepository,
-    val orderRepository: OrderRepository,
+    val productPopularityRepository: ProductPopularityRepository,
     val orderProperties: OrderProperties,
     @LocalServerPort val port: Int,
 ) : RestApiDocumentationTest(orderProperties) {
@@ -30,33 +26,20 @@ class RestApiDocGetItemsByQuantityTest @Autowired constructor(
     fun `should get total buys of each product`() {
 
         // given
-        transactionTemplate.execute { orderItemRepository.deleteAllInBatch() }
-        transactionTemplate.execute { orderRepository.deleteAllInBatch() }
+        transactionTemplate.execute { productPopularityRepository.deleteAllInBatch() }
 
         // and
         transactionTemplate.execute {
-            orderRepository.saveAll(
+            productPopularityRepository.saveAll(
                 listOf(
-                    Order(
-                        orderNumber = "1",
-                        orderStatus = OrderStatus.CONFIRMED,
-                        orderItems = setOf(
-                            OrderItem(
-                                productNumber = "1",
-                                quantity = 3
-                            )
-                        ),
+                    ProductPopularity(
+                        productNumber = "1",
+                        quantity = 3
+                    ),
+                    ProductPopularity(
+                        productNumber = "2",
+                        quantity = 5
                     ),
-                    Order(
-                        orderNumber = "2",
-                        orderStatus = OrderStatus.CONFIRMED,
-                        orderItems = setOf(
-                            OrderItem(
-                                productNumber = "2",
-                                quantity = 5
-                            )
-                        ),
-                    )
                 )
             )
         }.get()
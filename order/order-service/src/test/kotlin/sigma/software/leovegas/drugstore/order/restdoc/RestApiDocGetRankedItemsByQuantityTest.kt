@@ -0,0 +1,49 @@
+package sigma.software.leovegas.drugstore.order.restdoc
+
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.web.server.LocalServerPort
+import org.springframework.transaction.support.TransactionTemplate
+import sigma.software.leovegas.drugstore.infrastructure.RestApiDocumentationTest
+import sigma.software.leovegas.drugstore.infrastructure.extensions.get
+import sigma.software.leovegas.drugstore.order.OrderProperties
+import sigma.software.leovegas.drugstore.order.ProductPopularity
+import sigma.software.leovegas.drugstore.order.ProductPopularityRepository
+
+@DisplayName("Get items ranked by quantity REST API Doc test")
+class RestApiDocGetRankedItemsByQuantityTest @Autowired constructor(
+    val transactionTemplate: TransactionTemplate,
+    val productPopularityRepository: ProductPopularityRepository,
+    val orderProperties: OrderProperties,
+    @LocalServerPort val port: Int,
+) : RestApiDocumentationTest(orderProperties) {
+
+    @Test
+    fun `should get page of total buys ranked by quantity`() {
+
+        // given
+        transactionTemplate.execute { productPopularityRepository.deleteAllInBatch() }
+
+        // and
+        transactionTemplate.execute {
+            productPopularityRepository.saveAll(
+                listOf(
+                    ProductPopularity(
+                        productNumber = "1",
+                        quantity = 3
+                    ),
+                    ProductPopularity(
+                        productNumber = "2",
+                        quantity = 5
+                    ),
+                )
+            )
+        }.get()
+
+        of("get-ranked-items").`when`()
+            .get("http://${orderProperties.host}:$port/api/v1/orders/total-buys/ranked?page=0&size=2")
+            .then()
+            .assertThat().statusCode(200)
+    }
+}
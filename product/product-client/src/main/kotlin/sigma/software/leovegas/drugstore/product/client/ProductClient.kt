@@ -4,6 +4,7 @@ import feign.Headers
 import feign.Param
 import feign.RequestLine
 import java.math.BigDecimal
+import sigma.software.leovegas.drugstore.api.KeysetPage
 import sigma.software.leovegas.drugstore.product.api.CreateProductResponse
 import sigma.software.leovegas.drugstore.product.api.CreateProductsEvent
 import sigma.software.leovegas.drugstore.product.api.GetProductResponse
@@ -27,6 +28,17 @@ interface ProductClient {
         @Param("sortDirection") sortDirection: String = "DESC"
     ): List<SearchProductResponse>
 
+    @RequestLine(
+        "GET /api/v1/products/search/keyset?size={size}&search={search}&sortField={sortField}&sortDirection={sortDirection}&next={next}"
+    )
+    fun searchProductsKeyset(
+        @Param("size") size: Int = 5,
+        @Param("search") search: String = "",
+        @Param("sortField") sortField: String = "popularity",
+        @Param("sortDirection") sortDirection: String = "DESC",
+        @Param("next") next: String? = null
+    ): KeysetPage<SearchProductResponse>
+
     @RequestLine("GET /api/v1/products/popular?page={page}&size={size}")
     fun getPopularProducts(@Param("page") page: Int = 0, @Param("size") size: Int = 5): List<GetProductResponse>
 
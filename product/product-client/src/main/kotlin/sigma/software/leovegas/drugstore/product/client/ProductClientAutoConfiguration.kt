@@ -1,12 +1,27 @@
 package sigma.software.leovegas.drugstore.product.client
 
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
+import feign.AsyncClient
+import feign.AsyncFeign
+import feign.Client
 import feign.Feign
 import feign.Logger
+import feign.Request
 import feign.jackson.JacksonDecoder
 import feign.jackson.JacksonEncoder
-import feign.slf4j.Slf4jLogger
+import feign.okhttp.OkHttpClient
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tags
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import okhttp3.ConnectionPool
+import okhttp3.Protocol
+import org.springframework.beans.factory.DisposableBean
 import org.springframework.beans.factory.ObjectFactory
+import org.springframework.beans.factory.ObjectProvider
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass
 import org.springframework.boot.autoconfigure.http.HttpMessageConverters
@@ -17,20 +32,33 @@ import org.springframework.cloud.openfeign.support.SpringEncoder
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
 import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory
+import sigma.software.leovegas.drugstore.api.http.ConnectionLimitingClient
+import sigma.software.leovegas.drugstore.api.tracing.SampledFeignLogger
+import sigma.software.leovegas.drugstore.api.tracing.TracingSettings
 import sigma.software.leovegas.drugstore.product.client.proto.ProductClientProto
+import sigma.software.leovegas.drugstore.product.client.proto.ProductClientProtoAsync
 
 @Configuration
 @ConditionalOnMissingClass
 @EnableConfigurationProperties(ProductProperties::class)
-class ProductClientAutoConfiguration(val messageConverters: ObjectFactory<HttpMessageConverters>) {
+class ProductClientAutoConfiguration(val messageConverters: ObjectFactory<HttpMessageConverters>) : DisposableBean {
+
+    private val asyncExecutors = CopyOnWriteArrayList<ExecutorService>()
 
     @Bean
     @ConditionalOnMissingBean
-    fun productClient(props: ProductProperties): ProductClient =
+    fun productClient(
+        props: ProductProperties,
+        productHttpClient: Client,
+        tracingSettings: TracingSettings,
+    ): ProductClient =
         Feign
             .builder()
-            .logger(Slf4jLogger())
-            .logLevel(Logger.Level.FULL)
+            .client(productHttpClient)
+            .options(props.requestOptions())
+            .logger(SampledFeignLogger(tracingSettings))
+            .logLevel(Logger.Level.BASIC)
             .encoder(JacksonEncoder(listOf(JavaTimeModule())))
             .decoder(JacksonDecoder(listOf(JavaTimeModule())))
             .target(ProductClient::class.java, "http://${props.host}:${props.port}")
@@ -39,17 +67,40 @@ class ProductClientAutoConfiguration(val messageConverters: ObjectFactory<HttpMe
     @ConditionalOnMissingBean
     fun productClientProto(
         props: ProductProperties,
+        productHttpClient: Client,
         productSpringEncoder: SpringEncoder,
         productSpringDecoder: ResponseEntityDecoder,
+        tracingSettings: TracingSettings,
     ): ProductClientProto =
         Feign
             .builder()
-            .logger(Slf4jLogger())
-            .logLevel(Logger.Level.FULL)
+            .client(productHttpClient)
+            .options(props.requestOptions())
+            .logger(SampledFeignLogger(tracingSettings))
+            .logLevel(Logger.Level.BASIC)
             .encoder(productSpringEncoder)
             .decoder(productSpringDecoder)
             .target(ProductClientProto::class.java, "http://${props.host}:${props.port}")
 
+    @Bean
+    @ConditionalOnMissingBean
+    fun productClientProtoAsync(
+        props: ProductProperties,
+        productHttpClient: Client,
+        productSpringEncoder: SpringEncoder,
+        productSpringDecoder: ResponseEntityDecoder,
+        tracingSettings: TracingSettings,
+    ): ProductClientProtoAsync =
+        AsyncFeign
+            .asyncBuilder<Any>()
+            .client(AsyncClient.Default(productHttpClient, asyncExecutor(props.maxConnections)))
+            .options(props.requestOptions())
+            .logger(SampledFeignLogger(tracingSettings))
+            .logLevel(Logger.Level.BASIC)
+            .encoder(productSpringEncoder)
+            .decoder(productSpringDecoder)
+            .target(ProductClientProtoAsync::class.java, "http://${props.host}:${props.port}")
+
     @Bean
     fun productProtobufHttpMessageConverter(): ProtobufHttpMessageConverter =
         ProtobufHttpMessageConverter()
@@ -63,4 +114,38 @@ class ProductClientAutoConfiguration(val messageConverters: ObjectFactory<HttpMe
     @ConditionalOnMissingBean
     fun productSpringDecoder(): ResponseEntityDecoder =
         ResponseEntityDecoder(SpringDecoder(this.messageConverters))
+
+    @Bean
+    @ConditionalOnMissingBean(name = ["productHttpClient"])
+    fun productHttpClient(props: ProductProperties, meterRegistry: ObjectProvider<MeterRegistry>): Client {
+        val connectionPool =
+            ConnectionPool(props.maxIdleConnections, props.keepAlive.toMillis(), TimeUnit.MILLISECONDS)
+        meterRegistry.ifAvailable {
+            OkHttpConnectionPoolMetrics(connectionPool, Tags.of("client", "product")).bindTo(it)
+        }
+        val okHttpClient = OkHttpClient(
+            okhttp3.OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .connectTimeout(props.connectTimeout)
+                .readTimeout(props.readTimeout)
+                .callTimeout(props.callTimeout)
+                .protocols(if (props.http2) listOf(Protocol.H2_PRIOR_KNOWLEDGE) else listOf(Protocol.HTTP_1_1))
+                .build()
+        )
+        return ConnectionLimitingClient(okHttpClient, props.maxConnections, props.readTimeout)
+    }
+
+    override fun destroy() = asyncExecutors.forEach { it.shutdown() }
+
+    // async calls wait for a connection permit anyway, so threads beyond max-connections would only sit blocked
+    private fun asyncExecutor(maxConnections: Int): ExecutorService =
+        Executors.newFixedThreadPool(maxConnections, CustomizableThreadFactory("product-client-async-"))
+            .also { asyncExecutors.add(it) }
+
+    private fun ProductProperties.requestOptions() =
+        Request.Options(
+            connectTimeout.toMillis(), TimeUnit.MILLISECONDS,
+            readTimeout.toMillis(), TimeUnit.MILLISECONDS,
+            true
+        )
 }
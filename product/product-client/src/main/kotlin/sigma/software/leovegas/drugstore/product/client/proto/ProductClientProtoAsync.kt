@@ -0,0 +1,16 @@
+package sigma.software.leovegas.drugstore.product.client.proto
+
+import feign.Headers
+import feign.Param
+import feign.RequestLine
+import java.util.concurrent.CompletableFuture
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+
+@Headers("Content-Type: application/x-protobuf")
+interface ProductClientProtoAsync {
+
+    @RequestLine("GET /api/v1/products/details?productNumbers={productNumbers}")
+    fun getProductsDetailsByProductNumbers(
+        @Param productNumbers: List<String>
+    ): CompletableFuture<Proto.ProductDetailsResponse>
+}
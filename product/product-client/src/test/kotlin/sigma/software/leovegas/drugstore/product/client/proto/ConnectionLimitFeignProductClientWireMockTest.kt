@@ -0,0 +1,59 @@
+package sigma.software.leovegas.drugstore.product.client.proto
+
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.get
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import io.micrometer.core.instrument.MeterRegistry
+import java.util.concurrent.CompletableFuture
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.http.HttpStatus
+import org.springframework.test.context.ContextConfiguration
+import org.springframework.test.context.TestPropertySource
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+
+@SpringBootApplication
+internal class ConnectionLimitFeignProductClientWireMockTestApp
+
+@DisplayName("Connection limit Feign ProductClient WireMock test")
+@TestPropertySource(properties = ["product.max-connections=2"])
+@ContextConfiguration(classes = [ConnectionLimitFeignProductClientWireMockTestApp::class])
+class ConnectionLimitFeignProductClientWireMockTest @Autowired constructor(
+    val productClientProto: ProductClientProto,
+    val productClientProtoAsync: ProductClientProtoAsync,
+    val meterRegistry: MeterRegistry,
+) : WireMockTest() {
+
+    @Test
+    fun `should open no more connections than max connections under concurrent load`() {
+
+        // given
+        stubFor(
+            get("/api/v1/products/details?productNumbers=2")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse { Proto.ProductDetailsResponse.getDefaultInstance() }
+                        .withFixedDelay(200)
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+
+        // when
+        val async = (1..6).map { productClientProtoAsync.getProductsDetailsByProductNumbers(listOf("2")) }
+        val sync = (1..6).map {
+            CompletableFuture.runAsync { productClientProto.getProductsDetailsByProductNumbers(listOf("2")) }
+        }
+        CompletableFuture.allOf(*(async + sync).toTypedArray()).join()
+
+        // then
+        val connections = meterRegistry.get("okhttp.pool.connection.count")
+            .tags("client", "product")
+            .gauges()
+            .sumOf { it.value() }
+        assertThat(connections).isBetween(1.0, 2.0)
+    }
+}
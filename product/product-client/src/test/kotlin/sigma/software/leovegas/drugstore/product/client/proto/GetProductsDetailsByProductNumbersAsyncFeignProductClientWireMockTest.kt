@@ -0,0 +1,60 @@
+package sigma.software.leovegas.drugstore.product.client.proto
+
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.get
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import java.math.BigDecimal
+import java.util.concurrent.TimeUnit
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.http.HttpStatus
+import org.springframework.test.context.ContextConfiguration
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.api.toDecimalProto
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+
+@SpringBootApplication
+internal class GetProductsDetailsByProductNumbersAsyncFeignProductClientWireMockTestApp
+
+@DisplayName("Get Products Details by product numbers async Feign ProductClient WireMock test")
+@ContextConfiguration(classes = [GetProductsDetailsByProductNumbersAsyncFeignProductClientWireMockTestApp::class])
+class GetProductsDetailsByProductNumbersAsyncFeignProductClientWireMockTest @Autowired constructor(
+    val productClientProtoAsync: ProductClientProtoAsync,
+) : WireMockTest() {
+
+    @Test
+    fun `should get products by product numbers asynchronously`() {
+
+        // given
+        val responseExpected = Proto.ProductDetailsResponse.newBuilder().addAllProducts(
+            listOf(
+                Proto.ProductDetailsItem.newBuilder()
+                    .setProductNumber("1")
+                    .setName("test1")
+                    .setPrice(BigDecimal.ONE.toDecimalProto())
+                    .setQuantity(1)
+                    .build()
+            )
+        ).build()
+
+        // and
+        stubFor(
+            get("/api/v1/products/details?productNumbers=1")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse { responseExpected }
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+
+        // when
+        val responseActual = productClientProtoAsync.getProductsDetailsByProductNumbers(listOf("1"))
+            .get(5, TimeUnit.SECONDS)
+
+        //  then
+        assertThat(responseActual).isEqualTo(responseExpected)
+    }
+}
@@ -0,0 +1,55 @@
+package sigma.software.leovegas.drugstore.product.client.proto
+
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.get
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.context.annotation.Bean
+import org.springframework.http.HttpStatus
+import org.springframework.test.context.ContextConfiguration
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+
+@SpringBootApplication
+internal class PooledHttpClientFeignProductClientWireMockTestApp {
+
+    @Bean
+    fun meterRegistry(): MeterRegistry = SimpleMeterRegistry()
+}
+
+@DisplayName("Pooled http client Feign ProductClient WireMock test")
+@ContextConfiguration(classes = [PooledHttpClientFeignProductClientWireMockTestApp::class])
+class PooledHttpClientFeignProductClientWireMockTest @Autowired constructor(
+    val productClientProto: ProductClientProto,
+    val meterRegistry: MeterRegistry,
+) : WireMockTest() {
+
+    @Test
+    fun `should reuse kept alive connection and expose pool metrics`() {
+
+        // given
+        stubFor(
+            get("/api/v1/products/details?productNumbers=1")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse { Proto.ProductDetailsResponse.getDefaultInstance() }
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+
+        // when
+        repeat(3) { productClientProto.getProductsDetailsByProductNumbers(listOf("1")) }
+
+        // then
+        val idle = meterRegistry.get("okhttp.pool.connection.count")
+            .tags("client", "product", "state", "idle")
+            .gauge()
+        assertThat(idle.value()).isEqualTo(1.0)
+    }
+}
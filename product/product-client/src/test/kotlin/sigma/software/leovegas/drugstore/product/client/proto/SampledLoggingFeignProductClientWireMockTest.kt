@@ -0,0 +1,147 @@
+package sigma.software.leovegas.drugstore.product.client.proto
+
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.get
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import java.math.BigDecimal
+import java.util.Base64
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.boot.test.system.CapturedOutput
+import org.springframework.boot.test.system.OutputCaptureExtension
+import org.springframework.http.HttpStatus
+import org.springframework.test.context.ContextConfiguration
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.api.toDecimalProto
+import sigma.software.leovegas.drugstore.api.tracing.TracingEndpoint
+import sigma.software.leovegas.drugstore.api.tracing.TracingSettings
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+
+@SpringBootApplication
+internal class SampledLoggingFeignProductClientWireMockTestApp
+
+@DisplayName("Sampled logging Feign ProductClient WireMock test")
+@ExtendWith(OutputCaptureExtension::class)
+@ContextConfiguration(classes = [SampledLoggingFeignProductClientWireMockTestApp::class])
+class SampledLoggingFeignProductClientWireMockTest @Autowired constructor(
+    val productClientProto: ProductClientProto,
+    val tracingSettings: TracingSettings,
+) : WireMockTest() {
+
+    private val responseExpected = Proto.ProductsPrice.newBuilder()
+        .putItems("1", BigDecimal("20.00").toDecimalProto())
+        .build()
+
+    @BeforeEach
+    fun setup() {
+        tracingSettings.sampleRate = 0.0
+        stubFor(
+            get("/api/v1/products/1/price")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse { responseExpected }
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+    }
+
+    @AfterEach
+    fun resetTracing() {
+        tracingSettings.enabled = true
+        tracingSettings.sampleRate = 0.01
+        tracingSettings.maxBodyBytes = 0
+        tracingSettings.endpointSampleRates.clear()
+    }
+
+    private fun CapturedOutput.loggedCalls(from: Int, calls: Int): Int {
+        repeat(calls) { productClientProto.getProductPrice(listOf("1")) }
+        return out.substring(from).lines().count { "feign endpoint=ProductClientProto#getProductPrice" in it }
+    }
+
+    @Test
+    fun `should decode sampled response after logging truncated body`() {
+
+        // given
+        tracingSettings.endpointSampleRates["ProductClientProto"] = 1.0
+        tracingSettings.maxBodyBytes = 4
+
+        // when
+        val responseActual = productClientProto.getProductPrice(listOf("1"))
+
+        // then
+        assertThat(responseActual).isEqualTo(responseExpected)
+    }
+
+    @Test
+    fun `should log calls at the configured sample rate`(output: CapturedOutput) {
+
+        // when
+        val none = output.loggedCalls(output.out.length, 20)
+
+        // and
+        tracingSettings.endpointSampleRates["ProductClientProto"] = 1.0
+        val all = output.loggedCalls(output.out.length, 20)
+
+        // and
+        tracingSettings.endpointSampleRates["ProductClientProto"] = 0.5
+        val half = output.loggedCalls(output.out.length, 100)
+
+        // then
+        assertThat(none).isEqualTo(0)
+        assertThat(all).isEqualTo(20)
+        assertThat(half).isBetween(20, 80)
+    }
+
+    @Test
+    fun `should truncate logged body to max body bytes`(output: CapturedOutput) {
+
+        // given
+        tracingSettings.endpointSampleRates["ProductClientProto"] = 1.0
+        tracingSettings.maxBodyBytes = 4
+
+        // and
+        val bytes = responseExpected.toByteArray()
+        val preview = Base64.getEncoder().encodeToString(bytes.copyOf(4))
+
+        // when
+        val logged = output.loggedCalls(output.out.length, 1)
+
+        // then
+        assertThat(logged).isEqualTo(1)
+        assertThat(output.out).contains("bytes=${bytes.size} body=$preview...")
+    }
+
+    @Test
+    fun `should switch sampling at runtime through tracing endpoint`(output: CapturedOutput) {
+
+        // given
+        val endpoint = TracingEndpoint(tracingSettings)
+
+        // when
+        endpoint.configure(null, 1.0, null, "ProductClientProto")
+        val sampled = output.loggedCalls(output.out.length, 5)
+
+        // and
+        endpoint.configure(false, null, null, null)
+        val disabled = output.loggedCalls(output.out.length, 5)
+
+        // and
+        endpoint.configure(true, null, null, "ProductClientProto")
+        val removed = output.loggedCalls(output.out.length, 5)
+
+        // then
+        assertThat(sampled).isEqualTo(5)
+        assertThat(disabled).isEqualTo(0)
+        assertThat(removed).isEqualTo(0)
+        assertThat(endpoint.settings())
+            .containsEntry("enabled", true)
+            .containsEntry("sampleRate", 0.0)
+            .containsEntry("endpointSampleRates", sortedMapOf<String, Double>())
+    }
+}
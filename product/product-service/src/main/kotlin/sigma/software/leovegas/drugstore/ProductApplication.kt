@@ -1,13 +1,19 @@
 package sigma.software.leovegas.drugstore
 
+import java.time.Clock
 import org.springframework.boot.autoconfigure.SpringBootApplication
 import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.boot.runApplication
+import org.springframework.context.annotation.Bean
 import sigma.software.leovegas.drugstore.product.ProductProperties
 
 @EnableConfigurationProperties(ProductProperties::class)
 @SpringBootApplication
-class ProductApplication
+class ProductApplication {
+
+    @Bean
+    fun clock(): Clock = Clock.systemUTC()
+}
 
 fun main(args: Array<String>) {
     runApplication<ProductApplication>(*args)
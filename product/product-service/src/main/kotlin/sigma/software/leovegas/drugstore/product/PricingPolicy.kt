@@ -0,0 +1,57 @@
+package sigma.software.leovegas.drugstore.product
+
+import java.math.BigDecimal
+import java.time.Clock
+import java.time.Instant
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.stereotype.Component
+import sigma.software.leovegas.drugstore.accountancy.client.proto.AccountancyClientProto
+import sigma.software.leovegas.drugstore.api.messageSpliterator
+import sigma.software.leovegas.drugstore.api.toBigDecimal
+import sigma.software.leovegas.drugstore.api.toSalePrice
+
+/**
+ * Keeps the accountancy markup locally, so sale prices are computed without a call per search.
+ * The value is refreshed from accountancy after [ProductProperties.markupTtl] or when a markup event arrives.
+ */
+@Component
+class PricingPolicy(
+    val accountancyClientProto: AccountancyClientProto,
+    val productProperties: ProductProperties,
+    val clock: Clock,
+) {
+
+    val logger: Logger = LoggerFactory.getLogger(PricingPolicy::class.java)
+
+    // replaced as a whole, so a reader never sees a markup with another markup's expiry
+    private data class CachedMarkup(val markup: BigDecimal, val expiresAt: Instant)
+
+    @Volatile
+    private var cached: CachedMarkup? = null
+
+    fun getSalePrice(price: BigDecimal): BigDecimal = price.toSalePrice(getMarkup())
+
+    fun getMarkup(): BigDecimal = fresh()?.markup ?: refreshMarkup()
+
+    fun updateMarkup(newMarkup: BigDecimal) {
+        cached = CachedMarkup(newMarkup, clock.instant().plus(productProperties.markupTtl))
+        logger.info("Markup updated $newMarkup")
+    }
+
+    private fun fresh(): CachedMarkup? = cached?.takeIf { clock.instant().isBefore(it.expiresAt) }
+
+    @Synchronized
+    private fun refreshMarkup(): BigDecimal {
+        fresh()?.let { return it.markup }
+        val current = cached?.markup
+        val received = runCatching { accountancyClientProto.getMarkup().toBigDecimal() }
+            .onFailure { error ->
+                if (current == null) throw AccountancyServerException(error.localizedMessage.messageSpliterator())
+                logger.warn("Markup refresh failed, keeping $current: ${error.localizedMessage}")
+            }
+            .getOrNull() ?: return current!!
+        updateMarkup(received)
+        return received
+    }
+}
@@ -4,12 +4,14 @@ import java.math.BigDecimal
 import java.time.LocalDateTime
 import javax.persistence.Column
 import javax.persistence.Entity
+import javax.persistence.EntityListeners
 import javax.persistence.EnumType
 import javax.persistence.Enumerated
 import javax.persistence.GeneratedValue
-import javax.persistence.GenerationType.IDENTITY
+import javax.persistence.GenerationType.TABLE
 import javax.persistence.Id
 import javax.persistence.Table
+import javax.persistence.TableGenerator
 import javax.validation.constraints.DecimalMax
 import javax.validation.constraints.DecimalMin
 import javax.validation.constraints.Min
@@ -24,10 +26,19 @@ enum class ProductStatus {
 
 @Entity
 @Table(name = "product")
+@EntityListeners(ProductSearchIndexListener::class)
 data class Product(
     @Id
     @NotNull
-    @GeneratedValue(strategy = IDENTITY)
+    @GeneratedValue(strategy = TABLE, generator = "product_id")
+    @TableGenerator(
+        name = "product_id",
+        table = "id_generator",
+        pkColumnName = "sequence_name",
+        valueColumnName = "next_val",
+        pkColumnValue = "product",
+        allocationSize = 50,
+    )
     @Column(name = "id", nullable = false, updatable = false)
     val id: Long? = null,
 
@@ -55,6 +66,11 @@ data class Product(
     @Column(name = "quantity", nullable = false)
     val quantity: Int = 0,
 
+    @NotNull
+    @Min(0)
+    @Column(name = "popularity", nullable = false, updatable = false)
+    val popularity: Int = 0,
+
     @NotNull
     @CreationTimestamp
     @Column(name = "created_at", updatable = false, nullable = false)
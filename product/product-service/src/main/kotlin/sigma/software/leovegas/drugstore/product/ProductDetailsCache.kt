@@ -0,0 +1,62 @@
+package sigma.software.leovegas.drugstore.product
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.stereotype.Component
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+
+/**
+ * Read-through cache of received product details keyed by product number.
+ * Hit and miss counts are published as `cache.*` metrics with the `productDetails` cache tag.
+ */
+@Component
+class ProductDetailsCache(
+    productProperties: ProductProperties,
+    meterRegistry: MeterRegistry,
+) {
+
+    val logger: Logger = LoggerFactory.getLogger(ProductDetailsCache::class.java)
+
+    private val cache: Cache<String, Proto.ProductDetailsItem> = CaffeineCacheMetrics.monitor(
+        meterRegistry,
+        Caffeine.newBuilder()
+            .maximumSize(productProperties.detailsCacheMaxSize)
+            .expireAfterWrite(productProperties.detailsCacheTtl)
+            .recordStats()
+            .build(),
+        "productDetails"
+    )
+
+    fun getAll(
+        productNumbers: List<String>,
+        loader: (List<String>) -> List<Proto.ProductDetailsItem>
+    ): List<Proto.ProductDetailsItem> {
+        val cached = cache.getAll(productNumbers.distinct()) { missing ->
+            loader(missing.toList()).associateBy { it.productNumber }
+        }
+        return productNumbers.distinct().mapNotNull { cached[it] }
+    }
+
+    /**
+     * Evicts the given product numbers now and, when called inside a transaction, once more after commit,
+     * so a concurrent read can not put back the state that is being replaced.
+     */
+    fun invalidate(productNumbers: Collection<String>) {
+        if (productNumbers.isEmpty()) return
+        cache.invalidateAll(productNumbers)
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+                override fun afterCommit() = cache.invalidateAll(productNumbers)
+            })
+        }
+        logger.debug("Product details cache invalidated for {}", productNumbers)
+    }
+
+    fun invalidateAll() = cache.invalidateAll()
+}
@@ -1,20 +1,50 @@
 package sigma.software.leovegas.drugstore.product
 
 import java.util.function.Consumer
+import org.springframework.boot.context.event.ApplicationReadyEvent
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
+import org.springframework.context.event.EventListener
+import org.springframework.messaging.Message
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.api.toBigDecimal
 import sigma.software.leovegas.drugstore.product.api.CreateProductsEvent
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.ProtobufBatchConsumers
 
 @Configuration
 class ProductEventHandler(
     val productService: ProductService,
+    val pricingPolicy: PricingPolicy,
+    val batchConsumers: ProtobufBatchConsumers,
+) {
 
-    ) {
+    @Bean
+    fun createProductEventHandler(): Consumer<Message<List<Proto.CreateProductsEvent>>> =
+        batchConsumers.batchConsumer(
+            "createProductEventHandler-in-0",
+            batch = { productService.createProducts(it) },
+            single = { productService.createProduct(it) },
+        )
 
     @Bean
-    fun createProductEventHandler() = Consumer<Proto.CreateProductsEvent> {
-        productService.createProduct(it)
+    fun indexProductEventHandler() = Consumer<Proto.CreateProductsEvent> {
+        productService.indexProducts(it)
     }
 
+    @Bean
+    fun increaseProductPopularityEventHandler(): Consumer<Message<List<Proto.CreateOutcomeInvoiceEvent>>> =
+        batchConsumers.batchConsumer(
+            "increaseProductPopularityEventHandler-in-0",
+            batch = { productService.increasePopularity(it) },
+            single = { productService.increasePopularity(it) },
+        )
+
+    @Bean
+    fun updateMarkupEventHandler() = Consumer<Proto.DecimalValue> {
+        pricingPolicy.updateMarkup(it.toBigDecimal())
+    }
+
+    @EventListener(ApplicationReadyEvent::class)
+    fun rebuildSearchIndex() = productService.rebuildSearchIndex()
+
 }
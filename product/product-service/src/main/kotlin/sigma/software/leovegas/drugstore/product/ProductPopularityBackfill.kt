@@ -0,0 +1,117 @@
+package sigma.software.leovegas.drugstore.product
+
+import java.sql.Timestamp
+import java.time.LocalDateTime
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.DisposableBean
+import org.springframework.boot.context.event.ApplicationReadyEvent
+import org.springframework.cloud.stream.binding.BindingService
+import org.springframework.context.event.EventListener
+import org.springframework.dao.DuplicateKeyException
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory
+import org.springframework.stereotype.Component
+import org.springframework.transaction.support.TransactionTemplate
+import sigma.software.leovegas.drugstore.order.client.proto.OrderClientProto
+
+/**
+ * Seeds [Product.popularity] once from the order-service ranked totals, so products bought before the column
+ * existed are not ranked as never bought. The totals are absolute, so the popularity consumer binding does not
+ * auto-start: it is started once the data_migration row is completed, and its events queue up until then.
+ * A failed pull is retried every [ProductProperties.popularityBackfillRetryInterval].
+ *
+ * Each page is written in its own transaction after it was pulled. The transaction locks the data_migration row,
+ * so an instance completing the backfill waits for the page being written elsewhere, and later pages of other
+ * instances are dropped instead of overwriting the increments of an already started consumer.
+ */
+@Component
+class ProductPopularityBackfill(
+    val orderClientProto: OrderClientProto,
+    val productRepository: ProductRepository,
+    val productProperties: ProductProperties,
+    val jdbcTemplate: JdbcTemplate,
+    val transactionTemplate: TransactionTemplate,
+    val bindingService: BindingService,
+) : DisposableBean {
+
+    val logger: Logger = LoggerFactory.getLogger(ProductPopularityBackfill::class.java)
+
+    private val retries = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory("popularity-backfill-"))
+
+    @EventListener(ApplicationReadyEvent::class)
+    fun backfillAndConsume() {
+        if (backfill() != null) {
+            bindingService.getConsumerBindings<Any>(POPULARITY_BINDING).forEach { it.start() }
+            logger.info("Popularity consumer started")
+        } else {
+            val interval = productProperties.popularityBackfillRetryInterval.toMillis()
+            retries.schedule(::backfillAndConsume, interval, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    /**
+     * Copies the ranked totals unless the backfill is already completed. Returns the number of copied products,
+     * or null when the pull failed.
+     */
+    fun backfill(): Int? =
+        runCatching { if (completed()) 0 else copyRankedTotals() }
+            .onFailure { logger.warn("Popularity backfill failed, it will be retried: ${it.localizedMessage}") }
+            .getOrNull()
+
+    override fun destroy() {
+        retries.shutdownNow()
+    }
+
+    private fun completed(): Boolean {
+        try {
+            jdbcTemplate.update("INSERT INTO data_migration (name) VALUES (?)", POPULARITY_BACKFILL)
+        } catch (e: DuplicateKeyException) {
+            // started before, by this or another instance
+        }
+        return jdbcTemplate.queryForObject(
+            "SELECT completed_at FROM data_migration WHERE name = ?", Timestamp::class.java, POPULARITY_BACKFILL
+        ) != null
+    }
+
+    private fun copyRankedTotals(): Int {
+        val size = productProperties.popularityBackfillPageSize
+        var page = 0
+        var copied = 0
+        do {
+            val items = orderClientProto.getRankedProductsQuantity(page++, size).itemsList
+            val written = transactionTemplate.execute {
+                if (!lockIncomplete()) return@execute false
+                items.forEach { productRepository.setPopularity(it.productNumber, it.quantity) }
+                true
+            }
+            if (written != true) {
+                logger.info("Popularity backfill was completed by another instance")
+                return copied
+            }
+            copied += items.size
+        } while (items.size == size)
+        transactionTemplate.execute {
+            jdbcTemplate.update(
+                "UPDATE data_migration SET completed_at = ? WHERE name = ? AND completed_at IS NULL",
+                Timestamp.valueOf(LocalDateTime.now()), POPULARITY_BACKFILL
+            )
+        }
+        logger.info("Popularity backfilled for $copied products")
+        return copied
+    }
+
+    // a no-op update that locks the row until the page commits, and fails once the backfill is completed
+    private fun lockIncomplete(): Boolean =
+        jdbcTemplate.update(
+            "UPDATE data_migration SET completed_at = NULL WHERE name = ? AND completed_at IS NULL",
+            POPULARITY_BACKFILL
+        ) == 1
+
+    companion object {
+        const val POPULARITY_BACKFILL = "product.popularity"
+        const val POPULARITY_BINDING = "increaseProductPopularityEventHandler-in-0"
+    }
+}
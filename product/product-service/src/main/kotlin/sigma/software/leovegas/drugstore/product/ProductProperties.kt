@@ -1,5 +1,6 @@
 package sigma.software.leovegas.drugstore.product
 
+import java.time.Duration
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.boot.context.properties.ConstructorBinding
 
@@ -8,4 +9,10 @@ import org.springframework.boot.context.properties.ConstructorBinding
 data class ProductProperties(
     val host: String = "undefined",
     val port: Int = 80,
+    val markupTtl: Duration = Duration.ofMinutes(5),
+    val detailsCacheTtl: Duration = Duration.ofSeconds(30),
+    val detailsCacheMaxSize: Long = 10_000,
+    val searchChunkSize: Int = 1000,
+    val popularityBackfillPageSize: Int = 500,
+    val popularityBackfillRetryInterval: Duration = Duration.ofMinutes(1),
 )
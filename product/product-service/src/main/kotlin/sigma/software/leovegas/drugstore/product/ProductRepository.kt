@@ -1,11 +1,19 @@
 package sigma.software.leovegas.drugstore.product
 
 import java.util.Optional
+import java.util.stream.Stream
+import javax.persistence.QueryHint
+import org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE
+import org.hibernate.jpa.QueryHints.HINT_READONLY
 import org.springframework.data.domain.Pageable
 import org.springframework.data.jpa.repository.JpaRepository
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor
+import org.springframework.data.jpa.repository.Modifying
+import org.springframework.data.jpa.repository.Query
+import org.springframework.data.jpa.repository.QueryHints
 import org.springframework.data.repository.query.Param
 
-interface ProductRepository : JpaRepository<Product, Long> {
+interface ProductRepository : JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
     fun findFirstByIdOrderByCreatedAtDesc(
         @Param("id") id: Long
@@ -15,21 +23,39 @@ interface ProductRepository : JpaRepository<Product, Long> {
 
     fun findAllByProductNumberInAndStatus(productNumber: List<String>, status: ProductStatus): List<Product>
 
-    fun findAllByNameContainingAndStatusAndQuantityGreaterThan(
-        name: String?, status: ProductStatus, quantity: Int, pageable: Pageable?
+    fun findAllByProductNumberInAndStatusAndQuantityGreaterThan(
+        productNumbers: List<String>, status: ProductStatus, quantity: Int
     ): List<Product>
 
-    fun findAllByNameContainingAndProductNumberInAndStatusAndQuantityGreaterThan(
-        search: String,
-        productNumbers: Set<String>,
-        status: ProductStatus,
-        quantity: Int,
-        pageable: Pageable?
+    fun findAllByProductNumberInAndStatusAndQuantityGreaterThan(
+        productNumbers: List<String>, status: ProductStatus, quantity: Int, pageable: Pageable
     ): List<Product>
 
-    fun findAllByProductNumberInAndStatusAndQuantityGreaterThan(
-        productNumbers: Set<String>, status: ProductStatus, quantity: Int, pageable: Pageable
+    fun findAllByProductNumberInAndStatusAndQuantityGreaterThanAndPopularityGreaterThan(
+        productNumbers: List<String>, status: ProductStatus, quantity: Int, popularity: Int, pageable: Pageable
+    ): List<Product>
+
+    fun findAllByStatusAndQuantityGreaterThanAndPopularityGreaterThan(
+        status: ProductStatus, quantity: Int, popularity: Int, pageable: Pageable
     ): List<Product>
 
     fun findAllByProductNumberIn(productNumbers: List<String>): List<Product>
+
+    @QueryHints(QueryHint(name = HINT_FETCH_SIZE, value = "500"), QueryHint(name = HINT_READONLY, value = "true"))
+    @Query("select p from Product p order by p.id")
+    fun streamAll(): Stream<Product>
+
+    @Modifying
+    @Query("update Product p set p.popularity = p.popularity + :quantity where p.productNumber = :productNumber")
+    fun increasePopularity(
+        @Param("productNumber") productNumber: String,
+        @Param("quantity") quantity: Int
+    ): Int
+
+    @Modifying
+    @Query("update Product p set p.popularity = :popularity where p.productNumber = :productNumber")
+    fun setPopularity(
+        @Param("productNumber") productNumber: String,
+        @Param("popularity") popularity: Int
+    ): Int
 }
@@ -18,7 +18,9 @@ import org.springframework.web.bind.annotation.RequestMapping
 import org.springframework.web.bind.annotation.RequestParam
 import org.springframework.web.bind.annotation.ResponseStatus
 import org.springframework.web.bind.annotation.RestController
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody
 import sigma.software.leovegas.drugstore.api.ApiError
+import sigma.software.leovegas.drugstore.api.KeysetPage
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
 import sigma.software.leovegas.drugstore.product.api.CreateProductsEvent
 import sigma.software.leovegas.drugstore.product.api.GetProductResponse
@@ -51,6 +53,16 @@ class ProductResource(private val service: ProductService) {
         @RequestParam(defaultValue = "DESC") sortDirection: String
     ): List<SearchProductResponse> = service.searchProducts(page, size, search, sortField, sortDirection)
 
+    @ResponseStatus(OK)
+    @GetMapping("/search/keyset")
+    fun searchProductsKeyset(
+        @RequestParam(defaultValue = "5") size: Int,
+        @RequestParam(defaultValue = "") search: String,
+        @RequestParam(defaultValue = "popularity") sortField: String,
+        @RequestParam(defaultValue = "DESC") sortDirection: String,
+        @RequestParam(required = false) next: String?,
+    ): KeysetPage<SearchProductResponse> = service.searchProductsKeyset(size, search, sortField, sortDirection, next)
+
     @ResponseStatus(OK)
     @GetMapping("/popular")
     fun getPopularProducts(
@@ -82,6 +94,10 @@ class ProductResource(private val service: ProductService) {
         return service.getProductsDetailsByProductNumbersJson(productNumber)
     }
 
+    @GetMapping("/export", produces = ["application/x-protobuf"])
+    fun exportProducts(): ResponseEntity<StreamingResponseBody> =
+        ResponseEntity.ok().body(StreamingResponseBody { service.exportProducts(it) })
+
     @ExceptionHandler(Throwable::class)
     fun handleNotFound(e: Throwable) = run {
         val status = when (e) {
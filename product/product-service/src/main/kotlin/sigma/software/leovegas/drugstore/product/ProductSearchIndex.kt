@@ -0,0 +1,142 @@
+package sigma.software.leovegas.drugstore.product
+
+import javax.annotation.PreDestroy
+import org.apache.lucene.analysis.Analyzer
+import org.apache.lucene.analysis.standard.StandardAnalyzer
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute
+import org.apache.lucene.document.Document
+import org.apache.lucene.document.Field
+import org.apache.lucene.document.StringField
+import org.apache.lucene.document.TextField
+import org.apache.lucene.index.IndexWriter
+import org.apache.lucene.index.IndexWriterConfig
+import org.apache.lucene.index.Term
+import org.apache.lucene.search.BooleanClause.Occur
+import org.apache.lucene.search.BooleanQuery
+import org.apache.lucene.search.BoostQuery
+import org.apache.lucene.search.FuzzyQuery
+import org.apache.lucene.search.PrefixQuery
+import org.apache.lucene.search.Query
+import org.apache.lucene.search.ScoreDoc
+import org.apache.lucene.search.SearcherManager
+import org.apache.lucene.search.TermInSetQuery
+import org.apache.lucene.search.TermQuery
+import org.apache.lucene.store.ByteBuffersDirectory
+import org.apache.lucene.util.BytesRef
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.stereotype.Component
+
+/**
+ * In-memory Lucene index of product names.
+ *
+ * Only names are indexed: status and quantity change on every receive/deliver and are filtered
+ * by the database query that loads the matched products, so a stale entry can never be sold.
+ */
+@Component
+class ProductSearchIndex {
+
+    val logger: Logger = LoggerFactory.getLogger(ProductSearchIndex::class.java)
+
+    private val analyzer: Analyzer = StandardAnalyzer()
+    private val directory = ByteBuffersDirectory()
+    private val writer = IndexWriter(directory, IndexWriterConfig(analyzer))
+    private val searcherManager = SearcherManager(writer, null)
+
+    fun index(products: Map<String, String>) {
+        if (products.isEmpty()) return
+        products.forEach { (productNumber, name) ->
+            writer.updateDocument(Term(PRODUCT_NUMBER, productNumber), toDocument(productNumber, name))
+        }
+        searcherManager.maybeRefresh()
+        logger.info("Indexed ${products.size} products")
+    }
+
+    /**
+     * Passes [block] the product numbers of all hits ranked by relevance: exact words first, then prefixes,
+     * then words within one or two typos. Every word of the search text has to match. Hits are read lazily
+     * with searchAfter, [chunkSize] at a time, from one searcher that is held until [block] returns.
+     */
+    fun <R> searchRanked(text: String, chunkSize: Int, block: (Sequence<String>) -> R): R {
+        val query = toQuery(text) ?: return block(emptySequence())
+        val searcher = searcherManager.acquire()
+        try {
+            var after: ScoreDoc? = null
+            val hits = generateSequence {
+                searcher.searchAfter(after, query, chunkSize).scoreDocs
+                    .takeIf { it.isNotEmpty() }
+                    ?.also { after = it.last() }
+            }
+            return block(hits.flatMap { docs -> docs.asSequence().map { searcher.doc(it.doc).get(PRODUCT_NUMBER) } })
+        } finally {
+            searcherManager.release(searcher)
+        }
+    }
+
+    /**
+     * Returns those of [productNumbers] whose name matches [text], with the same query as [searchRanked].
+     */
+    fun matching(text: String, productNumbers: Collection<String>): Set<String> {
+        val query = toQuery(text)
+        if (query == null || productNumbers.isEmpty()) return emptySet()
+        val filtered = BooleanQuery.Builder()
+            .add(query, Occur.MUST)
+            .add(TermInSetQuery(PRODUCT_NUMBER, productNumbers.map { BytesRef(it) }), Occur.FILTER)
+            .build()
+        val searcher = searcherManager.acquire()
+        try {
+            return searcher.search(filtered, productNumbers.size).scoreDocs
+                .mapTo(HashSet()) { searcher.doc(it.doc).get(PRODUCT_NUMBER) }
+        } finally {
+            searcherManager.release(searcher)
+        }
+    }
+
+    @PreDestroy
+    fun close() {
+        searcherManager.close()
+        writer.close()
+        directory.close()
+    }
+
+    private fun toDocument(productNumber: String, name: String) = Document().apply {
+        add(StringField(PRODUCT_NUMBER, productNumber, Field.Store.YES))
+        add(TextField(NAME, name, Field.Store.NO))
+    }
+
+    private fun toQuery(text: String): Query? {
+        val words = analyze(text)
+        if (words.isEmpty()) return null
+        return words.fold(BooleanQuery.Builder()) { query, word ->
+            val term = Term(NAME, word)
+            query.add(
+                BooleanQuery.Builder()
+                    .add(BoostQuery(TermQuery(term), 3f), Occur.SHOULD)
+                    .add(BoostQuery(PrefixQuery(term), 2f), Occur.SHOULD)
+                    .add(FuzzyQuery(term, maxEdits(word)), Occur.SHOULD)
+                    .build(),
+                Occur.MUST
+            )
+        }.build()
+    }
+
+    private fun analyze(text: String): List<String> =
+        analyzer.tokenStream(NAME, text).use { stream ->
+            val attribute = stream.addAttribute(CharTermAttribute::class.java)
+            stream.reset()
+            val words = generateSequence { if (stream.incrementToken()) attribute.toString() else null }.toList()
+            stream.end()
+            words
+        }
+
+    private fun maxEdits(word: String) = when {
+        word.length < 3 -> 0
+        word.length < 6 -> 1
+        else -> 2
+    }
+
+    companion object {
+        private const val NAME = "name"
+        private const val PRODUCT_NUMBER = "productNumber"
+    }
+}
@@ -0,0 +1,36 @@
+package sigma.software.leovegas.drugstore.product
+
+import javax.persistence.PostPersist
+import org.springframework.stereotype.Component
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+
+/**
+ * Indexes persisted products once their transaction commits, so a rolled back insert never becomes searchable.
+ * Products persisted in one transaction are indexed together, with a single searcher refresh.
+ */
+@Component
+class ProductSearchIndexListener(private val productSearchIndex: ProductSearchIndex) {
+
+    @PostPersist
+    fun onPersist(product: Product) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            productSearchIndex.index(mapOf(product.productNumber to product.name))
+            return
+        }
+        pending()[product.productNumber] = product.name
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun pending(): MutableMap<String, String> =
+        TransactionSynchronizationManager.getResource(this) as MutableMap<String, String>?
+            ?: mutableMapOf<String, String>().also { pending ->
+                TransactionSynchronizationManager.bindResource(this, pending)
+                TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+                    override fun afterCompletion(status: Int) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(this@ProductSearchIndexListener)
+                        if (status == TransactionSynchronization.STATUS_COMMITTED) productSearchIndex.index(pending)
+                    }
+                })
+            }
+}
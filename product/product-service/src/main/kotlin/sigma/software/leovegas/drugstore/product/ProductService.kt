@@ -1,29 +1,40 @@
 package sigma.software.leovegas.drugstore.product
 
-import java.math.BigDecimal
+import java.io.OutputStream
+import javax.persistence.EntityManager
 import javax.transaction.Transactional
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 import org.springframework.data.domain.PageRequest
 import org.springframework.data.domain.Pageable
+import org.springframework.data.domain.Sort
+import org.springframework.data.jpa.domain.Specification
+import org.springframework.data.jpa.repository.query.QueryUtils
 import org.springframework.stereotype.Service
-import sigma.software.leovegas.drugstore.accountancy.client.proto.AccountancyClientProto
-import sigma.software.leovegas.drugstore.api.messageSpliterator
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import sigma.software.leovegas.drugstore.api.KeysetPage
+import sigma.software.leovegas.drugstore.api.keysetToken
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
 import sigma.software.leovegas.drugstore.api.toBigDecimal
 import sigma.software.leovegas.drugstore.api.toDecimalProto
-import sigma.software.leovegas.drugstore.order.client.proto.OrderClientProto
+import sigma.software.leovegas.drugstore.api.toKeyset
 import sigma.software.leovegas.drugstore.product.api.CreateProductsEvent
 import sigma.software.leovegas.drugstore.product.api.GetProductResponse
 import sigma.software.leovegas.drugstore.product.api.ProductDetailsResponse
 import sigma.software.leovegas.drugstore.product.api.SearchProductResponse
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.ProtobufEventPublisher
 
 @Service
 @Transactional
 class ProductService(
     private val productRepository: ProductRepository,
-    val orderClientProto: OrderClientProto,
-    val accountancyClientProto: AccountancyClientProto
+    val pricingPolicy: PricingPolicy,
+    val productDetailsCache: ProductDetailsCache,
+    val productSearchIndex: ProductSearchIndex,
+    val productProperties: ProductProperties,
+    val entityManager: EntityManager,
+    val protobufEventPublisher: ProtobufEventPublisher,
 ) {
 
     val logger: Logger = LoggerFactory.getLogger(ProductService::class.java)
@@ -31,98 +42,167 @@ class ProductService(
     fun searchProducts(page: Int, size: Int, search: String, sortField: String, sortDirection: String)
             : List<SearchProductResponse> {
         if (search == "") throw NotCorrectRequestException("Search field can not be empty!")
+        validatePage(page, size)
+        validateSortField(sortField)
 
-        if (sortField == "popularity") {
-            val pageableForPopularity: Pageable = PageRequest.of(page, size)
-            val productsQuantity = runCatching { orderClientProto.getProductsIdToQuantity().productQuantityItemMap }
-                .onFailure { error -> throw OrderServerException(error.localizedMessage.messageSpliterator()) }
-                .getOrThrow()
-            logger.info("Received products quantity $productsQuantity")
-
-            val products = productRepository
-                .findAllByNameContainingAndProductNumberInAndStatusAndQuantityGreaterThan(
-                    search,
-                    productsQuantity.keys,
-                    ProductStatus.RECEIVED,
-                    0,
-                    pageableForPopularity
-                )
-            logger.info("Received popular products $products")
-            if (products.isEmpty()) return listOf()
-
-            val productsPrice = runCatching {
-                accountancyClientProto.getSalePrice(products.map { it.productNumber })
-            }
-                .onFailure { error -> throw AccountancyServerException(error.localizedMessage.messageSpliterator()) }
-                .getOrThrow()
-            logger.info("Received products price $productsPrice")
-
-            val productForSale = products.map {
-                it.copy(
-                    price = productsPrice.itemsMap[it.productNumber]?.toBigDecimal() ?: BigDecimal.ZERO
-                )
-            }  //todo
-            val index = productsQuantity.keys.withIndex().associate { it.value to it.index }
-            return productForSale.sortedBy { index[it.productNumber] }.toSearchProductResponseList()
-        }
-        val pageable: Pageable = PageRequest.of(page, size, SortUtil.getSort(sortField, sortDirection))
-        val products = productRepository.findAllByNameContainingAndStatusAndQuantityGreaterThan(
-            search, ProductStatus.RECEIVED, 0, pageable
-        )
-        logger.info("Received sorted by $sortField products $products")
+        val limit = (page + 1) * size
+        val products = when (sortField) {
+            "relevance" -> rankedForSale(search, 0, limit).map { it.value }
+            else -> sortedForSale(search, sortField, isAscending(sortField, sortDirection), null, limit)
+        }.drop(page * size)
+        logger.debug("Received sorted by {} products {}", sortField, products)
         if (products.isEmpty()) return listOf()
 
-        val productsPrice = runCatching {
-            accountancyClientProto.getSalePrice(products.map { it.productNumber })
+        val productForSale = products.map { it.copy(price = pricingPolicy.getSalePrice(it.price)) }
+        return productForSale.toSearchProductResponseList()
+    }
+
+    fun searchProductsKeyset(size: Int, search: String, sortField: String, sortDirection: String, next: String?)
+            : KeysetPage<SearchProductResponse> {
+        if (search == "") throw NotCorrectRequestException("Search field can not be empty!")
+        validatePageSize(size)
+        validateSortField(sortField)
+        val keyset = next?.let {
+            runCatching { it.toKeyset() }
+                .getOrElse { throw NotCorrectRequestException("Continuation token $next is not valid!") }
         }
-            .onFailure { error -> throw AccountancyServerException(error.localizedMessage.messageSpliterator()) }
-            .getOrThrow()
-        logger.info("Received products price $productsPrice")
 
-        val productForSale = products.map {
-            it.copy(
-                price = productsPrice.itemsMap[it.productNumber]?.toBigDecimal() ?: BigDecimal.ZERO
-            )
+        val products: List<Product>
+        val sortKey: (Product) -> Any
+        if (sortField == "relevance") {
+            val after = keyset?.first?.let {
+                it.toIntOrNull() ?: throw NotCorrectRequestException("Continuation token $next is not valid!")
+            } ?: -1
+            val ranked = rankedForSale(search, after + 1, size + 1)
+            val rank = ranked.associate { it.value.productNumber to it.index }
+            products = ranked.map { it.value }
+            sortKey = { rank.getValue(it.productNumber) }
+        } else {
+            val ascending = isAscending(sortField, sortDirection)
+            val seek = keyset?.let {
+                runCatching { seekAfter(sortField, it.first, it.second, ascending) }
+                    .getOrElse { throw NotCorrectRequestException("Continuation token $next is not valid!") }
+            }
+            products = sortedForSale(search, sortField, ascending, seek, size + 1)
+            sortKey = { it.keysetValue(sortField) }
         }
-        return productForSale.toSearchProductResponseList()
+        logger.debug("Received sorted by {} products {} after {}", sortField, products, next)
+
+        val page = products.take(size)
+        val nextToken = if (products.size > size) page.last().let { keysetToken(sortKey(it), it.id!!) } else null
+        val productForSale = page.map { it.copy(price = pricingPolicy.getSalePrice(it.price)) }
+        return KeysetPage(productForSale.toSearchProductResponseList(), nextToken)
     }
 
-    fun getPopularProducts(page: Int, size: Int): List<GetProductResponse> {
-        val pageableForPopularity: Pageable = PageRequest.of(page, size)
-        val productsQuantity = runCatching { orderClientProto.getProductsIdToQuantity() }
-            .onFailure { error -> throw OrderServerException(error.localizedMessage.messageSpliterator()) }
-            .getOrThrow()
-        logger.info("Received products quantity $productsQuantity")
+    // popularity is always ranked most bought first, as the order-service ranking it replaced was
+    private fun isAscending(sortField: String, sortDirection: String) =
+        sortField != "popularity" && sortDirection == "ASC"
+
+    /**
+     * Walks search hits in relevance order from rank [from], loading each chunk of them from the database and
+     * keeping the products for sale, until [count] are found. Returns them with their search rank.
+     */
+    private fun rankedForSale(search: String, from: Int, count: Int): List<IndexedValue<Product>> {
+        val chunkSize = productProperties.searchChunkSize
+        return productSearchIndex.searchRanked(search, chunkSize) { hits ->
+            hits.withIndex()
+                .drop(from)
+                .chunked(chunkSize)
+                .flatMap { chunk ->
+                    val rank = chunk.associate { it.value to it.index }
+                    productRepository
+                        .findAllByProductNumberInAndStatusAndQuantityGreaterThan(
+                            chunk.map { it.value }, ProductStatus.RECEIVED, 0
+                        )
+                        .map { IndexedValue(rank.getValue(it.productNumber), it) }
+                        .sortedBy { it.index }
+                        .asSequence()
+                }
+                .take(count)
+                .toList()
+        }
+    }
+
+    /**
+     * Returns the first [limit] products for sale matching the search, sorted in the database.
+     * Up to one chunk of matches is sorted with a single query. When there are more, the products for sale are
+     * read in sort order one chunk at a time and only those matching the search are kept, so a request reads
+     * the rows up to its page whatever the number of matches.
+     */
+    private fun sortedForSale(
+        search: String, sortField: String, ascending: Boolean, seek: Specification<Product>?, limit: Int
+    ): List<Product> {
+        val chunkSize = productProperties.searchChunkSize
+        val popularOnly = sortField == "popularity"
+        val sort = Sort.by(if (ascending) Sort.Direction.ASC else Sort.Direction.DESC, sortField, "id")
+        val matches = productSearchIndex.searchRanked(search, chunkSize) { it.take(chunkSize + 1).toList() }
+        if (matches.isEmpty()) return listOf()
+        if (matches.size <= chunkSize) return findForSale(productsForSale(matches, popularOnly).and(seek), sort, limit)
+
+        val found = mutableListOf<Product>()
+        var after = seek
+        do {
+            val rows = findForSale(productsForSale(null, popularOnly).and(after), sort, chunkSize)
+            val matching = productSearchIndex.matching(search, rows.map { it.productNumber })
+            rows.filterTo(found) { it.productNumber in matching }
+            after = rows.lastOrNull()
+                ?.let { seekAfter(sortField, it.keysetValue(sortField).toString(), it.id!!, ascending) }
+        } while (found.size < limit && rows.size == chunkSize)
+        return found.take(limit)
+    }
+
+    // the first rows only, without the count query of a page
+    private fun findForSale(filter: Specification<Product>, sort: Sort, limit: Int): List<Product> {
+        val cb = entityManager.criteriaBuilder
+        val query = cb.createQuery(Product::class.java)
+        val root = query.from(Product::class.java)
+        query.where(filter.toPredicate(root, query, cb)).orderBy(QueryUtils.toOrders(sort, root, cb))
+        return entityManager.createQuery(query).setMaxResults(limit).resultList
+    }
 
+    fun getPopularProducts(page: Int, size: Int): List<GetProductResponse> {
+        validatePage(page, size)
+        val pageableForPopularity: Pageable = PageRequest.of(page, size, Sort.by("popularity").descending())
         val products = productRepository
-            .findAllByProductNumberInAndStatusAndQuantityGreaterThan(
-                productsQuantity.productQuantityItemMap.keys, ProductStatus.RECEIVED, 0, pageableForPopularity
+            .findAllByStatusAndQuantityGreaterThanAndPopularityGreaterThan(
+                ProductStatus.RECEIVED, 0, 0, pageableForPopularity
             )
             .map(Product::toGetProductResponse)
-        logger.info("Received popular products $products")
-        val index = productsQuantity.productQuantityItemMap.keys.withIndex().associate { it.value to it.index }
-        return products.sortedBy { index[it.productNumber] }
+        logger.debug("Received popular products {}", products)
+        return products
     }
 
     fun getProductsDetailsByProductNumbers(productNumbers: List<String>) =
         productNumbers.run {
-            val products = productRepository.findAllByProductNumberInAndStatus(this, ProductStatus.RECEIVED)
-            logger.info("Products $products")
-            val productProto = products.map {
-                Proto.ProductDetailsItem.newBuilder()
-                    .setProductNumber(it.productNumber)
-                    .setQuantity(it.quantity)
-                    .setPrice(it.price.toDecimalProto())
-                    .setName(it.name)
-                    .build()
+            val productProto = productDetailsCache.getAll(this) { missing ->
+                val products = productRepository.findAllByProductNumberInAndStatus(missing, ProductStatus.RECEIVED)
+                logger.debug("Products {}", products)
+                products.map(Product::toProductDetailsItem)
             }
             return@run Proto.ProductDetailsResponse.newBuilder().addAllProducts(productProto).build()
         }
 
+    /**
+     * Writes every product as a length-delimited [Proto.ProductDetailsItem], reading the table through a
+     * database cursor and detaching each row once written, so memory does not grow with the catalogue.
+     */
+    fun exportProducts(output: OutputStream) {
+        var exported = 0
+        productRepository.streamAll().use { products ->
+            products.forEach {
+                it.toProductDetailsItem().writeDelimitedTo(output)
+                entityManager.detach(it)
+                exported++
+            }
+        }
+        output.flush()
+        logger.info("Exported $exported products")
+    }
+
     fun getProductsDetailsByProductNumbersJson(productNumber: String): ProductDetailsResponse =
         productNumber.run {
             val products = productRepository.findAllByProductNumberInAndStatus(listOf(this), ProductStatus.RECEIVED)
-            logger.info("Products $products")
+            logger.debug("Products {}", products)
             ProductDetailsResponse(
                 productNumber = this,
                 quantity = products[0].quantity,
@@ -140,16 +220,22 @@ class ProductService(
                 productNumber = it.productNumber
             ) }
             val savedProducts = productRepository.saveAll(products)
-            logger.info("Saved Products $savedProducts")
+            productDetailsCache.invalidate(savedProducts.map { it.productNumber })
+            logger.debug("Saved Products {}", savedProducts)
             savedProducts.toCreateProductResponseList()
         }
 
+    fun createProducts(events: List<Proto.CreateProductsEvent>) =
+        createProduct(Proto.CreateProductsEvent.newBuilder().addAllProducts(events.flatMap { it.productsList }).build())
+
     fun receiveProducts(request: Proto.ProductNumberList) = request.productNumberList.run {
         val productsToReceive = productRepository
             .findAllByProductNumberIn(this)
             .map { it.copy(status = ProductStatus.RECEIVED) }
         val productsReceived = productRepository.saveAllAndFlush(productsToReceive)
-        logger.info("Received Products $productsReceived")
+        productDetailsCache.invalidate(productsReceived.map { it.productNumber })
+        publishReceived(productsReceived.map { it.productNumber })
+        logger.debug("Received Products {}", productsReceived)
         val productsProto = productsReceived.map {
             Proto.ReceiveProductItemDTO.newBuilder().setProductNumber(it.productNumber)
                 .setStatus(Proto.ProductStatusDTO.valueOf(it.status.name)).build()
@@ -172,7 +258,8 @@ class ProductService(
                 }
 
             val productsDelivered = productRepository.saveAllAndFlush(toUpdate)
-            logger.info("Delivered Products $productsDelivered")
+            productDetailsCache.invalidate(productsDelivered.map { it.productNumber })
+            logger.debug("Delivered Products {}", productsDelivered)
             val productProto = productsDelivered.map {
                 Proto.Item.newBuilder().setProductNumber(it.productNumber).setQuantity(it.quantity).build()
             }
@@ -184,7 +271,61 @@ class ProductService(
             val productsPrice = productRepository.findAllByProductNumberInOrderByCreatedAtDesc(productNumbers)
                 .associate { (it.productNumber to it.price) }
                 .mapValues { it.value.toDecimalProto() }
-            logger.info("Products price $productsPrice")
+            logger.debug("Products price {}", productsPrice)
             return@run Proto.ProductsPrice.newBuilder().putAllItems(productsPrice).build()
         }
+
+    fun indexProducts(products: Proto.CreateProductsEvent) =
+        productSearchIndex.index(products.productsList.associate { it.productNumber to it.name })
+
+    fun rebuildSearchIndex() {
+        var pageable: Pageable = PageRequest.of(0, SEARCH_INDEX_BATCH_SIZE)
+        do {
+            val products = productRepository.findAll(pageable)
+            productSearchIndex.index(products.content.associate { it.productNumber to it.name })
+            pageable = products.nextPageable()
+        } while (products.hasNext())
+        logger.info("Search index rebuilt")
+    }
+
+    fun increasePopularity(event: Proto.CreateOutcomeInvoiceEvent) =
+        event.productItemsList
+            .groupBy({ it.productNumber }, { it.quantity })
+            .forEach { (productNumber, quantities) ->
+                val quantity = quantities.sum()
+                productRepository.increasePopularity(productNumber, quantity)
+                logger.info("Product $productNumber popularity increased by $quantity")
+            }
+
+    fun increasePopularity(events: List<Proto.CreateOutcomeInvoiceEvent>) =
+        increasePopularity(
+            Proto.CreateOutcomeInvoiceEvent.newBuilder()
+                .addAllProductItems(events.flatMap { it.productItemsList })
+                .build()
+        )
+
+    // lets order-service refresh the snapshots of open order items; it looks products up live when this is lost
+    private fun publishReceived(productNumbers: List<String>) {
+        if (productNumbers.isEmpty()) return
+        val event = Proto.ProductNumberList.newBuilder().addAllProductNumber(productNumbers).build()
+        val warn = { error: Throwable ->
+            logger.warn("Receive event for $productNumbers is not published: ${error.message}")
+        }
+        val publish = {
+            runCatching { protobufEventPublisher.publish(RECEIVE_PRODUCT_BINDING, event) }
+                .onSuccess { published -> published.whenComplete { _, error -> error?.let(warn) } }
+                .onFailure(warn)
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) publish()
+        else TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+            override fun afterCommit() {
+                publish()
+            }
+        })
+    }
+
+    companion object {
+        private const val RECEIVE_PRODUCT_BINDING = "receiveProductEventPublisher-out-0"
+        private const val SEARCH_INDEX_BATCH_SIZE = 1000
+    }
 }
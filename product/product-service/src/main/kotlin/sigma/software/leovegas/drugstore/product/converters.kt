@@ -1,5 +1,7 @@
 package sigma.software.leovegas.drugstore.product
 
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.api.toDecimalProto
 import sigma.software.leovegas.drugstore.product.api.CreateProductRequest
 import sigma.software.leovegas.drugstore.product.api.CreateProductResponse
 import sigma.software.leovegas.drugstore.product.api.GetProductResponse
@@ -52,6 +54,16 @@ fun Product.toSearchProductResponse() =
 
 fun List<Product>.toSearchProductResponseList() = this.map(Product::toSearchProductResponse)
 
+// Product entity -> Proto.ProductDetailsItem
+
+fun Product.toProductDetailsItem(): Proto.ProductDetailsItem =
+    Proto.ProductDetailsItem.newBuilder()
+        .setProductNumber(productNumber)
+        .setQuantity(quantity)
+        .setPrice(price.toDecimalProto())
+        .setName(name)
+        .build()
+
 // ProductStatus -> ProductStatusDTO
 
 fun ProductStatus.toDTO() = ProductStatusDTO.valueOf(name)
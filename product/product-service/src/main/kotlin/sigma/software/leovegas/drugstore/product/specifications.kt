@@ -0,0 +1,47 @@
+package sigma.software.leovegas.drugstore.product
+
+import java.math.BigDecimal
+import java.time.LocalDateTime
+import org.springframework.data.jpa.domain.Specification
+
+// Product search filters
+
+fun productsForSale(productNumbers: List<String>?, popularOnly: Boolean) = Specification<Product> { root, _, cb ->
+    val restrictions = listOfNotNull(
+        productNumbers?.let { root.get<String>("productNumber").`in`(it) },
+        cb.equal(root.get<ProductStatus>("status"), ProductStatus.RECEIVED),
+        cb.greaterThan(root.get<Int>("quantity"), 0),
+        if (popularOnly) cb.greaterThan(root.get<Int>("popularity"), 0) else null,
+    )
+    cb.and(*restrictions.toTypedArray())
+}
+
+// Keyset (seek) pagination: rows strictly after (sortKey, id) in the requested direction
+
+fun Product.keysetValue(sortField: String): Any = when (sortField) {
+    "popularity" -> popularity
+    "price" -> price.toPlainString()
+    "name" -> name
+    "createdAt" -> createdAt.toString()
+    else -> throw NotCorrectRequestException("Sort field $sortField is not supported!")
+}
+
+fun seekAfter(sortField: String, sortKey: String, id: Long, ascending: Boolean): Specification<Product> =
+    when (sortField) {
+        "popularity" -> seekAfter(sortField, sortKey.toInt(), id, ascending)
+        "price" -> seekAfter(sortField, BigDecimal(sortKey), id, ascending)
+        "name" -> seekAfter(sortField, sortKey, id, ascending)
+        "createdAt" -> seekAfter(sortField, LocalDateTime.parse(sortKey), id, ascending)
+        else -> throw NotCorrectRequestException("Sort field $sortField is not supported!")
+    }
+
+private fun <T : Comparable<T>> seekAfter(sortField: String, sortKey: T, id: Long, ascending: Boolean) =
+    Specification<Product> { root, _, cb ->
+        val key = root.get<T>(sortField)
+        val productId = root.get<Long>("id")
+        if (ascending) {
+            cb.or(cb.greaterThan(key, sortKey), cb.and(cb.equal(key, sortKey), cb.greaterThan(productId, id)))
+        } else {
+            cb.or(cb.lessThan(key, sortKey), cb.and(cb.equal(key, sortKey), cb.lessThan(productId, id)))
+        }
+    }
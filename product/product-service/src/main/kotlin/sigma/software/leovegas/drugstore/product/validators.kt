@@ -11,3 +11,18 @@ fun Long.validate(functor: (Long) -> Optional<Product>): Product =
 fun <T> List<T>.validate() = apply {
     if (isEmpty()) throw NotCorrectRequestException("Should not be empty request list")
 }
+
+fun validatePage(page: Int, size: Int) {
+    if (page < 0) throw NotCorrectRequestException("Page number should not be negative!")
+    validatePageSize(size)
+}
+
+fun validatePageSize(size: Int) {
+    if (size < 1) throw NotCorrectRequestException("Page size should be greater than 0!")
+}
+
+fun validateSortField(sortField: String) {
+    if (sortField !in searchSortFields) throw NotCorrectRequestException("Sort field $sortField is not supported!")
+}
+
+private val searchSortFields = setOf("relevance", "popularity", "price", "name", "createdAt")
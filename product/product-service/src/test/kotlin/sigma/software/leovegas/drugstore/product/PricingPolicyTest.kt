@@ -0,0 +1,159 @@
+package sigma.software.leovegas.drugstore.product
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import java.math.BigDecimal
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+import java.time.ZoneOffset
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.Qualifier
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.boot.test.context.TestConfiguration
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Primary
+import org.springframework.http.HttpStatus
+import org.springframework.messaging.MessageChannel
+import org.springframework.messaging.support.MessageBuilder
+import sigma.software.leovegas.drugstore.accountancy.client.proto.AccountancyClientProto
+import sigma.software.leovegas.drugstore.api.toDecimalProto
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+import sigma.software.leovegas.drugstore.infrastructure.extensions.withProtobufResponse
+
+@DisplayName("Pricing policy test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PricingPolicyTest @Autowired constructor(
+    val pricingPolicy: PricingPolicy,
+    val productProperties: ProductProperties,
+    val clock: MutableClock,
+    val accountancyClientProto: AccountancyClientProto,
+    @Qualifier("updateMarkupEventHandler-in-0") val markupChannel: MessageChannel,
+) : WireMockTest() {
+
+    private fun stubMarkup(markup: String) =
+        stubFor(
+            WireMock.get("/api/v1/accountancy/markup")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse { BigDecimal(markup).toDecimalProto() }
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+
+    private fun expire() = clock.advance(productProperties.markupTtl)
+
+    @Test
+    fun `should keep markup until ttl expires`() {
+
+        // given
+        expire()
+        stubMarkup("2")
+        WireMock.resetAllRequests()
+
+        // and
+        val first = pricingPolicy.getMarkup()
+
+        // and
+        stubMarkup("3")
+
+        // when
+        val cached = pricingPolicy.getMarkup()
+
+        // and
+        expire()
+        val refreshed = pricingPolicy.getMarkup()
+
+        // then
+        assertThat(first).isEqualTo(BigDecimal("2"))
+        assertThat(cached).isEqualTo(BigDecimal("2"))
+        assertThat(refreshed).isEqualTo(BigDecimal("3"))
+        WireMock.verify(2, WireMock.getRequestedFor(WireMock.urlEqualTo("/api/v1/accountancy/markup")))
+    }
+
+    @Test
+    fun `should keep stale markup when accountancy is down`() {
+
+        // given
+        expire()
+        stubMarkup("2")
+        pricingPolicy.getMarkup()
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/accountancy/markup")
+                .willReturn(aResponse().withStatus(HttpStatus.SERVICE_UNAVAILABLE.value()))
+        )
+
+        // when
+        expire()
+        val actual = pricingPolicy.getMarkup()
+
+        // then
+        assertThat(actual).isEqualTo(BigDecimal("2"))
+    }
+
+    @Test
+    fun `should fail without markup when accountancy is down`() {
+
+        // given
+        val policy = PricingPolicy(accountancyClientProto, productProperties, clock)
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/accountancy/markup")
+                .willReturn(aResponse().withStatus(HttpStatus.SERVICE_UNAVAILABLE.value()))
+        )
+
+        // when
+        val exception = assertThrows<AccountancyServerException> { policy.getMarkup() }
+
+        // then
+        assertThat(exception).isNotNull
+    }
+
+    @Test
+    fun `should replace markup from markup event without calling accountancy`() {
+
+        // given
+        expire()
+        stubMarkup("2")
+        WireMock.resetAllRequests()
+        pricingPolicy.getMarkup()
+
+        // when
+        markupChannel.send(MessageBuilder.withPayload(BigDecimal("5").toDecimalProto()).build())
+
+        // then
+        assertThat(pricingPolicy.getMarkup()).isEqualTo(BigDecimal("5"))
+        assertThat(pricingPolicy.getSalePrice(BigDecimal("10.00"))).isEqualTo(BigDecimal("50.00"))
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/api/v1/accountancy/markup")))
+    }
+
+    @TestConfiguration
+    class ClockConfig {
+
+        @Bean
+        @Primary
+        fun mutableClock() = MutableClock()
+    }
+
+    class MutableClock(private var now: Instant = Instant.now()) : Clock() {
+
+        override fun getZone(): ZoneId = ZoneOffset.UTC
+
+        override fun withZone(zone: ZoneId): Clock = this
+
+        override fun instant(): Instant = now
+
+        fun advance(duration: Duration) {
+            now = now.plus(duration)
+        }
+    }
+}
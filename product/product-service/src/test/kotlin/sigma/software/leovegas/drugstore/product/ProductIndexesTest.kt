@@ -0,0 +1,53 @@
+package sigma.software.leovegas.drugstore.product
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.jdbc.core.ConnectionCallback
+import org.springframework.jdbc.core.JdbcTemplate
+
+@TestInstance(PER_CLASS)
+@DisplayName("Product indexes test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ProductIndexesTest @Autowired constructor(
+    val jdbcTemplate: JdbcTemplate,
+) {
+
+    @Test
+    fun `should use status and popularity index for popular products`() {
+
+        // when
+        val plan = explain(
+            "SELECT * FROM product WHERE status = 'RECEIVED' AND quantity > 0 AND popularity > 0 " +
+                    "ORDER BY popularity DESC"
+        )
+
+        // then
+        assertThat(plan).containsIgnoringCase("idx_product_status_popularity")
+    }
+
+    @Test
+    fun `should use status and popularity index for popular products by status only`() {
+
+        // when
+        val plan = explain("SELECT id FROM product WHERE status = 'CREATED' ORDER BY popularity DESC")
+
+        // then
+        assertThat(plan).containsIgnoringCase("idx_product_status_popularity")
+    }
+
+    // HSQLDB prints the chosen index in its plan; MySQL reports it in the key column of EXPLAIN,
+    // possible_keys only lists the candidates
+    private fun explain(sql: String): String {
+        val database = jdbcTemplate.execute(ConnectionCallback { it.metaData.databaseProductName })
+        return if (database == "MySQL") {
+            jdbcTemplate.queryForList("EXPLAIN $sql").mapNotNull { it["key"] }.joinToString("\n")
+        } else {
+            jdbcTemplate.queryForList("EXPLAIN PLAN FOR $sql").flatMap { it.values }.joinToString("\n")
+        }
+    }
+}
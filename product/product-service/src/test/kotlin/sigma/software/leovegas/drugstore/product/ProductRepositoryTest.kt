@@ -21,7 +21,7 @@ class ProductRepositoryTest @Autowired constructor(
 ) {
 
     @Test
-    fun `should get products by name and status and quantity greater than`() {
+    fun `should get products by product numbers and status and quantity greater than`() {
 
         // given
         transactionTemplate.execute {
@@ -65,8 +65,8 @@ class ProductRepositoryTest @Autowired constructor(
         }.get()
 
         // when
-        val products = productRepository.findAllByNameContainingAndStatusAndQuantityGreaterThan(
-            "aspirin", ProductStatus.RECEIVED, 0, Pageable.unpaged()
+        val products = productRepository.findAllByProductNumberInAndStatusAndQuantityGreaterThan(
+            listOf("1", "3", "4"), ProductStatus.RECEIVED, 0, Pageable.unpaged()
         )
 
         // then
@@ -77,7 +77,7 @@ class ProductRepositoryTest @Autowired constructor(
     }
 
     @Test
-    fun `should get products by product numbers in and status and quantity greater than`() {
+    fun `should get products by status and quantity and popularity greater than`() {
 
         // given
         transactionTemplate.execute {
@@ -93,6 +93,7 @@ class ProductRepositoryTest @Autowired constructor(
                         name = "aspirin",
                         price = BigDecimal("10.00"),
                         quantity = 10,
+                        popularity = 3,
                         status = ProductStatus.RECEIVED
                     ),
                     Product(
@@ -100,6 +101,7 @@ class ProductRepositoryTest @Autowired constructor(
                         name = "test",
                         price = BigDecimal("50.00"),
                         quantity = 0,
+                        popularity = 5,
                         status = ProductStatus.RECEIVED
                     ),
                     Product(
@@ -107,6 +109,7 @@ class ProductRepositoryTest @Autowired constructor(
                         name = "aspirin",
                         price = BigDecimal("40.00"),
                         quantity = 10,
+                        popularity = 7,
                         status = ProductStatus.CREATED
                     ),
                     Product(
@@ -121,9 +124,8 @@ class ProductRepositoryTest @Autowired constructor(
         }.get()
 
         // when
-        val products = productRepository.findAllByProductNumberInAndStatusAndQuantityGreaterThan(
-            setOf(saved[0].productNumber, saved[1].productNumber, saved[2].productNumber),
-            ProductStatus.RECEIVED, 0, Pageable.unpaged()
+        val products = productRepository.findAllByStatusAndQuantityGreaterThanAndPopularityGreaterThan(
+            ProductStatus.RECEIVED, 0, 0, Pageable.unpaged()
         )
 
         // then
@@ -138,7 +140,7 @@ class ProductRepositoryTest @Autowired constructor(
     }
 
     @Test
-    fun `should get products by name and product numbers in and status and quantity greater than`() {
+    fun `should get products by product numbers and status and quantity and popularity greater than`() {
 
         // given
         transactionTemplate.execute {
@@ -154,6 +156,7 @@ class ProductRepositoryTest @Autowired constructor(
                         name = "aspirin",
                         price = BigDecimal("10.00"),
                         quantity = 10,
+                        popularity = 3,
                         status = ProductStatus.RECEIVED
                     ),
                     Product(
@@ -161,6 +164,7 @@ class ProductRepositoryTest @Autowired constructor(
                         name = "test",
                         price = BigDecimal("50.00"),
                         quantity = 10,
+                        popularity = 5,
                         status = ProductStatus.RECEIVED
                     ),
                     Product(
@@ -168,6 +172,7 @@ class ProductRepositoryTest @Autowired constructor(
                         name = "aspirin",
                         price = BigDecimal("40.00"),
                         quantity = 10,
+                        popularity = 7,
                         status = ProductStatus.CREATED
                     ),
                     Product(
@@ -175,6 +180,7 @@ class ProductRepositoryTest @Autowired constructor(
                         name = "aspirin",
                         price = BigDecimal("30.00"),
                         quantity = 0,
+                        popularity = 1,
                         status = ProductStatus.RECEIVED
                     ),
                     Product(
@@ -189,10 +195,8 @@ class ProductRepositoryTest @Autowired constructor(
         }.get()
 
         // when
-        val products = productRepository.findAllByNameContainingAndProductNumberInAndStatusAndQuantityGreaterThan(
-            "aspirin",
-            setOf(saved[0].productNumber, saved[1].productNumber, saved[2].productNumber, saved[3].productNumber),
-            ProductStatus.RECEIVED, 0, Pageable.unpaged()
+        val products = productRepository.findAllByProductNumberInAndStatusAndQuantityGreaterThanAndPopularityGreaterThan(
+            listOf("1", "3", "4", "5"), ProductStatus.RECEIVED, 0, 0, Pageable.unpaged()
         )
 
         // then
@@ -246,4 +250,37 @@ class ProductRepositoryTest @Autowired constructor(
         assertThat(products[0].productNumber).isEqualTo("1")
         assertThat(products[1].productNumber).isEqualTo("2")
     }
+
+    @Test
+    fun `should increase products popularity`() {
+
+        // given
+        transactionTemplate.execute {
+            productRepository.deleteAll()
+        }
+
+        // and
+        val saved = transactionTemplate.execute {
+            productRepository.save(
+                Product(
+                    productNumber = "1",
+                    name = "aspirin",
+                    price = BigDecimal("10.00"),
+                    quantity = 10,
+                    popularity = 3,
+                    status = ProductStatus.RECEIVED
+                )
+            )
+        }.get()
+
+        // when
+        val updated = transactionTemplate.execute {
+            productRepository.increasePopularity(saved.productNumber, 4)
+        }.get()
+
+        // then
+        val actual = productRepository.findAllByProductNumberIn(listOf(saved.productNumber))
+        assertThat(updated).isEqualTo(1)
+        assertThat(actual[0].popularity).isEqualTo(7)
+    }
 }
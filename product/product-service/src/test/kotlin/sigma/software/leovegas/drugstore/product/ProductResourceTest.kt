@@ -3,7 +3,6 @@ package sigma.software.leovegas.drugstore.product
 import com.github.tomakehurst.wiremock.client.WireMock
 import com.github.tomakehurst.wiremock.client.WireMock.aResponse
 import com.github.tomakehurst.wiremock.client.WireMock.stubFor
-import com.google.protobuf.ByteString
 import java.math.BigDecimal
 import java.time.LocalDateTime
 import org.assertj.core.api.Assertions.assertThat
@@ -21,6 +20,9 @@ import org.springframework.http.HttpMethod.POST
 import org.springframework.http.HttpMethod.PUT
 import org.springframework.http.HttpStatus
 import org.springframework.transaction.support.TransactionTemplate
+import org.springframework.web.client.ResponseExtractor
+import sigma.software.leovegas.drugstore.api.ApiError
+import sigma.software.leovegas.drugstore.api.keysetToken
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
 import sigma.software.leovegas.drugstore.api.toDecimalProto
 import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
@@ -40,6 +42,7 @@ class ProductResourceTest @Autowired constructor(
     val transactionalTemplate: TransactionTemplate,
     val productRepository: ProductRepository,
     val productProperties: ProductProperties,
+    val productDetailsCache: ProductDetailsCache,
     val restTemplate: TestRestTemplate,
     @LocalServerPort val port: Int,
 ) : WireMockTest() {
@@ -166,6 +169,41 @@ class ProductResourceTest @Autowired constructor(
         assertThat(body.getProducts(0).status).isEqualTo(Proto.ProductStatusDTO.RECEIVED)
     }
 
+    @Test
+    fun `should export all products as length-delimited protobuf stream`() {
+
+        // given
+        transactionalTemplate.execute {
+            productRepository.deleteAll()
+        }
+
+        // and
+        val saved = transactionalTemplate.execute {
+            productRepository.saveAll(
+                (1..3).map {
+                    Product(
+                        productNumber = "$it",
+                        status = ProductStatus.RECEIVED,
+                        name = "test$it",
+                        price = BigDecimal("$it.00"),
+                        quantity = it
+                    )
+                }
+            )
+        }.get()
+
+        // when
+        val exported = restTemplate.execute("$baseUrl/api/v1/products/export", GET, null, ResponseExtractor {
+            generateSequence { Proto.ProductDetailsItem.parseDelimitedFrom(it.body) }.toList()
+        })
+
+        // then
+        assertThat(exported).hasSize(3)
+        assertThat(exported.map { it.productNumber }).containsExactlyElementsOf(saved.map { it.productNumber })
+        assertThat(exported[2].name).isEqualTo("test3")
+        assertThat(exported[2].price).isEqualTo(BigDecimal("3.00").toDecimalProto())
+    }
+
     @Test
     fun `should get products details by product numbers`() {
 
@@ -173,6 +211,7 @@ class ProductResourceTest @Autowired constructor(
         transactionalTemplate.execute {
             productRepository.deleteAll()
         }
+        productDetailsCache.invalidateAll()
 
         // and
         val productNumbers = transactionalTemplate.execute {
@@ -237,18 +276,21 @@ class ProductResourceTest @Autowired constructor(
                         name = "aspirin",
                         status = ProductStatus.RECEIVED,
                         quantity = 10,
+                        popularity = 1,
                     ),
                     Product(
                         productNumber = "2",
                         name = "aspirin2",
                         status = ProductStatus.RECEIVED,
                         quantity = 10,
+                        popularity = 5,
                     ),
                     Product(
                         productNumber = "3",
                         name = "mostPopular",
                         status = ProductStatus.CREATED,
                         quantity = 10,
+                        popularity = 9,
                     ),
                     Product(
                         productNumber = "4",
@@ -260,23 +302,6 @@ class ProductResourceTest @Autowired constructor(
             )
         }.get()
 
-        // and
-        val responseExpected = Proto.ProductQuantityMap.newBuilder()
-            .putProductQuantityItem(saved[2].productNumber, 9)
-            .putProductQuantityItem(saved[1].productNumber, 5)
-            .putProductQuantityItem(saved[0].productNumber, 1)
-            .build()
-
-        // and
-        stubFor(
-            WireMock.get("/api/v1/orders/total-buys")
-                .willReturn(
-                    aResponse()
-                        .withProtobufResponse { responseExpected }
-                        .withStatus(HttpStatus.OK.value())
-                )
-        )
-
         // when
         val response = restTemplate
             .exchange(
@@ -343,33 +368,12 @@ class ProductResourceTest @Autowired constructor(
             )
         }.get()
 
-        // and
-        val price = BigDecimal("20.00")
-        val price2 = BigDecimal("100.00")
-        val protoPrice = Proto.DecimalValue.newBuilder()
-            .setPrecision(price.precision())
-            .setScale(price.scale())
-            .setValue(ByteString.copyFrom(price.unscaledValue().toByteArray()))
-            .build()
-        val protoPrice2 = Proto.DecimalValue.newBuilder()
-            .setPrecision(price2.precision())
-            .setScale(price2.scale())
-            .setValue(ByteString.copyFrom(price2.unscaledValue().toByteArray()))
-            .build()
-        val responseEProto = Proto.ProductsPrice.newBuilder()
-            .putItems(saved[1].productNumber, protoPrice2)
-            .putItems(saved[0].productNumber, protoPrice)
-            .build()
-
         // and
         stubFor(
-            WireMock.get(
-                "/api/v1/accountancy/sale-price?" +
-                  "productNumbers=${saved[0].productNumber}&productNumbers=${saved[1].productNumber}"
-            )
+            WireMock.get("/api/v1/accountancy/markup")
                 .willReturn(
                     aResponse()
-                        .withProtobufResponse { responseEProto }
+                        .withProtobufResponse { BigDecimal("2").toDecimalProto() }
                         .withStatus(HttpStatus.OK.value())
                 )
         )
@@ -440,33 +444,12 @@ class ProductResourceTest @Autowired constructor(
             )
         }.get()
 
-        // and
-        val price = BigDecimal("20.00")
-        val price2 = BigDecimal("100.00")
-        val protoPrice = Proto.DecimalValue.newBuilder()
-            .setPrecision(price.precision())
-            .setScale(price.scale())
-            .setValue(ByteString.copyFrom(price.unscaledValue().toByteArray()))
-            .build()
-        val protoPrice2 = Proto.DecimalValue.newBuilder()
-            .setPrecision(price2.precision())
-            .setScale(price2.scale())
-            .setValue(ByteString.copyFrom(price2.unscaledValue().toByteArray()))
-            .build()
-        val responseEProto = Proto.ProductsPrice.newBuilder()
-            .putItems(saved[1].productNumber, protoPrice2)
-            .putItems(saved[0].productNumber, protoPrice)
-            .build()
-
         // and
         stubFor(
-            WireMock.get(
-                "/api/v1/accountancy/sale-price?" +
-                  "productNumbers=${saved[1].productNumber}&productNumbers=${saved[0].productNumber}"
-            )
+            WireMock.get("/api/v1/accountancy/markup")
                 .willReturn(
                     aResponse()
-                        .withProtobufResponse { responseEProto }
+                        .withProtobufResponse { BigDecimal("2").toDecimalProto() }
                         .withStatus(HttpStatus.OK.value())
                 )
         )
@@ -506,13 +489,17 @@ class ProductResourceTest @Autowired constructor(
                     Product(
                         productNumber = "1",
                         name = "aspirin",
+                        price = BigDecimal("20.00"),
                         quantity = 10,
+                        popularity = 1,
                         status = ProductStatus.RECEIVED
                     ),
                     Product(
                         productNumber = "2",
                         name = "aspirin2",
+                        price = BigDecimal("10.00"),
                         quantity = 10,
+                        popularity = 5,
                         status = ProductStatus.RECEIVED
 
                     ),
@@ -520,6 +507,7 @@ class ProductResourceTest @Autowired constructor(
                         productNumber = "3",
                         name = "aspirin",
                         quantity = 10,
+                        popularity = 9,
                         status = ProductStatus.CREATED
                     ),
                     Product(
@@ -533,51 +521,12 @@ class ProductResourceTest @Autowired constructor(
             )
         }?.map { it.productNumber }.get()
 
-        //and
-        val responseExpected = Proto.ProductQuantityMap.newBuilder()
-            .putProductQuantityItem(productNumbers[2], 9)
-            .putProductQuantityItem(productNumbers[1], 5)
-            .putProductQuantityItem(productNumbers[0], 1)
-            .build()
-
-        // and
-        stubFor(
-            WireMock.get("/api/v1/orders/total-buys")
-                .willReturn(
-                    aResponse()
-                        .withProtobufResponse { responseExpected }
-                        .withStatus(HttpStatus.OK.value())
-
-                )
-        )
-
-        // and
-        val price = BigDecimal("40.00")
-        val price2 = BigDecimal("20.00")
-        val protoPrice = Proto.DecimalValue.newBuilder()
-            .setPrecision(price.precision())
-            .setScale(price.scale())
-            .setValue(ByteString.copyFrom(price.unscaledValue().toByteArray()))
-            .build()
-        val protoPrice2 = Proto.DecimalValue.newBuilder()
-            .setPrecision(price2.precision())
-            .setScale(price2.scale())
-            .setValue(ByteString.copyFrom(price2.unscaledValue().toByteArray()))
-            .build()
-        val responseEProto = Proto.ProductsPrice.newBuilder()
-            .putItems(productNumbers[1], protoPrice2)
-            .putItems(productNumbers[0], protoPrice)
-            .build()
-
         // and
         stubFor(
-            WireMock.get(
-                "/api/v1/accountancy/sale-price?" +
-                  "productNumbers=${productNumbers[0]}&productNumbers=${productNumbers[1]}"
-            )
+            WireMock.get("/api/v1/accountancy/markup")
                 .willReturn(
                     aResponse()
-                        .withProtobufResponse { responseEProto }
+                        .withProtobufResponse { BigDecimal("2").toDecimalProto() }
                         .withStatus(HttpStatus.OK.value())
                 )
         )
@@ -647,4 +596,30 @@ class ProductResourceTest @Autowired constructor(
         assertThat(body.getItems(0).productNumber).isEqualTo(saved.productNumber)
         assertThat(body.getItems(0).quantity).isEqualTo(7)  // 10 - 3
     }
+
+    @Test
+    fun `should reject search with bad page size, sort field or continuation token`() {
+
+        // given
+        val url = "$baseUrl/api/v1/products/search/keyset?search=aspirin"
+
+        // when
+        val zeroSize = restTemplate.exchange("$url&size=0", GET, null, respTypeRef<ApiError>())
+        val negativePage = restTemplate.exchange(
+            "$baseUrl/api/v1/products/search?search=aspirin&page=-1", GET, null, respTypeRef<ApiError>()
+        )
+        val badSortField = restTemplate.exchange("$url&sortField=quantity", GET, null, respTypeRef<ApiError>())
+        val badToken = restTemplate.exchange(
+            "$url&sortField=price&next=${keysetToken("cheap", 1)}", GET, null, respTypeRef<ApiError>()
+        )
+
+        // then
+        listOf(zeroSize, negativePage, badSortField, badToken).forEach {
+            assertThat(it.statusCode).isEqualTo(HttpStatus.BAD_REQUEST)
+        }
+        assertThat(zeroSize.body?.message).isEqualTo("Page size should be greater than 0!")
+        assertThat(negativePage.body?.message).isEqualTo("Page number should not be negative!")
+        assertThat(badSortField.body?.message).isEqualTo("Sort field quantity is not supported!")
+        assertThat(badToken.body?.message).startsWith("Continuation token")
+    }
 }
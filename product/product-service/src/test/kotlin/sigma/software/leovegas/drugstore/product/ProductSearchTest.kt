@@ -0,0 +1,158 @@
+package sigma.software.leovegas.drugstore.product
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.github.tomakehurst.wiremock.client.WireMock.aResponse
+import com.github.tomakehurst.wiremock.client.WireMock.stubFor
+import java.math.BigDecimal
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.http.HttpStatus
+import org.springframework.transaction.support.TransactionTemplate
+import sigma.software.leovegas.drugstore.api.toDecimalProto
+import sigma.software.leovegas.drugstore.infrastructure.WireMockTest
+import sigma.software.leovegas.drugstore.infrastructure.extensions.withProtobufResponse
+
+@DisplayName("Product search test")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = ["product.search-chunk-size=2"]
+)
+class ProductSearchTest @Autowired constructor(
+    val transactionTemplate: TransactionTemplate,
+    val productRepository: ProductRepository,
+    val service: ProductService,
+    val productSearchIndex: ProductSearchIndex,
+) : WireMockTest() {
+
+    @BeforeEach
+    fun setup() {
+        transactionTemplate.execute { productRepository.deleteAllInBatch() }
+        transactionTemplate.execute {
+            productRepository.saveAll(
+                (1..7).map {
+                    Product(
+                        productNumber = "ibuprofen-$it",
+                        name = if (it % 2 == 0) "ibuprofen" else "ibuprofen forte",
+                        quantity = 10,
+                        // one product is not for sale and has to be skipped without shortening the page
+                        status = if (it == 4) ProductStatus.CREATED else ProductStatus.RECEIVED,
+                        price = BigDecimal("$it.00"),
+                    )
+                }
+            )
+        }
+        stubFor(
+            WireMock.get("/api/v1/accountancy/markup")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse { BigDecimal.ONE.toDecimalProto() }
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+    }
+
+    @Test
+    fun `should sort all matches by price across search chunks`() {
+
+        // when
+        val first = service.searchProducts(0, 4, "ibuprofen", "price", "DESC")
+        val second = service.searchProducts(1, 4, "ibuprofen", "price", "DESC")
+
+        // then
+        assertThat(first.map { it.productNumber })
+            .containsExactly("ibuprofen-7", "ibuprofen-6", "ibuprofen-5", "ibuprofen-3")
+        assertThat(second.map { it.productNumber })
+            .containsExactly("ibuprofen-2", "ibuprofen-1")
+    }
+
+    @Test
+    fun `should walk price keyset pages across search chunks`() {
+
+        // when
+        val first = service.searchProductsKeyset(4, "ibuprofen", "price", "ASC", null)
+        val second = service.searchProductsKeyset(4, "ibuprofen", "price", "ASC", first.next)
+
+        // then
+        assertThat(first.items.map { it.productNumber })
+            .containsExactly("ibuprofen-1", "ibuprofen-2", "ibuprofen-3", "ibuprofen-5")
+        assertThat(second.items.map { it.productNumber })
+            .containsExactly("ibuprofen-6", "ibuprofen-7")
+        assertThat(second.next).isNull()
+    }
+
+    @Test
+    fun `should skip products not matching the search while walking the sort order`() {
+
+        // given
+        transactionTemplate.execute {
+            productRepository.saveAll(
+                listOf("2.50", "5.50").map {
+                    Product(
+                        productNumber = "aspirin-$it",
+                        name = "aspirin",
+                        quantity = 10,
+                        status = ProductStatus.RECEIVED,
+                        price = BigDecimal(it),
+                    )
+                }
+            )
+        }
+
+        // when
+        val first = service.searchProducts(0, 3, "ibuprofen", "price", "ASC")
+        val second = service.searchProducts(1, 3, "ibuprofen", "price", "ASC")
+
+        // then
+        assertThat(first.map { it.productNumber })
+            .containsExactly("ibuprofen-1", "ibuprofen-2", "ibuprofen-3")
+        assertThat(second.map { it.productNumber })
+            .containsExactly("ibuprofen-5", "ibuprofen-6", "ibuprofen-7")
+    }
+
+    @Test
+    fun `should walk relevance keyset pages across search chunks`() {
+
+        // when
+        val first = service.searchProductsKeyset(4, "ibuprofen", "relevance", "DESC", null)
+        val second = service.searchProductsKeyset(4, "ibuprofen", "relevance", "DESC", first.next)
+
+        // then
+        assertThat(first.items).hasSize(4)
+        assertThat(second.items).hasSize(2)
+        assertThat(second.next).isNull()
+        assertThat((first.items + second.items).map { it.productNumber })
+            .doesNotHaveDuplicates()
+            .doesNotContain("ibuprofen-4")
+    }
+
+    @Test
+    fun `should index products only after their insert commits`() {
+
+        // given
+        val rolledBack = "paracetamol-${System.nanoTime()}"
+        val committed = "paracetamol-${System.nanoTime()}"
+
+        // and
+        transactionTemplate.execute { status ->
+            productRepository.save(Product(productNumber = rolledBack, name = "paracetamol", quantity = 10))
+            status.setRollbackOnly()
+        }
+
+        // when
+        val beforeCommit = transactionTemplate.execute {
+            productRepository.save(Product(productNumber = committed, name = "paracetamol", quantity = 10))
+            productSearchIndex.searchRanked("paracetamol", 10) { hits -> hits.toList() }
+        }
+
+        // and
+        val afterCommit = productSearchIndex.searchRanked("paracetamol", 10) { it.toList() }
+
+        // then
+        assertThat(beforeCommit).doesNotContain(rolledBack, committed)
+        assertThat(afterCommit).contains(committed).doesNotContain(rolledBack)
+    }
+}
@@ -3,8 +3,8 @@ package sigma.software.leovegas.drugstore.product
 import com.github.tomakehurst.wiremock.client.WireMock
 import com.github.tomakehurst.wiremock.client.WireMock.aResponse
 import com.github.tomakehurst.wiremock.client.WireMock.stubFor
-import com.google.protobuf.ByteString
 import java.math.BigDecimal
+import io.micrometer.core.instrument.MeterRegistry
 import java.time.LocalDateTime
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.DisplayName
@@ -14,6 +14,7 @@ import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
 import org.springframework.boot.test.context.SpringBootTest
 import org.springframework.http.HttpStatus
+import org.springframework.jdbc.core.JdbcTemplate
 import org.springframework.transaction.support.TransactionTemplate
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
 import sigma.software.leovegas.drugstore.api.toDecimalProto
@@ -29,6 +30,10 @@ class ProductServiceTest @Autowired constructor(
     val transactionTemplate: TransactionTemplate,
     val productRepository: ProductRepository,
     val service: ProductService,
+    val productDetailsCache: ProductDetailsCache,
+    val meterRegistry: MeterRegistry,
+    val productPopularityBackfill: ProductPopularityBackfill,
+    val jdbcTemplate: JdbcTemplate,
 ) : WireMockTest() {
 
     @Test
@@ -117,6 +122,7 @@ class ProductServiceTest @Autowired constructor(
                         productNumber = "1",
                         name = "aspirin",
                         quantity = 10,
+                        popularity = 1,
                         status = ProductStatus.RECEIVED,
                         price = BigDecimal("20.00")
                     ),
@@ -124,6 +130,7 @@ class ProductServiceTest @Autowired constructor(
                         productNumber = "2",
                         name = "aspirin2",
                         quantity = 10,
+                        popularity = 5,
                         status = ProductStatus.RECEIVED,
                         price = BigDecimal("20.00")
                     ),
@@ -131,6 +138,7 @@ class ProductServiceTest @Autowired constructor(
                         productNumber = "3",
                         name = "aspirin",
                         quantity = 10,
+                        popularity = 9,
                         status = ProductStatus.CREATED,
                         price = BigDecimal("30.00")
                     ),
@@ -145,45 +153,12 @@ class ProductServiceTest @Autowired constructor(
             )
         }?.map { it.productNumber }.get()
 
-        //and
-        val responseExpected = Proto.ProductQuantityMap.newBuilder()
-            .putProductQuantityItem(productNumbers[2], 9)
-            .putProductQuantityItem(productNumbers[1], 5)
-            .putProductQuantityItem(productNumbers[0], 1)
-            .build()
-
-        // and
-        stubFor(
-            WireMock.get("/api/v1/orders/total-buys")
-                .willReturn(
-                    aResponse()
-                        .withProtobufResponse { responseExpected }
-                        .withStatus(HttpStatus.OK.value())
-
-                )
-        )
-
-        // and
-        val price = BigDecimal("40.00")
-        val protoPrice = Proto.DecimalValue.newBuilder()
-            .setPrecision(price.precision())
-            .setScale(price.scale())
-            .setValue(ByteString.copyFrom(price.unscaledValue().toByteArray()))
-            .build()
-        val responseEProto = Proto.ProductsPrice.newBuilder()
-            .putItems(productNumbers[0], protoPrice)
-            .putItems(productNumbers[1], protoPrice)
-            .build()
-
         // and
         stubFor(
-            WireMock.get(
-                "/api/v1/accountancy/sale-price?" +
-                        "productNumbers=${productNumbers[0]}&productNumbers=${productNumbers[1]}"
-            )
+            WireMock.get("/api/v1/accountancy/markup")
                 .willReturn(
                     aResponse()
-                        .withProtobufResponse { responseEProto }
+                        .withProtobufResponse { BigDecimal("2").toDecimalProto() }
                         .withStatus(HttpStatus.OK.value())
                 )
         )
@@ -244,33 +219,12 @@ class ProductServiceTest @Autowired constructor(
             )
         }.get()
 
-        // and
-        val price = BigDecimal("20.00")
-        val price2 = BigDecimal("100.00")
-        val protoPrice = Proto.DecimalValue.newBuilder()
-            .setPrecision(price.precision())
-            .setScale(price.scale())
-            .setValue(ByteString.copyFrom(price.unscaledValue().toByteArray()))
-            .build()
-        val protoPrice2 = Proto.DecimalValue.newBuilder()
-            .setPrecision(price2.precision())
-            .setScale(price2.scale())
-            .setValue(ByteString.copyFrom(price2.unscaledValue().toByteArray()))
-            .build()
-        val responseEProto = Proto.ProductsPrice.newBuilder()
-            .putItems(saved[1].productNumber, protoPrice2)
-            .putItems(saved[0].productNumber, protoPrice)
-            .build()
-
         // and
         stubFor(
-            WireMock.get(
-                "/api/v1/accountancy/sale-price?" +
-                        "productNumbers=${saved[1].productNumber}&productNumbers=${saved[0].productNumber}"
-            )
+            WireMock.get("/api/v1/accountancy/markup")
                 .willReturn(
                     aResponse()
-                        .withProtobufResponse { responseEProto }
+                        .withProtobufResponse { BigDecimal("2").toDecimalProto() }
                         .withStatus(HttpStatus.OK.value())
                 )
         )
@@ -332,33 +286,12 @@ class ProductServiceTest @Autowired constructor(
             )
         }.get()
 
-        // and
-        val price = BigDecimal("20.00")
-        val price2 = BigDecimal("100.00")
-        val protoPrice = Proto.DecimalValue.newBuilder()
-            .setPrecision(price.precision())
-            .setScale(price.scale())
-            .setValue(ByteString.copyFrom(price.unscaledValue().toByteArray()))
-            .build()
-        val protoPrice2 = Proto.DecimalValue.newBuilder()
-            .setPrecision(price2.precision())
-            .setScale(price2.scale())
-            .setValue(ByteString.copyFrom(price2.unscaledValue().toByteArray()))
-            .build()
-        val responseEProto = Proto.ProductsPrice.newBuilder()
-            .putItems(saved[1].productNumber, protoPrice2)
-            .putItems(saved[0].productNumber, protoPrice)
-            .build()
-
         // and
         stubFor(
-            WireMock.get(
-                "/api/v1/accountancy/sale-price?" +
-                        "productNumbers=${saved[0].productNumber}&productNumbers=${saved[1].productNumber}"
-            )
+            WireMock.get("/api/v1/accountancy/markup")
                 .willReturn(
                     aResponse()
-                        .withProtobufResponse { responseEProto }
+                        .withProtobufResponse { BigDecimal("2").toDecimalProto() }
                         .withStatus(HttpStatus.OK.value())
                 )
         )
@@ -375,6 +308,116 @@ class ProductServiceTest @Autowired constructor(
         assertThat(all[1].price).isEqualTo(BigDecimal("100.00"))
     }
 
+    @Test
+    fun `should search products by misspelled word sorted by relevance`() {
+
+        // given
+        transactionTemplate.execute {
+            productRepository.deleteAllInBatch()
+        }
+
+        // and
+        val saved = transactionTemplate.execute {
+            productRepository.saveAll(
+                listOf(
+                    Product(
+                        productNumber = "1",
+                        name = "aspirin forte",
+                        price = BigDecimal("10.00"),
+                        quantity = 10,
+                        status = ProductStatus.RECEIVED
+                    ),
+                    Product(
+                        productNumber = "2",
+                        name = "aspirin",
+                        price = BigDecimal("20.00"),
+                        quantity = 10,
+                        status = ProductStatus.RECEIVED
+                    ),
+                    Product(
+                        productNumber = "3",
+                        name = "paracetamol",
+                        price = BigDecimal("30.00"),
+                        quantity = 10,
+                        status = ProductStatus.RECEIVED
+                    )
+                )
+            )
+        }.get()
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/accountancy/markup")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse { BigDecimal("2").toDecimalProto() }
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+
+        // when
+        val misspelled = service.searchProducts(0, 5, "asprin", "relevance", "DESC")
+        val prefix = service.searchProducts(0, 5, "parac", "relevance", "DESC")
+
+        // then
+        assertThat(misspelled).hasSize(2)
+        assertThat(misspelled[0].productNumber).isEqualTo(saved[1].productNumber)
+        assertThat(misspelled[1].productNumber).isEqualTo(saved[0].productNumber)
+        assertThat(misspelled[0].price).isEqualTo(BigDecimal("40.00"))
+
+        // and
+        assertThat(prefix).hasSize(1)
+        assertThat(prefix[0].productNumber).isEqualTo(saved[2].productNumber)
+    }
+
+    @Test
+    fun `should search products page by page with continuation token sorted by price`() {
+
+        // given
+        transactionTemplate.execute {
+            productRepository.deleteAllInBatch()
+        }
+
+        // and
+        val saved = transactionTemplate.execute {
+            productRepository.saveAll(
+                listOf("30.00", "10.00", "20.00").mapIndexed { index, price ->
+                    Product(
+                        productNumber = "${index + 1}",
+                        name = "aspirin",
+                        price = BigDecimal(price),
+                        quantity = 10,
+                        status = ProductStatus.RECEIVED
+                    )
+                }
+            )
+        }.get()
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/accountancy/markup")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse { BigDecimal("2").toDecimalProto() }
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+
+        // when
+        val firstPage = service.searchProductsKeyset(2, "aspirin", "price", "ASC", null)
+        val lastPage = service.searchProductsKeyset(2, "aspirin", "price", "ASC", firstPage.next)
+
+        // then
+        assertThat(firstPage.items.map { it.productNumber })
+            .containsExactly(saved[1].productNumber, saved[2].productNumber)
+        assertThat(firstPage.items[0].price).isEqualTo(BigDecimal("20.00"))
+        assertThat(firstPage.next).isNotNull
+
+        // and
+        assertThat(lastPage.items.map { it.productNumber }).containsExactly(saved[0].productNumber)
+        assertThat(lastPage.next).isNull()
+    }
+
     @Test
     fun `should not search products by empty search word`() {
 
@@ -403,12 +446,14 @@ class ProductServiceTest @Autowired constructor(
                         productNumber = "1",
                         name = "aspirin",
                         quantity = 10,
+                        popularity = 1,
                         status = ProductStatus.RECEIVED
                     ),
                     Product(
                         productNumber = "2",
                         name = "aspirin2",
                         quantity = 10,
+                        popularity = 5,
                         status = ProductStatus.RECEIVED
 
                     ),
@@ -416,6 +461,7 @@ class ProductServiceTest @Autowired constructor(
                         productNumber = "3",
                         name = "mostPopular",
                         quantity = 10,
+                        popularity = 9,
                         status = ProductStatus.CREATED
                     ),
                     Product(
@@ -428,22 +474,6 @@ class ProductServiceTest @Autowired constructor(
             )
         }.get()
 
-        val responseExpected = Proto.ProductQuantityMap.newBuilder()
-            .putProductQuantityItem(saved[2].productNumber, 9)
-            .putProductQuantityItem(saved[1].productNumber, 5)
-            .putProductQuantityItem(saved[0].productNumber, 1)
-            .build()
-
-        // and
-        stubFor(
-            WireMock.get("/api/v1/orders/total-buys")
-                .willReturn(
-                    aResponse()
-                        .withProtobufResponse { responseExpected }
-                        .withStatus(HttpStatus.OK.value())
-                )
-        )
-
         // when
         val all = service.getPopularProducts(0, 5)
 
@@ -463,6 +493,7 @@ class ProductServiceTest @Autowired constructor(
         transactionTemplate.execute {
             productRepository.deleteAllInBatch()
         }
+        productDetailsCache.invalidateAll()
 
         // and
         val productNumbers = transactionTemplate.execute {
@@ -499,6 +530,60 @@ class ProductServiceTest @Autowired constructor(
         assertThat(products.getProducts(1).quantity).isEqualTo(2)
     }
 
+    @Test
+    fun `should serve products details from cache until products are delivered`() {
+
+        // given
+        transactionTemplate.execute {
+            productRepository.deleteAllInBatch()
+        }
+        productDetailsCache.invalidateAll()
+
+        // and
+        val saved = transactionTemplate.execute {
+            productRepository.save(
+                Product(
+                    productNumber = "1",
+                    status = ProductStatus.RECEIVED,
+                    name = "test1",
+                    price = BigDecimal("20.00"),
+                    quantity = 10
+                )
+            )
+        }.get()
+
+        // and
+        service.getProductsDetailsByProductNumbers(listOf(saved.productNumber))
+        val hits = meterRegistry.get("cache.gets").tags("cache", "productDetails", "result", "hit")
+            .functionCounter().count()
+
+        // and
+        transactionTemplate.execute {
+            productRepository.save(saved.copy(quantity = 5))
+        }
+
+        // when
+        val cached = service.getProductsDetailsByProductNumbers(listOf(saved.productNumber))
+
+        // then
+        assertThat(cached.getProducts(0).quantity).isEqualTo(10)
+        assertThat(
+            meterRegistry.get("cache.gets").tags("cache", "productDetails", "result", "hit")
+                .functionCounter().count()
+        ).isEqualTo(hits + 1)
+
+        // when
+        service.deliverProducts(
+            Proto.DeliverProductsDTO.newBuilder()
+                .addItems(Proto.Item.newBuilder().setProductNumber(saved.productNumber).setQuantity(3))
+                .build()
+        )
+        val actual = service.getProductsDetailsByProductNumbers(listOf(saved.productNumber))
+
+        // then
+        assertThat(actual.getProducts(0).quantity).isEqualTo(2)  // 5 - 3
+    }
+
     @Test
     fun `should deliver products`() {
 
@@ -595,4 +680,74 @@ class ProductServiceTest @Autowired constructor(
         assertThat(actual.getProducts(0).productNumber).isEqualTo(saved.productNumber)
         assertThat(actual.getProducts(0).status).isEqualTo(Proto.ProductStatusDTO.RECEIVED)
     }
+
+    @Test
+    fun `should backfill popularity from order ranked totals only once`() {
+
+        // setup
+        transactionTemplate.execute {
+            productRepository.deleteAllInBatch()
+        }
+        jdbcTemplate.update("DELETE FROM data_migration")
+
+        // given
+        transactionTemplate.execute {
+            productRepository.saveAll(
+                listOf(
+                    Product(productNumber = "1", name = "test1", quantity = 10),
+                    Product(productNumber = "2", name = "test2", quantity = 10),
+                )
+            )
+        }
+
+        // and
+        stubFor(
+            WireMock.get("/api/v1/orders/total-buys/ranked?page=0&size=500")
+                .willReturn(
+                    aResponse()
+                        .withProtobufResponse {
+                            Proto.ProductQuantityList.newBuilder()
+                                .addItems(Proto.Item.newBuilder().setProductNumber("2").setQuantity(7))
+                                .addItems(Proto.Item.newBuilder().setProductNumber("1").setQuantity(3))
+                                .build()
+                        }
+                        .withStatus(HttpStatus.OK.value())
+                )
+        )
+
+        // when
+        val copied = productPopularityBackfill.backfill()
+        val repeated = productPopularityBackfill.backfill()
+
+        // then
+        assertThat(copied).isEqualTo(2)
+        assertThat(repeated).isEqualTo(0)
+        assertThat(productRepository.findAll().associate { it.productNumber to it.popularity })
+            .containsEntry("1", 3)
+            .containsEntry("2", 7)
+    }
+
+    @Test
+    fun `should retry popularity backfill when order service is unavailable`() {
+
+        // setup
+        jdbcTemplate.update("DELETE FROM data_migration")
+
+        // given
+        stubFor(
+            WireMock.get("/api/v1/orders/total-buys/ranked?page=0&size=500")
+                .willReturn(aResponse().withStatus(HttpStatus.SERVICE_UNAVAILABLE.value()))
+        )
+
+        // when
+        val copied = productPopularityBackfill.backfill()
+
+        // then
+        assertThat(copied).isNull()
+        assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM data_migration WHERE completed_at IS NOT NULL", Int::class.java
+            )
+        ).isEqualTo(0)
+    }
 }
@@ -6,9 +6,16 @@ import org.junit.jupiter.api.DisplayName
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.TestInstance
 import org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS
+import org.mockito.ArgumentCaptor
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import org.springframework.amqp.rabbit.core.RabbitTemplate
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.beans.factory.annotation.Qualifier
 import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.boot.test.mock.mockito.MockBean
+import org.springframework.jdbc.core.JdbcTemplate
 import org.springframework.messaging.MessageChannel
 import org.springframework.messaging.support.MessageBuilder
 import org.springframework.transaction.support.TransactionTemplate
@@ -16,6 +23,7 @@ import sigma.software.leovegas.drugstore.api.protobuf.Proto
 import sigma.software.leovegas.drugstore.api.toDecimalProto
 import sigma.software.leovegas.drugstore.product.api.CreateProductRequest
 import sigma.software.leovegas.drugstore.product.api.CreateProductsEvent
+import org.springframework.amqp.core.Message as AmqpMessage
 
 @TestInstance(PER_CLASS)
 @DisplayName("Rabbitmq test")
@@ -23,11 +31,16 @@ import sigma.software.leovegas.drugstore.product.api.CreateProductsEvent
 class RabbitmqTest @Autowired constructor(
     val transactionTemplate: TransactionTemplate,
     val productRepository: ProductRepository,
-    @Qualifier("createProductEventHandler-in-0") val channel: MessageChannel
+    val jdbcTemplate: JdbcTemplate,
+    @Qualifier("createProductEventHandler-in-0") val channel: MessageChannel,
+    @Qualifier("increaseProductPopularityEventHandler-in-0") val popularityChannel: MessageChannel,
 ) {
 
+    @MockBean
+    lateinit var rabbitTemplate: RabbitTemplate
+
     @Test
-    fun `should create products`() {
+    fun `should create products from a batch of events`() {
         // setup
         transactionTemplate.execute { productRepository.deleteAll() }
 
@@ -49,16 +62,181 @@ class RabbitmqTest @Autowired constructor(
             )
 
         // and
-        val createProtoEvent = Proto.CreateProductsEvent.newBuilder().addAllProducts(productsToCreate).build()
+        val createProtoEvents = productsToCreate.map {
+            Proto.CreateProductsEvent.newBuilder().addProducts(it).build()
+        }
+
+        // when
+        val actual = channel.send(MessageBuilder.withPayload(createProtoEvents).build())
+
+        // and
+        val created = productRepository.findAllByProductNumberIn(listOf("1", "2"))
+
+        // then
+        assertThat(actual).isEqualTo(true)
+        assertThat(created).hasSize(2)
+    }
+
+    @Test
+    fun `should skip redelivered product events`() {
+        // setup
+        transactionTemplate.execute { productRepository.deleteAll() }
+        jdbcTemplate.update("DELETE FROM processed_message")
+
+        // given
+        val createProtoEvents = listOf("3", "4").map {
+            Proto.CreateProductsEvent.newBuilder()
+                .addProducts(
+                    Proto.ProductDetailsItem.newBuilder()
+                        .setProductNumber(it)
+                        .setName("test$it")
+                        .setQuantity(1)
+                        .setPrice(BigDecimal.ONE.toDecimalProto())
+                        .build()
+                )
+                .build()
+        }
+
+        // and
+        val batchedHeaders = listOf(mapOf("amqp_messageId" to "product-3"), mapOf("amqp_messageId" to "product-4"))
+
+        // when
+        val message = MessageBuilder.withPayload(createProtoEvents)
+            .setHeader("amqp_batchedHeaders", batchedHeaders)
+            .build()
+        val sent = channel.send(message)
+        val redelivered = channel.send(message)
+
+        // and
+        val created = productRepository.findAllByProductNumberIn(listOf("3", "4"))
+
+        // and
+        val processed = jdbcTemplate.queryForList("SELECT message_id FROM processed_message", String::class.java)
+
+        // then
+        assertThat(sent).isEqualTo(true)
+        assertThat(redelivered).isEqualTo(true)
+        assertThat(created).hasSize(2)
+        assertThat(processed).containsExactlyInAnyOrder("product-3", "product-4")
+    }
+
+    @Test
+    fun `should dead letter only the bad event of a batch and create the rest`() {
+        // setup
+        transactionTemplate.execute { productRepository.deleteAll() }
+        jdbcTemplate.update("DELETE FROM processed_message")
+
+        // given
+        transactionTemplate.execute {
+            productRepository.save(Product(productNumber = "6", name = "test6", quantity = 1))
+        }
+
+        // and
+        val createProtoEvents = listOf("5", "6", "7").map {
+            Proto.CreateProductsEvent.newBuilder()
+                .addProducts(
+                    Proto.ProductDetailsItem.newBuilder()
+                        .setProductNumber(it)
+                        .setName("test$it")
+                        .setQuantity(1)
+                        .setPrice(BigDecimal.ONE.toDecimalProto())
+                        .build()
+                )
+                .build()
+        }
+
+        // and
+        val deadLettered = ArgumentCaptor.forClass(AmqpMessage::class.java)
 
         // when
-        val actual = channel.send(MessageBuilder.withPayload(createProtoEvent).build())
+        val actual = channel.send(MessageBuilder.withPayload(createProtoEvents).build())
 
         // and
-        val isEmpty = productRepository.findAllByProductNumberIn(listOf("1", "2")).isEmpty()
+        val created = productRepository.findAllByProductNumberIn(listOf("5", "6", "7"))
 
         // then
         assertThat(actual).isEqualTo(true)
-        assertThat(isEmpty).isFalse
+        assertThat(created.map { it.productNumber }).containsExactlyInAnyOrder("5", "6", "7")
+        verify(rabbitTemplate, times(1)).send(anyString(), anyString(), deadLettered.capture())
+        assertThat(Proto.CreateProductsEvent.parseFrom(deadLettered.value.body)).isEqualTo(createProtoEvents[1])
+    }
+
+    @Test
+    fun `should increase products popularity`() {
+        // setup
+        transactionTemplate.execute { productRepository.deleteAll() }
+
+        // given
+        transactionTemplate.execute {
+            productRepository.save(
+                Product(
+                    productNumber = "1",
+                    name = "test1",
+                    quantity = 10,
+                    popularity = 2,
+                    status = ProductStatus.RECEIVED
+                )
+            )
+        }
+
+        // and
+        val outcomeInvoiceEvent = Proto.CreateOutcomeInvoiceEvent.newBuilder()
+            .setOrderNumber("1")
+            .addProductItems(Proto.Item.newBuilder().setProductNumber("1").setQuantity(3).build())
+            .addProductItems(Proto.Item.newBuilder().setProductNumber("1").setQuantity(1).build())
+            .build()
+
+        // when
+        val actual = popularityChannel.send(MessageBuilder.withPayload(listOf(outcomeInvoiceEvent)).build())
+
+        // and
+        val product = productRepository.findAllByProductNumberIn(listOf("1"))[0]
+
+        // then
+        assertThat(actual).isEqualTo(true)
+        assertThat(product.popularity).isEqualTo(6)
+    }
+
+    @Test
+    fun `should increase products popularity once for a redelivered event`() {
+        // setup
+        transactionTemplate.execute { productRepository.deleteAll() }
+        jdbcTemplate.update("DELETE FROM processed_message")
+
+        // given
+        transactionTemplate.execute {
+            productRepository.save(
+                Product(
+                    productNumber = "8",
+                    name = "test8",
+                    quantity = 10,
+                    popularity = 2,
+                    status = ProductStatus.RECEIVED
+                )
+            )
+        }
+
+        // and
+        val outcomeInvoiceEvent = Proto.CreateOutcomeInvoiceEvent.newBuilder()
+            .setOrderNumber("8")
+            .addProductItems(Proto.Item.newBuilder().setProductNumber("8").setQuantity(3).build())
+            .build()
+
+        // when
+        val message = MessageBuilder.withPayload(listOf(outcomeInvoiceEvent))
+            .setHeader("amqp_batchedHeaders", listOf(mapOf("amqp_messageId" to "outcome-invoice-8")))
+            .build()
+        popularityChannel.send(message)
+        popularityChannel.send(message)
+
+        // and
+        val product = productRepository.findAllByProductNumberIn(listOf("8"))[0]
+
+        // and
+        val processed = jdbcTemplate.queryForList("SELECT message_id FROM processed_message", String::class.java)
+
+        // then
+        assertThat(product.popularity).isEqualTo(5)
+        assertThat(processed).containsExactly("outcome-invoice-8")
     }
 }
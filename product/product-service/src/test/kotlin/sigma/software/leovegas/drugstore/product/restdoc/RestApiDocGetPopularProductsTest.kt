@@ -1,8 +1,5 @@
 package sigma.software.leovegas.drugstore.product.restdoc
 
-import com.github.tomakehurst.wiremock.client.WireMock
-import com.github.tomakehurst.wiremock.client.WireMock.aResponse
-import com.github.tomakehurst.wiremock.client.WireMock.stubFor
 import java.math.BigDecimal
 import org.hamcrest.Matchers
 import org.hamcrest.Matchers.`is`
@@ -10,12 +7,9 @@ import org.junit.jupiter.api.DisplayName
 import org.junit.jupiter.api.Test
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.web.server.LocalServerPort
-import org.springframework.http.HttpStatus
 import org.springframework.transaction.support.TransactionTemplate
-import sigma.software.leovegas.drugstore.api.protobuf.Proto
 import sigma.software.leovegas.drugstore.infrastructure.RestApiDocumentationTest
 import sigma.software.leovegas.drugstore.infrastructure.extensions.get
-import sigma.software.leovegas.drugstore.infrastructure.extensions.withProtobufResponse
 import sigma.software.leovegas.drugstore.product.Product
 import sigma.software.leovegas.drugstore.product.ProductProperties
 import sigma.software.leovegas.drugstore.product.ProductRepository
@@ -47,6 +41,7 @@ class RestApiDocGetPopularProductsTest @Autowired constructor(
                         name = "test",
                         price = BigDecimal("20.00"),
                         quantity = 5,
+                        popularity = 5,
                         status = ProductStatus.RECEIVED,
                     ),
                     Product(
@@ -54,6 +49,7 @@ class RestApiDocGetPopularProductsTest @Autowired constructor(
                         name = "test2",
                         price = BigDecimal("30.00"),
                         quantity = 3,
+                        popularity = 2,
                         status = ProductStatus.RECEIVED,
                     ),
                     Product(
@@ -61,29 +57,13 @@ class RestApiDocGetPopularProductsTest @Autowired constructor(
                         name = "mostPopular",
                         price = BigDecimal("10.00"),
                         quantity = 7,
+                        popularity = 8,
                         status = ProductStatus.RECEIVED,
                     )
                 )
             )
         }.get()
 
-        // and
-        val responseExpected = Proto.ProductQuantityMap.newBuilder()
-            .putProductQuantityItem(savedProducts[2].productNumber, 8)
-            .putProductQuantityItem(savedProducts[0].productNumber, 5)
-            .putProductQuantityItem(savedProducts[1].productNumber, 2)
-            .build()
-
-        // and
-        stubFor(
-            WireMock.get("/api/v1/orders/total-buys")
-                .willReturn(
-                    aResponse()
-                        .withProtobufResponse { responseExpected }
-                        .withStatus(HttpStatus.OK.value())
-                )
-        )
-
         of("get-popular-products").`when`()
             .get("http://${productProperties.host}:$port/api/v1/products/popular")
             .then()
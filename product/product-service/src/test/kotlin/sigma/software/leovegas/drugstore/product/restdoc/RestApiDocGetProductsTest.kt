@@ -3,7 +3,6 @@ package sigma.software.leovegas.drugstore.product.restdoc
 import com.github.tomakehurst.wiremock.client.WireMock
 import com.github.tomakehurst.wiremock.client.WireMock.aResponse
 import com.github.tomakehurst.wiremock.client.WireMock.stubFor
-import com.google.protobuf.ByteString
 import java.math.BigDecimal
 import org.hamcrest.Matchers
 import org.hamcrest.Matchers.`is`
@@ -13,7 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.web.server.LocalServerPort
 import org.springframework.http.HttpStatus
 import org.springframework.transaction.support.TransactionTemplate
-import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.api.toDecimalProto
 import sigma.software.leovegas.drugstore.infrastructure.RestApiDocumentationTest
 import sigma.software.leovegas.drugstore.infrastructure.extensions.get
 import sigma.software.leovegas.drugstore.infrastructure.extensions.withProtobufResponse
@@ -48,13 +47,15 @@ class RestApiDocGetProductsTest @Autowired constructor(
                         name = "test",
                         price = BigDecimal("20.00"),
                         quantity = 5,
+                        popularity = 1,
                         status = ProductStatus.RECEIVED,
                     ),
                     Product(
                         productNumber = "2",
                         name = "test2",
-                        price = BigDecimal("30.00"),
+                        price = BigDecimal("50.00"),
                         quantity = 3,
+                        popularity = 5,
                         status = ProductStatus.RECEIVED,
                     ),
                     Product(
@@ -69,49 +70,12 @@ class RestApiDocGetProductsTest @Autowired constructor(
         }.get()
 
 
-        // and
-        val responseExpected = Proto.ProductQuantityMap.newBuilder()
-            .putProductQuantityItem(savedProducts[1].productNumber, 5)
-            .putProductQuantityItem(savedProducts[0].productNumber, 1)
-            .build()
-
         // and
         stubFor(
-            WireMock.get("/api/v1/orders/total-buys")
-                .willReturn(
-                    aResponse()
-                        .withProtobufResponse { responseExpected }
-                        .withStatus(HttpStatus.OK.value())
-                )
-        )
-
-        // and
-        val price = BigDecimal("20.00")
-        val price2 = BigDecimal("100.00")
-        val protoPrice = Proto.DecimalValue.newBuilder()
-            .setPrecision(price.precision())
-            .setScale(price.scale())
-            .setValue(ByteString.copyFrom(price.unscaledValue().toByteArray()))
-            .build()
-        val protoPrice2 = Proto.DecimalValue.newBuilder()
-            .setPrecision(price2.precision())
-            .setScale(price2.scale())
-            .setValue(ByteString.copyFrom(price2.unscaledValue().toByteArray()))
-            .build()
-        val responseEProto = Proto.ProductsPrice.newBuilder()
-            .putItems(savedProducts[0].productNumber, protoPrice)
-            .putItems(savedProducts[1].productNumber, protoPrice2)
-            .build()
-
-        // and
-        stubFor(
-            WireMock.get(
-                "/api/v1/accountancy/sale-price?" +
-                        "productNumbers=${savedProducts[0].productNumber}&productNumbers=${savedProducts[1].productNumber}"
-            )
+            WireMock.get("/api/v1/accountancy/markup")
                 .willReturn(
                     aResponse()
-                        .withProtobufResponse { responseEProto }
+                        .withProtobufResponse { BigDecimal("2").toDecimalProto() }
                         .withStatus(HttpStatus.OK.value())
                 )
         )
@@ -0,0 +1,36 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import java.util.UUID
+
+/**
+ * A message waiting in the `outbox_event` table to be relayed to [binding]. Events with the same [key] are
+ * published one at a time, in id order; [headers] are copied onto the message and may be strings, booleans
+ * or numbers, numbers are relayed as doubles.
+ */
+data class OutboxEvent(
+    val id: Long? = null,
+    val messageId: String = UUID.randomUUID().toString(),
+    val binding: String,
+    val payloadType: String,
+    val payload: ByteArray,
+    val key: String? = null,
+    val headers: Map<String, Any> = mapOf(),
+) {
+
+    constructor(
+        binding: String,
+        payload: com.google.protobuf.Message,
+        key: String? = null,
+        headers: Map<String, Any> = mapOf(),
+    ) : this(
+        binding = binding,
+        payloadType = payload::class.java.name,
+        payload = payload.toByteArray(),
+        key = key,
+        headers = headers,
+    )
+
+    override fun equals(other: Any?): Boolean = this === other || other is OutboxEvent && id != null && id == other.id
+
+    override fun hashCode(): Int = javaClass.hashCode()
+}
@@ -0,0 +1,91 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import com.google.protobuf.Struct
+import com.google.protobuf.Value
+import java.sql.Timestamp
+import org.springframework.jdbc.core.JdbcTemplate
+
+/**
+ * The `outbox_event` and `outbox_lock` tables. Events are saved in the caller's transaction, so an event is
+ * relayed only if the change it announces was committed.
+ */
+class OutboxEventRepository(private val jdbcTemplate: JdbcTemplate) {
+
+    fun save(event: OutboxEvent) {
+        jdbcTemplate.update(
+            "INSERT INTO outbox_event (message_id, binding, payload_type, payload, message_key, message_headers, " +
+                    "created_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+            event.messageId, event.binding, event.payloadType, event.payload, event.key, encode(event.headers),
+            Timestamp(System.currentTimeMillis())
+        )
+    }
+
+    fun findFirst(limit: Int): List<OutboxEvent> =
+        jdbcTemplate.query(
+            "SELECT id, message_id, binding, payload_type, payload, message_key, message_headers FROM outbox_event " +
+                    "ORDER BY id LIMIT ?",
+            { rs, _ ->
+                OutboxEvent(
+                    id = rs.getLong("id"),
+                    messageId = rs.getString("message_id"),
+                    binding = rs.getString("binding"),
+                    payloadType = rs.getString("payload_type"),
+                    payload = rs.getBytes("payload"),
+                    key = rs.getString("message_key"),
+                    headers = decode(rs.getBytes("message_headers")),
+                )
+            },
+            limit
+        )
+
+    fun deleteAll(ids: Collection<Long>) {
+        if (ids.isEmpty()) return
+        jdbcTemplate.batchUpdate("DELETE FROM outbox_event WHERE id = ?", ids.map { arrayOf(it) })
+    }
+
+    /**
+     * Takes or renews the relay lock for [owner] until [until]; false while another owner holds an unexpired lock.
+     * The conditional update is atomic, so of two relays claiming an expired lock only one succeeds.
+     */
+    fun lock(owner: String, until: Long): Boolean =
+        jdbcTemplate.update(
+            "UPDATE outbox_lock SET owner = ?, locked_until = ? WHERE name = ? AND (locked_until < ? OR owner = ?)",
+            owner, Timestamp(until), RELAY_LOCK, Timestamp(System.currentTimeMillis()), owner
+        ) == 1
+
+    fun unlock(owner: String) {
+        jdbcTemplate.update(
+            "UPDATE outbox_lock SET locked_until = ? WHERE name = ? AND owner = ?",
+            Timestamp(System.currentTimeMillis()), RELAY_LOCK, owner
+        )
+    }
+
+    // headers are stored as a protobuf Struct, so their values keep their type across the relay
+    private fun encode(headers: Map<String, Any>): ByteArray? =
+        if (headers.isEmpty()) null
+        else Struct.newBuilder().putAllFields(headers.mapValues { (name, value) -> value.toValue(name) }).build()
+            .toByteArray()
+
+    private fun decode(headers: ByteArray?): Map<String, Any> =
+        headers?.let { bytes ->
+            Struct.parseFrom(bytes).fieldsMap.mapValues { (_, value) ->
+                when (value.kindCase) {
+                    Value.KindCase.BOOL_VALUE -> value.boolValue
+                    Value.KindCase.NUMBER_VALUE -> value.numberValue
+                    else -> value.stringValue
+                }
+            }
+        } ?: mapOf()
+
+    private fun Any.toValue(name: String): Value =
+        when (this) {
+            is Boolean -> Value.newBuilder().setBoolValue(this).build()
+            is Number -> Value.newBuilder().setNumberValue(toDouble()).build()
+            is String -> Value.newBuilder().setStringValue(this).build()
+            else -> throw IllegalArgumentException("Outbox header $name of ${this::class.java} is not supported")
+        }
+
+    companion object {
+        const val RELAY_LOCK = "outbox_relay"
+    }
+}
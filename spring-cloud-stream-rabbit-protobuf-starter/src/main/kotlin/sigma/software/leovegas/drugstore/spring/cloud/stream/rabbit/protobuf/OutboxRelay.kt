@@ -0,0 +1,95 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import java.util.UUID
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import org.apache.logging.log4j.kotlin.logger
+import org.springframework.amqp.support.AmqpHeaders
+import org.springframework.beans.factory.DisposableBean
+import org.springframework.messaging.MessageHeaders
+import org.springframework.messaging.support.MessageBuilder
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.SpringCloudStreamRabbitProtobufAutoConfiguration.Companion.protobufClassName
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.SpringCloudStreamRabbitProtobufAutoConfiguration.Companion.protobufContentType
+
+/**
+ * Publishes [OutboxEvent]s in id order and deletes each one once the broker has confirmed it,
+ * so events are delivered at least once. Events of one key are published one after another; an event that is
+ * not confirmed is kept together with the later events of its key, which are not sent, and they are all relayed
+ * again, in order, on the next poll.
+ *
+ * Only the instance holding the `outbox_lock` relays, so instances never publish the same events concurrently;
+ * the lock is renewed before every batch and released when the outbox is drained.
+ */
+class OutboxRelay(
+    private val outboxEventRepository: OutboxEventRepository,
+    private val eventPublisher: ProtobufEventPublisher,
+    private val properties: ProtobufOutboxProperties,
+) : DisposableBean {
+
+    private val owner = UUID.randomUUID().toString()
+    private val scheduler = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory("outbox-relay-"))
+
+    init {
+        val interval = properties.pollInterval.toMillis()
+        scheduler.scheduleWithFixedDelay({
+            runCatching { relay() }.onFailure { log.warn(it) { "Outbox relay failed" } }
+        }, interval, interval, TimeUnit.MILLISECONDS)
+    }
+
+    /**
+     * Relays the outbox until it is drained or an event is not confirmed; returns the number of relayed events.
+     */
+    fun relay(): Int {
+        if (!lock()) return 0
+        try {
+            var relayed = 0
+            do {
+                val events = outboxEventRepository.findFirst(properties.batchSize)
+                val confirmed = publishInKeyOrder(events)
+                    .map { (event, result) -> result.handle { _, error -> event.takeIf { error == null } } }
+                    .mapNotNull { it.join() }
+                outboxEventRepository.deleteAll(confirmed.mapNotNull { it.id })
+                relayed += confirmed.size
+                log.debug { "Relayed ${confirmed.size} of ${events.size} outbox events" }
+            } while (events.size == properties.batchSize && confirmed.size == events.size && lock())
+            return relayed
+        } finally {
+            outboxEventRepository.unlock(owner)
+        }
+    }
+
+    override fun destroy() = scheduler.shutdown()
+
+    private fun lock() = outboxEventRepository.lock(owner, System.currentTimeMillis() + properties.lockLease.toMillis())
+
+    // an event is sent only once the previous event of its key was confirmed, and not at all when that one failed
+    private fun publishInKeyOrder(events: List<OutboxEvent>): List<Pair<OutboxEvent, CompletableFuture<Unit>>> {
+        val last = HashMap<String, CompletableFuture<Unit>>()
+        return events.map { event ->
+            val previous = event.key?.let { last[it] }
+            val result = previous?.thenCompose { publish(event) } ?: publish(event)
+            event.key?.let { last[it] = result }
+            event to result
+        }
+    }
+
+    private fun publish(event: OutboxEvent): CompletableFuture<Unit> =
+        runCatching {
+            eventPublisher.publish(
+                event.binding,
+                MessageBuilder.withPayload(event.payload)
+                    .copyHeaders(event.headers)
+                    .setHeader(MessageHeaders.CONTENT_TYPE, protobufContentType)
+                    .setHeader(protobufClassName, event.payloadType)
+                    .setHeader(AmqpHeaders.MESSAGE_ID, event.messageId)
+                    .build(),
+                event.key
+            )
+        }.getOrElse { CompletableFuture<Unit>().apply { completeExceptionally(it) } }
+
+    companion object {
+        private val log = logger()
+    }
+}
@@ -0,0 +1,105 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import java.sql.Timestamp
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import org.apache.logging.log4j.kotlin.logger
+import org.springframework.beans.factory.DisposableBean
+import org.springframework.jdbc.core.ConnectionCallback
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+
+/**
+ * Ids of the messages that were already consumed. The `processed_message` table is the source of truth:
+ * ids are claimed in the consumer's transaction, so a claim is rolled back together with a failed consume.
+ * A claim inserts the id unless it is present (`INSERT IGNORE` on MySQL, `MERGE` elsewhere), so of concurrent
+ * consumers of a redelivered message one claims it and the other waits for its commit and then skips it.
+ * Recently committed ids are kept in an LRU front, so hot redeliveries are dropped without a query.
+ * Rows older than [ProtobufIdempotencyProperties.ttl] are purged in the background.
+ */
+class ProcessedMessageStore(
+    private val jdbcTemplate: JdbcTemplate,
+    private val properties: ProtobufIdempotencyProperties,
+) : DisposableBean {
+
+    private val recent = object : LinkedHashMap<String, Long>(1024, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Long>) = size > properties.cacheSize
+    }
+    private val evictor = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory("processed-message-"))
+    private val evicting = AtomicBoolean()
+
+    private val claimSql by lazy {
+        val database = jdbcTemplate.execute(ConnectionCallback { it.metaData.databaseProductName }).orEmpty()
+        if (database.startsWith("MySQL") || database.startsWith("MariaDB")) MYSQL_CLAIM else MERGE_CLAIM
+    }
+
+    /**
+     * Returns the [ids] that were already processed.
+     */
+    fun processed(ids: Collection<String>): Set<String> {
+        if (ids.isEmpty()) return emptySet()
+        val expiredBefore = System.currentTimeMillis() - properties.ttl.toMillis()
+        val cached = synchronized(recent) { ids.filterTo(HashSet()) { (recent[it] ?: 0) > expiredBefore } }
+        val unknown = ids.filterNot { it in cached }
+        if (unknown.isEmpty()) return cached
+        return cached + jdbcTemplate.queryForList(
+            "SELECT message_id FROM processed_message WHERE message_id IN (${unknown.joinToString { "?" }})",
+            String::class.java,
+            *unknown.toTypedArray()
+        )
+    }
+
+    /**
+     * Marks [ids] as processed in the current transaction and returns the ones claimed by it; the others were
+     * already processed. Claimed ids are cached once the transaction commits.
+     */
+    fun claim(ids: Collection<String>): Set<String> {
+        if (ids.isEmpty()) return emptySet()
+        startEviction()
+        val now = Timestamp(System.currentTimeMillis())
+        // one statement per id: batched update counts are not reliable with rewriteBatchedStatements
+        val claimed = ids.filterTo(LinkedHashSet()) { jdbcTemplate.update(claimSql, it, now) == 1 }
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+                override fun afterCommit() = remember(claimed, now.time)
+            })
+        else remember(claimed, now.time)
+        return claimed
+    }
+
+    fun evictExpired(): Int =
+        jdbcTemplate.update(
+            "DELETE FROM processed_message WHERE processed_at < ?",
+            Timestamp(System.currentTimeMillis() - properties.ttl.toMillis())
+        )
+
+    override fun destroy() = evictor.shutdown()
+
+    private fun remember(ids: Collection<String>, processedAt: Long) =
+        synchronized(recent) { ids.forEach { recent[it] = processedAt } }
+
+    // started on first use, so services that never consume idempotently do not need the table
+    private fun startEviction() {
+        if (!evicting.compareAndSet(false, true)) return
+        val interval = properties.evictionInterval.toMillis()
+        evictor.scheduleWithFixedDelay({
+            runCatching { evictExpired() }
+                .onSuccess { log.debug { "Evicted $it expired processed message ids" } }
+                .onFailure { log.warn(it) { "Processed message ids eviction failed" } }
+        }, interval, interval, TimeUnit.MILLISECONDS)
+    }
+
+    companion object {
+        private const val MYSQL_CLAIM = "INSERT IGNORE INTO processed_message (message_id, processed_at) VALUES (?, ?)"
+        private const val MERGE_CLAIM =
+            "MERGE INTO processed_message USING (VALUES (CAST(? AS VARCHAR(64)), CAST(? AS TIMESTAMP))) " +
+                    "AS claim (message_id, processed_at) ON processed_message.message_id = claim.message_id " +
+                    "WHEN NOT MATCHED THEN INSERT (message_id, processed_at) " +
+                    "VALUES (claim.message_id, claim.processed_at)"
+
+        private val log = logger()
+    }
+}
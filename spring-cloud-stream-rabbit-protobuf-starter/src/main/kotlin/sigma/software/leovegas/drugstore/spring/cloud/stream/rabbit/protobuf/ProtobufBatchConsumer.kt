@@ -0,0 +1,89 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import io.micrometer.core.instrument.Timer
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+import java.util.function.Consumer
+import org.apache.logging.log4j.kotlin.logger
+import org.springframework.amqp.support.AmqpHeaders
+import org.springframework.messaging.Message
+import org.springframework.messaging.MessageHeaders
+import org.springframework.transaction.support.TransactionTemplate
+
+/**
+ * Consumes a batch of protobuf messages with [batch]. When the batch fails it is replayed message by message
+ * with [single], and only the messages that fail again are dead-lettered, so one bad message does not send
+ * the whole batch to the dead letter queue. If dead lettering fails too, the batch is rejected as a whole.
+ *
+ * With a [processedMessages] store, messages whose [AmqpHeaders.MESSAGE_ID] was already processed are skipped,
+ * and the ids of the consumed ones are claimed in the same [transactions] as the consume itself.
+ */
+class ProtobufBatchConsumer<T : com.google.protobuf.Message>(
+    private val binding: String,
+    private val deadLetterPublisher: ProtobufDeadLetterPublisher,
+    private val batch: (List<T>) -> Unit,
+    private val single: (T) -> Unit,
+    private val key: ((T) -> Any)? = null,
+    private val lanes: Int = 1,
+    private val executor: Executor? = null,
+    private val timer: Timer? = null,
+    private val processedMessages: ProcessedMessageStore? = null,
+    private val transactions: TransactionTemplate? = null,
+) : Consumer<Message<List<T>>> {
+
+    private class Delivery<T>(val payload: T, val messageId: String?)
+
+    override fun accept(message: Message<List<T>>) {
+        val started = System.nanoTime()
+        val deliveries = message.payload.mapIndexed { i, payload ->
+            Delivery(payload, messageId(message.headers, i, message.payload.size))
+        }
+        if (key == null || executor == null || lanes < 2 || deliveries.size < 2) consume(deliveries)
+        else deliveries
+            .groupBy { Math.floorMod(key.invoke(it.payload).hashCode(), lanes) }
+            .values
+            .map { lane -> CompletableFuture.runAsync({ consume(lane) }, executor) }
+            .let { CompletableFuture.allOf(*it.toTypedArray()).join() }
+        timer?.record(System.nanoTime() - started, TimeUnit.NANOSECONDS)
+    }
+
+    private fun consume(deliveries: List<Delivery<T>>) {
+        runCatching { inTransaction { unprocessed(deliveries).takeIf { it.isNotEmpty() }?.let(batch) } }
+            .onFailure { error ->
+                log.warn(error) { "Batch of ${deliveries.size} messages from $binding failed, replaying one by one" }
+                deliveries.forEach { delivery ->
+                    runCatching { inTransaction { unprocessed(listOf(delivery)).forEach(single) } }
+                        .onFailure { deadLetterPublisher.publish(binding, delivery.payload, it, delivery.messageId) }
+                }
+            }
+    }
+
+    // claims the ids of the deliveries and drops the already processed, concurrently claimed and repeated ones
+    private fun unprocessed(deliveries: List<Delivery<T>>): List<T> {
+        val store = processedMessages ?: return deliveries.map { it.payload }
+        val ids = deliveries.mapNotNullTo(LinkedHashSet()) { it.messageId }
+        val claimed = store.claim(ids - store.processed(ids))
+        val skipped = ids.size - claimed.size
+        if (skipped > 0) log.info { "Skipped $skipped already processed messages from $binding" }
+        return deliveries
+            .filter { it.messageId == null || it.messageId in claimed }
+            .distinctBy { it.messageId ?: it }
+            .map { it.payload }
+    }
+
+    private fun inTransaction(block: () -> Unit) =
+        if (transactions == null) block() else transactions.executeWithoutResult { block() }
+
+    companion object {
+        private const val batchedHeaders = "amqp_batchedHeaders"
+
+        private val log = logger()
+
+        @Suppress("UNCHECKED_CAST")
+        private fun messageId(headers: MessageHeaders, index: Int, size: Int): String? =
+            (headers[batchedHeaders] as? List<Map<String, Any?>>)?.getOrNull(index)?.get(AmqpHeaders.MESSAGE_ID)
+                ?.toString()
+                ?: headers[AmqpHeaders.MESSAGE_ID]?.takeIf { size == 1 }?.toString()
+    }
+}
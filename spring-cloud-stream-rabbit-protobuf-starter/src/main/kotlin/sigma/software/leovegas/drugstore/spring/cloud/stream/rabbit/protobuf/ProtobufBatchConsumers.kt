@@ -0,0 +1,58 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tags
+import io.micrometer.core.instrument.Timer
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.function.Consumer
+import org.springframework.beans.factory.DisposableBean
+import org.springframework.beans.factory.ObjectProvider
+import org.springframework.messaging.Message
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionTemplate
+
+/**
+ * Creates [ProtobufBatchConsumer]s for consumer bindings. Batches of a keyed consumer are split into
+ * [ProtobufListenerProperties.Listener.lanes] by key hash and the lanes are consumed in parallel,
+ * so messages sharing a key keep their order. When a [ProcessedMessageStore] is available, redelivered
+ * messages are skipped.
+ */
+class ProtobufBatchConsumers(
+    private val deadLetterPublisher: ProtobufDeadLetterPublisher,
+    private val properties: ProtobufListenerProperties,
+    private val meterRegistry: ObjectProvider<MeterRegistry>,
+    private val processedMessages: ObjectProvider<ProcessedMessageStore>,
+    private val transactionManager: ObjectProvider<PlatformTransactionManager>,
+) : DisposableBean {
+
+    private val executors = mutableListOf<ExecutorService>()
+
+    fun <T : com.google.protobuf.Message> batchConsumer(
+        binding: String,
+        key: ((T) -> Any)? = null,
+        batch: (List<T>) -> Unit,
+        single: (T) -> Unit,
+    ): Consumer<Message<List<T>>> {
+        val lanes = if (key == null) 1 else properties.listener(binding).lanes
+        val tags = Tags.of("binding", binding)
+        val registry = meterRegistry.ifAvailable
+        val executor = if (lanes > 1) lanesExecutor(binding, lanes, tags, registry) else null
+        val timer = registry?.let { Timer.builder("rabbit.listener.batch").tags(tags).register(it) }
+        val store = processedMessages.ifAvailable
+        val transactions = store?.let { transactionManager.ifAvailable?.let(::TransactionTemplate) }
+        return ProtobufBatchConsumer(
+            binding, deadLetterPublisher, batch, single, key, lanes, executor, timer, store, transactions
+        )
+    }
+
+    override fun destroy() = executors.forEach { it.shutdown() }
+
+    private fun lanesExecutor(binding: String, lanes: Int, tags: Tags, registry: MeterRegistry?): ExecutorService {
+        val executor = Executors.newFixedThreadPool(lanes, CustomizableThreadFactory("$binding-lane-"))
+        executors.add(executor)
+        return registry?.let { ExecutorServiceMetrics.monitor(it, executor, "rabbit.listener.lanes", tags) } ?: executor
+    }
+}
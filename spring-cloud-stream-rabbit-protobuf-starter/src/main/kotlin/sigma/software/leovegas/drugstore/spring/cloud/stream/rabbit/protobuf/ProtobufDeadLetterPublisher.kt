@@ -0,0 +1,67 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import org.apache.logging.log4j.kotlin.logger
+import org.springframework.amqp.core.MessageBuilder
+import org.springframework.amqp.rabbit.core.RabbitTemplate
+import org.springframework.cloud.stream.binder.rabbit.properties.RabbitCommonProperties
+import org.springframework.cloud.stream.binder.rabbit.properties.RabbitExtendedBindingProperties
+import org.springframework.cloud.stream.config.BindingServiceProperties
+import org.springframework.retry.support.RetryTemplate
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.SpringCloudStreamRabbitProtobufAutoConfiguration.Companion.protobufClassName
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.SpringCloudStreamRabbitProtobufAutoConfiguration.Companion.protobufContentType
+
+class ProtobufDeadLetterException(binding: String, cause: Throwable) :
+    IllegalStateException("Dead lettering a message from $binding failed, its delivery is rejected", cause)
+
+/**
+ * Routes a single protobuf message to the dead letter queue of a consumer binding, the same way
+ * the binder routes a rejected delivery (binding `auto-bind-dlq`, `dead-letter-exchange` and `dead-letter-routing-key`).
+ * The original message id is kept, so a replayed dead letter is still recognised as already processed.
+ *
+ * A failed publish is retried [ProtobufListenerProperties.DeadLetter.maxAttempts] times. If it still fails
+ * [ProtobufDeadLetterException] is thrown, so the delivery is not acknowledged and the binder rejects it instead.
+ */
+class ProtobufDeadLetterPublisher(
+    private val rabbitTemplate: RabbitTemplate,
+    private val bindingServiceProperties: BindingServiceProperties,
+    private val rabbitBindingProperties: RabbitExtendedBindingProperties,
+    listenerProperties: ProtobufListenerProperties,
+) {
+
+    private val retryTemplate = listenerProperties.deadLetter.let {
+        RetryTemplate.builder()
+            .maxAttempts(it.maxAttempts)
+            .exponentialBackoff(it.backoff.toMillis(), 2.0, it.backoff.toMillis() * 10)
+            .build()
+    }
+
+    fun publish(binding: String, payload: com.google.protobuf.Message, error: Throwable, messageId: String? = null) {
+        val properties = rabbitBindingProperties.getExtendedConsumerProperties(binding)
+        val group = bindingServiceProperties.getGroup(binding)
+        val queue = properties.prefix +
+                if (properties.isQueueNameGroupOnly) group
+                else "${bindingServiceProperties.getBindingDestination(binding)}.$group"
+        val exchange = properties.deadLetterExchange ?: properties.prefix + RabbitCommonProperties.DEAD_LETTER_EXCHANGE
+        val routingKey = properties.deadLetterRoutingKey ?: queue
+        val message = MessageBuilder
+            .withBody(payload.toByteArray())
+            .setContentType(protobufContentType)
+            .setHeader(protobufClassName, payload::class.java.name)
+            .setHeader("x-exception-message", error.message)
+            .apply { if (messageId != null) setMessageId(messageId) }
+            .build()
+        runCatching {
+            retryTemplate.execute<Unit, Exception> { rabbitTemplate.send(exchange, routingKey, message) }
+        }
+            .onFailure {
+                log.error(it) {
+                    "Dead lettering ${payload::class.java.name} from $binding to $exchange/$routingKey failed"
+                }
+                throw ProtobufDeadLetterException(binding, it)
+            }
+    }
+
+    companion object {
+        private val log = logger()
+    }
+}
@@ -0,0 +1,170 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import java.util.UUID
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import org.apache.logging.log4j.kotlin.logger
+import org.springframework.amqp.rabbit.connection.CorrelationData
+import org.springframework.amqp.support.AmqpHeaders
+import org.springframework.beans.factory.DisposableBean
+import org.springframework.beans.factory.ObjectProvider
+import org.springframework.cloud.stream.function.StreamBridge
+import org.springframework.messaging.Message
+import org.springframework.messaging.support.MessageBuilder
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory
+
+class ProtobufPublisherBackPressureException(binding: String, capacity: Int) :
+    IllegalStateException("Publisher queue is full ($capacity messages), $binding message rejected")
+
+/**
+ * Publishes stream messages off the caller's thread. Messages are queued in a bounded buffer and sent by one
+ * sender thread in batches; a batch is sent in full before its publisher confirms are awaited.
+ *
+ * Guarantee: the future returned by [publish] completes only once the broker has confirmed the message, and
+ * completes exceptionally after [ProtobufPublisherProperties.maxAttempts] unconfirmed sends, so a failed message
+ * is always reported to the caller and logged. Messages still queued when the process dies are lost;
+ * callers that cannot afford that must persist the message before publishing it.
+ * A full buffer is reported immediately with [ProtobufPublisherBackPressureException].
+ * Every message carries an [AmqpHeaders.MESSAGE_ID], taken from the payload headers when it already has one.
+ *
+ * Messages published with the same `key` to the same binding are sent one at a time, so a retried message is
+ * never overtaken by a later one of its key; once a message of a key fails, the later ones of that key still
+ * in the batch fail with it instead of being sent out of order. Messages without a key are not ordered.
+ */
+class ProtobufEventPublisher internal constructor(
+    private val sendToBinding: (String, Message<*>) -> Boolean,
+    private val properties: ProtobufPublisherProperties,
+    meterRegistry: ObjectProvider<MeterRegistry>,
+) : DisposableBean {
+
+    constructor(
+        streamBridge: StreamBridge,
+        properties: ProtobufPublisherProperties,
+        meterRegistry: ObjectProvider<MeterRegistry>,
+    ) : this({ binding, message -> streamBridge.send(binding, message) }, properties, meterRegistry)
+
+    private class Pending(val binding: String, val payload: Any, val key: Any?, val result: CompletableFuture<Unit>) {
+        var attempts = 0
+
+        // kept across retries, so consumers can drop the copies of a message that was sent more than once
+        val messageId = (payload as? Message<*>)?.headers?.get(AmqpHeaders.MESSAGE_ID)?.toString()
+            ?: UUID.randomUUID().toString()
+    }
+
+    private val queue = ArrayBlockingQueue<Pending>(properties.capacity)
+    private val sender = Executors.newSingleThreadExecutor(CustomizableThreadFactory("protobuf-publisher-"))
+    private val rejected: Counter?
+    private val failed: Counter?
+
+    @Volatile
+    private var running = true
+
+    init {
+        val registry = meterRegistry.ifAvailable
+        registry?.let { Gauge.builder("rabbit.publisher.queue", queue) { q -> q.size.toDouble() }.register(it) }
+        rejected = registry?.let { Counter.builder("rabbit.publisher.rejected").register(it) }
+        failed = registry?.let { Counter.builder("rabbit.publisher.failed").register(it) }
+        sender.execute(::drain)
+    }
+
+    fun publish(binding: String, payload: Any, key: Any? = null): CompletableFuture<Unit> {
+        val pending = Pending(binding, payload, key, CompletableFuture())
+        if (!running || !queue.offer(pending)) {
+            rejected?.increment()
+            throw ProtobufPublisherBackPressureException(binding, properties.capacity)
+        }
+        return pending.result
+    }
+
+    override fun destroy() {
+        running = false
+        sender.shutdown()
+        sender.awaitTermination(properties.confirmTimeout.toMillis() * properties.maxAttempts, TimeUnit.MILLISECONDS)
+    }
+
+    private fun drain() {
+        val batch = ArrayList<Pending>(properties.batchSize)
+        while (running || queue.isNotEmpty()) {
+            val first = queue.poll(100, TimeUnit.MILLISECONDS) ?: continue
+            batch.add(first)
+            queue.drainTo(batch, properties.batchSize - 1)
+            runCatching { sendBatch(batch) }.onFailure { error -> batch.forEach { fail(it, error) } }
+            batch.clear()
+        }
+    }
+
+    private fun sendBatch(batch: List<Pending>) {
+        val waiting = ArrayList(batch)
+        while (waiting.isNotEmpty()) {
+            val sent = nextRound(waiting).map { it to send(it) }
+            val deadline = System.nanoTime() + properties.confirmTimeout.toNanos()
+            val unconfirmed = sent.mapNotNull { (pending, confirmation) ->
+                val error = confirmation.fold({ await(it, deadline) }, { it })
+                when {
+                    error == null -> {
+                        pending.result.complete(Unit)
+                        null
+                    }
+                    ++pending.attempts < properties.maxAttempts -> pending
+                    else -> {
+                        fail(pending, error)
+                        failFollowers(waiting, pending, error)
+                        null
+                    }
+                }
+            }
+            // retried messages are the oldest of their keys, so they go ahead of everything still waiting
+            waiting.addAll(0, unconfirmed)
+        }
+    }
+
+    // takes the oldest waiting message of every key and all messages without a key
+    private fun nextRound(waiting: MutableList<Pending>): List<Pending> {
+        val keys = HashSet<Pair<String, Any>>()
+        val round = waiting.filter { it.key == null || keys.add(it.binding to it.key) }
+        waiting.removeAll(round.toSet())
+        return round
+    }
+
+    private fun failFollowers(waiting: MutableList<Pending>, failed: Pending, error: Throwable) {
+        if (failed.key == null) return
+        val followers = waiting.filter { it.binding == failed.binding && it.key == failed.key }
+        waiting.removeAll(followers.toSet())
+        followers.forEach { fail(it, IllegalStateException("An earlier message with key ${failed.key} failed", error)) }
+    }
+
+    private fun send(pending: Pending): Result<CorrelationData?> = runCatching {
+        val correlation = if (properties.confirms) CorrelationData(UUID.randomUUID().toString()) else null
+        val message = ((pending.payload as? Message<*>)?.let { MessageBuilder.fromMessage(it) }
+            ?: MessageBuilder.withPayload(pending.payload))
+            .setHeader(AmqpHeaders.MESSAGE_ID, pending.messageId)
+            .apply { correlation?.let { setHeader(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION, it) } }
+            .build()
+        check(sendToBinding(pending.binding, message)) { "Message was not sent to ${pending.binding}" }
+        correlation
+    }
+
+    private fun await(correlation: CorrelationData?, deadline: Long): Throwable? =
+        correlation?.let {
+            runCatching {
+                val confirm = it.future.get(maxOf(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)
+                check(confirm.isAck) { "Message was nacked: ${confirm.reason}" }
+                check(it.returned == null) { "Message was returned: ${it.returned}" }
+            }.exceptionOrNull()
+        }
+
+    private fun fail(pending: Pending, error: Throwable) {
+        failed?.increment()
+        log.error(error) { "Message to ${pending.binding} was not confirmed after ${pending.attempts} attempts" }
+        pending.result.completeExceptionally(error)
+    }
+
+    companion object {
+        private val log = logger()
+    }
+}
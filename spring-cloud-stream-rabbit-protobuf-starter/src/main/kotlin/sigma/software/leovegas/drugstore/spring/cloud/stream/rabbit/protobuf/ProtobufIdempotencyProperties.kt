@@ -0,0 +1,18 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import java.time.Duration
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.ConstructorBinding
+
+/**
+ * [ProcessedMessageStore] settings. The store needs a `processed_message` table
+ * (`message_id VARCHAR(64)` primary key, `processed_at TIMESTAMP`) in the service database.
+ */
+@ConstructorBinding
+@ConfigurationProperties("spring.cloud.stream.rabbit.protobuf.idempotency")
+data class ProtobufIdempotencyProperties(
+    val enabled: Boolean = true,
+    val ttl: Duration = Duration.ofDays(7),
+    val cacheSize: Int = 100_000,
+    val evictionInterval: Duration = Duration.ofHours(1),
+)
@@ -0,0 +1,73 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tags
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import org.apache.logging.log4j.kotlin.logger
+import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer
+import org.springframework.beans.factory.DisposableBean
+import org.springframework.beans.factory.ObjectProvider
+import org.springframework.cloud.stream.config.BindingServiceProperties
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory
+
+/**
+ * Applies [ProtobufListenerProperties] to the rabbit listener containers of the consumer bindings listed there;
+ * containers of other bindings keep the binder settings. Consumers run on a bounded, metered executor sized to
+ * the container's maximum concurrency, shut down with the application context.
+ *
+ * A partitioned binding consumes a `<queue>-<instance-index>` queue, which is matched to its binding as well.
+ */
+class ProtobufListenerContainerCustomizer(
+    private val properties: ProtobufListenerProperties,
+    private val bindingServiceProperties: BindingServiceProperties,
+    private val meterRegistry: ObjectProvider<MeterRegistry>,
+) : ListenerContainerCustomizer<AbstractMessageListenerContainer>, DisposableBean {
+
+    private val executors = CopyOnWriteArrayList<ExecutorService>()
+
+    override fun configure(container: AbstractMessageListenerContainer, destinationName: String, group: String?) {
+        if (group == null || container !is SimpleMessageListenerContainer) return
+        val binding = bindingOf(destinationName, group) ?: return
+        val listener = properties.listener(binding)
+        val concurrency = if (listener.ordered) 1 else listener.concurrency
+        val maxConcurrency = if (listener.ordered) 1 else maxOf(listener.maxConcurrency, concurrency)
+        val tags = Tags.of("binding", binding)
+        val registry = meterRegistry.ifAvailable
+        val executor = Executors.newFixedThreadPool(maxConcurrency, CustomizableThreadFactory("$binding-"))
+        executors.add(executor)
+
+        container.setConcurrentConsumers(concurrency)
+        container.setMaxConcurrentConsumers(maxConcurrency)
+        container.setPrefetchCount(listener.prefetch)
+        container.setTaskExecutor(
+            registry?.let { ExecutorServiceMetrics.monitor(it, executor, "rabbit.listener", tags) } ?: executor
+        )
+        registry?.let {
+            Gauge.builder("rabbit.listener.consumers", container) { c -> c.activeConsumerCount.toDouble() }
+                .tags(tags)
+                .register(it)
+        }
+        log.info { "Listener $binding: consumers $concurrency..$maxConcurrency, prefetch ${listener.prefetch}" }
+    }
+
+    override fun destroy() = executors.forEach { it.shutdown() }
+
+    private fun bindingOf(destinationName: String, group: String): String? =
+        properties.listeners.keys.firstOrNull { binding ->
+            val props = bindingServiceProperties.bindings[binding] ?: return@firstOrNull false
+            val queue =
+                if (props.consumer?.isPartitioned == true) destinationName.substringBeforeLast('-')
+                else destinationName
+            props.group == group && (queue == group || queue.endsWith("${props.destination}.$group"))
+        }
+
+    companion object {
+        private val log = logger()
+    }
+}
@@ -0,0 +1,39 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import java.time.Duration
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.ConstructorBinding
+
+/**
+ * Listener container tuning per consumer binding, keyed by binding name (e.g. `functionRouter-in-0`).
+ * Only listed bindings are tuned, the containers of other bindings keep the binder settings.
+ *
+ * An `ordered` binding keeps a single consumer so messages for the same key are never handled out of order;
+ * batch consumers of such a binding scale over `lanes` instead, dispatching by key hash, and a partitioned
+ * binding scales over instances, each consuming its own partition queue.
+ *
+ * `dead-letter` sets how often a message that failed on its own is sent to the dead letter queue
+ * before the publish is given up and its delivery is rejected.
+ */
+@ConstructorBinding
+@ConfigurationProperties("spring.cloud.stream.rabbit.protobuf")
+data class ProtobufListenerProperties(
+    val listeners: Map<String, Listener> = emptyMap(),
+    val deadLetter: DeadLetter = DeadLetter(),
+) {
+
+    data class Listener(
+        val ordered: Boolean = false,
+        val concurrency: Int = 1,
+        val maxConcurrency: Int = if (ordered) 1 else Runtime.getRuntime().availableProcessors(),
+        val prefetch: Int = 250,
+        val lanes: Int = Runtime.getRuntime().availableProcessors(),
+    )
+
+    data class DeadLetter(
+        val maxAttempts: Int = 3,
+        val backoff: Duration = Duration.ofMillis(200),
+    )
+
+    fun listener(binding: String): Listener = listeners[binding] ?: Listener()
+}
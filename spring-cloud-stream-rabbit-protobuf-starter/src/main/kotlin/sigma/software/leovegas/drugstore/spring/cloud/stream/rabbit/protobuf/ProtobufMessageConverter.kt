@@ -0,0 +1,46 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import com.google.protobuf.MessageLite
+import com.google.protobuf.Parser
+import org.springframework.messaging.Message
+import org.springframework.messaging.MessageHeaders
+import org.springframework.messaging.converter.AbstractMessageConverter
+import org.springframework.util.ConcurrentReferenceHashMap
+import org.springframework.util.MimeType
+
+/**
+ * Converts protobuf messages to and from raw payload bytes.
+ *
+ * A [Parser] is resolved once per message class and parses straight from the payload array,
+ * so no builder is allocated and no reflection happens per message. Like the builder based
+ * conversion it replaces, missing required fields are tolerated (partial parse).
+ */
+class ProtobufMessageConverter(mimeType: MimeType) : AbstractMessageConverter(mimeType) {
+
+    private val parsers = ConcurrentReferenceHashMap<Class<*>, Parser<*>>()
+
+    override fun supports(type: Class<*>): Boolean =
+        com.google.protobuf.Message::class.java.isAssignableFrom(type)
+
+    override fun convertFromInternal(message: Message<*>, type: Class<*>, unused: Any?): Any? =
+        when (val payload = message.payload) {
+            is ByteArray -> try {
+                parserOf(type).parsePartialFrom(payload)
+            } catch (e: Exception) {
+                throw IllegalArgumentException("Cannot parse ${type.name} from message payload", e)
+            }
+            else -> if (type.isInstance(payload)) payload else null
+        }
+
+    override fun convertToInternal(payload: Any, headers: MessageHeaders?, unused: Any?): Any? =
+        (payload as MessageLite).toByteArray()
+
+    private fun parserOf(type: Class<*>): Parser<*> =
+        parsers.computeIfAbsent(type) {
+            try {
+                (it.getMethod("getDefaultInstance").invoke(null) as MessageLite).parserForType
+            } catch (e: Exception) {
+                throw IllegalArgumentException("Cannot resolve com.google.protobuf.Parser for ${it.name}", e)
+            }
+        }
+}
@@ -0,0 +1,22 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import java.time.Duration
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.ConstructorBinding
+
+/**
+ * [OutboxRelay] settings. The outbox needs an `outbox_event` table (`id` auto increment primary key,
+ * `message_id VARCHAR(64)`, `binding VARCHAR(100)`, `payload_type VARCHAR(255)`, `payload BLOB`,
+ * `created_at TIMESTAMP`) and an `outbox_lock` table (`name VARCHAR(64)` primary key, `owner VARCHAR(64)`,
+ * `locked_until TIMESTAMP`) holding an `outbox_relay` row in the service database.
+ *
+ * `lock-lease` has to outlast a relayed batch; a relay that stops renewing it is taken over once it expires.
+ */
+@ConstructorBinding
+@ConfigurationProperties("spring.cloud.stream.rabbit.protobuf.outbox")
+data class ProtobufOutboxProperties(
+    val enabled: Boolean = false,
+    val batchSize: Int = 500,
+    val pollInterval: Duration = Duration.ofMillis(500),
+    val lockLease: Duration = Duration.ofMinutes(1),
+)
@@ -0,0 +1,19 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import java.time.Duration
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.ConstructorBinding
+
+/**
+ * [ProtobufEventPublisher] settings. `confirms` requires `spring.rabbitmq.publisher-confirm-type: correlated`
+ * and `use-confirm-header: true` on the rabbit producer bindings that are published to.
+ */
+@ConstructorBinding
+@ConfigurationProperties("spring.cloud.stream.rabbit.protobuf.publisher")
+data class ProtobufPublisherProperties(
+    val confirms: Boolean = true,
+    val capacity: Int = 10_000,
+    val batchSize: Int = 100,
+    val confirmTimeout: Duration = Duration.ofSeconds(5),
+    val maxAttempts: Int = 3,
+)
@@ -1,22 +1,39 @@
 package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
 
-import java.lang.reflect.Method
-import java.util.Optional
-import org.apache.logging.log4j.kotlin.logger
-import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
-import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.amqp.rabbit.core.RabbitTemplate
+import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer
+import org.springframework.beans.factory.ObjectProvider
+import org.springframework.boot.autoconfigure.AutoConfigureAfter
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration
+import org.springframework.boot.context.properties.EnableConfigurationProperties
+import org.springframework.cloud.stream.binder.rabbit.properties.RabbitExtendedBindingProperties
+import org.springframework.cloud.stream.config.BindingServiceProperties
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer
+import org.springframework.cloud.stream.function.StreamBridge
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
 import org.springframework.messaging.Message
 import org.springframework.messaging.MessageHeaders
-import org.springframework.messaging.converter.AbstractMessageConverter
 import org.springframework.messaging.converter.MessageConverter
+import org.springframework.jdbc.core.JdbcTemplate
 import org.springframework.messaging.support.MessageBuilder
-import org.springframework.util.ConcurrentReferenceHashMap
+import org.springframework.transaction.PlatformTransactionManager
 import org.springframework.util.MimeType
 
 @Configuration
 //@ConditionalOnMissingClass
+@AutoConfigureAfter(JdbcTemplateAutoConfiguration::class)
+@EnableConfigurationProperties(
+    RabbitExtendedBindingProperties::class,
+    ProtobufListenerProperties::class,
+    ProtobufPublisherProperties::class,
+    ProtobufIdempotencyProperties::class,
+    ProtobufOutboxProperties::class,
+)
 class SpringCloudStreamRabbitProtobufAutoConfiguration {
 
     @Bean
@@ -24,65 +41,90 @@ class SpringCloudStreamRabbitProtobufAutoConfiguration {
     fun springCloudStreamRabbitProtobufMessageConverter(): MessageConverter = object : MessageConverter {
         override fun fromMessage(message: Message<*>, targetClass: Class<*>): Any? =
             delegate.fromMessage(message, targetClass)
-                ?.apply { log.info { "Convert spring cloud message into protobuf: $this" } }
 
         override fun toMessage(payload: Any, headers: MessageHeaders?): Message<*>? =
-            Optional
-                .ofNullable(delegate.toMessage(payload, headers))
-                .map {
-                    MessageBuilder
-                        .fromMessage(it)
-                        .setHeader("content_type", protobufContentType)
-                        .setHeader("amqp_contentType", protobufContentType)
-                        .setHeader(protobufClassName, payload::class.java.name)
-                        .build()
-                }
-                .orElse(null)
-                ?.apply { log.info { "Convert protobuf into spring cloud message: $this" } }
+            delegate.toMessage(payload, headers)?.let {
+                MessageBuilder
+                    .fromMessage(it)
+                    .setHeader("content_type", protobufContentType)
+                    .setHeader("amqp_contentType", protobufContentType)
+                    .setHeader(protobufClassName, payload::class.java.name)
+                    .build()
+            }
     }
 
-    companion object {
-        const val protobufClassName = "protobuf_class_name"
-        const val protobufContentType = "application/x-protobuf"
-        val protobufMimeType = MimeType.valueOf(protobufContentType)
+    @Bean
+    fun protobufDeadLetterPublisher(
+        rabbitTemplate: RabbitTemplate,
+        bindingServiceProperties: BindingServiceProperties,
+        rabbitBindingProperties: RabbitExtendedBindingProperties,
+        listenerProperties: ProtobufListenerProperties,
+    ) = ProtobufDeadLetterPublisher(
+        rabbitTemplate, bindingServiceProperties, rabbitBindingProperties, listenerProperties
+    )
 
-        private val log = logger()
-        private val cache = ConcurrentReferenceHashMap<Class<*>, Method>()
+    @Bean
+    fun protobufBatchConsumers(
+        deadLetterPublisher: ProtobufDeadLetterPublisher,
+        properties: ProtobufListenerProperties,
+        meterRegistry: ObjectProvider<MeterRegistry>,
+        processedMessageStore: ObjectProvider<ProcessedMessageStore>,
+        transactionManager: ObjectProvider<PlatformTransactionManager>,
+    ) = ProtobufBatchConsumers(deadLetterPublisher, properties, meterRegistry, processedMessageStore, transactionManager)
 
-        private val delegate =
-            object : AbstractMessageConverter(protobufMimeType) {
-                override fun supports(type: Class<*>): Boolean =
-                    com.google.protobuf.Message::class.java.isAssignableFrom(type)
-                        .apply { log.info { "Delegate supports $type: $this" } }
+    @Bean
+    fun protobufEventPublisher(
+        streamBridge: StreamBridge,
+        properties: ProtobufPublisherProperties,
+        meterRegistry: ObjectProvider<MeterRegistry>,
+    ) = ProtobufEventPublisher(streamBridge, properties, meterRegistry)
 
-                override fun convertFromInternal(message: Message<*>, type: Class<*>, unused: Any?): Any? {
-                    val aTry = runCatching {
-                        val builder = protobufBuilderOf(type)
-                        builder.mergeFrom(message.payload as ByteArray).buildPartial()
-                            .apply { builder.clear() }
-                    }
-                    if (aTry.isFailure) throw IllegalArgumentException(aTry.exceptionOrNull())
-                    return aTry.getOrNull()
-                        ?.apply { log.info { "Delegate converter from internal $this" } }
-                }
+    @Bean
+    fun protobufListenerContainerCustomizer(
+        properties: ProtobufListenerProperties,
+        bindingServiceProperties: BindingServiceProperties,
+        meterRegistry: ObjectProvider<MeterRegistry>,
+    ): ListenerContainerCustomizer<AbstractMessageListenerContainer> =
+        ProtobufListenerContainerCustomizer(properties, bindingServiceProperties, meterRegistry)
 
-                override fun convertToInternal(payload: Any, headers: MessageHeaders?, unused: Any?): Any? =
-                    com.google.protobuf.Message::class.java.cast(payload).toByteArray()
-                        ?.apply { log.info { "Delegate convert into internal $this" } }
-            }
+    @Configuration
+    @ConditionalOnClass(JdbcTemplate::class)
+    @ConditionalOnProperty(
+        prefix = "spring.cloud.stream.rabbit.protobuf.idempotency",
+        name = ["enabled"],
+        matchIfMissing = true
+    )
+    class ProtobufIdempotencyConfiguration {
 
-        private fun protobufBuilderOf(type: Class<*>): com.google.protobuf.Message.Builder = run {
-            val aTry = kotlin.runCatching {
-                val method = cache[type] ?: type.getMethod("newBuilder")
-                cache.putIfAbsent(type, method)
-                method.invoke(type) as com.google.protobuf.Message.Builder
-            }
-            if (aTry.isFailure)
-                throw IllegalArgumentException(
-                    "Cannot initiate com.google.protobuf.Message.Builder from $protobufClassName",
-                    aTry.exceptionOrNull()
-                )
-            aTry.getOrNull() ?: throw IllegalArgumentException("A com.google.protobuf.Message.Builder may not be null")
-        }
+        @Bean
+        @ConditionalOnBean(JdbcTemplate::class)
+        fun processedMessageStore(jdbcTemplate: JdbcTemplate, properties: ProtobufIdempotencyProperties) =
+            ProcessedMessageStore(jdbcTemplate, properties)
+    }
+
+    @Configuration
+    @ConditionalOnClass(JdbcTemplate::class)
+    @ConditionalOnProperty(prefix = "spring.cloud.stream.rabbit.protobuf.outbox", name = ["enabled"])
+    class ProtobufOutboxConfiguration {
+
+        @Bean
+        @ConditionalOnBean(JdbcTemplate::class)
+        fun outboxEventRepository(jdbcTemplate: JdbcTemplate) = OutboxEventRepository(jdbcTemplate)
+
+        @Bean
+        @ConditionalOnBean(JdbcTemplate::class)
+        fun outboxRelay(
+            outboxEventRepository: OutboxEventRepository,
+            eventPublisher: ProtobufEventPublisher,
+            properties: ProtobufOutboxProperties,
+        ) = OutboxRelay(outboxEventRepository, eventPublisher, properties)
+    }
+
+    companion object {
+        const val protobufClassName = "protobuf_class_name"
+        const val protobufContentType = "application/x-protobuf"
+        val protobufMimeType = MimeType.valueOf(protobufContentType)
+
+        private val delegate = ProtobufMessageConverter(protobufMimeType)
     }
 }
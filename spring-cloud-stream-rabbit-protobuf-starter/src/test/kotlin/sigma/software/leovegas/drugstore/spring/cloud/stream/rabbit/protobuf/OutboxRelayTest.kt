@@ -0,0 +1,215 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import io.micrometer.core.instrument.MeterRegistry
+import java.sql.Timestamp
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import org.assertj.core.api.Assertions.assertThat
+import org.hsqldb.jdbc.JDBCDriver
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.amqp.support.AmqpHeaders
+import org.springframework.beans.factory.support.StaticListableBeanFactory
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.datasource.SimpleDriverDataSource
+import org.springframework.messaging.MessageHeaders
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+
+@DisplayName("Outbox relay test")
+class OutboxRelayTest {
+
+    private val binding = "productEventPublisher-out-0"
+
+    private val jdbcTemplate = JdbcTemplate(SimpleDriverDataSource(JDBCDriver(), "jdbc:hsqldb:mem:outbox", "sa", ""))
+
+    private val outboxEventRepository = OutboxEventRepository(jdbcTemplate)
+
+    private val properties = ProtobufOutboxProperties(batchSize = 50, pollInterval = Duration.ofHours(1))
+
+    private val sent = CopyOnWriteArrayList<String>()
+
+    private val sentHeaders = CopyOnWriteArrayList<MessageHeaders>()
+
+    private val relays = CopyOnWriteArrayList<OutboxRelay>()
+
+    private val publisher = publisherOf { true }
+
+    private fun publisherOf(send: (messageId: String) -> Boolean) =
+        ProtobufEventPublisher(
+            { _, message ->
+                val messageId = message.headers[AmqpHeaders.MESSAGE_ID].toString()
+                send(messageId).also {
+                    if (it) {
+                        sent.add(messageId)
+                        sentHeaders.add(message.headers)
+                    }
+                }
+            },
+            ProtobufPublisherProperties(confirms = false, maxAttempts = 1),
+            StaticListableBeanFactory().getBeanProvider(MeterRegistry::class.java),
+        )
+
+    private fun relay(publisher: ProtobufEventPublisher = this.publisher) =
+        OutboxRelay(outboxEventRepository, publisher, properties).also { relays.add(it) }
+
+    private fun save(count: Int, key: (Int) -> String? = { null }) = (1..count).map {
+        OutboxEvent(binding, Proto.ProductNumberList.newBuilder().addProductNumber("$it").build(), key(it))
+            .also(outboxEventRepository::save)
+            .messageId
+    }
+
+    @BeforeEach
+    fun setup() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS outbox_event")
+        jdbcTemplate.execute("DROP TABLE IF EXISTS outbox_lock")
+        jdbcTemplate.execute(
+            "CREATE TABLE outbox_event (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "message_id VARCHAR(64) NOT NULL, binding VARCHAR(100) NOT NULL, " +
+                    "payload_type VARCHAR(255) NOT NULL, payload BLOB NOT NULL, message_key VARCHAR(255), " +
+                    "message_headers BLOB, created_at TIMESTAMP NOT NULL)"
+        )
+        jdbcTemplate.execute(
+            "CREATE TABLE outbox_lock (name VARCHAR(64) PRIMARY KEY, owner VARCHAR(64), " +
+                    "locked_until TIMESTAMP NOT NULL)"
+        )
+        jdbcTemplate.update(
+            "INSERT INTO outbox_lock (name, locked_until) VALUES (?, ?)",
+            OutboxEventRepository.RELAY_LOCK, Timestamp(0)
+        )
+    }
+
+    @AfterEach
+    fun tearDown() {
+        relays.forEach { it.destroy() }
+        publisher.destroy()
+    }
+
+    @Test
+    fun `should relay events in id order and delete them`() {
+
+        // given
+        val messageIds = save(120)
+
+        // when
+        val relayed = relay().relay()
+
+        // then
+        assertThat(relayed).isEqualTo(120)
+        assertThat(sent).containsExactlyElementsOf(messageIds)
+        assertThat(outboxEventRepository.findFirst(10)).isEmpty()
+    }
+
+    @Test
+    fun `should keep events that were not confirmed`() {
+
+        // given
+        val messageIds = save(3)
+        val failing = publisherOf { it != messageIds[1] }
+
+        // when
+        val relayed = relay(failing).relay()
+        failing.destroy()
+
+        // then
+        assertThat(relayed).isEqualTo(2)
+        assertThat(outboxEventRepository.findFirst(10).map { it.messageId }).containsExactly(messageIds[1])
+    }
+
+    @Test
+    fun `should keep the later events of a key whose event was not confirmed`() {
+
+        // given
+        val messageIds = save(4) { if (it % 2 == 1) "odd" else "even" }
+        val failing = publisherOf { it != messageIds[0] }
+
+        // when
+        val relayed = relay(failing).relay()
+        failing.destroy()
+
+        // then
+        assertThat(relayed).isEqualTo(2)
+        assertThat(sent).containsExactly(messageIds[1], messageIds[3])
+        assertThat(outboxEventRepository.findFirst(10).map { it.messageId })
+            .containsExactly(messageIds[0], messageIds[2])
+    }
+
+    @Test
+    fun `should relay event headers with their types`() {
+
+        // given
+        outboxEventRepository.save(
+            OutboxEvent(
+                binding,
+                Proto.ProductNumberList.newBuilder().addProductNumber("1").build(),
+                key = "1",
+                headers = mapOf("create" to true, "number" to "1", "attempt" to 2),
+            )
+        )
+
+        // when
+        relay().relay()
+
+        // then
+        val headers = sentHeaders.single()
+        assertThat(headers["create"]).isEqualTo(true)
+        assertThat(headers["number"]).isEqualTo("1")
+        assertThat(headers["attempt"]).isEqualTo(2.0)
+    }
+
+    @Test
+    fun `should relay every event once when two relays run at once`() {
+
+        // given
+        val messageIds = save(500)
+        val slow = publisherOf { Thread.sleep(1); true }
+        val first = relay(slow)
+        val second = relay(slow)
+        val start = CountDownLatch(1)
+
+        // when
+        val relayed = listOf(first, second)
+            .map { relay -> CompletableFuture.supplyAsync { start.await(); relay.relay() } }
+            .also { start.countDown() }
+            .map { it.join() }
+        slow.destroy()
+
+        // then
+        assertThat(relayed.sum()).isEqualTo(500)
+        assertThat(sent).hasSize(500).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(messageIds)
+        assertThat(outboxEventRepository.findFirst(10)).isEmpty()
+    }
+
+    @Test
+    fun `should not relay while another instance holds the lock`() {
+
+        // given
+        save(1)
+        val held = System.currentTimeMillis() + Duration.ofMinutes(1).toMillis()
+        outboxEventRepository.lock("other", held)
+
+        // when
+        val relayed = relay().relay()
+
+        // then
+        assertThat(relayed).isZero
+        assertThat(sent).isEmpty()
+    }
+
+    @Test
+    fun `should take over a lock whose lease expired`() {
+
+        // given
+        save(1)
+        outboxEventRepository.lock("other", System.currentTimeMillis() - 1)
+
+        // when
+        val relayed = relay().relay()
+
+        // then
+        assertThat(relayed).isEqualTo(1)
+    }
+}
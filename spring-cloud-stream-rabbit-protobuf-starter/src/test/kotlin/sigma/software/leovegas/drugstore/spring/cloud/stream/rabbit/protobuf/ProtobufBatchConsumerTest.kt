@@ -0,0 +1,126 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.mockito.ArgumentCaptor
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.ArgumentMatchers.eq
+import org.mockito.Mockito.doThrow
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import org.springframework.amqp.AmqpConnectException
+import org.springframework.amqp.rabbit.core.RabbitTemplate
+import org.springframework.amqp.support.AmqpHeaders
+import org.springframework.cloud.stream.binder.rabbit.properties.RabbitBindingProperties
+import org.springframework.cloud.stream.binder.rabbit.properties.RabbitExtendedBindingProperties
+import org.springframework.cloud.stream.config.BindingProperties
+import org.springframework.cloud.stream.config.BindingServiceProperties
+import org.springframework.messaging.support.MessageBuilder
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import org.springframework.amqp.core.Message as AmqpMessage
+
+@DisplayName("Protobuf batch consumer test")
+class ProtobufBatchConsumerTest {
+
+    private val binding = "productEventHandler-in-0"
+
+    private val rabbitTemplate: RabbitTemplate = mock(RabbitTemplate::class.java)
+
+    private val consumed = CopyOnWriteArrayList<String>()
+
+    private val deadLetterPublisher = ProtobufDeadLetterPublisher(
+        rabbitTemplate,
+        BindingServiceProperties().apply {
+            bindings = mapOf(binding to BindingProperties().apply { destination = "products"; group = "product" })
+        },
+        RabbitExtendedBindingProperties().apply { bindings = mapOf(binding to RabbitBindingProperties()) },
+        ProtobufListenerProperties(
+            deadLetter = ProtobufListenerProperties.DeadLetter(maxAttempts = 3, backoff = Duration.ofMillis(1))
+        ),
+    )
+
+    private val consumer = ProtobufBatchConsumer<Proto.ProductNumberList>(
+        binding,
+        deadLetterPublisher,
+        batch = { events ->
+            if (events.any { it.productNumberList.contains("bad") }) throw IllegalStateException("bad batch")
+            events.forEach { consumed.addAll(it.productNumberList) }
+        },
+        single = { event ->
+            if (event.productNumberList.contains("bad")) throw IllegalStateException("bad message")
+            consumed.addAll(event.productNumberList)
+        },
+    )
+
+    private fun batchOf(vararg productNumbers: String) =
+        MessageBuilder
+            .withPayload(productNumbers.map { Proto.ProductNumberList.newBuilder().addProductNumber(it).build() })
+            .setHeader("amqp_batchedHeaders", productNumbers.map { mapOf(AmqpHeaders.MESSAGE_ID to "id-$it") })
+            .build()
+
+    @Test
+    fun `should dead letter only the bad message and consume the rest of the batch`() {
+
+        // given
+        val message = ArgumentCaptor.forClass(AmqpMessage::class.java)
+
+        // when
+        consumer.accept(batchOf("1", "bad", "2"))
+
+        // then
+        assertThat(consumed).containsExactly("1", "2")
+        verify(rabbitTemplate, times(1)).send(eq("DLX"), eq("products.product"), message.capture())
+        assertThat(Proto.ProductNumberList.parseFrom(message.value.body).productNumberList).containsExactly("bad")
+        assertThat(message.value.messageProperties.headers["x-exception-message"]).isEqualTo("bad message")
+        assertThat(message.value.messageProperties.messageId).isEqualTo("id-bad")
+    }
+
+    @Test
+    fun `should retry failed dead letter publish`() {
+
+        // given
+        doThrow(AmqpConnectException(RuntimeException("down")))
+            .doNothing()
+            .`when`(rabbitTemplate).send(anyString(), anyString(), any(AmqpMessage::class.java))
+
+        // when
+        consumer.accept(batchOf("1", "bad"))
+
+        // then
+        assertThat(consumed).containsExactly("1")
+        verify(rabbitTemplate, times(2)).send(anyString(), anyString(), any(AmqpMessage::class.java))
+    }
+
+    @Test
+    fun `should reject the batch when dead letter publish keeps failing`() {
+
+        // given
+        doThrow(AmqpConnectException(RuntimeException("down")))
+            .`when`(rabbitTemplate).send(anyString(), anyString(), any(AmqpMessage::class.java))
+
+        // when
+        val exception = assertThrows<ProtobufDeadLetterException> { consumer.accept(batchOf("1", "bad", "2")) }
+
+        // then
+        assertThat(exception).hasMessageContaining(binding)
+        assertThat(consumed).containsExactly("1")
+        verify(rabbitTemplate, times(3)).send(anyString(), anyString(), any(AmqpMessage::class.java))
+    }
+
+    @Test
+    fun `should consume a good batch at once without dead lettering`() {
+
+        // when
+        consumer.accept(batchOf("1", "2", "3"))
+
+        // then
+        assertThat(consumed).containsExactly("1", "2", "3")
+        verify(rabbitTemplate, times(0)).send(anyString(), anyString(), any(AmqpMessage::class.java))
+    }
+}
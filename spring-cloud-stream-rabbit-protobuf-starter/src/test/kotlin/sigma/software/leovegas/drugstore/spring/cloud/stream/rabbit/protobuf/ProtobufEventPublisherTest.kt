@@ -0,0 +1,149 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import io.micrometer.core.instrument.MeterRegistry
+import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.springframework.amqp.rabbit.connection.CorrelationData
+import org.springframework.amqp.support.AmqpHeaders
+import org.springframework.beans.factory.support.StaticListableBeanFactory
+import org.springframework.messaging.Message
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+
+@DisplayName("Protobuf event publisher test")
+class ProtobufEventPublisherTest {
+
+    private val binding = "productEventPublisher-out-0"
+
+    private val sent = CopyOnWriteArrayList<String>()
+
+    private val properties = ProtobufPublisherProperties(
+        capacity = 1,
+        confirmTimeout = Duration.ofMillis(200),
+        maxAttempts = 3,
+    )
+
+    private var publisher: ProtobufEventPublisher? = null
+
+    // the broker answers every send at once, acking what [confirm] accepts for the product number and attempt
+    private fun publisher(
+        properties: ProtobufPublisherProperties = this.properties.copy(capacity = 100),
+        confirm: (productNumber: String, attempt: Int) -> Boolean = { _, _ -> true },
+    ) = ProtobufEventPublisher(
+        { _, message -> answer(message, confirm) },
+        properties,
+        StaticListableBeanFactory().getBeanProvider(MeterRegistry::class.java),
+    ).also { publisher = it }
+
+    private fun answer(message: Message<*>, confirm: (String, Int) -> Boolean): Boolean {
+        val productNumber = (message.payload as Proto.ProductNumberList).getProductNumber(0)
+        sent.add(productNumber)
+        val correlation = message.headers[AmqpHeaders.PUBLISH_CONFIRM_CORRELATION] as CorrelationData
+        val ack = confirm(productNumber, sent.count { it == productNumber })
+        correlation.future.set(CorrelationData.Confirm(ack, if (ack) null else "nacked $productNumber"))
+        return true
+    }
+
+    private fun event(productNumber: String) =
+        Proto.ProductNumberList.newBuilder().addProductNumber(productNumber).build()
+
+    @AfterEach
+    fun tearDown() {
+        publisher?.destroy()
+    }
+
+    @Test
+    fun `should fail a message nacked on every attempt`() {
+
+        // given
+        val publisher = publisher { _, _ -> false }
+
+        // when
+        val result = publisher.publish(binding, event("1"))
+
+        // then
+        val exception = assertThrows<ExecutionException> { result.get(5, TimeUnit.SECONDS) }
+        assertThat(exception.cause).hasMessageContaining("nacked 1")
+        assertThat(sent).containsExactly("1", "1", "1")
+    }
+
+    @Test
+    fun `should retry a nacked message before later messages of its key`() {
+
+        // given
+        val publisher = publisher { productNumber, attempt -> productNumber != "a1" || attempt > 1 }
+
+        // when
+        val results = listOf("a1", "b1", "a2").map { publisher.publish(binding, event(it), it.take(1)) }
+        results.forEach { it.get(5, TimeUnit.SECONDS) }
+
+        // then
+        assertThat(sent.filter { it.startsWith("a") }).containsExactly("a1", "a1", "a2")
+        assertThat(sent.filter { it.startsWith("b") }).containsExactly("b1")
+    }
+
+    @Test
+    fun `should fail later messages of a key whose earlier message failed`() {
+
+        // given
+        val sending = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val publisher = publisher { productNumber, _ ->
+            if (productNumber == "first") {
+                sending.countDown()
+                release.await(5, TimeUnit.SECONDS)
+            }
+            productNumber != "a1"
+        }
+
+        // and the sender is busy, so the next messages are sent in one batch
+        publisher.publish(binding, event("first"))
+        sending.await(5, TimeUnit.SECONDS)
+
+        // when
+        val first = publisher.publish(binding, event("a1"), "a")
+        val second = publisher.publish(binding, event("a2"), "a")
+        release.countDown()
+
+        // then
+        assertThrows<ExecutionException> { first.get(5, TimeUnit.SECONDS) }
+        val exception = assertThrows<ExecutionException> { second.get(5, TimeUnit.SECONDS) }
+        assertThat(exception.cause).hasMessageContaining("earlier message with key a failed")
+        assertThat(sent).doesNotContain("a2")
+    }
+
+    @Test
+    fun `should reject messages when the queue is full`() {
+
+        // given
+        val sending = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val publisher = publisher(properties) { _, _ ->
+            sending.countDown()
+            release.await(5, TimeUnit.SECONDS)
+            true
+        }
+
+        // and the sender holds the first message, the second fills the queue
+        val first = publisher.publish(binding, event("1"))
+        sending.await(5, TimeUnit.SECONDS)
+        val second = publisher.publish(binding, event("2"))
+
+        // when
+        val exception = assertThrows<ProtobufPublisherBackPressureException> { publisher.publish(binding, event("3")) }
+        release.countDown()
+
+        // then
+        assertThat(exception).hasMessageContaining(binding)
+        first.get(5, TimeUnit.SECONDS)
+        second.get(5, TimeUnit.SECONDS)
+        assertThat(sent).containsExactly("1", "2")
+    }
+}
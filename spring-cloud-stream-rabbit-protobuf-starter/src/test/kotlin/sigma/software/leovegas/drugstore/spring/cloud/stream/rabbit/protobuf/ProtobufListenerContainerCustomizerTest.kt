@@ -0,0 +1,100 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import io.micrometer.core.instrument.MeterRegistry
+import java.util.concurrent.ExecutorService
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer
+import org.springframework.beans.factory.support.StaticListableBeanFactory
+import org.springframework.cloud.stream.binder.ConsumerProperties
+import org.springframework.cloud.stream.config.BindingProperties
+import org.springframework.cloud.stream.config.BindingServiceProperties
+import org.springframework.test.util.ReflectionTestUtils
+
+@DisplayName("Protobuf listener container customizer test")
+class ProtobufListenerContainerCustomizerTest {
+
+    private val customizer = ProtobufListenerContainerCustomizer(
+        ProtobufListenerProperties(
+            listeners = mapOf(
+                "productEventHandler-in-0" to ProtobufListenerProperties.Listener(concurrency = 2, prefetch = 10),
+                "orderEventHandler-in-0" to ProtobufListenerProperties.Listener(ordered = true, prefetch = 20),
+            )
+        ),
+        BindingServiceProperties().apply {
+            bindings = mapOf(
+                "productEventHandler-in-0" to BindingProperties().apply { destination = "products"; group = "product" },
+                "orderEventHandler-in-0" to BindingProperties().apply {
+                    destination = "orders"
+                    group = "order"
+                    consumer = ConsumerProperties().apply { isPartitioned = true }
+                },
+                "invoiceEventHandler-in-0" to BindingProperties().apply { destination = "invoices"; group = "invoice" },
+            )
+        },
+        StaticListableBeanFactory().getBeanProvider(MeterRegistry::class.java),
+    )
+
+    private fun SimpleMessageListenerContainer.field(name: String) = ReflectionTestUtils.getField(this, name)
+
+    @Test
+    fun `should tune the container of a listed binding`() {
+
+        // given
+        val container = SimpleMessageListenerContainer()
+
+        // when
+        customizer.configure(container, "products.product", "product")
+
+        // then
+        assertThat(container.field("concurrentConsumers")).isEqualTo(2)
+        assertThat(container.field("prefetchCount")).isEqualTo(10)
+        assertThat(container.field("taskExecutor")).isInstanceOf(ExecutorService::class.java)
+    }
+
+    @Test
+    fun `should tune the partition queue of a listed partitioned binding`() {
+
+        // given
+        val container = SimpleMessageListenerContainer()
+
+        // when
+        customizer.configure(container, "orders.order-2", "order")
+
+        // then
+        assertThat(container.field("concurrentConsumers")).isEqualTo(1)
+        assertThat(container.field("maxConcurrentConsumers")).isEqualTo(1)
+        assertThat(container.field("prefetchCount")).isEqualTo(20)
+    }
+
+    @Test
+    fun `should leave the container of an unlisted binding untouched`() {
+
+        // given
+        val container = SimpleMessageListenerContainer()
+        val taskExecutor = container.field("taskExecutor")
+
+        // when
+        customizer.configure(container, "invoices.invoice", "invoice")
+
+        // then
+        assertThat(container.field("prefetchCount")).isEqualTo(SimpleMessageListenerContainer().field("prefetchCount"))
+        assertThat(container.field("maxConcurrentConsumers")).isNull()
+        assertThat(container.field("taskExecutor")).isSameAs(taskExecutor)
+    }
+
+    @Test
+    fun `should shut down listener executors on destroy`() {
+
+        // given
+        val container = SimpleMessageListenerContainer()
+        customizer.configure(container, "products.product", "product")
+
+        // when
+        customizer.destroy()
+
+        // then
+        assertThat((container.field("taskExecutor") as ExecutorService).isShutdown).isTrue
+    }
+}
@@ -0,0 +1,123 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import java.lang.reflect.Method
+import java.math.BigDecimal
+import java.util.Optional
+import java.util.concurrent.TimeUnit
+import org.apache.logging.log4j.kotlin.logger
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import org.springframework.messaging.Message
+import org.springframework.messaging.MessageHeaders
+import org.springframework.messaging.converter.AbstractMessageConverter
+import org.springframework.messaging.converter.MessageConverter
+import org.springframework.messaging.support.MessageBuilder
+import org.springframework.util.ConcurrentReferenceHashMap
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.api.toDecimalProto
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.SpringCloudStreamRabbitProtobufAutoConfiguration.Companion.protobufClassName
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.SpringCloudStreamRabbitProtobufAutoConfiguration.Companion.protobufContentType
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.SpringCloudStreamRabbitProtobufAutoConfiguration.Companion.protobufMimeType
+
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class ProtobufMessageConverterBenchmark {
+
+    @Param("1", "100")
+    var products: Int = 0
+
+    // the converter bean the binder actually uses, headers included
+    private val converter = SpringCloudStreamRabbitProtobufAutoConfiguration()
+        .springCloudStreamRabbitProtobufMessageConverter()
+    private val previousConverter = PreviousProtobufMessageConverter()
+    private lateinit var message: Message<ByteArray>
+    private lateinit var event: Proto.CreateProductsEvent
+
+    @Setup
+    fun setup() {
+        event = Proto.CreateProductsEvent.newBuilder()
+            .addAllProducts((1..products).map {
+                Proto.ProductDetailsItem.newBuilder()
+                    .setProductNumber("$it")
+                    .setName("test$it")
+                    .setPrice(BigDecimal("20.00").toDecimalProto())
+                    .setQuantity(it)
+                    .build()
+            })
+            .build()
+        message = MessageBuilder.withPayload(event.toByteArray()).build()
+    }
+
+    @Benchmark
+    fun parserFromMessage(): Any? = converter.fromMessage(message, Proto.CreateProductsEvent::class.java)
+
+    @Benchmark
+    fun builderFromMessage(): Any? = previousConverter.fromMessage(message, Proto.CreateProductsEvent::class.java)
+
+    @Benchmark
+    fun parserToMessage(): Any? = converter.toMessage(event, null)
+
+    @Benchmark
+    fun builderToMessage(): Any? = previousConverter.toMessage(event, null)
+}
+
+/**
+ * The converter bean as it was before [ProtobufMessageConverter], kept as the baseline: reflective builder parsing
+ * plus the INFO logging it did for every message and every supports() check.
+ */
+class PreviousProtobufMessageConverter : MessageConverter {
+
+    private val log = logger()
+    private val cache = ConcurrentReferenceHashMap<Class<*>, Method>()
+
+    override fun fromMessage(message: Message<*>, targetClass: Class<*>): Any? =
+        delegate.fromMessage(message, targetClass)
+            ?.apply { log.info { "Convert spring cloud message into protobuf: $this" } }
+
+    override fun toMessage(payload: Any, headers: MessageHeaders?): Message<*>? =
+        Optional
+            .ofNullable(delegate.toMessage(payload, headers))
+            .map {
+                MessageBuilder
+                    .fromMessage(it)
+                    .setHeader("content_type", protobufContentType)
+                    .setHeader("amqp_contentType", protobufContentType)
+                    .setHeader(protobufClassName, payload::class.java.name)
+                    .build()
+            }
+            .orElse(null)
+            ?.apply { log.info { "Convert protobuf into spring cloud message: $this" } }
+
+    private val delegate = object : AbstractMessageConverter(protobufMimeType) {
+
+        override fun supports(type: Class<*>): Boolean =
+            com.google.protobuf.Message::class.java.isAssignableFrom(type)
+                .apply { log.info { "Delegate supports $type: $this" } }
+
+        override fun convertFromInternal(message: Message<*>, type: Class<*>, unused: Any?): Any? {
+            val method = cache[type] ?: type.getMethod("newBuilder")
+            cache.putIfAbsent(type, method)
+            val builder = method.invoke(type) as com.google.protobuf.Message.Builder
+            return builder.mergeFrom(message.payload as ByteArray).buildPartial()
+                .apply { builder.clear() }
+                ?.apply { log.info { "Delegate converter from internal $this" } }
+        }
+
+        override fun convertToInternal(payload: Any, headers: MessageHeaders?, unused: Any?): Any? =
+            com.google.protobuf.Message::class.java.cast(payload).toByteArray()
+                ?.apply { log.info { "Delegate convert into internal $this" } }
+    }
+}
@@ -0,0 +1,102 @@
+package sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf
+
+import java.math.BigDecimal
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.springframework.messaging.support.MessageBuilder
+import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.api.toDecimalProto
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.SpringCloudStreamRabbitProtobufAutoConfiguration.Companion.protobufClassName
+import sigma.software.leovegas.drugstore.spring.cloud.stream.rabbit.protobuf.SpringCloudStreamRabbitProtobufAutoConfiguration.Companion.protobufContentType
+
+@DisplayName("Protobuf message converter test")
+class ProtobufMessageConverterTest {
+
+    private val converter = SpringCloudStreamRabbitProtobufAutoConfiguration()
+        .springCloudStreamRabbitProtobufMessageConverter()
+
+    private val event = Proto.CreateProductsEvent.newBuilder()
+        .addProducts(
+            Proto.ProductDetailsItem.newBuilder()
+                .setProductNumber("1")
+                .setName("test1")
+                .setPrice(BigDecimal("20.00").toDecimalProto())
+                .setQuantity(5)
+        )
+        .build()
+
+    @Test
+    fun `should convert protobuf into message and back`() {
+
+        // when
+        val message = converter.toMessage(event, null)!!
+        val actual = converter.fromMessage(message, Proto.CreateProductsEvent::class.java)
+
+        // then
+        assertThat(message.payload).isEqualTo(event.toByteArray())
+        assertThat(message.headers)
+            .containsEntry("content_type", protobufContentType)
+            .containsEntry("amqp_contentType", protobufContentType)
+            .containsEntry(protobufClassName, Proto.CreateProductsEvent::class.java.name)
+        assertThat(actual).isEqualTo(event)
+    }
+
+    @Test
+    fun `should parse every message type with its own parser`() {
+
+        // given
+        val list = Proto.ProductNumberList.newBuilder().addProductNumber("1").addProductNumber("2").build()
+
+        // when
+        val first = converter.fromMessage(MessageBuilder.withPayload(event.toByteArray()).build(), event.javaClass)
+        val second = converter.fromMessage(MessageBuilder.withPayload(list.toByteArray()).build(), list.javaClass)
+        val again = converter.fromMessage(MessageBuilder.withPayload(event.toByteArray()).build(), event.javaClass)
+
+        // then
+        assertThat(first).isEqualTo(event)
+        assertThat(second).isEqualTo(list)
+        assertThat(again).isEqualTo(event)
+    }
+
+    @Test
+    fun `should pass through payload already of target type`() {
+
+        // when
+        val actual = converter.fromMessage(MessageBuilder.withPayload(event).build(), event.javaClass)
+
+        // then
+        assertThat(actual).isSameAs(event)
+    }
+
+    @Test
+    fun `should not convert unsupported types`() {
+
+        // given
+        val message = MessageBuilder.withPayload(event.toByteArray()).build()
+
+        // when
+        val fromMessage = converter.fromMessage(message, String::class.java)
+        val toMessage = converter.toMessage("not a protobuf", null)
+
+        // then
+        assertThat(fromMessage).isNull()
+        assertThat(toMessage).isNull()
+    }
+
+    @Test
+    fun `should reject payload that is not the target message`() {
+
+        // given
+        val message = MessageBuilder.withPayload(byteArrayOf(0x0A, 0x7F, 0x01)).build()
+
+        // when
+        val exception = assertThrows<IllegalArgumentException> {
+            converter.fromMessage(message, Proto.CreateProductsEvent::class.java)
+        }
+
+        // then
+        assertThat(exception.message).contains(Proto.CreateProductsEvent::class.java.name)
+    }
+}
@@ -3,6 +3,7 @@ package sigma.software.leovegas.drugstore.store.client
 import feign.Headers
 import feign.Param
 import feign.RequestLine
+import sigma.software.leovegas.drugstore.api.KeysetPage
 import sigma.software.leovegas.drugstore.product.api.DeliverProductsQuantityRequest
 import sigma.software.leovegas.drugstore.store.api.TransferCertificateResponse
 
@@ -15,6 +16,12 @@ interface StoreClient {
         @Param("size") size: Int = 5,
     ): List<TransferCertificateResponse>
 
+    @RequestLine("GET /api/v1/store/transfer-certificate/keyset?size={size}&next={next}")
+    fun getTransferCertificatesKeyset(
+        @Param("size") size: Int = 5,
+        @Param("next") next: String? = null,
+    ): KeysetPage<TransferCertificateResponse>
+
     @RequestLine("GET /api/v1/store/transfer-certificate/order/{orderNumber}")
     fun getTransferCertificatesByOrderNumber(@Param orderNumber: String): TransferCertificateResponse
 
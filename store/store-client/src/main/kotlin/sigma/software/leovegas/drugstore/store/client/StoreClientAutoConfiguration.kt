@@ -1,12 +1,21 @@
 package sigma.software.leovegas.drugstore.store.client
 
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
+import feign.Client
 import feign.Feign
 import feign.Logger
+import feign.Request
 import feign.jackson.JacksonDecoder
 import feign.jackson.JacksonEncoder
-import feign.slf4j.Slf4jLogger
+import feign.okhttp.OkHttpClient
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tags
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics
+import java.util.concurrent.TimeUnit
+import okhttp3.ConnectionPool
+import okhttp3.Protocol
 import org.springframework.beans.factory.ObjectFactory
+import org.springframework.beans.factory.ObjectProvider
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass
 import org.springframework.boot.autoconfigure.http.HttpMessageConverters
@@ -17,6 +26,9 @@ import org.springframework.cloud.openfeign.support.SpringEncoder
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
 import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter
+import sigma.software.leovegas.drugstore.api.http.ConnectionLimitingClient
+import sigma.software.leovegas.drugstore.api.tracing.SampledFeignLogger
+import sigma.software.leovegas.drugstore.api.tracing.TracingSettings
 import sigma.software.leovegas.drugstore.store.client.proto.StoreClientProto
 
 @Configuration
@@ -26,22 +38,34 @@ class StoreClientAutoConfiguration(private val messageConverters: ObjectFactory<
 
     @Bean
     @ConditionalOnMissingBean
-    fun storeClient(props: StoreProperties): StoreClient =
+    fun storeClient(
+        props: StoreProperties,
+        storeHttpClient: Client,
+        tracingSettings: TracingSettings,
+    ): StoreClient =
         Feign
             .builder()
-            .logger(Slf4jLogger())
-            .logLevel(Logger.Level.FULL)
+            .client(storeHttpClient)
+            .options(props.requestOptions())
+            .logger(SampledFeignLogger(tracingSettings))
+            .logLevel(Logger.Level.BASIC)
             .encoder(JacksonEncoder(listOf(JavaTimeModule())))
             .decoder(JacksonDecoder(listOf(JavaTimeModule())))
             .target(StoreClient::class.java, "http://${props.host}:${props.port}")
 
     @Bean
     @ConditionalOnMissingBean
-    fun storeClientProto(props: StoreProperties): StoreClientProto =
+    fun storeClientProto(
+        props: StoreProperties,
+        storeHttpClient: Client,
+        tracingSettings: TracingSettings,
+    ): StoreClientProto =
         Feign
             .builder()
-            .logger(Slf4jLogger())
-            .logLevel(Logger.Level.FULL)
+            .client(storeHttpClient)
+            .options(props.requestOptions())
+            .logger(SampledFeignLogger(tracingSettings))
+            .logLevel(Logger.Level.BASIC)
             .encoder(SpringEncoder(messageConverters))
             .decoder(ResponseEntityDecoder(SpringDecoder(this.messageConverters)))
             .target(StoreClientProto::class.java, "http://${props.host}:${props.port}")
@@ -50,4 +74,28 @@ class StoreClientAutoConfiguration(private val messageConverters: ObjectFactory<
     @ConditionalOnMissingBean
     fun storeProtobufHttpMessageConverterStore(): ProtobufHttpMessageConverter =
         ProtobufHttpMessageConverter()
+
+    @Bean
+    @ConditionalOnMissingBean(name = ["storeHttpClient"])
+    fun storeHttpClient(props: StoreProperties, meterRegistry: ObjectProvider<MeterRegistry>): Client {
+        val connectionPool =
+            ConnectionPool(props.maxIdleConnections, props.keepAlive.toMillis(), TimeUnit.MILLISECONDS)
+        meterRegistry.ifAvailable { OkHttpConnectionPoolMetrics(connectionPool, Tags.of("client", "store")).bindTo(it) }
+        val okHttpClient = OkHttpClient(
+            okhttp3.OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .connectTimeout(props.connectTimeout)
+                .readTimeout(props.readTimeout)
+                .protocols(if (props.http2) listOf(Protocol.H2_PRIOR_KNOWLEDGE) else listOf(Protocol.HTTP_1_1))
+                .build()
+        )
+        return ConnectionLimitingClient(okHttpClient, props.maxConnections, props.readTimeout)
+    }
+
+    private fun StoreProperties.requestOptions() =
+        Request.Options(
+            connectTimeout.toMillis(), TimeUnit.MILLISECONDS,
+            readTimeout.toMillis(), TimeUnit.MILLISECONDS,
+            true
+        )
 }
@@ -1,6 +1,7 @@
 package sigma.software.leovegas.drugstore.store
 
 import java.util.Optional
+import org.springframework.data.domain.Pageable
 import org.springframework.data.jpa.repository.JpaRepository
 import org.springframework.stereotype.Repository
 
@@ -11,4 +12,8 @@ interface StoreRepository : JpaRepository<TransferCertificate, Long> {
 
     fun getTransferCertificateByOrderNumber(orderNumber: String): Optional<TransferCertificate>
 
+    fun findAllByOrderByIdAsc(pageable: Pageable): List<TransferCertificate>
+
+    fun findAllByIdGreaterThanOrderByIdAsc(id: Long, pageable: Pageable): List<TransferCertificate>
+
 }
@@ -32,6 +32,13 @@ class StoreResource(private val storeService: StoreService) {
         @RequestParam(defaultValue = "5") size: Int,
     ) = storeService.getTransferCertificates(page, size)
 
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/transfer-certificate/keyset")
+    fun getTransferCertificatesKeyset(
+        @RequestParam(defaultValue = "5") size: Int,
+        @RequestParam(required = false) next: String?,
+    ) = storeService.getTransferCertificatesKeyset(size, next)
+
     @ResponseStatus(HttpStatus.OK)
     @GetMapping("/transfer-certificate/order/{orderNumber}")
     fun getTransferCertificateByOrderNumber(@PathVariable("orderNumber") orderNumber: String) =
@@ -9,8 +9,11 @@ import org.springframework.data.domain.Pageable
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
 import sigma.software.leovegas.drugstore.accountancy.client.proto.AccountancyClientProto
+import sigma.software.leovegas.drugstore.api.KeysetPage
+import sigma.software.leovegas.drugstore.api.keysetToken
 import sigma.software.leovegas.drugstore.api.messageSpliterator
 import sigma.software.leovegas.drugstore.api.protobuf.Proto
+import sigma.software.leovegas.drugstore.api.toKeyset
 import sigma.software.leovegas.drugstore.product.api.DeliverProductsQuantityRequest
 import sigma.software.leovegas.drugstore.product.client.proto.ProductClientProto
 import sigma.software.leovegas.drugstore.store.api.TransferCertificateRequest
@@ -37,24 +40,41 @@ class StoreService @Autowired constructor(
                     comment = comment
                 )
             )
-            logger.info("Transfer Certificate $transferCertificate")
+            logger.debug("Transfer Certificate {}", transferCertificate)
             transferCertificate.toTransferCertificateResponse()
         }
 
     fun getTransferCertificatesByOrderNumber(orderNumber: String) = orderNumber.run {
         val transferCertificate = storeRepository.findAllByOrderNumber(orderNumber)
-        logger.info("Transfer Certificate $transferCertificate")
+        logger.debug("Transfer Certificate {}", transferCertificate)
         transferCertificate.toTransferCertificateResponseList()
     }
 
 
     fun getTransferCertificates(page: Int, size: Int): List<TransferCertificateResponse> {
+        validatePage(page, size)
         val pageable: Pageable = PageRequest.of(page, size)
         val transferCertificateList = storeRepository.findAll(pageable).content
-        logger.info("Transfer Certificate list $transferCertificateList")
+        logger.debug("Transfer Certificate list {}", transferCertificateList)
         return transferCertificateList.toTransferCertificateResponseList()
     }
 
+    fun getTransferCertificatesKeyset(size: Int, next: String?): KeysetPage<TransferCertificateResponse> {
+        validatePageSize(size)
+        val pageable: Pageable = PageRequest.of(0, size + 1)
+        val transferCertificateList = if (next == null) {
+            storeRepository.findAllByOrderByIdAsc(pageable)
+        } else {
+            val (_, id) = runCatching { next.toKeyset() }
+                .getOrElse { throw NotCorrectContinuationTokenException(next) }
+            storeRepository.findAllByIdGreaterThanOrderByIdAsc(id, pageable)
+        }
+        logger.info("Transfer Certificate list ${transferCertificateList.size} after $next")
+        val page = transferCertificateList.take(size)
+        val nextToken = if (transferCertificateList.size > size) page.last().let { keysetToken(it.id!!, it.id) } else null
+        return KeysetPage(page.toTransferCertificateResponseList(), nextToken)
+    }
+
     fun deliverProducts(orderNumber: String): TransferCertificateResponse =
         orderNumber.validate(storeRepository::getTransferCertificateByOrderNumber).run {
 
@@ -64,7 +84,7 @@ class StoreService @Autowired constructor(
                 throw AccountancyServerResponseException(error.localizedMessage.messageSpliterator())
             }
                 .getOrThrow()
-            logger.info("Received invoice details $invoiceDetails")
+            logger.debug("Received invoice details {}", invoiceDetails)
 
             val products = invoiceDetails.itemsList
                 .map { DeliverProductsQuantityRequest(productNumber = it.productNumber, quantity = it.quantity) }
@@ -83,7 +103,7 @@ class StoreService @Autowired constructor(
             val transferCertificate = createTransferCertificate(
                 TransferCertificateRequest(this, TransferStatusDTO.DELIVERED, "products delivered")
             )
-            logger.info("Transfer Certificate $transferCertificate")
+            logger.debug("Transfer Certificate {}", transferCertificate)
             return@run transferCertificate
         }
 
@@ -96,7 +116,7 @@ class StoreService @Autowired constructor(
                 throw AccountancyServerResponseException(error.localizedMessage.messageSpliterator())
             }
                 .getOrThrow()
-            logger.info("Received invoice details ${invoiceDetails.itemsList}")
+            logger.debug("Received invoice details {}", invoiceDetails.itemsList)
 
             runCatching {
                 productClientProto.receiveProducts(
@@ -111,7 +131,7 @@ class StoreService @Autowired constructor(
             val transferCertificate = createTransferCertificate(
                 TransferCertificateRequest(this, TransferStatusDTO.RECEIVED, "products received")
             )
-            logger.info("Transfer Certificate $transferCertificate")
+            logger.debug("Transfer Certificate {}", transferCertificate)
             transferCertificate
         }
 
@@ -122,14 +142,14 @@ class StoreService @Autowired constructor(
         }
             .onFailure { error -> throw ProductServerResponseException(error.localizedMessage.messageSpliterator()) }
             .getOrThrow()
-        logger.info("Received product details ${productsMap.entries}")
+        logger.debug("Received product details {}", productsMap.entries)
 
         forEach {
             if (it.quantity > (productsMap[it.productNumber] ?: -1)) {
                 throw InsufficientAmountOfProductException(it.productNumber, productsMap[it.productNumber] ?: -1)
             }
         }
-        logger.info("Products quantity is sufficient $products")
+        logger.debug("Products quantity is sufficient {}", products)
         return@run products
     }
 
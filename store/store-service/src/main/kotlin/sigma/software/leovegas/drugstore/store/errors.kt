@@ -18,5 +18,10 @@ class ProductServerResponseException(message: String) :
 class NotCorrectQuantityException() :
     StoreServiceException("Quantity in request should be grater than 0.")
 
+class NotCorrectContinuationTokenException(token: String) :
+    StoreServiceException("Continuation token $token is not valid.")
+
+class NotCorrectPageRequestException(message: String) : StoreServiceException(message)
+
 class NotCorrectRequestException() :
     StoreServiceException("Request body is not valid. Please, fulfill all necessary fields.")
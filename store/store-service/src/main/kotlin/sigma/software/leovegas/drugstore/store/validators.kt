@@ -18,3 +18,12 @@ fun TransferCertificateRequest.validate() = apply {
         throw NotCorrectRequestException()
     }
 }
+
+fun validatePage(page: Int, size: Int) {
+    if (page < 0) throw NotCorrectPageRequestException("Page number should not be negative.")
+    validatePageSize(size)
+}
+
+fun validatePageSize(size: Int) {
+    if (size < 1) throw NotCorrectPageRequestException("Page size should be greater than 0.")
+}
@@ -134,6 +134,39 @@ class StoreServiceTest @Autowired constructor(
         assertThat(actual[1].orderNumber).isEqualTo("2")
     }
 
+    @Test
+    fun `should get transfer certificates page by page with continuation token`() {
+
+        // given
+        transactionTemplate.execute {
+            storeRepository.deleteAllInBatch()
+        }
+
+        // and
+        transactionTemplate.execute {
+            storeRepository.saveAll(
+                (1..3).map {
+                    TransferCertificate(
+                        certificateNumber = "$it",
+                        orderNumber = "$it",
+                        status = TransferStatus.RECEIVED,
+                        comment = "RECEIVED"
+                    )
+                }
+            )
+        }
+
+        // when
+        val firstPage = storeService.getTransferCertificatesKeyset(size = 2, next = null)
+        val lastPage = storeService.getTransferCertificatesKeyset(size = 2, next = firstPage.next)
+
+        // then
+        assertThat(firstPage.items.map { it.orderNumber }).containsExactly("1", "2")
+        assertThat(firstPage.next).isNotNull
+        assertThat(lastPage.items.map { it.orderNumber }).containsExactly("3")
+        assertThat(lastPage.next).isNull()
+    }
+
     @Test
     fun `should deliver products`() {
 
@@ -567,4 +600,20 @@ class StoreServiceTest @Autowired constructor(
         }
         assertThat(exception.message).contains("Products from order($orderNumber) already delivered")
     }
+
+    @Test
+    fun `should reject transfer certificate pages that are empty or before the first one`() {
+
+        // when
+        val zeroSize = assertThrows<NotCorrectPageRequestException> {
+            storeService.getTransferCertificatesKeyset(size = 0, next = null)
+        }
+        val negativePage = assertThrows<NotCorrectPageRequestException> {
+            storeService.getTransferCertificates(page = -1, size = 5)
+        }
+
+        // then
+        assertThat(zeroSize.message).isEqualTo("Page size should be greater than 0.")
+        assertThat(negativePage.message).isEqualTo("Page number should not be negative.")
+    }
 }